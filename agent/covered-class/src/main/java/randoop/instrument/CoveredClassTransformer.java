@@ -10,7 +10,6 @@ import javassist.CannotCompileException;
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtConstructor;
-import javassist.CtField;
 import javassist.CtMethod;
 import randoop.main.RandoopBug;
 
@@ -19,9 +18,9 @@ import randoop.main.RandoopBug;
  * covered. Does the following instrumentation of each class:
  *
  * <ol>
- *   <li>Adds a static boolean flag to the class. Initially set to false.
- *   <li>Adds a statement at the beginning of each method and constructor that sets the flag.
- *   <li>Adds a static method that polls and resets the value of the flag.
+ *   <li>Registers the class with {@link CoveredClassRegistry}, which gives it an id.
+ *   <li>Adds a statement at the beginning of each method and constructor that sets the bit for the
+ *       id in the registry.
  * </ol>
  *
  * Avoids instrumenting JDK and JUnit classes and skips interfaces. Otherwise, all other classes are
@@ -110,8 +109,14 @@ public class CoveredClassTransformer implements ClassFileTransformer {
       return null;
     }
 
+    int classId = CoveredClassRegistry.register(cc.getName());
+    if (classId < 0) {
+      cc.detach();
+      return null;
+    }
+
     // OK to transform bytecode
-    modifyClass(cc);
+    modifyClass(cc, classId);
     try {
       bytecode = cc.toBytecode();
     } catch (IOException e) {
@@ -126,28 +131,18 @@ public class CoveredClassTransformer implements ClassFileTransformer {
 
   /**
    * Instruments the bytecode of the given class object to track constructor and method calls for
-   * the class. Modifies each method and constructor to set an inserted private field that keeps
-   * track. Adds a public method {@code boolean randoop_checkAndReset()}
+   * the class. Modifies each method and constructor to set the bit for the class in the {@link
+   * CoveredClassRegistry}.
    *
    * @param cc the {@code javassist.CtClass} object
+   * @param classId the id of the class in the {@link CoveredClassRegistry}
    * @see #transform(ClassLoader, String, Class, ProtectionDomain, byte[])
    */
-  private void modifyClass(CtClass cc) {
-    // add static field
-    String flagFieldName = "randoop_classUsedFlag";
-    try {
-      CtField flagField = new CtField(CtClass.booleanType, flagFieldName, cc);
-      flagField.setModifiers(Modifier.STATIC);
-      cc.addField(flagField, "false");
-    } catch (CannotCompileException e) {
-      throw new Error("error adding instrumentation field: " + e);
-    }
-    String flagFieldAccess = cc.getName() + "#" + flagFieldName;
-
+  private void modifyClass(CtClass cc, int classId) {
     // add code to entry of each method to indicate that called
-    String statementToSetFlag = flagFieldAccess + " = true" + ";";
+    String statementToSetFlag =
+        CoveredClassRegistry.class.getName() + ".markCovered(" + classId + ");";
 
-    // instrument methods *before* adding polling method
     try {
       for (CtMethod m : cc.getDeclaredMethods()) {
         int mods = m.getModifiers();
@@ -167,26 +162,5 @@ public class CoveredClassTransformer implements ClassFileTransformer {
     } catch (CannotCompileException e) {
       throw new Error("error instrumenting constructor: " + e);
     }
-
-    // add static method that polls and resets the covered flag
-    try {
-      String methodName = "randoop_checkAndReset";
-      CtMethod pollMethod = new CtMethod(CtClass.booleanType, methodName, new CtClass[0], cc);
-      pollMethod.setBody(
-          "{"
-              + "boolean state = "
-              + flagFieldAccess
-              + "; "
-              + flagFieldAccess
-              + " = false"
-              + ";"
-              + "return state"
-              + ";"
-              + "}");
-      pollMethod.setModifiers(Modifier.STATIC | Modifier.PUBLIC);
-      cc.addMethod(pollMethod);
-    } catch (CannotCompileException e) {
-      throw new Error("error adding instrumentation method: " + e);
-    }
   }
 }
@@ -9,6 +9,7 @@ import java.nio.file.Path;
 import java.security.ProtectionDomain;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import org.apache.bcel.Const;
@@ -55,9 +56,18 @@ public class CallReplacementTransformer extends InstructionListUtils
   /** Map from a method to its replacement. */
   private final Map<MethodSignature, MethodSignature> replacementMap;
 
+  /**
+   * The classes of the methods in {@link #replacementMap}, in internal form. A class that refers to
+   * none of them has no call to replace.
+   */
+  private final Set<String> replacedClasses = new HashSet<>();
+
   /** The list of package prefixes (package name + ".") to exclude from transformation. */
   private final Set<String> excludedPackagePrefixes;
 
+  /** The cache of transformed classes, or null if transformed classes are not cached. */
+  private final TransformedClassCache cache;
+
   /**
    * Create a {@link CallReplacementTransformer} that transforms method calls in classes other than
    * those named in the given exclusion set.
@@ -65,11 +75,18 @@ public class CallReplacementTransformer extends InstructionListUtils
    * @param replacementMap the hash map with method replacements
    * @param excludedPackagePrefixes the period-terminated prefixes for packages from which classes
    *     should not be transformed
+   * @param cache the cache of transformed classes, or null if transformed classes are not cached
    */
   CallReplacementTransformer(
-      Map<MethodSignature, MethodSignature> replacementMap, Set<String> excludedPackagePrefixes) {
+      Map<MethodSignature, MethodSignature> replacementMap,
+      Set<String> excludedPackagePrefixes,
+      TransformedClassCache cache) {
     this.replacementMap = replacementMap;
+    for (MethodSignature replaced : replacementMap.keySet()) {
+      replacedClasses.add(replaced.getClassname().replace('.', '/'));
+    }
     this.excludedPackagePrefixes = excludedPackagePrefixes;
+    this.cache = cache;
     // debugInstrument.enabled = ReplaceCallAgent.debug;
   }
 
@@ -82,6 +99,9 @@ public class CallReplacementTransformer extends InstructionListUtils
    * <p>Excludes bootloaded classes that are not AWT/Swing classes. Other exclusions are determined
    * by the set of {@link #excludedPackagePrefixes}.
    *
+   * <p>A class whose constant pool refers to none of the {@link #replacedClasses} is not parsed. If
+   * there is a {@link #cache}, a class that is in it is not parsed either.
+   *
    * @see ReplaceCallAgent
    */
   @Override
@@ -112,6 +132,20 @@ public class CallReplacementTransformer extends InstructionListUtils
       return null;
     }
 
+    if (!ConstantPoolScanner.refersToAny(classfileBuffer, replacedClasses)) {
+      debug_transform.log(
+          "transform: ignoring class %s (refers to no replaced class)%n", className);
+      return null;
+    }
+
+    if (cache != null) {
+      byte[] cached = cache.get(classfileBuffer);
+      if (cached != null) {
+        debug_transform.log("transform: using cached result for class %s%n", className);
+        return cached.length == 0 ? null : cached;
+      }
+    }
+
     debug_transform.log("%ntransform class: ENTER %s%n", className);
 
     // Parse the bytes of the classfile
@@ -137,10 +171,17 @@ public class CallReplacementTransformer extends InstructionListUtils
           javaClass.dump(filepath.toFile());
         }
         debug_transform.log("transform class: EXIT %s transformed%n", className);
-        return javaClass.getBytes();
+        byte[] bytecode = javaClass.getBytes();
+        if (cache != null) {
+          cache.put(classfileBuffer, bytecode);
+        }
+        return bytecode;
       } else {
         debug_transform.log(
             "transform class: EXIT %s not transformed (nothing to replace)%n", className);
+        if (cache != null) {
+          cache.put(classfileBuffer, null);
+        }
         return null;
       }
     } catch (
@@ -0,0 +1,139 @@
+package randoop.instrument;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Reads the constant pool of a class file without parsing the rest of it, to find out cheaply
+ * whether the class refers to any of a set of classes. A call in the class can only be replaced if
+ * the class refers to the class of the replaced method, so {@link CallReplacementTransformer} need
+ * not parse a class that refers to none of them.
+ */
+class ConstantPoolScanner {
+
+  private ConstantPoolScanner() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Returns true if the constant pool of the class file contains a class reference to one of the
+   * given classes. Also returns true if the class file cannot be scanned, so that the caller parses
+   * it in full.
+   *
+   * @param classfile the bytes of a class file
+   * @param internalNames class names in internal form, such as {@code java/lang/System}
+   * @return false if the class file refers to none of the classes, true otherwise
+   */
+  static boolean refersToAny(byte[] classfile, Set<String> internalNames) {
+    try {
+      return refersToAnyUnchecked(classfile, internalNames);
+    } catch (IOException | IndexOutOfBoundsException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Returns true if the constant pool of the class file contains a class reference to one of the
+   * given classes, or if it contains an entry whose format is not known.
+   *
+   * @param classfile the bytes of a class file
+   * @param internalNames class names in internal form
+   * @return false if the class file refers to none of the classes, true otherwise
+   * @throws IOException if the class file cannot be read
+   * @throws IndexOutOfBoundsException if the class file is malformed
+   */
+  private static boolean refersToAnyUnchecked(byte[] classfile, Set<String> internalNames)
+      throws IOException {
+    if (u4(classfile, 0) != 0xCAFEBABE) {
+      return true;
+    }
+    int count = u2(classfile, 8);
+    // utf8Offsets[i] is the offset of the length of the i'th entry, if it is a Utf8 entry.
+    int[] utf8Offsets = new int[count];
+    // The indices of the names of the Class entries.
+    int[] classNameIndices = new int[count];
+    int classCount = 0;
+
+    int offset = 10;
+    for (int i = 1; i < count; i++) {
+      int tag = classfile[offset] & 0xFF;
+      offset++;
+      switch (tag) {
+        case 1: // Utf8
+          utf8Offsets[i] = offset;
+          offset += 2 + u2(classfile, offset);
+          break;
+        case 7: // Class
+          classNameIndices[classCount++] = u2(classfile, offset);
+          offset += 2;
+          break;
+        case 8: // String
+        case 16: // MethodType
+        case 19: // Module
+        case 20: // Package
+          offset += 2;
+          break;
+        case 15: // MethodHandle
+          offset += 3;
+          break;
+        case 3: // Integer
+        case 4: // Float
+        case 9: // Fieldref
+        case 10: // Methodref
+        case 11: // InterfaceMethodref
+        case 12: // NameAndType
+        case 17: // Dynamic
+        case 18: // InvokeDynamic
+          offset += 4;
+          break;
+        case 5: // Long
+        case 6: // Double
+          // An 8-byte constant takes up two entries.
+          offset += 8;
+          i++;
+          break;
+        default:
+          return true;
+      }
+    }
+
+    for (int c = 0; c < classCount; c++) {
+      int utf8Offset = utf8Offsets[classNameIndices[c]];
+      if (utf8Offset == 0) {
+        // The name is not a Utf8 entry.
+        return true;
+      }
+      int length = 2 + u2(classfile, utf8Offset);
+      String name =
+          new DataInputStream(new ByteArrayInputStream(classfile, utf8Offset, length)).readUTF();
+      if (internalNames.contains(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the unsigned 2-byte value at the given offset.
+   *
+   * @param bytes the class file
+   * @param offset the offset of the value
+   * @return the value
+   */
+  private static int u2(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+  }
+
+  /**
+   * Returns the 4-byte value at the given offset.
+   *
+   * @param bytes the class file
+   * @param offset the offset of the value
+   * @return the value
+   */
+  private static int u4(byte[] bytes, int offset) {
+    return (u2(bytes, offset) << 16) | u2(bytes, offset + 2);
+  }
+}
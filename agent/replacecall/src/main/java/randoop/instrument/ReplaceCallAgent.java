@@ -73,6 +73,14 @@ public class ReplaceCallAgent {
   @Option("file listing packages whose classes should not be transformed")
   public static Path dont_transform = null;
 
+  /**
+   * The directory where transformed classes are cached, so that later runs with the same
+   * replacements do not transform them again. If null, transformed classes are not cached.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Option("directory where transformed classes are cached")
+  public static Path cache_directory = null;
+
   /**
    * Entry point of the replacecall Java agent. Initializes the {@link CallReplacementTransformer}
    * so that when classes are loaded they are transformed to replace calls to methods as specified
@@ -184,8 +192,10 @@ public class ReplaceCallAgent {
        * file inputs on the command-line. The paths for the files are made absolute and then the
        * argument string is rebuilt.
        */
-      MethodReplacements.setAgentPath(getAgentPath());
-      MethodReplacements.setAgentArgs(createAgentArgs(replacementFilePath, exclusionFilePath));
+      String agentPath = getAgentPath();
+      MethodReplacements.setAgentPath(agentPath);
+      MethodReplacements.setAgentArgs(
+          createAgentArgs(replacementFilePath, exclusionFilePath, cache_directory));
 
       if (debug) {
         if (false) {
@@ -202,9 +212,29 @@ public class ReplaceCallAgent {
           CollectionsPlume.mapList(MethodSignature::toString, replacementMap.keySet());
       MethodReplacements.setReplacedMethods(signatureList);
 
+      // The cached result of transforming a class depends on the replacements and on the agent.
+      TransformedClassCache cache = null;
+      if (cache_directory != null) {
+        List<String> cacheKey = new ArrayList<>();
+        for (Map.Entry<MethodSignature, MethodSignature> entry : replacementMap.entrySet()) {
+          cacheKey.add(entry.getKey() + " " + entry.getValue());
+        }
+        Collections.sort(cacheKey);
+        cacheKey.add(agentPath);
+        cacheKey.add(Files.getLastModifiedTime(Paths.get(agentPath)).toString());
+        String digest = TransformedClassCache.digest(cacheKey);
+        try {
+          cache = new TransformedClassCache(cache_directory, digest);
+        } catch (IOException e) {
+          System.err.format(
+              "Error creating cache directory %s:%n %s%n", cache_directory, e.getMessage());
+          System.exit(1); // Exit on user input error. (Throwing exception would halt JVM.)
+        }
+      }
+
       // Create the transformer and add to the class loader instrumentation
       CallReplacementTransformer transformer =
-          new CallReplacementTransformer(replacementMap, excludedPackagePrefixes);
+          new CallReplacementTransformer(replacementMap, excludedPackagePrefixes, cache);
       transformer.addMapFileShutdownHook();
       instrumentation.addTransformer(transformer);
 
@@ -300,9 +330,11 @@ public class ReplaceCallAgent {
    *
    * @param replacementFilePath the {@code Path} for the replacement file
    * @param exclusionFilePath the {@code Path} for the replacement file
+   * @param cacheDirectoryPath the {@code Path} for the cache directory
    * @return the argument string for the current run using absolute paths
    */
-  private static String createAgentArgs(Path replacementFilePath, Path exclusionFilePath) {
+  private static String createAgentArgs(
+      Path replacementFilePath, Path exclusionFilePath, Path cacheDirectoryPath) {
     StringJoiner result = new StringJoiner(",");
     if (replacementFilePath != null) {
       result.add("--replacement-file=" + replacementFilePath.toAbsolutePath());
@@ -310,6 +342,9 @@ public class ReplaceCallAgent {
     if (exclusionFilePath != null) {
       result.add("--dont-transform=" + exclusionFilePath.toAbsolutePath());
     }
+    if (cacheDirectoryPath != null) {
+      result.add("--cache-directory=" + cacheDirectoryPath.toAbsolutePath());
+    }
     return result.toString();
   }
 
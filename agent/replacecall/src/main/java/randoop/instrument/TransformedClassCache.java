@@ -0,0 +1,137 @@
+package randoop.instrument;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * An on-disk cache of the results of {@link CallReplacementTransformer}, so that a JVM run with the
+ * agent does not transform again the classes that an earlier run transformed. The entry for a class
+ * is keyed by a hash of its bytes and a hash of the replacements, and contains the transformed
+ * bytes, or nothing if the transformer left the class unchanged.
+ *
+ * <p>Several JVMs may use the same cache directory at once: each entry is written to a temporary
+ * file and then moved into place.
+ */
+class TransformedClassCache {
+
+  /** The directory of the entries for the current replacements. */
+  private final Path directory;
+
+  /**
+   * Creates a cache in the given directory.
+   *
+   * @param cacheDirectory the directory of the cache; is created if it does not exist
+   * @param replacementsDigest a hash of the replacements and of the agent, from {@link #digest}
+   * @throws IOException if the directory cannot be created
+   */
+  TransformedClassCache(Path cacheDirectory, String replacementsDigest) throws IOException {
+    this.directory = cacheDirectory.resolve(replacementsDigest);
+    Files.createDirectories(directory);
+  }
+
+  /**
+   * Returns the cached result of transforming a class.
+   *
+   * @param classfile the bytes of the class before transformation
+   * @return the transformed bytes; an empty array if the class is not transformed; or null if the
+   *     class is not in the cache
+   */
+  byte[] get(byte[] classfile) {
+    try {
+      return Files.readAllBytes(entry(classfile));
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      System.out.format("Cannot read replacecall cache entry: %s%n", e);
+      return null;
+    }
+  }
+
+  /**
+   * Records the result of transforming a class.
+   *
+   * @param classfile the bytes of the class before transformation
+   * @param transformed the bytes of the class after transformation, or null if the class is not
+   *     transformed
+   */
+  void put(byte[] classfile, byte[] transformed) {
+    Path entry = entry(classfile);
+    try {
+      Path temp = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+      Files.write(temp, transformed == null ? new byte[0] : transformed);
+      Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      System.out.format("Cannot write replacecall cache entry: %s%n", e);
+    }
+  }
+
+  /**
+   * Returns the file of the cache entry for a class.
+   *
+   * @param classfile the bytes of the class before transformation
+   * @return the file of the cache entry
+   */
+  private Path entry(byte[] classfile) {
+    return directory.resolve(digest(classfile) + ".class");
+  }
+
+  /**
+   * Returns a hexadecimal SHA-256 hash of the given strings.
+   *
+   * @param strings the strings to hash
+   * @return a hash of the strings
+   */
+  static String digest(Iterable<String> strings) {
+    MessageDigest digest = sha256();
+    for (String s : strings) {
+      digest.update(s.getBytes(UTF_8));
+      digest.update((byte) '\n');
+    }
+    return hex(digest.digest());
+  }
+
+  /**
+   * Returns a hexadecimal SHA-256 hash of the given bytes.
+   *
+   * @param bytes the bytes to hash
+   * @return a hash of the bytes
+   */
+  private static String digest(byte[] bytes) {
+    return hex(sha256().digest(bytes));
+  }
+
+  /**
+   * Returns a new SHA-256 message digest.
+   *
+   * @return a new SHA-256 message digest
+   */
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform supports SHA-256.
+      throw new Error(e);
+    }
+  }
+
+  /**
+   * Returns the bytes as a hexadecimal string.
+   *
+   * @param bytes the bytes
+   * @return the bytes in hexadecimal
+   */
+  private static String hex(byte[] bytes) {
+    StringBuilder sb = new StringBuilder(2 * bytes.length);
+    for (byte b : bytes) {
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+}
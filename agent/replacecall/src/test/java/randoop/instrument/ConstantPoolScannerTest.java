@@ -0,0 +1,74 @@
+package randoop.instrument;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Test;
+
+/** Tests for the {@link ConstantPoolScanner}. */
+public class ConstantPoolScannerTest {
+
+  /** Used so that this class refers to {@code java.lang.System}. */
+  private static final long START = System.nanoTime();
+
+  /** Used so that this class has 8-byte constants, which take up two constant pool entries. */
+  private static final double[] CONSTANTS = {START * 1.5, 123456789012345L};
+
+  @Test
+  public void refersToClassTest() throws IOException {
+    byte[] classfile = readClass(ConstantPoolScannerTest.class);
+    assertTrue(
+        ConstantPoolScanner.refersToAny(classfile, Collections.singleton("java/lang/System")));
+    assertTrue(
+        ConstantPoolScanner.refersToAny(
+            classfile, new HashSet<>(Arrays.asList("java/awt/Frame", "org/junit/Assert"))));
+  }
+
+  @Test
+  public void refersToNoClassTest() throws IOException {
+    byte[] classfile = readClass(ConstantPoolScannerTest.class);
+    assertFalse(
+        ConstantPoolScanner.refersToAny(
+            classfile, new HashSet<>(Arrays.asList("java/awt/Frame", "javax/swing/JOptionPane"))));
+    assertFalse(ConstantPoolScanner.refersToAny(classfile, Collections.emptySet()));
+    // A class name in a string constant is not a reference to the class.
+    assertFalse(
+        ConstantPoolScanner.refersToAny(classfile, Collections.singleton("java/awt/Component")));
+  }
+
+  @Test
+  public void malformedClassTest() {
+    assertTrue(
+        ConstantPoolScanner.refersToAny(
+            new byte[] {1, 2, 3}, Collections.singleton("java/lang/System")));
+    assertTrue(
+        ConstantPoolScanner.refersToAny(
+            new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 52, 0, 9},
+            Collections.singleton("java/lang/System")));
+  }
+
+  /**
+   * Returns the bytes of the class file of the given class.
+   *
+   * @param c the class
+   * @return the bytes of the class file
+   * @throws IOException if the class file cannot be read
+   */
+  private static byte[] readClass(Class<?> c) throws IOException {
+    try (InputStream in = c.getResourceAsStream(c.getSimpleName() + ".class")) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int length;
+      while ((length = in.read(buffer)) != -1) {
+        bytes.write(buffer, 0, length);
+      }
+      return bytes.toByteArray();
+    }
+  }
+}
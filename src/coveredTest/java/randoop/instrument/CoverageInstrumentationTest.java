@@ -2,12 +2,10 @@ package randoop.instrument;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import org.junit.Test;
@@ -26,28 +24,6 @@ public class CoverageInstrumentationTest {
       fail("cannot find class: " + e);
     }
 
-    // get instrument field from A
-    Field used = null;
-    try {
-      used = ac.getDeclaredField("randoop_classUsedFlag");
-      used.setAccessible(true);
-    } catch (NoSuchFieldException e2) {
-      fail("didn't find field " + e2);
-    } catch (SecurityException e2) {
-      fail("can't access field " + e2);
-    }
-
-    // get instrument check method for A
-    Method check = null;
-    try {
-      check = ac.getMethod("randoop_checkAndReset", new Class<?>[0]);
-      check.setAccessible(true);
-    } catch (NoSuchMethodException e1) {
-      fail("no such method: " + e1);
-    } catch (SecurityException e1) {
-      fail("security exception " + e1);
-    }
-
     // get class B
     Class<?> bc = null;
     try {
@@ -56,88 +32,32 @@ public class CoverageInstrumentationTest {
       fail("cannot find class: " + e);
     }
 
-    // Let's check instrumentation is working correctly, B has method
-    Method bcheck;
-    try {
-      bcheck = bc.getMethod("randoop_checkAndReset", new Class<?>[0]);
-      assertNotNull(bcheck);
-    } catch (NoSuchMethodException e1) {
-      // passes
-    } catch (SecurityException e1) {
-      fail("security exception " + e1);
-    }
-
-    // get class A
+    // get class C
     try {
       TypeNames.getTypeForName("instrument.testcase.CE");
     } catch (ClassNotFoundException | NoClassDefFoundError e) {
       fail("cannot find class: " + e);
     }
 
-    // Let's check instrumentation is working correctly, C doesn't have method
-    Method ccheck;
-    try {
-      ccheck = bc.getMethod("randoop_checkAndReset", new Class<?>[0]);
-      assertNotNull(ccheck);
-    } catch (NoSuchMethodException e1) {
-      // passes
-    } catch (SecurityException e1) {
-      fail("security exception " + e1);
-    }
-
-    // be sure that instrumentation field in A is false
-    boolean lastUsedValue = true;
-
-    try {
-      lastUsedValue = (boolean) used.get(null);
-      assertFalse(lastUsedValue);
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
-
-    // ask instrumentation method for field value
-    try {
-      assertEquals(
-          "flag should not have changed",
-          lastUsedValue,
-          (boolean) check.invoke(null, new Object[0]));
-    } catch (IllegalAccessException e) {
-      fail("illegal access " + e);
-    } catch (IllegalArgumentException e) {
-      fail("illegal argument " + e);
-    } catch (InvocationTargetException e) {
-      fail("invocation target " + e);
-    }
+    // Let's check instrumentation is working correctly: each class is registered
+    int aid = CoveredClassRegistry.getId("instrument.testcase.AE");
+    assertTrue("AE should be registered", aid >= 0);
+    assertTrue(
+        "BE should be registered", CoveredClassRegistry.getId("instrument.testcase.BE") >= 0);
+    assertTrue(
+        "CE should be registered", CoveredClassRegistry.getId("instrument.testcase.CE") >= 0);
 
-    try {
-      lastUsedValue = (boolean) used.get(null);
-      assertFalse(lastUsedValue);
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
+    // clear anything covered while loading
+    CoveredClassRegistry.takeCovered();
 
-    try {
-      assertFalse((boolean) check.invoke(null, new Object[0]));
-    } catch (IllegalAccessException e) {
-      fail("illegal access " + e);
-    } catch (IllegalArgumentException e) {
-      fail("illegal argument " + e);
-    } catch (InvocationTargetException e) {
-      fail("invocation target " + e);
-    }
+    // be sure that the bit for A is not set
+    boolean lastUsedValue = CoveredClassRegistry.isCovered(aid);
+    assertFalse(lastUsedValue);
 
-    try {
-      lastUsedValue = (boolean) used.get(null);
-      assertFalse(lastUsedValue);
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
+    // ask registry for the bit
+    assertEquals(
+        "flag should not have changed", lastUsedValue, CoveredClassRegistry.takeCovered().get(aid));
+    assertFalse(CoveredClassRegistry.isCovered(aid));
 
     // Make an AE(BE) constructor to check direct manipulation of flag
     Constructor<?> acon = null;
@@ -160,13 +80,8 @@ public class CoverageInstrumentationTest {
       fail("security exception for BE(int) " + e);
     }
 
-    try {
-      assertEquals("field should not have changed", lastUsedValue, (boolean) used.get(null));
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
+    assertEquals(
+        "flag should not have changed", lastUsedValue, CoveredClassRegistry.isCovered(aid));
 
     Object[] args = new Object[1];
     args[0] = Integer.valueOf(1);
@@ -184,33 +99,9 @@ public class CoverageInstrumentationTest {
     }
 
     // should be true since B constructor uses A constructor
-    try {
-      lastUsedValue = (boolean) used.get(null);
-      assertTrue(lastUsedValue);
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
-
-    try {
-      assertTrue((boolean) check.invoke(null, new Object[0]));
-    } catch (IllegalAccessException e) {
-      fail("illegal access " + e);
-    } catch (IllegalArgumentException e) {
-      fail("illegal argument " + e);
-    } catch (InvocationTargetException e) {
-      fail("invocation target " + e);
-    }
-
-    try {
-      lastUsedValue = (boolean) used.get(null);
-      assertFalse(lastUsedValue);
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
+    assertTrue(CoveredClassRegistry.isCovered(aid));
+    assertTrue(CoveredClassRegistry.takeCovered().get(aid));
+    assertFalse(CoveredClassRegistry.isCovered(aid));
 
     try {
       acon.newInstance(bobj);
@@ -224,32 +115,9 @@ public class CoverageInstrumentationTest {
       fail("bad invocation target " + e);
     }
 
-    try {
-      assertTrue((boolean) used.get(null));
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
-
-    try {
-      assertTrue((boolean) check.invoke(null, new Object[0]));
-    } catch (IllegalAccessException e) {
-      fail("illegal access " + e);
-    } catch (IllegalArgumentException e) {
-      fail("illegal argument " + e);
-    } catch (InvocationTargetException e) {
-      fail("invocation target " + e);
-    }
-
-    try {
-      lastUsedValue = (boolean) used.get(null);
-      assertFalse(lastUsedValue);
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
+    assertTrue(CoveredClassRegistry.isCovered(aid));
+    assertTrue(CoveredClassRegistry.takeCovered().get(aid));
+    assertFalse(CoveredClassRegistry.isCovered(aid));
 
     Method jump = null;
     try {
@@ -260,14 +128,6 @@ public class CoverageInstrumentationTest {
       fail("cannot access method" + e);
     }
 
-    try {
-      assertEquals("field should not have changed", lastUsedValue, (boolean) used.get(null));
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
-
     try {
       jump.invoke(bobj, new Object[0]);
     } catch (IllegalAccessException e) {
@@ -278,12 +138,7 @@ public class CoverageInstrumentationTest {
       fail("bad invocation " + e);
     }
 
-    try {
-      assertTrue((boolean) used.get(null));
-    } catch (IllegalArgumentException e2) {
-      fail("bad field access" + e2);
-    } catch (IllegalAccessException e2) {
-      fail("can't access field " + e2);
-    }
+    // BE.jumpValue calls AE.getValue
+    assertTrue(CoveredClassRegistry.isCovered(aid));
   }
 }
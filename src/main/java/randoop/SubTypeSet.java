@@ -1,8 +1,20 @@
 package randoop;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import randoop.types.ClassOrInterfaceType;
+import randoop.types.PrimitiveType;
+import randoop.types.PrimitiveTypes;
 import randoop.types.Type;
 import randoop.util.CheckpointingMultiMap;
 import randoop.util.CheckpointingSet;
@@ -12,6 +24,15 @@ import randoop.util.MultiMap;
 /**
  * A set of classes. This data structure additionally allows for efficient answers to queries about
  * can-be-used-as relationships.
+ *
+ * <p>Members and queries are indexed by run-time class. A class or interface type, a primitive
+ * type, or a boxed primitive type is indexed under every class that it may be converted to by
+ * widening or boxing: its superclasses and superinterfaces, and the primitive types. A query of
+ * such a type only needs to test the members indexed under its run-time class, and a new member
+ * only needs to be tested against the queries indexed under one of its keys. Other types, such as
+ * arrays and type variables, are not indexed, and are tested against every query or member. Every
+ * candidate is checked with {@link Type#isAssignableFrom}, so the index never changes the answer
+ * to a query, only how many types are examined to compute it.
  */
 public class SubTypeSet {
 
@@ -24,18 +45,86 @@ public class SubTypeSet {
    */
   private IMultiMap<Type, Type> subTypes;
 
+  /** The types passed to {@link #getMatches}; that is, the keys of {@link #subTypes}. */
+  private Set<Type> queryTypes;
+
+  /** Maps a class to the indexed members that may be converted to it. */
+  private IMultiMap<Class<?>, Type> membersByKey;
+
+  /** The members that are not indexed, and so are candidates for every query. */
+  private Set<Type> unindexedMembers;
+
+  /** Maps a class to the indexed query types whose run-time class it is. */
+  private IMultiMap<Class<?>, Type> queriesByClass;
+
+  /** The query types that are not indexed, and so are candidates for every member. */
+  private Set<Type> unindexedQueries;
+
+  /**
+   * The order in which members were added. Matches are reported in this order. Entries for members
+   * removed by {@link #undoLastStep()} are stale but harmless.
+   */
+  private final Map<Type, Long> memberOrder = new HashMap<>();
+
+  /** The position of the next member in {@link #memberOrder}. */
+  private long nextMemberOrder = 0;
+
   /** If true, then {@link #mark} and {@link #undoLastStep()} are supported. */
   private boolean supportsCheckpoints;
 
+  /** The primitive types, other than void. */
+  private static final List<Class<?>> PRIMITIVE_CLASSES =
+      Arrays.asList(
+          boolean.class,
+          byte.class,
+          char.class,
+          double.class,
+          float.class,
+          int.class,
+          long.class,
+          short.class);
+
+  /** Memoizes the superclasses and superinterfaces of each class, including itself and Object. */
+  private static final ClassValue<Set<Class<?>>> supertypeClosure =
+      new ClassValue<Set<Class<?>>>() {
+        @Override
+        protected Set<Class<?>> computeValue(Class<?> c) {
+          Set<Class<?>> result = new LinkedHashSet<>();
+          result.add(Object.class);
+          Deque<Class<?>> worklist = new ArrayDeque<>();
+          worklist.add(c);
+          while (!worklist.isEmpty()) {
+            Class<?> next = worklist.remove();
+            if (result.add(next)) {
+              if (next.getSuperclass() != null) {
+                worklist.add(next.getSuperclass());
+              }
+              worklist.addAll(Arrays.asList(next.getInterfaces()));
+            }
+          }
+          return Collections.unmodifiableSet(result);
+        }
+      };
+
   public SubTypeSet(boolean supportsCheckpoints) {
     if (supportsCheckpoints) {
       this.supportsCheckpoints = true;
       this.subTypes = new CheckpointingMultiMap<>();
       this.types = new CheckpointingSet<>();
+      this.queryTypes = new CheckpointingSet<>();
+      this.membersByKey = new CheckpointingMultiMap<>();
+      this.unindexedMembers = new CheckpointingSet<>();
+      this.queriesByClass = new CheckpointingMultiMap<>();
+      this.unindexedQueries = new CheckpointingSet<>();
     } else {
       this.supportsCheckpoints = false;
       this.subTypes = new MultiMap<>();
       this.types = new LinkedHashSet<>();
+      this.queryTypes = new LinkedHashSet<>();
+      this.membersByKey = new MultiMap<>();
+      this.unindexedMembers = new LinkedHashSet<>();
+      this.queriesByClass = new MultiMap<>();
+      this.unindexedQueries = new LinkedHashSet<>();
     }
   }
 
@@ -46,6 +135,11 @@ public class SubTypeSet {
     }
     ((CheckpointingMultiMap<Type, Type>) subTypes).mark();
     ((CheckpointingSet<Type>) types).mark();
+    ((CheckpointingSet<Type>) queryTypes).mark();
+    ((CheckpointingMultiMap<Class<?>, Type>) membersByKey).mark();
+    ((CheckpointingSet<Type>) unindexedMembers).mark();
+    ((CheckpointingMultiMap<Class<?>, Type>) queriesByClass).mark();
+    ((CheckpointingSet<Type>) unindexedQueries).mark();
   }
 
   /** Undo changes since the last call to {@link #mark()}. */
@@ -55,6 +149,11 @@ public class SubTypeSet {
     }
     ((CheckpointingMultiMap<Type, Type>) subTypes).undoToLastMark();
     ((CheckpointingSet<Type>) types).undoToLastMark();
+    ((CheckpointingSet<Type>) queryTypes).undoToLastMark();
+    ((CheckpointingMultiMap<Class<?>, Type>) membersByKey).undoToLastMark();
+    ((CheckpointingSet<Type>) unindexedMembers).undoToLastMark();
+    ((CheckpointingMultiMap<Class<?>, Type>) queriesByClass).undoToLastMark();
+    ((CheckpointingSet<Type>) unindexedQueries).undoToLastMark();
   }
 
   /**
@@ -68,9 +167,24 @@ public class SubTypeSet {
       return;
     }
     types.add(c);
+    memberOrder.put(c, nextMemberOrder++);
+
+    // Find the existing queries that c might match.
+    Collection<Type> candidateQueries;
+    Set<Class<?>> keys = indexKeys(c);
+    if (keys == null) {
+      unindexedMembers.add(c);
+      candidateQueries = queryTypes;
+    } else {
+      candidateQueries = new ArrayList<>(unindexedQueries);
+      for (Class<?> key : keys) {
+        membersByKey.add(key, c);
+        candidateQueries.addAll(queriesByClass.getValues(key));
+      }
+    }
 
     // Update existing entries.
-    for (Type cls : subTypes.keySet()) {
+    for (Type cls : candidateQueries) {
       if (cls.isAssignableFrom(c)) {
         if (!subTypes.getValues(cls).contains(c)) {
           subTypes.add(cls, c);
@@ -81,20 +195,81 @@ public class SubTypeSet {
 
   private void addQueryType(Type type) {
     if (type == null) throw new IllegalArgumentException("c cannot be null.");
-    Set<Type> keySet = subTypes.keySet();
-    if (keySet.contains(type)) {
+    if (queryTypes.contains(type)) {
       return;
     }
+    queryTypes.add(type);
 
-    Set<Type> compatibleTypes = new LinkedHashSet<>();
-    for (Type t : types) {
+    // Find the members that might match the query, in the order they were added.
+    Collection<Type> candidates;
+    Class<?> key = queryKey(type);
+    if (key == null) {
+      unindexedQueries.add(type);
+      candidates = types;
+    } else {
+      queriesByClass.add(key, type);
+      Set<Type> indexed = membersByKey.getValues(key);
+      if (unindexedMembers.isEmpty()) {
+        candidates = indexed;
+      } else {
+        List<Type> merged = new ArrayList<>(indexed.size() + unindexedMembers.size());
+        merged.addAll(indexed);
+        merged.addAll(unindexedMembers);
+        merged.sort(Comparator.comparing(memberOrder::get));
+        candidates = merged;
+      }
+    }
+
+    for (Type t : candidates) {
       if (type.isAssignableFrom(t)) {
-        compatibleTypes.add(t);
+        subTypes.add(type, t);
+      }
+    }
+  }
+
+  /**
+   * Returns the classes under which a member is indexed: every class that the member can be
+   * converted to, or null if the member is not indexed.
+   *
+   * @param type a member of this set
+   * @return the index keys for the member, or null if it is not indexed
+   */
+  private static Set<Class<?>> indexKeys(Type type) {
+    Class<?> c = type.getRuntimeClass();
+    if (type instanceof PrimitiveType) {
+      Class<?> boxed = PrimitiveTypes.toBoxedType(c);
+      if (boxed == null) {
+        return null;
       }
+      Set<Class<?>> keys = new LinkedHashSet<>(supertypeClosure.get(boxed));
+      keys.addAll(PRIMITIVE_CLASSES);
+      return keys;
+    }
+    if (type instanceof ClassOrInterfaceType) {
+      if (PrimitiveTypes.toUnboxedType(c) == null) {
+        return supertypeClosure.get(c);
+      }
+      Set<Class<?>> keys = new LinkedHashSet<>(supertypeClosure.get(c));
+      keys.addAll(PRIMITIVE_CLASSES);
+      return keys;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the class under which a query type is indexed, or null if it is not indexed.
+   *
+   * @param type a query type
+   * @return the index key for the query type, or null if it is not indexed
+   */
+  private static Class<?> queryKey(Type type) {
+    if (type instanceof ClassOrInterfaceType) {
+      return type.getRuntimeClass();
     }
-    for (Type cls : compatibleTypes) {
-      subTypes.add(type, cls);
+    if (type instanceof PrimitiveType && PRIMITIVE_CLASSES.contains(type.getRuntimeClass())) {
+      return type.getRuntimeClass();
     }
+    return null;
   }
 
   // TODO: I think that the set does not contain {@code c} itself.  Check and document.
@@ -106,7 +281,7 @@ public class SubTypeSet {
    * @return the set of types that can be used in place of the query type
    */
   public Set<Type> getMatches(Type type) {
-    if (!subTypes.keySet().contains(type)) {
+    if (!queryTypes.contains(type)) {
       addQueryType(type);
     }
     return Collections.unmodifiableSet(subTypes.getValues(type));
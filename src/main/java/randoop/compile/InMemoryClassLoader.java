@@ -0,0 +1,31 @@
+package randoop.compile;
+
+import java.util.Map;
+import org.checkerframework.checker.signature.qual.BinaryName;
+
+/** A class loader that defines classes from bytecode in memory. */
+class InMemoryClassLoader extends ClassLoader {
+
+  /** The bytecode of the classes that this loader defines, indexed by binary class name. */
+  private final Map<String, byte[]> classFiles;
+
+  /**
+   * Creates a class loader for the given classes. Other classes are loaded by the system class
+   * loader.
+   *
+   * @param classFiles a map from binary class name to the bytecode of the class
+   */
+  InMemoryClassLoader(Map<String, byte[]> classFiles) {
+    super(ClassLoader.getSystemClassLoader());
+    this.classFiles = classFiles;
+  }
+
+  @Override
+  protected Class<?> findClass(@BinaryName String name) throws ClassNotFoundException {
+    byte[] bytecode = classFiles.get(name);
+    if (bytecode == null) {
+      throw new ClassNotFoundException(name);
+    }
+    return defineClass(name, bytecode, 0, bytecode.length);
+  }
+}
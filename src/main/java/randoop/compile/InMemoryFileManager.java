@@ -0,0 +1,151 @@
+package randoop.compile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+/**
+ * A {@code JavaFileManager} that keeps the class files output by the compiler in memory, rather
+ * than writing them to disk. Reading is delegated to a standard file manager.
+ *
+ * <p>The compiler lists the contents of each package on the class path that a compilation refers
+ * to. The class path does not change during a Randoop run, so this file manager caches the
+ * listings and reuses them in later compilations, instead of scanning the same directories and
+ * archives again.
+ */
+class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+  /**
+   * The class files written since the last call to {@link #takeClassFiles}, indexed by binary
+   * class name.
+   */
+  private final Map<String, SequenceJavaFileObject> classFiles = new HashMap<>();
+
+  /** The cached listings of class path packages. */
+  private final Map<ListingKey, List<JavaFileObject>> classPathListings =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Creates a file manager that keeps output in memory and reads input through the given file
+   * manager.
+   *
+   * @param fileManager the file manager for input files
+   */
+  InMemoryFileManager(StandardJavaFileManager fileManager) {
+    super(fileManager);
+  }
+
+  @Override
+  public JavaFileObject getJavaFileForOutput(
+      JavaFileManager.Location location,
+      String className,
+      JavaFileObject.Kind kind,
+      FileObject sibling)
+      throws IOException {
+    if (kind != JavaFileObject.Kind.CLASS) {
+      return super.getJavaFileForOutput(location, className, kind, sibling);
+    }
+    SequenceJavaFileObject classFile =
+        new SequenceJavaFileObject(className.replace('.', '/') + kind.extension, kind);
+    synchronized (classFiles) {
+      classFiles.put(className, classFile);
+    }
+    return classFile;
+  }
+
+  @Override
+  public Iterable<JavaFileObject> list(
+      JavaFileManager.Location location,
+      String packageName,
+      Set<JavaFileObject.Kind> kinds,
+      boolean recurse)
+      throws IOException {
+    if (location != StandardLocation.CLASS_PATH) {
+      return super.list(location, packageName, kinds, recurse);
+    }
+    ListingKey key = new ListingKey(packageName, kinds, recurse);
+    List<JavaFileObject> listing = classPathListings.get(key);
+    if (listing == null) {
+      listing = new ArrayList<>();
+      for (JavaFileObject file : super.list(location, packageName, kinds, recurse)) {
+        listing.add(file);
+      }
+      classPathListings.put(key, listing);
+    }
+    return listing;
+  }
+
+  /**
+   * Returns the bytecode of the classes written since the last call to this method, and forgets
+   * them.
+   *
+   * @return a map from binary class name to the bytecode of the class
+   */
+  Map<String, byte[]> takeClassFiles() {
+    Map<String, byte[]> result = new HashMap<>();
+    synchronized (classFiles) {
+      for (Map.Entry<String, SequenceJavaFileObject> entry : classFiles.entrySet()) {
+        result.put(entry.getKey(), entry.getValue().getByteCode());
+      }
+      classFiles.clear();
+    }
+    return result;
+  }
+
+  /** A request to list a class path package. */
+  private static final class ListingKey {
+
+    /** The package name. */
+    private final String packageName;
+
+    /** The kinds of files to list. */
+    private final Set<JavaFileObject.Kind> kinds;
+
+    /** Whether to list subpackages. */
+    private final boolean recurse;
+
+    /**
+     * Creates a key for a listing request.
+     *
+     * @param packageName the package name
+     * @param kinds the kinds of files to list
+     * @param recurse whether to list subpackages
+     */
+    ListingKey(String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse) {
+      this.packageName = packageName;
+      this.kinds = new HashSet<>(kinds);
+      this.recurse = recurse;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof ListingKey)) {
+        return false;
+      }
+      ListingKey key = (ListingKey) other;
+      return packageName.equals(key.packageName)
+          && kinds.equals(key.kinds)
+          && recurse == key.recurse;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(packageName, kinds, recurse);
+    }
+  }
+}
@@ -1,26 +1,20 @@
 package randoop.compile;
 
 import java.io.Closeable;
-import java.io.File;
 import java.io.IOException;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.nio.file.Files;
-import java.nio.file.NoSuchFileException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
-import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.ToolProvider;
 import org.checkerframework.checker.calledmethods.qual.EnsuresCalledMethods;
 import org.checkerframework.checker.mustcall.qual.MustCall;
 import org.checkerframework.checker.mustcall.qual.Owning;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.BinaryName;
 import org.checkerframework.checker.signature.qual.BinaryNameWithoutPackage;
 import org.checkerframework.checker.signature.qual.DotSeparatedIdentifiers;
@@ -33,6 +27,10 @@ import randoop.util.Log;
 /**
  * Compiles a Java class given as a {@code String}.
  *
+ * <p>Compilation happens entirely in memory: the source is not written to disk, and neither is the
+ * bytecode. Instances are safe to use from multiple threads, though they compile one class at a
+ * time.
+ *
  * <p>A simplified version of the {@code javaxtools.compiler.CharSequenceCompiler} from <a
  * href="http://web.archive.org/web/20170202133304/https://www.ibm.com/developerworks/library/j-jcomp/index.html">Create
  * dynamic applications with javax.tools</a>.
@@ -51,8 +49,8 @@ import randoop.util.Log;
   /** The Java compiler. */
   private final JavaCompiler compiler;
 
-  /** The {@code FileManager} for this compiler. */
-  private final @Owning JavaFileManager fileManager;
+  /** The {@code FileManager} for this compiler, which keeps class files in memory. */
+  private final @Owning InMemoryFileManager fileManager;
 
   /** Creates a {@link SequenceCompiler}. */
   public SequenceCompiler() {
@@ -65,11 +63,9 @@ import randoop.util.Log;
    * @param compilerOptions the compiler options
    */
   public SequenceCompiler(List<String> compilerOptions) {
-    this.compilerOptions = new ArrayList<>(compilerOptions.size() + 3);
+    this.compilerOptions = new ArrayList<>(compilerOptions.size() + 1);
     this.compilerOptions.addAll(compilerOptions);
     this.compilerOptions.add("-XDuseUnsharedTable");
-    this.compilerOptions.add("-d");
-    this.compilerOptions.add(".");
     this.compiler = ToolProvider.getSystemJavaCompiler();
 
     if (this.compiler == null) {
@@ -81,7 +77,7 @@ import randoop.util.Log;
               + ReflectionPlume.classpathToString());
     }
 
-    this.fileManager = compiler.getStandardFileManager(null, null, null);
+    this.fileManager = new InMemoryFileManager(compiler.getStandardFileManager(null, null, null));
   }
 
   /** Releases any system resources associated with this. */
@@ -102,18 +98,7 @@ import randoop.util.Log;
   public boolean isCompilable(
       final String packageName, final String classname, final String javaSource) {
     DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
-    boolean result = compile(packageName, classname, javaSource, diagnostics);
-
-    // Compilation can create multiple .class files; this only deletes the main one.
-    Path dir = Paths.get((packageName == null) ? "." : packageName.replace(".", "/"));
-    try {
-      Files.delete(dir.resolve(classname + ".class"));
-    } catch (NoSuchFileException e) {
-      // Nothing to do, but I wonder why the file doesn't exist.
-    } catch (IOException e) {
-      System.out.printf(
-          "Unable to delete %s: %s%n", dir.resolve(classname + ".class").toAbsolutePath(), e);
-    }
+    boolean result = compile(packageName, classname, javaSource, diagnostics) != null;
 
     if (!result
         && debugCompilationFailure != null
@@ -129,23 +114,52 @@ import randoop.util.Log;
     return result;
   }
 
+  /**
+   * Compiles the given class and returns the errors reported by the compiler. Use this instead of
+   * {@link #isCompilable} to determine which parts of the source are not compilable.
+   *
+   * @param packageName the package name for the class, null if default package
+   * @param classname the simple name of the class
+   * @param javaSource the source text of the class
+   * @return the error diagnostics, which are empty if the class source was successfully compiled
+   */
+  public List<Diagnostic<? extends JavaFileObject>> getCompilationErrors(
+      final String packageName, final String classname, final String javaSource) {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    boolean result = compile(packageName, classname, javaSource, diagnostics) != null;
+
+    List<Diagnostic<? extends JavaFileObject>> errors = new ArrayList<>();
+    for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+      if (d.getKind() == Diagnostic.Kind.ERROR) {
+        errors.add(d);
+      }
+    }
+    if (!result && errors.isEmpty()) {
+      throw new RandoopBug("Compilation of " + classname + " failed without an error diagnostic");
+    }
+    return errors;
+  }
+
   /**
    * Compiles the given class. If this method returns normally, compilation was successful.
    *
    * @param packageName the package of the class, null if default package
    * @param classname the simple name of the class
    * @param javaSource the source text of the class
+   * @return a map from binary class name to bytecode for the classes that compilation created
    * @throws SequenceCompilerException if the compilation fails
    */
-  private void compile(final String packageName, final String classname, final String javaSource)
+  private Map<String, byte[]> compile(
+      final String packageName, final String classname, final String javaSource)
       throws SequenceCompilerException {
 
     DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
 
-    boolean success = compile(packageName, classname, javaSource, diagnostics);
-    if (!success) {
+    Map<String, byte[]> classFiles = compile(packageName, classname, javaSource, diagnostics);
+    if (classFiles == null) {
       throw new SequenceCompilerException("Compilation failed", javaSource, diagnostics);
     }
+    return classFiles;
   }
 
   /**
@@ -158,10 +172,11 @@ import randoop.util.Log;
    * @param javaSource the source text of the class
    * @param diagnostics the {@code DiagnosticsCollector} object to use for the compilation. Always
    *     use a new diagnostics collector each compilation to avoid accumulating errors.
-   * @return true if the class source is successfully compiled, false otherwise
+   * @return a map from binary class name to bytecode for the classes that compilation created, or
+   *     null if compilation failed
    */
   @SuppressWarnings("UnusedVariable") // TODO: remove packageName formal parameter
-  private boolean compile(
+  private synchronized @Nullable Map<String, byte[]> compile(
       final String packageName,
       final String classname,
       final String javaSource,
@@ -174,6 +189,8 @@ import randoop.util.Log;
         compiler.getTask(
             null, fileManager, diagnostics, new ArrayList<String>(compilerOptions), null, sources);
     Boolean succeeded = task.call();
+    // Always take the class files, so that they do not accumulate.
+    Map<String, byte[]> classFiles = fileManager.takeClassFiles();
 
     // Write the diagnostics to log if compilation failed
     for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
@@ -197,7 +214,7 @@ import randoop.util.Log;
       }
     }
 
-    return (succeeded != null && succeeded);
+    return (succeeded != null && succeeded) ? classFiles : null;
   }
 
   /**
@@ -215,25 +232,40 @@ import randoop.util.Log;
       final @BinaryNameWithoutPackage String classname,
       final String javaSource)
       throws SequenceCompilerException {
-    compile(packageName, classname, javaSource);
-    String fqName = fullyQualifiedName(packageName, classname);
-    File dir = new File("").getAbsoluteFile();
-    return loadClassFile(dir, fqName);
+    Map<String, byte[]> classFiles = compile(packageName, classname, javaSource);
+    return loadClass(classFiles, fullyQualifiedName(packageName, classname));
+  }
+
+  /**
+   * Compiles the given class and returns the bytecode of the classes that compilation created,
+   * which includes nested classes. The bytecode can be loaded, possibly in a later run, by {@link
+   * #loadClass}.
+   *
+   * @param packageName the package of the class, null if default package
+   * @param classname the simple name of the class
+   * @param javaSource the source text of the class
+   * @return a map from binary class name to the bytecode of the class
+   * @throws SequenceCompilerException if the compilation fails
+   */
+  public Map<String, byte[]> compileToBytecode(
+      final @DotSeparatedIdentifiers String packageName,
+      final @BinaryNameWithoutPackage String classname,
+      final String javaSource)
+      throws SequenceCompilerException {
+    return compile(packageName, classname, javaSource);
   }
 
   /**
-   * Given a .class file, returns the corresponding Class object.
+   * Defines the given classes in a new class loader, and returns one of them.
    *
-   * @param directory the directory containing the .class file (possibly in a package-named
-   *     subdirectory)
-   * @param className the binary name of the class defined in the file
+   * @param classFiles a map from binary class name to the bytecode of the class
+   * @param className the binary name of the class to return
    * @return the loaded Class object
    */
-  private static Class<?> loadClassFile(File directory, @BinaryName String className) {
-    try (URLClassLoader cl = new URLClassLoader(new URL[] {directory.toURI().toURL()})) {
-      Class<?> cls = cl.loadClass(className);
-      return cls;
-    } catch (ClassNotFoundException | NoClassDefFoundError | IOException e) {
+  public static Class<?> loadClass(Map<String, byte[]> classFiles, @BinaryName String className) {
+    try {
+      return new InMemoryClassLoader(classFiles).loadClass(className);
+    } catch (ClassNotFoundException | NoClassDefFoundError e) {
       throw new RandoopBug(e);
     }
   }
@@ -245,7 +277,7 @@ import randoop.util.Log;
    * @param classname the name of the class, without the package
    * @return the fully-qualified class name constructed from the arguments
    */
-  @BinaryName String fullyQualifiedName(
+  public static @BinaryName String fullyQualifiedName(
       @DotSeparatedIdentifiers String packageName, @BinaryNameWithoutPackage String classname) {
     @SuppressWarnings("signature:assignment") // string concatenation
     @BinaryName String result = (packageName == null ? "" : (packageName + ".")) + classname;
@@ -0,0 +1,143 @@
+package randoop.condition;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.main.RandoopBug;
+import randoop.util.Log;
+
+/**
+ * A directory of compiled condition classes, which persists across Randoop runs. Each entry holds
+ * the bytecode of the classes compiled from one condition class source, and is keyed by a hash of
+ * that source and of the class path and Java version it was compiled with. A run that translates
+ * the same specifications against the same class path loads the bytecode instead of compiling.
+ *
+ * <p>The cache is only an optimization: an entry that cannot be read or written is treated as
+ * missing. If the code under test changes without a change to the class path, remove the cache
+ * directory.
+ */
+final class ConditionClassCache {
+
+  /** The first value in every cache file, to detect files in another format. */
+  private static final int MAGIC = 0x52434331; // "RCC1"
+
+  /** The directory that holds the cache files. */
+  private final Path directory;
+
+  /**
+   * Creates a cache in the given directory, which is created when the first entry is stored.
+   *
+   * @param directory the directory that holds the cache files
+   */
+  ConditionClassCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the key for classes compiled from the given source. It incorporates the class path and
+   * the Java version, which also determine the compiled classes.
+   *
+   * @param source the source text of the classes, or a description that determines it
+   * @return a hexadecimal hash of the source, class path, and Java version
+   */
+  static String key(String source) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RandoopBug(e);
+    }
+    digest.update(source.getBytes(UTF_8));
+    digest.update((byte) 0);
+    digest.update(System.getProperty("java.class.path", "").getBytes(UTF_8));
+    digest.update((byte) 0);
+    digest.update(System.getProperty("java.version", "").getBytes(UTF_8));
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest.digest()) {
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns the bytecode stored for the given key.
+   *
+   * @param key a key returned by {@link #key}
+   * @return a map from binary class name to bytecode, or null if there is no usable entry
+   */
+  @Nullable Map<String, byte[]> get(String key) {
+    Path file = directory.resolve(key);
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        return null;
+      }
+      int numClasses = in.readInt();
+      Map<String, byte[]> result = new HashMap<>();
+      for (int i = 0; i < numClasses; i++) {
+        String className = in.readUTF();
+        byte[] bytecode = new byte[in.readInt()];
+        in.readFully(bytecode);
+        result.put(className, bytecode);
+      }
+      return result;
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      Log.logPrintf("Ignoring unreadable condition class cache file %s: %s%n", file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Stores bytecode for the given key. The entry is written to a temporary file and then moved
+   * into place, so that concurrent runs never read a partial entry.
+   *
+   * @param key a key returned by {@link #key}
+   * @param classFiles a map from binary class name to bytecode
+   */
+  void put(String key, Map<String, byte[]> classFiles) {
+    Path tempFile = null;
+    try {
+      Files.createDirectories(directory);
+      tempFile = Files.createTempFile(directory, key, ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(classFiles.size());
+        for (Map.Entry<String, byte[]> entry : classFiles.entrySet()) {
+          out.writeUTF(entry.getKey());
+          out.writeInt(entry.getValue().length);
+          out.write(entry.getValue());
+        }
+      }
+      Files.move(
+          tempFile,
+          directory.resolve(key),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      Log.logPrintf("Unable to write condition class cache file in %s: %s%n", directory, e);
+      if (tempFile != null) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException e2) {
+          // Nothing more to do.
+        }
+      }
+    }
+  }
+}
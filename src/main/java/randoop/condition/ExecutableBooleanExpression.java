@@ -2,10 +2,16 @@ package randoop.condition;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.checker.signature.qual.BinaryNameWithoutPackage;
+import org.checkerframework.checker.signature.qual.DotSeparatedIdentifiers;
 import org.plumelib.util.StringsPlume;
 import randoop.Globals;
 import randoop.compile.SequenceCompiler;
@@ -215,7 +221,10 @@ public class ExecutableBooleanExpression {
     String classname = classNameGenerator.next(); // ignore the class name in the signature
     String classText =
         createConditionClassSource(
-            signature.getName(), expressionSource, parameterDeclaration, packageName, classname);
+            packageName,
+            classname,
+            createConditionMethodSource(
+                signature.getName(), expressionSource, parameterDeclaration));
 
     Class<?> expressionClass;
     try {
@@ -232,32 +241,155 @@ public class ExecutableBooleanExpression {
     }
   }
 
+  /**
+   * Creates a {@code java.lang.reflect.Method} for each of the given expressions. Unlike {@link
+   * #createMethod}, which compiles a class per expression, this generates one class with a method
+   * per expression and compiles it with a single invocation of the compiler.
+   *
+   * <p>If {@link GenInputsAbstract#condition_class_cache} is set, the compiled class is stored
+   * there, and a later call with the same expressions and class path loads it instead of compiling.
+   * The name of the class is derived from the same hash, so the cached bytecode matches the name.
+   *
+   * @param expressions the expressions, which must all have signatures in the same package
+   * @param compiler the compiler to use to compile the expression class
+   * @return the method for each expression, in order; or null if the class does not compile, in
+   *     which case {@link #createMethod} reports the error for each expression
+   */
+  static @Nullable List<Method> createMethods(
+      List<ExpressionSource> expressions, SequenceCompiler compiler) {
+    @DotSeparatedIdentifiers String packageName = expressions.get(0).signature.getPackageName();
+    List<String> methodNames = new ArrayList<>(expressions.size());
+    List<String> methodSources = new ArrayList<>(expressions.size());
+    for (ExpressionSource expression : expressions) {
+      if (!Objects.equals(packageName, expression.signature.getPackageName())) {
+        throw new RandoopBug("Expression signatures in different packages: " + expressions);
+      }
+      // Signatures are shared among the expressions of an operation, so add a unique suffix.
+      String methodName = expression.signature.getName() + "_" + methodNames.size();
+      methodNames.add(methodName);
+      methodSources.add(
+          createConditionMethodSource(
+              methodName, expression.expressionSource, expression.parameterDeclaration));
+    }
+    String key = ConditionClassCache.key(packageName + Globals.lineSep + methodSources);
+    @SuppressWarnings("signature:assignment") // a prefix and hexadecimal digits
+    @BinaryNameWithoutPackage String classname = "RandoopExpressionClass_" + key.substring(0, 16);
+    String classText = createConditionClassSource(packageName, classname, methodSources);
+
+    ConditionClassCache cache =
+        (GenInputsAbstract.condition_class_cache == null)
+            ? null
+            : new ConditionClassCache(GenInputsAbstract.condition_class_cache);
+    Map<String, byte[]> classFiles = (cache == null) ? null : cache.get(key);
+    if (classFiles == null) {
+      try {
+        classFiles = compiler.compileToBytecode(packageName, classname, classText);
+      } catch (SequenceCompilerException e) {
+        return null;
+      }
+      if (cache != null) {
+        cache.put(key, classFiles);
+      }
+    }
+    Class<?> expressionClass =
+        SequenceCompiler.loadClass(
+            classFiles, SequenceCompiler.fullyQualifiedName(packageName, classname));
+
+    List<Method> result = new ArrayList<>(expressions.size());
+    for (int i = 0; i < expressions.size(); i++) {
+      try {
+        result.add(
+            expressionClass.getDeclaredMethod(
+                methodNames.get(i), expressions.get(i).signature.getParameterTypes()));
+      } catch (NoSuchMethodException e) {
+        throw new RandoopBug("Condition class does not contain expression method", e);
+      }
+    }
+    return result;
+  }
+
   /**
    * Create the source code for the expression class.
    *
-   * @param methodName the name of the expression method
-   * @param expressionText the expression source code -- a boolean Java expression
-   * @param parameterDeclarations the signature string for the expression method
    * @param packageName the package of the expression class, or null for the default package
    * @param expressionClassName the name of the expression class
+   * @param methodSources the source code of the expression methods
    * @return the Java source code for the expression class
    */
   private static String createConditionClassSource(
-      String methodName,
-      String expressionText,
-      String parameterDeclarations,
-      String packageName,
-      String expressionClassName) {
+      String packageName, String expressionClassName, List<String> methodSources) {
     String packageDeclaration = "";
     if (packageName != null) {
       packageDeclaration = "package " + packageName + ";" + Globals.lineSep + Globals.lineSep;
     }
+    List<String> lines = new ArrayList<>();
+    lines.add(packageDeclaration + "public class " + expressionClassName + " {");
+    lines.addAll(methodSources);
+    lines.add("}" + Globals.lineSep);
+    return StringsPlume.joinLines(lines);
+  }
+
+  /**
+   * Create the source code for the expression class.
+   *
+   * @param packageName the package of the expression class, or null for the default package
+   * @param expressionClassName the name of the expression class
+   * @param methodSource the source code of the expression method
+   * @return the Java source code for the expression class
+   */
+  private static String createConditionClassSource(
+      String packageName, String expressionClassName, String methodSource) {
+    return createConditionClassSource(
+        packageName, expressionClassName, Collections.singletonList(methodSource));
+  }
+
+  /**
+   * Create the source code for an expression method.
+   *
+   * @param methodName the name of the expression method
+   * @param expressionText the expression source code -- a boolean Java expression
+   * @param parameterDeclarations the signature string for the expression method
+   * @return the Java source code for the expression method
+   */
+  private static String createConditionMethodSource(
+      String methodName, String expressionText, String parameterDeclarations) {
     return StringsPlume.joinLines(
-        packageDeclaration + "public class " + expressionClassName + " {",
         "  public static boolean " + methodName + parameterDeclarations + " throws Throwable {",
         "    return " + expressionText + ";",
-        "  }",
-        "}" + Globals.lineSep);
+        "  }");
+  }
+
+  /** The source of an expression method, for {@link #createMethods}. */
+  static final class ExpressionSource {
+
+    /** The signature of the expression method; its class and method names are ignored. */
+    final RawSignature signature;
+
+    /** The parameter declaration string, including parameter names and parentheses. */
+    final String parameterDeclaration;
+
+    /** The Java expression that is the body of the expression method. */
+    final String expressionSource;
+
+    /**
+     * Creates the source of an expression method.
+     *
+     * @param signature the signature of the expression method; its class and method names are
+     *     ignored
+     * @param parameterDeclaration the parameter declaration string, including parameter names and
+     *     wrapped in parentheses
+     * @param expressionSource the Java expression that is the body of the expression method
+     */
+    ExpressionSource(RawSignature signature, String parameterDeclaration, String expressionSource) {
+      this.signature = signature;
+      this.parameterDeclaration = parameterDeclaration;
+      this.expressionSource = expressionSource;
+    }
+
+    @Override
+    public String toString() {
+      return signature + " " + expressionSource;
+    }
   }
 
   /**
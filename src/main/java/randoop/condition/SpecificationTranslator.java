@@ -4,6 +4,7 @@ import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
@@ -11,6 +12,8 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.DotSeparatedIdentifiers;
 import org.plumelib.util.CollectionsPlume;
 import randoop.compile.SequenceCompiler;
+import randoop.condition.ExecutableBooleanExpression.ExpressionSource;
+import randoop.condition.specification.AbstractBooleanExpression;
 import randoop.condition.specification.Guard;
 import randoop.condition.specification.Identifiers;
 import randoop.condition.specification.OperationSpecification;
@@ -58,6 +61,14 @@ public class SpecificationTranslator {
   /** The {@link SequenceCompiler} for compiling expression methods. */
   private final SequenceCompiler compiler;
 
+  /**
+   * The expression methods that {@link #compileExpressions} compiled together. An expression that
+   * is not in this map is compiled on its own by {@link #create(Guard)} or {@link
+   * #create(Property)}.
+   */
+  private final Map<AbstractBooleanExpression, Method> expressionMethods =
+      new IdentityHashMap<>();
+
   /**
    * Creates a {@link SpecificationTranslator} object in the given package with the signature
    * strings and variable replacementMap.
@@ -256,12 +267,65 @@ public class SpecificationTranslator {
   public static ExecutableSpecification createExecutableSpecification(
       Executable executable, OperationSpecification specification, SequenceCompiler compiler) {
     SpecificationTranslator st = createTranslator(executable, specification, compiler);
+    st.compileExpressions(specification);
     return new ExecutableSpecification(
         st.getGuardExpressions(specification.getPreconditions()),
         st.getReturnConditions(specification.getPostconditions()),
         st.getThrowsConditions(specification.getThrowsConditions()));
   }
 
+  /**
+   * Compiles all the expressions of the given specification together, with a single invocation of
+   * the compiler, and records their methods in {@link #expressionMethods}. If they do not compile
+   * together, records nothing, so that each expression is compiled, and its errors are reported,
+   * on its own.
+   *
+   * @param specification the specification whose expressions to compile
+   */
+  private void compileExpressions(OperationSpecification specification) {
+    List<AbstractBooleanExpression> expressions = new ArrayList<>();
+    List<ExpressionSource> sources = new ArrayList<>();
+    for (Precondition precondition : specification.getPreconditions()) {
+      expressions.add(precondition.getGuard());
+      sources.add(prestateSource(precondition.getGuard()));
+    }
+    for (Postcondition postcondition : specification.getPostconditions()) {
+      expressions.add(postcondition.getGuard());
+      sources.add(prestateSource(postcondition.getGuard()));
+      expressions.add(postcondition.getProperty());
+      sources.add(
+          new ExpressionSource(
+              poststateExpressionSignature,
+              poststateExpressionDeclarations,
+              postcondition.getProperty().getConditionSource()));
+    }
+    for (ThrowsCondition throwsCondition : specification.getThrowsConditions()) {
+      expressions.add(throwsCondition.getGuard());
+      sources.add(prestateSource(throwsCondition.getGuard()));
+    }
+    if (expressions.isEmpty()) {
+      return;
+    }
+
+    List<Method> methods = ExecutableBooleanExpression.createMethods(sources, compiler);
+    if (methods != null) {
+      for (int i = 0; i < expressions.size(); i++) {
+        expressionMethods.put(expressions.get(i), methods.get(i));
+      }
+    }
+  }
+
+  /**
+   * Returns the source of the expression method for a guard.
+   *
+   * @param guard a guard
+   * @return the source of the expression method for {@code guard}
+   */
+  private ExpressionSource prestateSource(Guard guard) {
+    return new ExpressionSource(
+        prestateExpressionSignature, prestateExpressionDeclaration, guard.getConditionSource());
+  }
+
   /**
    * Construct the list of {@link ExecutableBooleanExpression} objects, one for each {@link
    * Precondition}.
@@ -373,6 +437,10 @@ public class SpecificationTranslator {
    */
   private ExecutableBooleanExpression create(Guard expression) {
     String contractText = Util.replaceWords(expression.getConditionSource(), replacementMap);
+    Method method = expressionMethods.get(expression);
+    if (method != null) {
+      return new ExecutableBooleanExpression(method, expression.getDescription(), contractText);
+    }
     return new ExecutableBooleanExpression(
         prestateExpressionSignature,
         prestateExpressionDeclaration,
@@ -393,6 +461,10 @@ public class SpecificationTranslator {
    */
   public ExecutableBooleanExpression create(Property expression) {
     String contractText = Util.replaceWords(expression.getConditionSource(), replacementMap);
+    Method method = expressionMethods.get(expression);
+    if (method != null) {
+      return new ExecutableBooleanExpression(method, expression.getDescription(), contractText);
+    }
     return new ExecutableBooleanExpression(
         poststateExpressionSignature,
         poststateExpressionDeclarations,
@@ -0,0 +1,250 @@
+package randoop.execution;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * The main class of a worker JVM of a {@link JUnitWorkerPool}. A worker reads the names of JUnit
+ * test classes from standard input, runs each one, and reports its failures on standard output.
+ *
+ * <p>Each test class is loaded by a new class loader, together with the rest of the class path, so
+ * that a test class does not observe static state left by the test classes run before it. Only
+ * JUnit and Hamcrest, which must be shared with the runner, are loaded once.
+ *
+ * <p>The protocol is line-based. When it has started, the worker writes a line "{@code ready}"
+ * (see {@link WorkerProcess}). A request is a line containing the directory of the compiled test
+ * class, a line containing its fully-qualified name, and a line containing the name of the test
+ * method to run, which is empty to run all of them. The worker replies with:
+ *
+ * <ul>
+ *   <li>a line "{@code failure}" for each failure, with tab-separated fields for the name of the
+ *       test method, the line number of the test method in the failing stack trace (or -1), the
+ *       description of the test, and the exception, followed by a field for each entry of the
+ *       stack trace without line numbers (see {@link JUnitWorkerPool.TestFailure#stackTrace});
+ *   <li>a line "{@code done }<i>n</i>", where <i>n</i> is the number of tests that were run; or a
+ *       line "{@code unloadable}" if the test class cannot be loaded.
+ * </ul>
+ *
+ * Output by the tests goes to standard error. The worker exits when standard input is closed.
+ */
+public class JUnitWorker {
+
+  private JUnitWorker() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Runs test classes named on standard input until it is closed.
+   *
+   * @param args ignored
+   * @throws IOException if there is an error reading or writing a request
+   */
+  public static void main(String[] args) throws IOException {
+    PrintWriter replies =
+        new PrintWriter(
+            new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8));
+    // Keep output from the tests out of the replies.
+    System.setOut(System.err);
+    BufferedReader requests =
+        new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    ClassLoader sharedLoader = new SharedClassLoader();
+    List<URL> classPath = classPathURLs();
+    replies.println(WorkerProcess.READY);
+    replies.flush();
+
+    String classDirectory;
+    while ((classDirectory = requests.readLine()) != null) {
+      String testClassName = requests.readLine();
+      String methodName = requests.readLine();
+      if (testClassName == null || methodName == null) {
+        break;
+      }
+
+      List<URL> urls = new ArrayList<>(classPath.size() + 1);
+      urls.add(Paths.get(classDirectory).toUri().toURL());
+      urls.addAll(classPath);
+      try (URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[0]), sharedLoader)) {
+        Class<?> testClass;
+        try {
+          testClass = Class.forName(testClassName, false, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+          replies.println(JUnitWorkerPool.UNLOADABLE);
+          replies.flush();
+          continue;
+        }
+
+        JUnitCore core = new JUnitCore();
+        core.addListener(new ReportingListener(replies, testClassName));
+        Request request =
+            methodName.isEmpty()
+                ? Request.aClass(testClass)
+                : Request.method(testClass, methodName);
+        int runCount = core.run(request).getRunCount();
+        replies.println(JUnitWorkerPool.DONE + runCount);
+        replies.flush();
+      }
+    }
+  }
+
+  /**
+   * Returns the entries of this JVM's class path.
+   *
+   * @return the entries of the class path, as URLs
+   * @throws IOException if an entry cannot be converted to a URL
+   */
+  private static List<URL> classPathURLs() throws IOException {
+    List<URL> result = new ArrayList<>();
+    for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      if (!entry.isEmpty()) {
+        result.add(Paths.get(entry).toUri().toURL());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Loads the classes of JUnit and Hamcrest from this JVM's class path, so that the runner and the
+   * tests use the same ones. Other classes come only from the platform.
+   *
+   * <p>The boot class path is still visible, because every class loader delegates to the bootstrap
+   * loader. That is where {@link TestEnvironment} puts the replacecall agent, whose replacement
+   * classes the transformed tests call. The rest of this JVM's class path, which is the class path
+   * of the code under test, is loaded again for each test class by the test class's own loader (see
+   * {@link #main}). That loader has a parent, so the replacecall agent transforms the classes it
+   * loads; the agent skips only classes loaded by the bootstrap loader or by a loader whose parent
+   * is the bootstrap loader.
+   */
+  private static class SharedClassLoader extends ClassLoader {
+
+    /** The prefixes of the names of the classes that are shared with the runner. */
+    private static final String[] SHARED_PREFIXES = {"org.junit.", "junit.", "org.hamcrest."};
+
+    /** Creates a loader whose parent is the platform (on Java 8, extension) class loader. */
+    SharedClassLoader() {
+      super(ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      for (String prefix : SHARED_PREFIXES) {
+        if (name.startsWith(prefix)) {
+          return JUnitWorker.class.getClassLoader().loadClass(name);
+        }
+      }
+      throw new ClassNotFoundException(name);
+    }
+  }
+
+  /** Reports each test failure as a line of the protocol. */
+  private static class ReportingListener extends RunListener {
+
+    /** Where to report. */
+    private final PrintWriter replies;
+
+    /** The fully-qualified name of the test class. */
+    private final String testClassName;
+
+    /**
+     * Create a listener that reports the failures of tests in the given class.
+     *
+     * @param replies where to report
+     * @param testClassName the fully-qualified name of the test class
+     */
+    ReportingListener(PrintWriter replies, String testClassName) {
+      this.replies = replies;
+      this.testClassName = testClassName;
+    }
+
+    @Override
+    public void testFailure(Failure failure) {
+      Description description = failure.getDescription();
+      String methodName = description.getMethodName();
+      if (methodName == null) {
+        methodName = "";
+      }
+      List<String> fields = new ArrayList<>();
+      fields.add(JUnitWorkerPool.FAILURE);
+      fields.add(methodName);
+      fields.add(Integer.toString(lineNumber(failure.getException(), methodName)));
+      fields.add(oneLine(failure.getTestHeader()));
+      fields.add(oneLine(String.valueOf(failure.getException())));
+      addStackTrace(failure.getException(), fields);
+      replies.println(String.join("\t", fields));
+    }
+
+    /**
+     * Adds the stack trace of the exception and of its causes to the given list, without line
+     * numbers. Each exception is followed by the methods in its stack trace, down to the outermost
+     * method of the test class; the frames of the test runner below it are omitted.
+     *
+     * @param exception the exception thrown by the test
+     * @param result the list to add the entries of the stack trace to
+     */
+    private void addStackTrace(Throwable exception, List<String> result) {
+      for (Throwable t = exception; t != null; t = t.getCause()) {
+        result.add(oneLine(String.valueOf(t)));
+        StackTraceElement[] stackTrace = t.getStackTrace();
+        int end = stackTrace.length;
+        for (int i = stackTrace.length - 1; i >= 0; i--) {
+          String className = stackTrace[i].getClassName();
+          if (className.equals(testClassName) || className.startsWith(testClassName + "$")) {
+            end = i + 1;
+            break;
+          }
+        }
+        for (int i = 0; i < end; i++) {
+          result.add(stackTrace[i].getClassName() + "." + stackTrace[i].getMethodName());
+        }
+      }
+    }
+
+    /**
+     * Returns the line number of the test method in the stack trace of the exception or of one of
+     * its causes.
+     *
+     * @param exception the exception thrown by the test
+     * @param methodName the name of the test method
+     * @return the line number of the test method, or -1 if it is not in the stack trace
+     */
+    private int lineNumber(Throwable exception, String methodName) {
+      for (Throwable t = exception; t != null; t = t.getCause()) {
+        for (StackTraceElement element : t.getStackTrace()) {
+          if (element.getClassName().equals(testClassName)
+              && element.getMethodName().equals(methodName)) {
+            return element.getLineNumber();
+          }
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Returns the text with line terminators and tabs replaced by spaces, so that it can be a field
+     * of a reply.
+     *
+     * @param text a text
+     * @return the text, on one line and without tabs
+     */
+    private static String oneLine(String text) {
+      return text.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package randoop.execution;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.main.RandoopBug;
+import randoop.util.Log;
+
+/**
+ * A pool of long-lived worker JVMs that run JUnit test classes, so that running a test class does
+ * not pay for starting a JVM and warming it up. The worker (see {@link JUnitWorker}) loads each
+ * test class in a new class loader and reports each failure as a {@link TestFailure}.
+ *
+ * <p>If a test class terminates its worker (for example by calling {@code System.exit}), or the
+ * worker cannot load it, the worker is discarded and the caller is told to run the class in a new
+ * JVM instead. A new worker is started the next time one is needed. Each worker runs in a temporary
+ * directory of its own, which is deleted when the worker is stopped. The timeout for running a test
+ * class does not include the time to start a worker.
+ *
+ * <p>The pool may be used by several threads at once; each use gets a worker of its own.
+ */
+public final class JUnitWorkerPool {
+
+  /** The first field of the reply that a worker sends for each test failure. */
+  static final String FAILURE = "failure";
+
+  /** The prefix of the reply that a worker sends when it has run a test class. */
+  static final String DONE = "done ";
+
+  /** The reply that a worker sends when it cannot load a test class. */
+  static final String UNLOADABLE = "unloadable";
+
+  /** Limits the number of workers that are in use or idle. */
+  private final Semaphore available;
+
+  /** The workers that are running but not in use. */
+  private final Queue<WorkerProcess> idle = new ConcurrentLinkedQueue<>();
+
+  /** The command that starts a worker. */
+  private final List<String> command;
+
+  /**
+   * Creates a pool. Workers are started when they are first needed.
+   *
+   * @param size the maximum number of workers
+   * @param command the command that starts a worker: a {@code java} command whose main class is
+   *     {@link JUnitWorker}
+   */
+  JUnitWorkerPool(int size, List<String> command) {
+    if (size < 1) {
+      throw new IllegalArgumentException("size must be at least 1, was " + size);
+    }
+    this.available = new Semaphore(size);
+    this.command = command;
+  }
+
+  /**
+   * Runs a test class in a worker. Blocks until a worker is available.
+   *
+   * @param testClassName the fully-qualified name of the test class
+   * @param classDirectory the directory that contains the compiled test class
+   * @param timeoutMillis the maximum number of milliseconds to wait for the test class to finish
+   * @return the failures of the tests, or null if the test class should be run in a new JVM because
+   *     it terminated the worker or could not be loaded by it
+   * @throws TimeoutException if the test class did not finish in time
+   */
+  public @Nullable List<TestFailure> run(
+      String testClassName, Path classDirectory, long timeoutMillis) throws TimeoutException {
+    return run(testClassName, null, classDirectory, timeoutMillis);
+  }
+
+  /**
+   * Runs a test method, or all the tests of a test class, in a worker. Blocks until a worker is
+   * available.
+   *
+   * @param testClassName the fully-qualified name of the test class
+   * @param methodName the name of the test method to run, or null to run all the tests
+   * @param classDirectory the directory that contains the compiled test class
+   * @param timeoutMillis the maximum number of milliseconds to wait for the tests to finish
+   * @return the failures of the tests, or null if the test class should be run in a new JVM because
+   *     it terminated the worker or could not be loaded by it
+   * @throws TimeoutException if the tests did not finish in time
+   */
+  public @Nullable List<TestFailure> run(
+      String testClassName, @Nullable String methodName, Path classDirectory, long timeoutMillis)
+      throws TimeoutException {
+    available.acquireUninterruptibly();
+    try {
+      WorkerProcess worker = idle.poll();
+      if (worker == null || !worker.isAlive()) {
+        worker = new WorkerProcess("randoop.execution.JUnitWorkerPool", command, "junitworker");
+      }
+      List<TestFailure> failures;
+      try {
+        failures = run(worker, testClassName, methodName, classDirectory, timeoutMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        worker.destroy();
+        return null;
+      } catch (TimeoutException | RuntimeException e) {
+        worker.destroy();
+        throw e;
+      }
+      if (failures == null) {
+        Log.logPrintf("JUnit worker could not run %s; running it in a new JVM%n", testClassName);
+        worker.destroy();
+      } else {
+        idle.add(worker);
+      }
+      return failures;
+    } finally {
+      available.release();
+    }
+  }
+
+  /**
+   * Runs a test method, or all the tests of a test class, in the given worker. If the worker is
+   * new, waits for it to start first; the timeout applies only once it has started.
+   *
+   * @param worker the worker
+   * @param testClassName the fully-qualified name of the test class
+   * @param methodName the name of the test method to run, or null to run all the tests
+   * @param classDirectory the directory that contains the compiled test class
+   * @param timeoutMillis the maximum number of milliseconds to wait for the tests to finish
+   * @return the failures of the tests, or null if the worker terminated or could not load the test
+   *     class
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   * @throws TimeoutException if the tests did not finish in time
+   */
+  private static @Nullable List<TestFailure> run(
+      WorkerProcess worker,
+      String testClassName,
+      @Nullable String methodName,
+      Path classDirectory,
+      long timeoutMillis)
+      throws InterruptedException, TimeoutException {
+    if (!worker.awaitReady()) {
+      return null;
+    }
+    worker.send(
+        Arrays.asList(
+            classDirectory.toAbsolutePath().toString(),
+            testClassName,
+            methodName == null ? "" : methodName));
+
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    List<TestFailure> failures = new ArrayList<>();
+    while (true) {
+      WorkerProcess.Reply reply = worker.nextReply(deadline - System.currentTimeMillis());
+      if (reply == null) {
+        throw new TimeoutException(testClassName + " did not finish in " + timeoutMillis + " ms");
+      } else if (reply.isEndOfStream() || reply.getLine().equals(UNLOADABLE)) {
+        return null;
+      } else if (reply.getLine().startsWith(FAILURE + "\t")) {
+        failures.add(new TestFailure(reply.getLine()));
+      } else if (reply.getLine().startsWith(DONE)) {
+        return failures;
+      } else {
+        throw new RandoopBug("Unexpected reply from JUnit worker: " + reply);
+      }
+    }
+  }
+
+  /** Stops all idle workers. */
+  public void shutdown() {
+    WorkerProcess worker;
+    while ((worker = idle.poll()) != null) {
+      worker.destroy();
+    }
+  }
+
+  /** A failure of a test, as reported by a worker. */
+  public static final class TestFailure {
+
+    /** The name of the test method, or the empty string if the failure is not in a method. */
+    public final String methodName;
+
+    /** The line number of the test method in the stack trace of the failure, or -1. */
+    public final int lineNumber;
+
+    /** The JUnit description of the test, such as "test005(pkg.RegressionTest0)". */
+    public final String testHeader;
+
+    /** The exception that the test threw, as a one-line string. */
+    public final String exception;
+
+    /**
+     * The stack trace of the failure, without line numbers, so that failures at different lines of
+     * the same methods are equal. It contains the exception and each of its causes, each followed
+     * by the fully-qualified names of the methods in its stack trace, down to the outermost method
+     * of the test class.
+     */
+    public final List<String> stackTrace;
+
+    /**
+     * Creates a failure from a worker's reply.
+     *
+     * @param reply a "{@code failure}" reply of a worker
+     */
+    TestFailure(String reply) {
+      String[] fields = reply.split("\t", -1);
+      if (fields.length < 5) {
+        throw new RandoopBug("Malformed reply from JUnit worker: " + reply);
+      }
+      this.methodName = fields[1];
+      this.lineNumber = Integer.parseInt(fields[2]);
+      this.testHeader = fields[3];
+      this.exception = fields[4];
+      this.stackTrace =
+          Collections.unmodifiableList(Arrays.asList(fields).subList(5, fields.length));
+    }
+
+    @Override
+    public String toString() {
+      return testHeader + ": " + exception;
+    }
+  }
+}
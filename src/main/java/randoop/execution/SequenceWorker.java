@@ -0,0 +1,180 @@
+package randoop.execution;
+
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.plumelib.options.Options.ArgException;
+import org.plumelib.util.UtilPlume;
+import randoop.ExecutionVisitor;
+import randoop.MultiVisitor;
+import randoop.main.GenTests;
+import randoop.main.RandoopUsageError;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceExceptionError;
+import randoop.sequence.SequenceParseException;
+import randoop.test.RemoteChecks;
+import randoop.util.ReflectionExecutor;
+
+/**
+ * The main class of a worker JVM of a {@link SequenceWorkerPool}. A worker reads sequences from
+ * standard input, executes each one, creates its checks, and reports on standard output.
+ *
+ * <p>The command-line arguments are those that Randoop was given; the worker uses them to create
+ * the same check generator and visitors as Randoop's JVM (see {@link GenTests#createWorkerSetup}).
+ *
+ * <p>The protocol is line-based. When it has started, the worker writes a line "{@code ready}"
+ * (see {@link WorkerProcess}). A request is a line containing a number <i>n</i>, followed by
+ * <i>n</i> lines in the format of {@link Sequence#toParsableString}. The worker replies with:
+ *
+ * <ul>
+ *   <li>a line "{@code start }<i>i</i>" just before it executes statement <i>i</i>, and
+ *   <li>a line "{@code done}", followed by a line that contains a {@link SequenceWorkerPool.Report}
+ *       of the outcomes and checks, when execution is complete; or a line "{@code unparsable}" if
+ *       the sequence cannot be parsed.
+ * </ul>
+ *
+ * If the code under test terminates the worker, the last "{@code start}" line identifies the
+ * statement that did so. Output by the code under test goes to standard error. The worker exits
+ * when standard input is closed.
+ */
+public class SequenceWorker {
+
+  private SequenceWorker() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Executes sequences read from standard input until it is closed.
+   *
+   * @param args the command-line arguments that Randoop was given
+   * @throws IOException if there is an error reading or writing a request
+   */
+  public static void main(String[] args) throws IOException {
+    PrintWriter replies =
+        new PrintWriter(
+            new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8));
+    // Keep output from Randoop and from the code under test out of the replies.
+    System.setOut(System.err);
+
+    GenTests.WorkerSetup setup;
+    try {
+      setup = new GenTests().createWorkerSetup(args);
+    } catch (ArgException | RandoopUsageError e) {
+      System.err.println("SequenceWorker: " + e.getMessage());
+      System.exit(1);
+      return;
+    }
+    // The pool enforces --call-timeout.
+    ReflectionExecutor.usethreads = false;
+
+    BufferedReader requests =
+        new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    replies.println(WorkerProcess.READY);
+    replies.flush();
+
+    String header;
+    while ((header = requests.readLine()) != null) {
+      int size = Integer.parseInt(header.trim());
+      List<String> statements = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        statements.add(requests.readLine());
+      }
+
+      Sequence sequence;
+      try {
+        sequence = Sequence.parse(statements);
+      } catch (SequenceParseException | RuntimeException | Error e) {
+        // Sequence.parse reports unexpected failures, such as a missing class, as an Error.
+        replies.println(SequenceWorkerPool.UNPARSABLE);
+        replies.flush();
+        continue;
+      }
+
+      SequenceWorkerPool.Report report = execute(sequence, setup, replies);
+      replies.println(SequenceWorkerPool.DONE);
+      replies.println(report.encode());
+      replies.flush();
+    }
+  }
+
+  /**
+   * Executes the sequence, and creates its checks.
+   *
+   * @param sequence the sequence to execute
+   * @param setup the check generator and visitor to use
+   * @param replies where to report the start of each statement
+   * @return the report of the outcomes and checks
+   */
+  private static SequenceWorkerPool.Report execute(
+      Sequence sequence, GenTests.WorkerSetup setup, PrintWriter replies) {
+    SequenceWorkerPool.Report report = new SequenceWorkerPool.Report();
+    ReflectionExecutor.resetStatistics();
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    try {
+      eseq.execute(
+          MultiVisitor.createMultiVisitor(
+              Arrays.asList(new ReportingVisitor(replies), setup.visitor)),
+          setup.checkGenerator);
+      if (eseq.getChecks() != null) {
+        report.checks = new RemoteChecks(eseq.getChecks());
+      }
+    } catch (SequenceExceptionError e) {
+      report.flakyIndex = e.getPosition();
+    } catch (RuntimeException | Error e) {
+      report.failure = UtilPlume.stackTraceToString(e);
+    }
+    for (int i = 0; i < sequence.size(); i++) {
+      report.statements.add(new SequenceWorkerPool.StatementReport(eseq.getResult(i)));
+    }
+    report.executionTimeNanos = eseq.exectime;
+    for (Class<?> c : eseq.getCoveredClasses()) {
+      report.coveredClasses.add(c.getName());
+    }
+    report.normalExecs = ReflectionExecutor.normalExecs();
+    report.normalExecNanos = ReflectionExecutor.normalExecNanos();
+    report.excepExecs = ReflectionExecutor.excepExecs();
+    report.excepExecNanos = ReflectionExecutor.excepExecNanos();
+    return report;
+  }
+
+  /** Reports the start of each statement, so that the pool knows which one killed a worker. */
+  private static class ReportingVisitor implements ExecutionVisitor {
+
+    /** Where to report. */
+    private final PrintWriter replies;
+
+    /**
+     * Create a visitor that reports to the given writer.
+     *
+     * @param replies where to report
+     */
+    ReportingVisitor(PrintWriter replies) {
+      this.replies = replies;
+    }
+
+    @Override
+    public void initialize(ExecutableSequence eseq) {}
+
+    @Override
+    public void visitBeforeStatement(ExecutableSequence eseq, int i) {
+      replies.println(SequenceWorkerPool.START + i);
+      replies.flush();
+    }
+
+    @Override
+    public void visitAfterStatement(ExecutableSequence eseq, int i) {}
+
+    @Override
+    public void visitAfterSequence(ExecutableSequence eseq) {}
+  }
+}
@@ -0,0 +1,713 @@
+package randoop.execution;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.Globals;
+import randoop.NormalExecution;
+import randoop.NotExecuted;
+import randoop.main.GenInputsAbstract;
+import randoop.main.RandoopBug;
+import randoop.operation.NonreceiverTerm;
+import randoop.sequence.Sequence;
+import randoop.sequence.Value;
+import randoop.test.RemoteChecks;
+import randoop.util.Log;
+import randoop.util.ReflectionExecutor;
+
+/**
+ * A pool of long-lived worker JVMs that execute sequences in isolation from Randoop's JVM. Used
+ * when {@link GenInputsAbstract#execution_workers} is positive.
+ *
+ * <p>A sequence is sent to a worker in the format of {@link Sequence#toParsableString}; the worker
+ * (see {@link SequenceWorker}) parses and executes it, creates its checks, and reports the outcome
+ * of each statement and the checks. Randoop's JVM does not execute the sequence again. If the code
+ * under test terminates the worker (for example by calling {@code System.exit}, crashing the JVM,
+ * or running out of memory), or if a statement does not finish within {@link
+ * ReflectionExecutor#call_timeout} milliseconds, the worker is discarded and the outcome says which
+ * statement was responsible. A new worker is started the next time one is needed. The timeout
+ * does not include the time to start a worker.
+ *
+ * <p>A worker is started with the class path and JVM arguments of Randoop's JVM, and with the
+ * command-line arguments that Randoop was given; see {@link #workerCommand}.
+ *
+ * <p>The pool may be used by several threads at once; each use gets a worker of its own. A
+ * generator thread executes one sequence at a time, so Randoop uses as many generator threads as
+ * there are workers (see {@link GenInputsAbstract#execution_workers}).
+ */
+public final class SequenceWorkerPool {
+
+  /** The prefix of the reply that a worker sends before executing a statement. */
+  static final String START = "start ";
+
+  /**
+   * The reply that a worker sends when it has executed a sequence. It is followed by a line that
+   * contains the {@link Report}.
+   */
+  static final String DONE = "done";
+
+  /** The reply that a worker sends when it cannot parse a sequence. */
+  static final String UNPARSABLE = "unparsable";
+
+  /** The pool used during generation, or null if it has not been created. */
+  private static @Nullable SequenceWorkerPool instance = null;
+
+  /** Limits the number of workers that are in use or idle. */
+  private final Semaphore available;
+
+  /** The workers that are running but not in use. */
+  private final Queue<WorkerProcess> idle = new ConcurrentLinkedQueue<>();
+
+  /** The maximum number of milliseconds to wait for a worker to finish a statement. */
+  private final long timeoutMillis;
+
+  /** The command that starts a worker. */
+  private final List<String> command;
+
+  /** The number of sequences that workers have executed, or tried to. */
+  private final AtomicLong executions = new AtomicLong();
+
+  /** The number of sequences that terminated a worker or timed out. */
+  private final AtomicLong terminations = new AtomicLong();
+
+  /** The number of sequences that a worker could not parse. */
+  private final AtomicLong unparsable = new AtomicLong();
+
+  /** The total time that workers took to execute sequences, in nanoseconds. */
+  private final AtomicLong executionNanos = new AtomicLong();
+
+  /** The number of workers that have been started. */
+  private final AtomicLong starts = new AtomicLong();
+
+  /**
+   * Creates a pool. Workers are started when they are first needed.
+   *
+   * @param size the maximum number of workers
+   * @param timeoutMillis the maximum number of milliseconds to wait for a worker to finish a
+   *     statement
+   * @param randoopArgs the command-line arguments that Randoop was given, which determine the
+   *     checks that a worker creates
+   */
+  public SequenceWorkerPool(int size, long timeoutMillis, List<String> randoopArgs) {
+    if (size < 1) {
+      throw new IllegalArgumentException("size must be at least 1, was " + size);
+    }
+    this.available = new Semaphore(size);
+    this.timeoutMillis = timeoutMillis;
+    this.command = workerCommand(randoopArgs);
+  }
+
+  /**
+   * Creates the pool to use during generation, with {@link GenInputsAbstract#execution_workers}
+   * workers.
+   *
+   * @param randoopArgs the command-line arguments that Randoop was given
+   */
+  public static synchronized void createInstance(List<String> randoopArgs) {
+    if (instance != null) {
+      throw new RandoopBug("The execution worker pool has already been created");
+    }
+    instance =
+        new SequenceWorkerPool(
+            GenInputsAbstract.execution_workers, ReflectionExecutor.call_timeout, randoopArgs);
+  }
+
+  /**
+   * Returns the pool to use during generation.
+   *
+   * @return the pool, or null if it has not been created
+   */
+  public static synchronized @Nullable SequenceWorkerPool getInstance() {
+    return instance;
+  }
+
+  /**
+   * Stops the workers of the pool used during generation, if it has been created, and reports how
+   * much time they took.
+   */
+  public static synchronized void shutdownInstance() {
+    if (instance != null) {
+      instance.shutdown();
+      Log.logPrintf("%s%n", instance.statistics());
+      if (GenInputsAbstract.progressdisplay) {
+        System.out.println(instance.statistics());
+      }
+      instance = null;
+    }
+  }
+
+  /**
+   * Returns the command that starts a worker. It uses the Java installation, class path, and JVM
+   * arguments (such as agents and system properties) of this JVM, except for its memory limit and
+   * any debugger, and passes the command-line arguments that Randoop was given.
+   *
+   * @param randoopArgs the command-line arguments that Randoop was given
+   * @return the command that starts a worker
+   */
+  static List<String> workerCommand(List<String> randoopArgs) {
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.add("-Xmx" + GenInputsAbstract.jvm_max_memory);
+    command.add("-XX:+ExitOnOutOfMemoryError");
+    for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      if (!(arg.startsWith("-Xmx")
+          || arg.startsWith("-agentlib:jdwp")
+          || arg.startsWith("-Xrunjdwp")
+          || arg.equals("-Xdebug"))) {
+        command.add(arg);
+      }
+    }
+    for (String prop : GenInputsAbstract.system_props) {
+      command.add("-D" + prop);
+    }
+    command.add("-classpath");
+    command.add(System.getProperty("java.class.path"));
+    command.add(SequenceWorker.class.getName());
+    command.addAll(randoopArgs);
+    return command;
+  }
+
+  /**
+   * Executes the sequence in a worker. Blocks until a worker is available.
+   *
+   * @param sequence the sequence to execute
+   * @return the outcome of executing the sequence
+   */
+  public Outcome execute(Sequence sequence) {
+    if (sequence.size() == 0) {
+      return Outcome.NOT_EXECUTED;
+    }
+    available.acquireUninterruptibly();
+    try {
+      WorkerProcess worker = idle.poll();
+      try {
+        if (worker == null || !worker.isAlive()) {
+          worker = startWorker();
+        }
+        long startNanos = System.nanoTime();
+        Outcome outcome = execute(worker, sequence);
+        executionNanos.addAndGet(System.nanoTime() - startNanos);
+        executions.incrementAndGet();
+        if (outcome.terminated()) {
+          terminations.incrementAndGet();
+          Log.logPrintf(
+              "Execution worker terminated at statement %d (%s) of:%n%s%n",
+              outcome.getTerminationIndex(), outcome.getTermination(), sequence);
+          worker.destroy();
+        } else {
+          idle.add(worker);
+          Report report = outcome.report;
+          if (report == null) {
+            unparsable.incrementAndGet();
+          } else {
+            ReflectionExecutor.addStatistics(
+                report.normalExecs,
+                report.normalExecNanos,
+                report.excepExecs,
+                report.excepExecNanos);
+          }
+        }
+        return outcome;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        if (worker != null) {
+          worker.destroy();
+        }
+        return Outcome.NOT_EXECUTED;
+      }
+    } finally {
+      available.release();
+    }
+  }
+
+  /**
+   * Starts a worker, and waits until it is ready.
+   *
+   * @return a worker that is ready to execute sequences
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  private WorkerProcess startWorker() throws InterruptedException {
+    WorkerProcess worker = new WorkerProcess("randoop.execution.SequenceWorkerPool", command, null);
+    starts.incrementAndGet();
+    if (!worker.awaitReady()) {
+      worker.destroy();
+      throw new RandoopBug("Execution worker did not start: " + command);
+    }
+    return worker;
+  }
+
+  /**
+   * Executes the sequence in the given worker.
+   *
+   * @param worker a worker that is ready
+   * @param sequence the sequence to execute; it must not be empty
+   * @return the outcome of executing the sequence
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  private Outcome execute(WorkerProcess worker, Sequence sequence) throws InterruptedException {
+    List<String> lines =
+        new ArrayList<>(Arrays.asList(sequence.toParsableString().split(Globals.lineSep)));
+    lines.add(0, Integer.toString(lines.size()));
+    worker.send(lines);
+
+    int started = 0;
+    while (true) {
+      WorkerProcess.Reply reply = worker.nextReply(timeoutMillis);
+      if (reply == null) {
+        return new Outcome(
+            started,
+            new TimeoutException(
+                "statement " + started + " did not finish in " + timeoutMillis + " ms"));
+      } else if (reply.isEndOfStream()) {
+        return new Outcome(started, new WorkerTerminatedException(worker.waitFor()));
+      } else if (reply.getLine().startsWith(START)) {
+        started = Integer.parseInt(reply.getLine().substring(START.length()));
+      } else if (reply.getLine().equals(UNPARSABLE)) {
+        return Outcome.NOT_EXECUTED;
+      } else if (reply.getLine().equals(DONE)) {
+        WorkerProcess.Reply report = worker.nextReply(timeoutMillis);
+        if (report == null || report.isEndOfStream()) {
+          throw new RandoopBug("Execution worker did not send its report");
+        }
+        return new Outcome(Report.decode(report.getLine()));
+      } else {
+        throw new RandoopBug("Unexpected reply from execution worker: " + reply);
+      }
+    }
+  }
+
+  /**
+   * Returns a description of how many sequences the workers executed and how long they took.
+   *
+   * @return a description of the work done by the workers
+   */
+  public String statistics() {
+    long count = executions.get();
+    double averageMillis = count == 0 ? 0 : executionNanos.get() / 1e6 / count;
+    return String.format(
+        "Execution workers: %d sequences, average %.3g ms each; %d terminated a worker;"
+            + " %d could not be parsed; %d workers started",
+        count, averageMillis, terminations.get(), unparsable.get(), starts.get());
+  }
+
+  /** Stops all idle workers. */
+  public void shutdown() {
+    WorkerProcess worker;
+    while ((worker = idle.poll()) != null) {
+      worker.destroy();
+    }
+  }
+
+  /** The outcome of executing a sequence in a worker. */
+  public static final class Outcome {
+
+    /** The outcome for a sequence that the worker could not parse, or that was not sent to it. */
+    static final Outcome NOT_EXECUTED = new Outcome(null);
+
+    /**
+     * What the worker reported, if it executed the sequence without being terminated. Otherwise,
+     * null.
+     */
+    private final @Nullable Report report;
+
+    /**
+     * The index of the statement that terminated the worker, or -1 if the worker was not
+     * terminated.
+     */
+    private final int terminationIndex;
+
+    /** Describes how the worker was terminated, or null if it was not terminated. */
+    private final @Nullable Throwable termination;
+
+    /**
+     * Creates an outcome for a sequence that was executed, or not, without terminating the worker.
+     *
+     * @param report what the worker reported, or null if it did not execute the sequence
+     */
+    Outcome(@Nullable Report report) {
+      this.report = report;
+      this.terminationIndex = -1;
+      this.termination = null;
+    }
+
+    /**
+     * Creates an outcome for a sequence that terminated the worker.
+     *
+     * @param terminationIndex the index of the statement that terminated the worker
+     * @param termination describes how the worker was terminated
+     */
+    Outcome(int terminationIndex, Throwable termination) {
+      this.report = null;
+      this.terminationIndex = terminationIndex;
+      this.termination = termination;
+    }
+
+    /**
+     * Returns true if the worker executed the sequence without being terminated.
+     *
+     * @return true if the worker executed the sequence without being terminated
+     */
+    public boolean executed() {
+      return report != null;
+    }
+
+    /**
+     * Returns true if the sequence terminated the worker or timed out.
+     *
+     * @return true if the sequence terminated the worker or timed out
+     */
+    public boolean terminated() {
+      return termination != null;
+    }
+
+    /**
+     * Returns the index of the statement that terminated the worker or timed out.
+     *
+     * @return the index of the statement that terminated the worker, or -1 if none did
+     */
+    public int getTerminationIndex() {
+      return terminationIndex;
+    }
+
+    /**
+     * Returns an exception that describes how the worker was terminated: a {@link
+     * TimeoutException} or a {@link WorkerTerminatedException}.
+     *
+     * @return an exception that describes how the worker was terminated, or null if it was not
+     */
+    public @Nullable Throwable getTermination() {
+      return termination;
+    }
+
+    /**
+     * Returns the outcome of each statement. A value that cannot be sent from the worker is
+     * represented by a {@link RemoteValue}, and an exception by a {@link RemoteException}.
+     *
+     * @return the outcome of each statement, or an empty list if the worker did not execute the
+     *     sequence
+     */
+    public List<ExecutionOutcome> getStatementOutcomes() {
+      if (report == null) {
+        return Collections.emptyList();
+      }
+      List<ExecutionOutcome> result = new ArrayList<>(report.statements.size());
+      for (StatementReport statement : report.statements) {
+        result.add(statement.toOutcome());
+      }
+      return result;
+    }
+
+    /**
+     * Returns how long the worker took to execute the sequence and create its checks.
+     *
+     * @return the execution time, in nanoseconds, or -1 if the worker did not execute the sequence
+     */
+    public long getExecutionTimeNanos() {
+      return report == null ? -1 : report.executionTimeNanos;
+    }
+
+    /**
+     * Returns the checks that the worker created for the sequence.
+     *
+     * @return the checks, or null if the worker did not create any
+     */
+    public @Nullable RemoteChecks getChecks() {
+      return report == null ? null : report.checks;
+    }
+
+    /**
+     * Returns the names of the classes that the sequence covered, as recorded by a {@link
+     * randoop.instrument.CoveredClassVisitor} in the worker.
+     *
+     * @return the names of the covered classes
+     */
+    public List<String> getCoveredClasses() {
+      return report == null ? Collections.emptyList() : report.coveredClasses;
+    }
+
+    /**
+     * Returns the index of the statement whose exception the worker's check generator reported as
+     * a flaky test (see {@link randoop.sequence.SequenceExceptionError}).
+     *
+     * @return the index of the statement, or -1 if none was reported
+     */
+    public int getFlakyIndex() {
+      return report == null ? -1 : report.flakyIndex;
+    }
+
+    /**
+     * Returns a description of an unexpected exception that the worker threw while executing the
+     * sequence or creating its checks.
+     *
+     * @return the stack trace of the exception, or null if there was none
+     */
+    public @Nullable String getFailure() {
+      return report == null ? null : report.failure;
+    }
+
+    @Override
+    public String toString() {
+      if (terminated()) {
+        return "terminated at statement " + terminationIndex + ": " + termination;
+      }
+      return getStatementOutcomes().toString();
+    }
+  }
+
+  /**
+   * What a worker reports about a sequence that it executed. It is sent as a single line, in
+   * serialized form, encoded in Base64.
+   */
+  static final class Report implements Serializable {
+
+    private static final long serialVersionUID = 20261015;
+
+    /** The outcome of each statement. */
+    final List<StatementReport> statements = new ArrayList<>();
+
+    /** How long it took to execute the sequence and create its checks, in nanoseconds. */
+    long executionTimeNanos = -1;
+
+    /** The checks that were created for the sequence, or null if none were created. */
+    @Nullable RemoteChecks checks = null;
+
+    /** The names of the classes that the sequence covered. */
+    final List<String> coveredClasses = new ArrayList<>();
+
+    /** The index of the statement whose exception was reported as a flaky test, or -1. */
+    int flakyIndex = -1;
+
+    /** The stack trace of an unexpected exception, or null if there was none. */
+    @Nullable String failure = null;
+
+    /** The number of normal executions; see {@link ReflectionExecutor#normalExecs}. */
+    int normalExecs;
+
+    /** The duration of the normal executions, in nanoseconds. */
+    long normalExecNanos;
+
+    /** The number of exceptional executions; see {@link ReflectionExecutor#excepExecs}. */
+    int excepExecs;
+
+    /** The duration of the exceptional executions, in nanoseconds. */
+    long excepExecNanos;
+
+    /**
+     * Returns this report as a single line.
+     *
+     * @return this report, serialized and encoded in Base64
+     */
+    String encode() {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+        out.writeObject(this);
+      } catch (IOException e) {
+        throw new RandoopBug("Cannot serialize execution worker report", e);
+      }
+      return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Returns the report encoded by {@link #encode}.
+     *
+     * @param line an encoded report
+     * @return the report
+     */
+    static Report decode(String line) {
+      byte[] bytes = Base64.getDecoder().decode(line);
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+        return (Report) in.readObject();
+      } catch (IOException | ClassNotFoundException e) {
+        throw new RandoopBug("Cannot deserialize execution worker report", e);
+      }
+    }
+  }
+
+  /** What a worker reports about the outcome of a statement. */
+  static final class StatementReport implements Serializable {
+
+    private static final long serialVersionUID = 20261015;
+
+    /** True if the statement was executed. */
+    private final boolean executed;
+
+    /** True if the statement threw an exception. */
+    private final boolean threw;
+
+    /** The execution time of the statement, in nanoseconds. */
+    private final long executionTimeNanos;
+
+    /**
+     * The value of a statement that completed normally, if it is null or a primitive or {@code
+     * String} value whose size is acceptable. Otherwise, null.
+     */
+    private final @Nullable Serializable value;
+
+    /**
+     * The name of the class of the value or exception, or null if the value is null or is sent in
+     * {@link #value}.
+     */
+    private final @Nullable String className;
+
+    /** True if the size of the value is acceptable; see {@link Value#valueSizeOk}. */
+    private final boolean sizeOk;
+
+    /** The message of the exception, or null. */
+    private final @Nullable String message;
+
+    /**
+     * Creates a report of the given outcome.
+     *
+     * @param outcome the outcome of a statement
+     */
+    StatementReport(ExecutionOutcome outcome) {
+      this.executed = !(outcome instanceof NotExecuted);
+      this.threw = outcome instanceof ExceptionalExecution;
+      this.executionTimeNanos = executed ? outcome.getExecutionTimeNanos() : 0;
+      Serializable value = null;
+      String className = null;
+      boolean sizeOk = true;
+      String message = null;
+      if (outcome instanceof NormalExecution) {
+        Object runtimeValue = ((NormalExecution) outcome).getRuntimeValue();
+        if (runtimeValue != null) {
+          sizeOk = Value.valueSizeOk(runtimeValue);
+          Class<?> c = runtimeValue.getClass();
+          if (sizeOk && NonreceiverTerm.isNonreceiverType(c) && !c.equals(Class.class)) {
+            value = (Serializable) runtimeValue;
+          } else {
+            className = c.getName();
+          }
+        }
+      } else if (outcome instanceof ExceptionalExecution) {
+        Throwable exception = ((ExceptionalExecution) outcome).getException();
+        className = exception.getClass().getName();
+        try {
+          message = exception.getMessage();
+        } catch (Throwable t) {
+          message = "[getMessage() threw " + t.getClass().getName() + "]";
+        }
+      }
+      this.value = value;
+      this.className = className;
+      this.sizeOk = sizeOk;
+      this.message = message;
+    }
+
+    /**
+     * Returns the outcome that this reports.
+     *
+     * @return the outcome that this reports, with stand-ins for values and exceptions that were not
+     *     sent
+     */
+    ExecutionOutcome toOutcome() {
+      if (!executed) {
+        return NotExecuted.create();
+      } else if (threw) {
+        return new ExceptionalExecution(
+            new RemoteException(className, message), executionTimeNanos);
+      } else if (className == null) {
+        return new NormalExecution(value, executionTimeNanos);
+      } else {
+        return new NormalExecution(new RemoteValue(className, sizeOk), executionTimeNanos);
+      }
+    }
+  }
+
+  /** Stands for a value that a sequence created in a worker, which was not sent to this JVM. */
+  public static final class RemoteValue {
+
+    /** The name of the class of the value. */
+    private final String className;
+
+    /** True if the size of the value is acceptable; see {@link Value#valueSizeOk}. */
+    private final boolean sizeOk;
+
+    /**
+     * Creates a stand-in for a value.
+     *
+     * @param className the name of the class of the value
+     * @param sizeOk true if the size of the value is acceptable
+     */
+    RemoteValue(String className, boolean sizeOk) {
+      this.className = className;
+      this.sizeOk = sizeOk;
+    }
+
+    /**
+     * Returns true if the size of the value is acceptable; see {@link Value#valueSizeOk}.
+     *
+     * @return true if the size of the value is acceptable
+     */
+    public boolean sizeOk() {
+      return sizeOk;
+    }
+
+    @Override
+    public String toString() {
+      return "[value of class " + className + " in an execution worker]";
+    }
+  }
+
+  /** Stands for an exception that a statement threw in a worker. */
+  public static class RemoteException extends Exception {
+
+    private static final long serialVersionUID = 20261015;
+
+    /** The name of the class of the exception. */
+    private final String className;
+
+    /**
+     * Creates a stand-in for an exception.
+     *
+     * @param className the name of the class of the exception
+     * @param message the message of the exception, or null
+     */
+    RemoteException(String className, @Nullable String message) {
+      super(message == null ? className : className + ": " + message);
+      this.className = className;
+    }
+
+    /**
+     * Returns the name of the class of the exception.
+     *
+     * @return the name of the class of the exception
+     */
+    public String getClassName() {
+      return className;
+    }
+  }
+
+  /** Indicates that the code under test terminated a worker JVM. */
+  public static class WorkerTerminatedException extends Exception {
+
+    private static final long serialVersionUID = 20261015;
+
+    /**
+     * Creates an exception for a worker that exited with the given status.
+     *
+     * @param exitStatus the exit status of the worker
+     */
+    WorkerTerminatedException(int exitStatus) {
+      super("execution worker exited with status " + exitStatus);
+    }
+  }
+}
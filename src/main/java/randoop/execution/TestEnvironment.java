@@ -7,6 +7,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.main.GenInputsAbstract;
 
 /** Provides the environment for running JUnit tests. */
@@ -27,6 +29,12 @@ public class TestEnvironment {
   /** The argument string for the replacecall agent. */
   private String replaceCallAgentArgs;
 
+  /** The maximum number of worker JVMs that run tests at once. */
+  private int workerCount = 1;
+
+  /** The worker JVMs that run tests, or null if none has been started. */
+  private @Nullable JUnitWorkerPool workerPool = null;
+
   /**
    * Creates a test environment with the given classpath and an empty agent map.
    *
@@ -69,6 +77,16 @@ public class TestEnvironment {
     this.timeoutMillis = timeoutMillis;
   }
 
+  /**
+   * Set the maximum number of worker JVMs that {@link #runTestInWorker} runs tests in at once. Has
+   * no effect once a worker has been started.
+   *
+   * @param workerCount the maximum number of worker JVMs, at least 1
+   */
+  public void setWorkerCount(int workerCount) {
+    this.workerCount = workerCount;
+  }
+
   /**
    * Runs the named JUnit test class in this environment.
    *
@@ -84,6 +102,57 @@ public class TestEnvironment {
     return RunCommand.run(command, workingDirectory, timeoutMillis);
   }
 
+  /**
+   * Runs the named JUnit test class in a long-lived worker JVM of this environment. Up to the
+   * number of workers set by {@link #setWorkerCount} are started as they are needed. A worker has
+   * the same class path, agents, and memory limit as the JVM started by {@link #runTest}, but the
+   * test class is loaded from {@code classDirectory} rather than from the working directory.
+   *
+   * @param testClassName the fully-qualified JUnit test class name
+   * @param classDirectory the directory that contains the compiled test class
+   * @return the failures of the tests, or null if the test class terminated the worker or could not
+   *     be loaded by it, in which case it should be run by {@link #runTest}
+   * @throws TimeoutException if the test class did not finish within the test execution timeout
+   */
+  public @Nullable List<JUnitWorkerPool.TestFailure> runTestInWorker(
+      String testClassName, Path classDirectory) throws TimeoutException {
+    return runTestInWorker(testClassName, null, classDirectory);
+  }
+
+  /**
+   * Runs one test method of the named JUnit test class in a long-lived worker JVM of this
+   * environment, as {@link #runTestInWorker(String, Path)} does for the whole class.
+   *
+   * @param testClassName the fully-qualified JUnit test class name
+   * @param methodName the name of the test method to run, or null to run all the tests
+   * @param classDirectory the directory that contains the compiled test class
+   * @return the failures of the tests, or null if the test class terminated the worker or could not
+   *     be loaded by it
+   * @throws TimeoutException if the tests did not finish within the test execution timeout
+   */
+  public @Nullable List<JUnitWorkerPool.TestFailure> runTestInWorker(
+      String testClassName, @Nullable String methodName, Path classDirectory)
+      throws TimeoutException {
+    JUnitWorkerPool pool;
+    synchronized (this) {
+      if (workerPool == null) {
+        workerPool =
+            new JUnitWorkerPool(
+                workerCount, javaCommand(testClasspath, JUnitWorker.class.getName()));
+      }
+      pool = workerPool;
+    }
+    return pool.run(testClassName, methodName, classDirectory, timeoutMillis);
+  }
+
+  /** Stops the worker JVMs started by {@link #runTestInWorker}, if any. */
+  public synchronized void shutdownWorkers() {
+    if (workerPool != null) {
+      workerPool.shutdown();
+      workerPool = null;
+    }
+  }
+
   /**
    * Constructs the command to run JUnit tests in this environment, minus the name of the test
    * class. Adding the test class name is sufficient to build a runnable command.
@@ -91,6 +160,18 @@ public class TestEnvironment {
    * @return the base command to run JUnit tests in this environment, without a test class name
    */
   private List<String> commandPrefix() {
+    return javaCommand(
+        "." + java.io.File.pathSeparator + testClasspath, "org.junit.runner.JUnitCore");
+  }
+
+  /**
+   * Constructs the command to run a main class in this environment.
+   *
+   * @param classpath the class path of the command
+   * @param mainClass the fully-qualified name of the main class
+   * @return the command to run the main class in this environment, without arguments
+   */
+  private List<String> javaCommand(String classpath, String mainClass) {
     List<String> command = new ArrayList<>(agentMap.size() + 9);
     command.add("java");
     command.add("-ea");
@@ -108,8 +189,8 @@ public class TestEnvironment {
     }
 
     command.add("-classpath");
-    command.add("." + java.io.File.pathSeparator + testClasspath);
-    command.add("org.junit.runner.JUnitCore");
+    command.add(classpath);
+    command.add(mainClass);
 
     return command;
   }
@@ -0,0 +1,261 @@
+package randoop.execution;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.plumelib.util.FilesPlume;
+import randoop.main.RandoopBug;
+
+/**
+ * A long-lived worker JVM that reads requests, one per line, from its standard input and writes
+ * replies, one per line, to its standard output. A daemon thread reads the replies as they arrive;
+ * another reads and discards the worker's standard error. Used by {@link SequenceWorkerPool} and
+ * {@link JUnitWorkerPool}, which define the requests and replies.
+ *
+ * <p>A worker writes {@link #READY} when it has started and is ready for requests. {@link
+ * #awaitReady} waits for it, so that the time to start the JVM is not counted against the timeout
+ * of the first request.
+ *
+ * <p>A worker is used by one thread at a time.
+ */
+final class WorkerProcess {
+
+  /** The first reply of a worker, which it writes when it is ready for requests. */
+  static final String READY = "ready";
+
+  /** The maximum number of milliseconds to wait for a worker to start. */
+  static final long STARTUP_TIMEOUT_MILLIS = 60 * 1000;
+
+  /** The worker process. */
+  private final Process process;
+
+  /** The working directory of the worker, which is deleted when it is stopped; or null. */
+  private final @Nullable Path temporaryDirectory;
+
+  /** The worker's standard input. */
+  private final Writer requests;
+
+  /** The lines written by the worker to its standard output, then {@link Reply#END_OF_STREAM}. */
+  private final BlockingQueue<Reply> replies = new LinkedBlockingQueue<>();
+
+  /** True once the worker has replied {@link #READY}. */
+  private boolean ready = false;
+
+  /**
+   * Starts a worker.
+   *
+   * @param name the name of the kind of worker, for thread names and error messages
+   * @param command the command that starts the worker
+   * @param temporaryDirectoryPrefix if non-null, the worker runs in a new temporary directory whose
+   *     name starts with this prefix; otherwise, it runs in the current directory
+   */
+  WorkerProcess(String name, List<String> command, @Nullable String temporaryDirectoryPrefix) {
+    try {
+      ProcessBuilder builder = new ProcessBuilder(command);
+      if (temporaryDirectoryPrefix == null) {
+        temporaryDirectory = null;
+      } else {
+        temporaryDirectory = Files.createTempDirectory(temporaryDirectoryPrefix);
+        builder.directory(temporaryDirectory.toFile());
+      }
+      process = builder.start();
+    } catch (IOException e) {
+      throw new RandoopBug("Cannot start " + name + ": " + command, e);
+    }
+    requests = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+    startDaemon(name + " reader", () -> readReplies(process.getInputStream()));
+    startDaemon(name + " drainer", () -> drain(process.getErrorStream()));
+  }
+
+  /**
+   * Runs the given code on a new daemon thread.
+   *
+   * @param name the name of the thread
+   * @param code the code to run
+   */
+  private static void startDaemon(String name, Runnable code) {
+    Thread thread = new Thread(code, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Puts the lines of the given stream into {@link #replies}, followed by {@link
+   * Reply#END_OF_STREAM}.
+   *
+   * @param in the worker's standard output
+   */
+  private void readReplies(InputStream in) {
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        replies.add(new Reply(line));
+      }
+    } catch (IOException e) {
+      // The worker has terminated.
+    } finally {
+      replies.add(Reply.END_OF_STREAM);
+    }
+  }
+
+  /**
+   * Reads and discards the given stream, which contains output by the code that the worker runs.
+   *
+   * @param in the worker's standard error
+   */
+  private static void drain(InputStream in) {
+    byte[] buffer = new byte[8192];
+    try {
+      while (in.read(buffer) != -1) {
+        // discard
+      }
+    } catch (IOException e) {
+      // The worker has terminated.
+    }
+  }
+
+  /**
+   * Waits for the worker to reply {@link #READY}, unless it has already done so. Waits at most
+   * {@link #STARTUP_TIMEOUT_MILLIS} milliseconds.
+   *
+   * @return true if the worker is ready, false if it terminated or did not start in time
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  boolean awaitReady() throws InterruptedException {
+    if (ready) {
+      return true;
+    }
+    Reply reply = nextReply(STARTUP_TIMEOUT_MILLIS);
+    if (reply == null || reply.isEndOfStream()) {
+      return false;
+    } else if (reply.getLine().equals(READY)) {
+      ready = true;
+      return true;
+    } else {
+      throw new RandoopBug("Unexpected first reply from worker: " + reply);
+    }
+  }
+
+  /**
+   * Sends a request to the worker. If the worker has terminated, the request is lost, and the next
+   * reply is {@link Reply#END_OF_STREAM}.
+   *
+   * @param lines the lines of the request
+   */
+  void send(List<String> lines) {
+    try {
+      for (String line : lines) {
+        requests.write(line);
+        requests.write("\n");
+      }
+      requests.flush();
+    } catch (IOException e) {
+      // The worker has terminated; the reply queue says so.
+    }
+  }
+
+  /**
+   * Returns the next reply from the worker.
+   *
+   * @param timeoutMillis the maximum number of milliseconds to wait
+   * @return the next reply, or null if none arrived in time
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  @Nullable Reply nextReply(long timeoutMillis) throws InterruptedException {
+    return replies.poll(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns true if the worker process has not terminated.
+   *
+   * @return true if the worker process has not terminated
+   */
+  boolean isAlive() {
+    return process.isAlive();
+  }
+
+  /**
+   * Waits for the worker process to terminate, and returns its exit status.
+   *
+   * @return the exit status of the worker
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  int waitFor() throws InterruptedException {
+    return process.waitFor();
+  }
+
+  /** Stops the worker, and deletes its temporary directory, if any. */
+  void destroy() {
+    try {
+      requests.close();
+    } catch (IOException e) {
+      // The worker has already terminated.
+    }
+    process.destroyForcibly();
+    if (temporaryDirectory != null) {
+      try {
+        process.waitFor();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      FilesPlume.deleteDir(temporaryDirectory.toFile());
+    }
+  }
+
+  /** A line written by a worker to its standard output, or the end of its standard output. */
+  static final class Reply {
+
+    /** The end of the worker's standard output: the worker has terminated. */
+    static final Reply END_OF_STREAM = new Reply(null);
+
+    /** The line, or null for {@link #END_OF_STREAM}. */
+    private final @Nullable String line;
+
+    /**
+     * Creates a reply.
+     *
+     * @param line the line, or null for the end of the stream
+     */
+    private Reply(@Nullable String line) {
+      this.line = line;
+    }
+
+    /**
+     * Returns true if this is the end of the worker's standard output.
+     *
+     * @return true if the worker has terminated
+     */
+    boolean isEndOfStream() {
+      return line == null;
+    }
+
+    /**
+     * Returns the line. Must not be called on {@link #END_OF_STREAM}.
+     *
+     * @return the line
+     */
+    String getLine() {
+      if (line == null) {
+        throw new RandoopBug("The end of the stream has no line");
+      }
+      return line;
+    }
+
+    @Override
+    public String toString() {
+      return line == null ? "<end of stream>" : line;
+    }
+  }
+}
@@ -3,12 +3,15 @@ package randoop.field;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.main.RandoopBug;
 import randoop.reflection.ReflectionPredicate;
 import randoop.sequence.SequenceExecutionException;
 import randoop.sequence.Variable;
 import randoop.types.ClassOrInterfaceType;
 import randoop.types.Type;
+import randoop.util.MethodHandleInvoker;
+import randoop.util.ReflectionExecutor;
 
 /**
  * AccessibleField represents an accessible field of a class object, which can be an instance field,
@@ -23,6 +26,18 @@ public class AccessibleField {
   private boolean isFinal;
   private boolean isStatic;
 
+  /** The invoker that reads the field, or null if none could be created. Set by getGetter. */
+  private volatile @Nullable MethodHandleInvoker getter = null;
+
+  /** True if {@link #getter} has been set. Is set after {@link #getter}. */
+  private volatile boolean getterResolved = false;
+
+  /** The invoker that assigns the field, or null if none could be created. Set by getSetter. */
+  private volatile @Nullable MethodHandleInvoker setter = null;
+
+  /** True if {@link #setter} has been set. Is set after {@link #setter}. */
+  private volatile boolean setterResolved = false;
+
   /**
    * Create the public field object for the given {@code Field}.
    *
@@ -108,6 +123,13 @@ public class AccessibleField {
    *     IllegalAccessException}.
    */
   public Object getValue(Object object) {
+    if (ReflectionExecutor.method_handles) {
+      MethodHandleInvoker getter = getGetter();
+      Object[] inputs = isStatic ? new Object[0] : new Object[] {object};
+      if (getter != null && getter.accepts(inputs)) {
+        return invoke(getter, inputs);
+      }
+    }
     Object ret;
     try {
       ret = field.get(object);
@@ -130,6 +152,14 @@ public class AccessibleField {
    */
   public void setValue(Object object, Object value) {
     assert !isFinal : "cannot set a final field";
+    if (ReflectionExecutor.method_handles) {
+      MethodHandleInvoker setter = getSetter();
+      Object[] inputs = isStatic ? new Object[] {value} : new Object[] {object, value};
+      if (setter != null && setter.accepts(inputs)) {
+        invoke(setter, inputs);
+        return;
+      }
+    }
     try {
       field.set(object, value);
     } catch (IllegalArgumentException e) {
@@ -139,6 +169,56 @@ public class AccessibleField {
     }
   }
 
+  /**
+   * Returns the method handle invoker that reads the field, creating it on first use.
+   *
+   * <p>This may be called concurrently by several generator threads. At worst, each of them
+   * creates an invoker. The fields are volatile, so a thread that sees that the getter is resolved
+   * also sees the getter.
+   *
+   * @return the invoker that reads the field, or null if none could be created
+   */
+  private @Nullable MethodHandleInvoker getGetter() {
+    if (!getterResolved) {
+      getter = MethodHandleInvoker.forGetter(field);
+      getterResolved = true;
+    }
+    return getter;
+  }
+
+  /**
+   * Returns the method handle invoker that assigns the field, creating it on first use.
+   *
+   * <p>This may be called concurrently, like {@link #getGetter}.
+   *
+   * @return the invoker that assigns the field, or null if none could be created
+   */
+  private @Nullable MethodHandleInvoker getSetter() {
+    if (!setterResolved) {
+      setter = MethodHandleInvoker.forSetter(field);
+      setterResolved = true;
+    }
+    return setter;
+  }
+
+  /**
+   * Invokes a field accessor. Exceptions thrown by the access, such as a NullPointerException for
+   * a null object or an error in a static initializer, are propagated to the caller.
+   *
+   * @param invoker the getter or setter, which must accept {@code inputs}
+   * @param inputs the inputs to the accessor
+   * @return the value of the field for a getter, or null for a setter
+   */
+  private static Object invoke(MethodHandleInvoker invoker, Object[] inputs) {
+    try {
+      return invoker.invoke(inputs);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new RandoopBug("Unexpected checked exception from field access: " + invoker, e);
+    }
+  }
+
   /**
    * isStatic returns the default that a field is not static.
    *
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.options.Option;
@@ -125,12 +127,45 @@ public abstract class AbstractGenerator {
    */
   public List<ExecutableSequence> outRegressionSeqs;
 
+  /**
+   * If non-null, each error-revealing test is passed to this when it is classified, instead of
+   * being added to {@link #outErrorSeqs}. Set by {@link #setTestSinks}.
+   */
+  private @Nullable Consumer<ExecutableSequence> errorTestSink = null;
+
+  /**
+   * If non-null, each regression test is passed to this when it is classified, instead of being
+   * added to {@link #outRegressionSeqs}. Set by {@link #setTestSinks}.
+   */
+  private @Nullable Consumer<ExecutableSequence> regressionTestSink = null;
+
+  /** The number of tests passed to {@link #errorTestSink}. */
+  private int numSunkErrorSeqs = 0;
+
+  /** The number of tests passed to {@link #regressionTestSink}. */
+  private int numSunkRegressionSeqs = 0;
+
   /**
    * A filter to determine whether a sequence should be added to the output sequence lists. Returns
    * true if the sequence should be output.
    */
   public Predicate<ExecutableSequence> outputTest;
 
+  /**
+   * If non-null, the tests that satisfy {@link #outputTest} are collected in {@link
+   * #pendingOutputTests} and filtered by this, a batch at a time, before they are classified. Given
+   * a batch of tests, it returns those that should be output, in order. Set by {@link
+   * #setBatchOutputTest}.
+   */
+  private @Nullable Function<List<ExecutableSequence>, List<ExecutableSequence>> batchOutputTest =
+      null;
+
+  /** The number of tests that {@link #batchOutputTest} filters at a time. */
+  private int outputTestBatchSize = 1;
+
+  /** The tests that satisfy {@link #outputTest} and await {@link #batchOutputTest}. */
+  private final List<ExecutableSequence> pendingOutputTests = new ArrayList<>();
+
   /** Visitor to generate checks for a sequence. */
   protected TestCheckGenerator checkGenerator;
 
@@ -184,6 +219,41 @@ public abstract class AbstractGenerator {
     this.outputTest = outputTest;
   }
 
+  /**
+   * Registers a filter that is applied, after {@link #outputTest}, to batches of tests. This is for
+   * filters that are much cheaper per test when applied to many tests at once. A test is classified
+   * only when its batch is complete, or when generation stops.
+   *
+   * @param batchOutputTest given a batch of tests, returns those that should be output, in order
+   * @param batchSize the number of tests in a batch
+   */
+  public void setBatchOutputTest(
+      Function<List<ExecutableSequence>, List<ExecutableSequence>> batchOutputTest, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+    }
+    this.batchOutputTest = batchOutputTest;
+    this.outputTestBatchSize = batchSize;
+  }
+
+  /**
+   * Registers consumers that receive the error-revealing and regression tests as soon as they are
+   * classified, so that they can be output during generation. Tests given to a consumer are not
+   * retained by this generator, and are not returned by {@link #getErrorTestSequences} or {@link
+   * #getRegressionSequences}. They still count toward the output limit.
+   *
+   * @param errorTestSink receives the error-revealing tests, or null to retain them in {@link
+   *     #outErrorSeqs}
+   * @param regressionTestSink receives the regression tests, or null to retain them in {@link
+   *     #outRegressionSeqs}
+   */
+  public void setTestSinks(
+      @Nullable Consumer<ExecutableSequence> errorTestSink,
+      @Nullable Consumer<ExecutableSequence> regressionTestSink) {
+    this.errorTestSink = errorTestSink;
+    this.regressionTestSink = regressionTestSink;
+  }
+
   /**
    * Registers a visitor with this object for use while executing each generated sequence.
    *
@@ -262,7 +332,10 @@ public abstract class AbstractGenerator {
    * @return the sum of the number of error and regression test sequences for output
    */
   public int numOutputSequences() {
-    return outErrorSeqs.size() + outRegressionSeqs.size();
+    return outErrorSeqs.size()
+        + numSunkErrorSeqs
+        + outRegressionSeqs.size()
+        + numSunkRegressionSeqs;
   }
 
   /**
@@ -271,7 +344,7 @@ public abstract class AbstractGenerator {
    * @return the number of error test sequences
    */
   private int numErrorSequences() {
-    return outErrorSeqs.size();
+    return outErrorSeqs.size() + numSunkErrorSeqs;
   }
 
   /**
@@ -324,16 +397,13 @@ public abstract class AbstractGenerator {
         throw t;
       }
       if (test) {
-        // Classify the sequence
-        if (eSeq.hasInvalidBehavior()) {
-          invalidSequenceCount++;
-        } else if (eSeq.hasFailure()) {
-          operationHistory.add(eSeq.getOperation(), OperationOutcome.ERROR_SEQUENCE);
-          num_failing_sequences++;
-          outErrorSeqs.add(eSeq);
+        if (batchOutputTest == null) {
+          classify(eSeq);
         } else {
-          outRegressionSeqs.add(eSeq);
-          newRegressionTestHook(eSeq.sequence);
+          pendingOutputTests.add(eSeq);
+          if (pendingOutputTests.size() >= outputTestBatchSize) {
+            classifyPendingOutputTests();
+          }
         }
       } else {
         num_failed_output_test++;
@@ -346,6 +416,10 @@ public abstract class AbstractGenerator {
       }
     }
 
+    if (!pendingOutputTests.isEmpty()) {
+      classifyPendingOutputTests();
+    }
+
     if (GenInputsAbstract.progressdisplay && progressDisplay != null) {
       progressDisplay.display(!GenInputsAbstract.deterministic);
       progressDisplay.shouldStop = true;
@@ -371,6 +445,66 @@ public abstract class AbstractGenerator {
     }
   }
 
+  /**
+   * Classifies a test that should be output as invalid, error-revealing, or regression, and records
+   * it accordingly.
+   *
+   * @param eSeq a test that satisfies the output filters
+   */
+  private void classify(ExecutableSequence eSeq) {
+    if (eSeq.hasInvalidBehavior()) {
+      invalidSequenceCount++;
+    } else if (eSeq.hasFailure()) {
+      operationHistory.add(eSeq.getOperation(), OperationOutcome.ERROR_SEQUENCE);
+      num_failing_sequences++;
+      if (errorTestSink == null) {
+        outErrorSeqs.add(eSeq);
+      } else {
+        numSunkErrorSeqs++;
+        errorTestSink.accept(eSeq);
+      }
+    } else {
+      newRegressionTestHook(eSeq.sequence);
+      if (regressionTestSink == null) {
+        outRegressionSeqs.add(eSeq);
+      } else {
+        numSunkRegressionSeqs++;
+        regressionTestSink.accept(eSeq);
+      }
+    }
+  }
+
+  /**
+   * Applies {@link #batchOutputTest} to the pending tests, and classifies those that pass, in
+   * order. Stops classifying when the output limit is reached, so that a batch does not overshoot
+   * it.
+   */
+  private void classifyPendingOutputTests() {
+    List<ExecutableSequence> batch = new ArrayList<>(pendingOutputTests);
+    pendingOutputTests.clear();
+    List<ExecutableSequence> accepted = batchOutputTest.apply(batch);
+    num_failed_output_test += batch.size() - accepted.size();
+    for (ExecutableSequence eSeq : accepted) {
+      if (numOutputSequences() >= limits.output_limit
+          || (GenInputsAbstract.stop_on_error_test && numErrorSequences() > 0)) {
+        break;
+      }
+      classify(eSeq);
+    }
+  }
+
+  /**
+   * Returns true if some tests returned by {@link #step()} satisfy {@link #outputTest} but have not
+   * yet been filtered by {@link #batchOutputTest} and classified. If this returns false, no
+   * sequence that {@link #step()} has returned will be passed to {@link #newRegressionTestHook}
+   * later.
+   *
+   * @return true if some tests await {@link #batchOutputTest}
+   */
+  protected boolean hasPendingOutputTests() {
+    return !pendingOutputTests.isEmpty();
+  }
+
   /**
    * Return all sequences generated by this object.
    *
@@ -417,7 +551,7 @@ public abstract class AbstractGenerator {
    * @return the total number of test sequences saved for output
    */
   public int outputSequenceCount() {
-    return outRegressionSeqs.size() + outErrorSeqs.size();
+    return numOutputSequences();
   }
 
   /**
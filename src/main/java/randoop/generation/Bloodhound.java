@@ -2,7 +2,9 @@ package randoop.generation;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -18,8 +20,8 @@ import randoop.operation.MethodCall;
 import randoop.operation.TypedOperation;
 import randoop.sequence.Sequence;
 import randoop.types.ClassOrInterfaceType;
+import randoop.util.FenwickTree;
 import randoop.util.Randomness;
-import randoop.util.SimpleArrayList;
 
 /**
  * Implements the Bloodhound component, as described by the paper "GRT: Program-Analysis-Guided
@@ -47,10 +49,11 @@ public class Bloodhound implements TypedOperationSelector {
   private final CoverageTracker coverageTracker;
 
   /**
-   * Map from methods under test to their weights. These weights are dynamic and depend on branch
-   * coverage.
+   * The weights of the methods under test, indexed by operation id (the operation's index in
+   * {@link #operations}). These weights are dynamic and depend on branch coverage. Storing them in
+   * a tree makes both updating one weight and making a weighted selection take O(log n) time.
    */
-  private final Map<TypedOperation, Double> methodWeights = new HashMap<>();
+  private final FenwickTree methodWeights;
 
   /**
    * Map from methods under test to the number of times they have been recently selected by the
@@ -67,10 +70,13 @@ public class Bloodhound implements TypedOperationSelector {
   private final Map<TypedOperation, Integer> methodInvocationCounts = new HashMap<>();
 
   /**
-   * List of operations, identical to {@link ForwardGenerator}'s operation list. Used for making
-   * random, weighted selections for a method under test.
+   * The distinct operations in {@link ForwardGenerator}'s operation list. An operation's index in
+   * this list is its id.
    */
-  private final SimpleArrayList<TypedOperation> operationSimpleList;
+  private final List<TypedOperation> operations;
+
+  /** Map from each operation in {@link #operations} to its id (its index in that list). */
+  private final Map<TypedOperation, Integer> operationIds;
 
   /**
    * Parameter for balancing branch coverage and number of times a method was chosen. The name
@@ -109,12 +115,6 @@ public class Bloodhound implements TypedOperationSelector {
    */
   private int maxSuccM = 1;
 
-  /**
-   * The total weight of all the methods that are under test. This is used by {@link Randomness} to
-   * randomly select an element from a list of weighted elements.
-   */
-  private double totalWeightOfMethodsUnderTest = 0;
-
   /**
    * Initialize Bloodhound. Branch coverage information is initialized and all methods under test
    * are assigned a weight based on the weighting scheme defined by GRT's description of Bloodhound.
@@ -123,8 +123,26 @@ public class Bloodhound implements TypedOperationSelector {
    * @param classesUnderTest set of classes under test
    */
   public Bloodhound(List<TypedOperation> operations, Set<ClassOrInterfaceType> classesUnderTest) {
-    this.operationSimpleList = new SimpleArrayList<>(operations);
-    this.coverageTracker = new CoverageTracker(classesUnderTest);
+    this(operations, new CoverageTracker(classesUnderTest));
+  }
+
+  /**
+   * Initialize Bloodhound with the given coverage tracker.
+   *
+   * @param operations list of operations under test
+   * @param coverageTracker the source of branch coverage information
+   */
+  Bloodhound(List<TypedOperation> operations, CoverageTracker coverageTracker) {
+    this.operations = new ArrayList<>(new LinkedHashSet<>(operations));
+    this.operationIds = new HashMap<>(CollectionsPlume.mapCapacity(this.operations.size()));
+    for (int id = 0; id < this.operations.size(); id++) {
+      operationIds.put(this.operations.get(id), id);
+    }
+    this.methodWeights = new FenwickTree(this.operations.size());
+    for (int id = 0; id < this.operations.size(); id++) {
+      methodWeights.add(0.0);
+    }
+    this.coverageTracker = coverageTracker;
 
     // Compute an initial weight for all methods under test. We also initialize the uncovered ratio
     // value of all methods under test by updating branch coverage information. The weights for all
@@ -146,13 +164,12 @@ public class Bloodhound implements TypedOperationSelector {
     updateBranchCoverageMaybe();
 
     // Make a random, weighted choice for the next method.
-    TypedOperation selectedOperation =
-        Randomness.randomMemberWeighted(
-            operationSimpleList, methodWeights, totalWeightOfMethodsUnderTest);
+    int selectedId = Randomness.randomIndexWeighted(methodWeights);
+    TypedOperation selectedOperation = operations.get(selectedId);
 
     // Update the selected method's selection count and recompute its weight.
     CollectionsPlume.incrementMap(methodSelectionCounts, selectedOperation);
-    updateWeight(selectedOperation);
+    updateWeight(selectedId);
 
     return selectedOperation;
   }
@@ -222,23 +239,23 @@ public class Bloodhound implements TypedOperationSelector {
   private void logMethodWeights() {
     if (GenInputsAbstract.bloodhound_logging) {
       System.out.println("Method name: method weight");
-      for (TypedOperation typedOperation : new TreeSet<>(methodWeights.keySet())) {
-        System.out.println(typedOperation.getName() + ": " + methodWeights.get(typedOperation));
+      for (TypedOperation typedOperation : new TreeSet<>(operations)) {
+        System.out.println(
+            typedOperation.getName() + ": " + methodWeights.get(operationIds.get(typedOperation)));
       }
       System.out.println("--------------------------");
     }
   }
 
   /**
-   * Computes and updates weights in {@code methodWeights} map for all methods under test.
-   * Recomputes the {@code totalWeightOfMethodsUnderTest} to avoid problems with round-off error.
+   * Computes and updates weights in {@code methodWeights} for all methods under test. Rebuilds the
+   * tree of weights to avoid problems with round-off error.
    */
   private void updateWeightsForAllOperations() {
-    double totalWeight = 0;
-    for (TypedOperation operation : operationSimpleList) {
-      totalWeight += updateWeight(operation);
+    for (int id = 0; id < operations.size(); id++) {
+      updateWeight(id);
     }
-    totalWeightOfMethodsUnderTest = totalWeight;
+    methodWeights.rebuild();
   }
 
   /**
@@ -253,10 +270,11 @@ public class Bloodhound implements TypedOperationSelector {
    *
    * The weighting scheme is based on Bloodhound in the Guided Random Testing (GRT) paper.
    *
-   * @param operation method to compute weight for
+   * @param id the id of the method to compute weight for
    * @return the updated weight for the given operation
    */
-  private double updateWeight(TypedOperation operation) {
+  private double updateWeight(int id) {
+    TypedOperation operation = operations.get(id);
     // Remove type arguments, because Jacoco does not include type arguments when naming a method.
     String methodName = operation.getName().replaceAll("<.*>\\.", ".");
 
@@ -330,18 +348,12 @@ public class Bloodhound implements TypedOperationSelector {
     } else {
       // Corresponds to the case where k >= 1 in the GRT paper.
       double val1 = (-3.0 / Math.log(1.0 - p)) * (Math.pow(p, k) / k);
-      double val2 = 1.0 / Math.log(operationSimpleList.size() + 3.0);
+      double val2 = 1.0 / Math.log(operations.size() + 3.0);
       wmk = Math.max(val1, val2) * wm0;
     }
 
-    // Retrieve the weight from the methodWeights map if it exists. Otherwise, default to zero.
-    Double existingWeight = methodWeights.getOrDefault(operation, 0.0);
-
-    methodWeights.put(operation, wmk);
-
-    // Update the contribution of this method to the total weight of all methods under test.
-    totalWeightOfMethodsUnderTest -= existingWeight;
-    totalWeightOfMethodsUnderTest += wmk;
+    // This also updates the contribution of this method to the total weight of all methods.
+    methodWeights.set(id, wmk);
 
     return wmk;
   }
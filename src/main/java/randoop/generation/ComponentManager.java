@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.main.GenInputsAbstract;
 import randoop.main.RandoopBug;
 import randoop.operation.TypedClassOperation;
 import randoop.operation.TypedOperation;
@@ -79,7 +80,7 @@ public class ComponentManager {
 
   /** Create an empty component manager, with an empty seed sequence set. */
   public ComponentManager() {
-    gralComponents = new SequenceCollection();
+    gralComponents = newGralComponents(Collections.emptySet());
     gralSeeds = Collections.unmodifiableSet(Collections.<Sequence>emptySet());
   }
 
@@ -94,7 +95,32 @@ public class ComponentManager {
     Set<Sequence> seedSet = new LinkedHashSet<>(generalSeeds.size());
     seedSet.addAll(generalSeeds);
     this.gralSeeds = Collections.unmodifiableSet(seedSet);
-    gralComponents = new SequenceCollection(seedSet);
+    gralComponents = newGralComponents(seedSet);
+  }
+
+  /**
+   * Create a component manager that initially contains the same components, seeds, and literals as
+   * the given one. Later additions to either manager are not visible in the other. The class and
+   * package literals are shared, since they are not modified during generation.
+   *
+   * @param other the component manager to copy
+   */
+  public ComponentManager(ComponentManager other) {
+    this.gralSeeds = other.gralSeeds;
+    this.gralComponents = newGralComponents(other.gralComponents.getAllSequences());
+    this.classLiterals = other.classLiterals;
+    this.packageLiterals = other.packageLiterals;
+  }
+
+  /**
+   * Creates a collection of general components. It is evictable if {@link
+   * GenInputsAbstract#pool_size} limits the size of the pool.
+   *
+   * @param initialSequences the initial sequences
+   * @return a new collection containing the given sequences
+   */
+  private static SequenceCollection newGralComponents(Collection<Sequence> initialSequences) {
+    return new SequenceCollection(initialSequences, GenInputsAbstract.pool_size > 0);
   }
 
   /**
@@ -144,11 +170,38 @@ public class ComponentManager {
     gralComponents.add(sequence);
   }
 
+  /**
+   * Records that the given general component was chosen as an input for a new sequence. This
+   * information is used to choose which components to evict.
+   *
+   * @param sequence the sequence that was chosen
+   */
+  void recordUse(Sequence sequence) {
+    gralComponents.recordUse(sequence);
+  }
+
   /**
    * Removes any components sequences added so far, except for seed sequences, which are preserved.
+   *
+   * @return the removed sequences
+   */
+  Set<Sequence> clearGeneratedSequences() {
+    Set<Sequence> removed = gralComponents.getAllSequences();
+    removed.removeAll(gralSeeds);
+    gralComponents = newGralComponents(this.gralSeeds);
+    return removed;
+  }
+
+  /**
+   * Removes some of the general components, so that about {@code targetSize} remain. The components
+   * to remove are chosen according to {@link GenInputsAbstract#pool_eviction}. Seed sequences are
+   * preserved. Requires that {@link GenInputsAbstract#pool_size} is positive.
+   *
+   * @param targetSize the desired number of components
+   * @return the sequences that were removed from the pool
    */
-  void clearGeneratedSequences() {
-    gralComponents = new SequenceCollection(this.gralSeeds);
+  Set<Sequence> evictGeneratedSequences(int targetSize) {
+    return gralComponents.evict(targetSize, GenInputsAbstract.pool_eviction, gralSeeds);
   }
 
   /**
@@ -1,14 +1,24 @@
 package randoop.generation;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.BinaryName;
 import org.checkerframework.checker.signature.qual.InternalForm;
 import org.jacoco.agent.rt.RT;
@@ -22,8 +32,17 @@ import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.IExecutionDataVisitor;
 import org.jacoco.core.data.ISessionInfoVisitor;
 import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.internal.flow.ClassProbesAdapter;
+import org.jacoco.core.internal.flow.ClassProbesVisitor;
+import org.jacoco.core.internal.flow.IFrame;
+import org.jacoco.core.internal.flow.LabelInfo;
+import org.jacoco.core.internal.flow.MethodProbesVisitor;
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
 import org.plumelib.reflection.Signatures;
 import randoop.main.GenInputsAbstract;
+import randoop.main.RandoopBug;
 import randoop.types.ClassOrInterfaceType;
 
 /**
@@ -31,6 +50,17 @@ import randoop.types.ClassOrInterfaceType;
  * this class records the total number of branches and the number of branches that have not been
  * covered in generated tests. This class periodically updates branch coverage information for each
  * method from Jacoco's data structures.
+ *
+ * <p>Each class under test is analyzed once, when it is first needed: Jacoco's analysis gives its
+ * methods, and a pass over its bytecode gives, for each method, its branches and the probes
+ * (Jacoco's record of which code has run) that show whether each branch has been taken. An update
+ * computes branch coverage directly from the probes, and only for the classes whose probes have
+ * changed since the previous update; the class files are not read or analyzed again.
+ *
+ * <p>The branches are determined the way Jacoco's analyzer determines them, except that Jacoco's
+ * filters for compiler-generated code (such as the code for try-with-resources or for a switch on
+ * strings) are not applied. The branches of such code count toward a method's branches, so the
+ * uncovered branch ratio of a method that contains it may differ from the one that Jacoco reports.
  */
 public class CoverageTracker {
   /**
@@ -49,6 +79,12 @@ public class CoverageTracker {
   /** Names of all the classes under test. */
   protected final Set<@BinaryName String> classesUnderTest = new HashSet<>();
 
+  /**
+   * Map from the name of a class under test to its analysis and its coverage as of the previous
+   * update. Sorted so that diagnostic output is deterministic.
+   */
+  private final Map<@BinaryName String, AnalyzedClass> analyzedClasses = new TreeMap<>();
+
   /**
    * Initialize the coverage tracker.
    *
@@ -118,46 +154,26 @@ public class CoverageTracker {
     // coverage information for all of the classes under test.
     collectCoverageInformation();
 
-    CoverageBuilder coverageBuilder = new CoverageBuilder();
-    Analyzer analyzer = new Analyzer(executionData, coverageBuilder);
-
-    // For each class that is under test, summarize the branch coverage information
-    // produced by Jacoco and store it in the coverageBuilder local variable.
     for (@BinaryName String className : classesUnderTest) {
-      String resource = getResourceFromClassName(className);
-      try (InputStream original = getClass().getResourceAsStream(resource)) {
-        analyzer.analyzeClass(original, className);
-      } catch (IOException e) {
-        throw new Error(e);
+      if (!analyzedClasses.containsKey(className)) {
+        analyzedClasses.put(className, analyzeClass(className));
       }
     }
 
-    // For each method under test, copy its branch coverage information from the coverageBuilder to
-    // branchCoverageMap.
-    // Sorting is to make diagnostic output deterministic.
-    ArrayList<IClassCoverage> classes = new ArrayList<>(coverageBuilder.getClasses());
-    classes.sort(Comparator.comparing(IClassCoverage::toString));
-    for (final IClassCoverage cc : classes) {
-      ArrayList<IMethodCoverage> methods = new ArrayList<>(cc.getMethods());
-      methods.sort(Comparator.comparing(IMethodCoverage::toString));
-      for (final IMethodCoverage cm : methods) {
-        // cc is in internal form because Jacoco uses class names in internal form.
-        @SuppressWarnings("signature") // Jacoco is not annotated
-        @InternalForm String ifClassName = cc.getName();
-        // Randoop uses fully-qualified class names, with only periods as delimiters.
-        String fqMethodName =
-            Signatures.internalFormToFullyQualified(ifClassName) + "." + cm.getName();
-
-        if (GenInputsAbstract.bloodhound_logging) {
-          System.out.println(fqMethodName + " - " + cm.getBranchCounter().getMissedRatio());
-        }
-
-        // In cases where a method's total branches is zero, the Jacoco missed ratio is NaN,
-        // but use zero as the uncovRatio instead.
-        double uncovRatio = cm.getBranchCounter().getMissedRatio();
-        uncovRatio = Double.isNaN(uncovRatio) ? 0 : uncovRatio;
-        branchCoverageMap.put(fqMethodName, uncovRatio);
+    for (AnalyzedClass analyzedClass : analyzedClasses.values()) {
+      if (analyzedClass.coverage == null) {
+        // The class has no code, so its coverage never changes.
+        continue;
+      }
+      ExecutionData data = executionData.get(analyzedClass.coverage.getId());
+      boolean[] probes = data == null ? null : data.getProbes();
+      if (analyzedClass.updated && Arrays.equals(probes, analyzedClass.probes)) {
+        continue;
       }
+      // Copy the probes, because Jacoco updates them in place.
+      analyzedClass.probes = probes == null ? null : probes.clone();
+      analyzedClass.updated = true;
+      updateClassCoverage(analyzedClass);
     }
 
     if (GenInputsAbstract.bloodhound_logging) {
@@ -165,6 +181,100 @@ public class CoverageTracker {
     }
   }
 
+  /**
+   * Analyzes a class under test: finds its methods, and the branches of each method and the probes
+   * that cover them.
+   *
+   * @param className the name of the class
+   * @return the analysis of the class, with no coverage
+   */
+  private AnalyzedClass analyzeClass(@BinaryName String className) {
+    byte[] bytes = readClass(className);
+
+    CoverageBuilder coverageBuilder = new CoverageBuilder();
+    // Jacoco is not given the execution data, because only the structure of the class is needed.
+    Analyzer analyzer = new Analyzer(new ExecutionDataStore(), coverageBuilder);
+    try {
+      analyzer.analyzeClass(bytes, className);
+    } catch (IOException e) {
+      throw new Error(e);
+    }
+    if (coverageBuilder.getClasses().isEmpty()) {
+      // Jacoco does not analyze synthetic classes.
+      return new AnalyzedClass(null, Collections.emptyMap());
+    }
+    IClassCoverage cc = coverageBuilder.getClasses().iterator().next();
+
+    BranchesReader branchesReader = new BranchesReader();
+    InstrSupport.classReaderFor(bytes)
+        .accept(new ClassProbesAdapter(branchesReader, false), /* parsingOptions= */ 0);
+
+    // Sorting is to make diagnostic output deterministic.
+    ArrayList<IMethodCoverage> methodCoverages = new ArrayList<>(cc.getMethods());
+    methodCoverages.sort(Comparator.comparing(IMethodCoverage::toString));
+    Map<String, MethodBranches> methods = new LinkedHashMap<>();
+    for (final IMethodCoverage cm : methodCoverages) {
+      MethodBranches branches = branchesReader.methods.get(cm.getName() + cm.getDesc());
+      if (branches == null) {
+        throw new RandoopBug(
+            String.format("Jacoco's method %s%s not found in %s", cm.getName(), cm.getDesc(), cc));
+      }
+      // cc is in internal form because Jacoco uses class names in internal form.
+      @SuppressWarnings("signature") // Jacoco is not annotated
+      @InternalForm String ifClassName = cc.getName();
+      // Randoop uses fully-qualified class names, with only periods as delimiters.
+      String fqMethodName =
+          Signatures.internalFormToFullyQualified(ifClassName) + "." + cm.getName();
+      methods.put(fqMethodName, branches);
+    }
+    return new AnalyzedClass(cc, methods);
+  }
+
+  /**
+   * Computes the branch coverage of each method of a class from its probes, and copies it to
+   * {@code branchCoverageMap}.
+   *
+   * @param analyzedClass a class under test, whose probes have been updated
+   */
+  private void updateClassCoverage(AnalyzedClass analyzedClass) {
+    for (Map.Entry<String, MethodBranches> entry : analyzedClass.methods.entrySet()) {
+      String fqMethodName = entry.getKey();
+      double uncovRatio = entry.getValue().getMissedRatio(analyzedClass.probes);
+      if (GenInputsAbstract.bloodhound_logging) {
+        System.out.println(fqMethodName + " - " + uncovRatio);
+      }
+
+      // In cases where a method's total branches is zero, the missed ratio is NaN,
+      // but use zero as the uncovRatio instead.
+      uncovRatio = Double.isNaN(uncovRatio) ? 0 : uncovRatio;
+      branchCoverageMap.put(fqMethodName, uncovRatio);
+    }
+  }
+
+  /**
+   * Reads the bytes of a class under test from its resource.
+   *
+   * @param className binary name of class
+   * @return the contents of the class file
+   */
+  private byte[] readClass(@BinaryName String className) {
+    String resource = getResourceFromClassName(className);
+    try (InputStream original = getClass().getResourceAsStream(resource)) {
+      if (original == null) {
+        throw new Error("Cannot find resource " + resource);
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int length;
+      while ((length = original.read(buffer)) != -1) {
+        bytes.write(buffer, 0, length);
+      }
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new Error(e);
+    }
+  }
+
   /**
    * Construct the absolute resource name of a class given a class name.
    *
@@ -185,6 +295,405 @@ public class CoverageTracker {
     return this.branchCoverageMap.get(methodName);
   }
 
+  /** A class under test, and its coverage as of the previous update. */
+  private static class AnalyzedClass {
+    /**
+     * Jacoco's analysis of the class, without coverage; or null if the class has no code. Gives
+     * Jacoco's identifier for the class, and its methods.
+     */
+    final @Nullable IClassCoverage coverage;
+
+    /**
+     * Map from the fully-qualified name of each method that Jacoco reports to its branches, in
+     * diagnostic output order.
+     */
+    final Map<String, MethodBranches> methods;
+
+    /** True if the coverage of the methods has been computed. */
+    boolean updated = false;
+
+    /**
+     * A copy of the probes of the class when its coverage was last computed, or null if the class
+     * had not been loaded.
+     */
+    boolean @Nullable [] probes = null;
+
+    /**
+     * Creates an AnalyzedClass whose coverage has not been computed.
+     *
+     * @param coverage Jacoco's analysis of the class, or null if the class has no code
+     * @param methods map from the fully-qualified name of each method that Jacoco reports to its
+     *     branches
+     */
+    AnalyzedClass(@Nullable IClassCoverage coverage, Map<String, MethodBranches> methods) {
+      this.coverage = coverage;
+      this.methods = methods;
+    }
+  }
+
+  /**
+   * The branches of a method, and the probes that show whether they have been taken.
+   *
+   * <p>As in Jacoco, a method is a graph of instructions. Each edge out of an instruction (a
+   * "branch" of the instruction) leads either to another instruction or to a probe. An edge that
+   * leads to a probe is covered if the probe has been executed; an edge that leads to an
+   * instruction is covered if some edge out of that instruction is covered. The branches of an
+   * instruction count only if it has at least two.
+   */
+  private static final class MethodBranches {
+    /** Indicates that an edge does not lead to an instruction, or to a probe. */
+    static final int NONE = -1;
+
+    /** The number of instructions. */
+    final int instructionCount;
+
+    /** For each edge, the instruction that it leaves. */
+    final int[] edgeSources;
+
+    /** For each edge, the instruction that it leads to, or {@link #NONE}. */
+    final int[] edgeTargets;
+
+    /** For each edge, the probe that it leads to, or {@link #NONE}. */
+    final int[] edgeProbes;
+
+    /** For each instruction, the number of edges that leave it. */
+    final int[] branchCounts;
+
+    /** For each instruction, the edges that lead to it. */
+    final int[][] incomingEdges;
+
+    /**
+     * Creates a MethodBranches.
+     *
+     * @param instructionCount the number of instructions
+     * @param edgeSources for each edge, the instruction that it leaves
+     * @param edgeTargets for each edge, the instruction that it leads to, or {@link #NONE}
+     * @param edgeProbes for each edge, the probe that it leads to, or {@link #NONE}
+     */
+    MethodBranches(int instructionCount, int[] edgeSources, int[] edgeTargets, int[] edgeProbes) {
+      this.instructionCount = instructionCount;
+      this.edgeSources = edgeSources;
+      this.edgeTargets = edgeTargets;
+      this.edgeProbes = edgeProbes;
+      this.branchCounts = new int[instructionCount];
+      int[] incomingCounts = new int[instructionCount];
+      for (int edge = 0; edge < edgeSources.length; edge++) {
+        branchCounts[edgeSources[edge]]++;
+        if (edgeTargets[edge] != NONE) {
+          incomingCounts[edgeTargets[edge]]++;
+        }
+      }
+      this.incomingEdges = new int[instructionCount][];
+      for (int insn = 0; insn < instructionCount; insn++) {
+        incomingEdges[insn] = new int[incomingCounts[insn]];
+        incomingCounts[insn] = 0;
+      }
+      for (int edge = 0; edge < edgeSources.length; edge++) {
+        int target = edgeTargets[edge];
+        if (target != NONE) {
+          incomingEdges[target][incomingCounts[target]++] = edge;
+        }
+      }
+    }
+
+    /**
+     * Returns the ratio of the branches of this method that have not been taken, or NaN if it has
+     * no branches.
+     *
+     * @param probes the probes of the class, or null if the class has not been loaded
+     * @return the uncovered branch ratio
+     */
+    double getMissedRatio(boolean @Nullable [] probes) {
+      // Mark the covered instructions, working back from the executed probes.
+      boolean[] covered = new boolean[instructionCount];
+      Queue<Integer> worklist = new ArrayDeque<>();
+      if (probes != null) {
+        for (int edge = 0; edge < edgeSources.length; edge++) {
+          int source = edgeSources[edge];
+          if (edgeProbes[edge] != NONE && probes[edgeProbes[edge]] && !covered[source]) {
+            covered[source] = true;
+            worklist.add(source);
+          }
+        }
+      }
+      while (!worklist.isEmpty()) {
+        for (int edge : incomingEdges[worklist.remove()]) {
+          int source = edgeSources[edge];
+          if (!covered[source]) {
+            covered[source] = true;
+            worklist.add(source);
+          }
+        }
+      }
+
+      int total = 0;
+      int missed = 0;
+      for (int edge = 0; edge < edgeSources.length; edge++) {
+        if (branchCounts[edgeSources[edge]] < 2) {
+          continue;
+        }
+        total++;
+        boolean edgeCovered =
+            edgeProbes[edge] != NONE
+                ? probes != null && probes[edgeProbes[edge]]
+                : edgeTargets[edge] != NONE && covered[edgeTargets[edge]];
+        if (!edgeCovered) {
+          missed++;
+        }
+      }
+      return (double) missed / total;
+    }
+  }
+
+  /**
+   * Reads the branches of each method of a class, and the probes that cover them. Must be wrapped
+   * in a {@link ClassProbesAdapter}, which numbers the probes as Jacoco's instrumentation does.
+   */
+  private static class BranchesReader extends ClassProbesVisitor {
+    /** Map from method name and descriptor to the branches of the method. */
+    final Map<String, MethodBranches> methods = new HashMap<>();
+
+    @Override
+    public MethodProbesVisitor visitMethod(
+        int access, String name, String desc, String signature, String[] exceptions) {
+      return new MethodBranchesReader(name + desc, methods);
+    }
+
+    @Override
+    public void visitTotalProbeCount(int count) {}
+  }
+
+  /**
+   * Reads the branches of a method, and the probes that cover them. Follows Jacoco's {@code
+   * MethodAnalyzer} and {@code InstructionsBuilder}.
+   */
+  private static class MethodBranchesReader extends MethodProbesVisitor {
+    /** The name and descriptor of the method. */
+    private final String method;
+
+    /** Where to put the branches of the method, once it has been read. */
+    private final Map<String, MethodBranches> methods;
+
+    /** The number of instructions read so far. */
+    private int instructionCount = 0;
+
+    /**
+     * The instruction that the next instruction follows in the control flow, or {@link
+     * MethodBranches#NONE}.
+     */
+    private int currentInstruction = MethodBranches.NONE;
+
+    /** The labels that mark the next instruction. */
+    private final List<Label> pendingLabels = new ArrayList<>();
+
+    /** Map from a label to the instruction that it marks. */
+    private final Map<Label, Integer> labelInstructions = new IdentityHashMap<>();
+
+    /** For each edge, the instruction that it leaves. */
+    private final List<Integer> edgeSources = new ArrayList<>();
+
+    /** For each edge, the instruction that it leads to, or {@link MethodBranches#NONE}. */
+    private final List<Integer> edgeTargets = new ArrayList<>();
+
+    /** For each edge, the probe that it leads to, or {@link MethodBranches#NONE}. */
+    private final List<Integer> edgeProbes = new ArrayList<>();
+
+    /** For each edge that is a jump, its label; otherwise null. */
+    private final List<@Nullable Label> edgeLabels = new ArrayList<>();
+
+    /**
+     * Creates a MethodBranchesReader.
+     *
+     * @param method the name and descriptor of the method
+     * @param methods where to put the branches of the method, once it has been read
+     */
+    MethodBranchesReader(String method, Map<String, MethodBranches> methods) {
+      this.method = method;
+      this.methods = methods;
+    }
+
+    /**
+     * Adds an edge out of the current instruction.
+     *
+     * @param target the instruction that the edge leads to, or {@link MethodBranches#NONE}
+     * @param probe the probe that the edge leads to, or {@link MethodBranches#NONE}
+     * @param label the label that the edge jumps to, or null
+     */
+    private void addEdge(int target, int probe, @Nullable Label label) {
+      edgeSources.add(currentInstruction);
+      edgeTargets.add(target);
+      edgeProbes.add(probe);
+      edgeLabels.add(label);
+    }
+
+    /** Adds an instruction, which follows the current instruction if there is one. */
+    private void addInstruction() {
+      int instruction = instructionCount++;
+      for (Label label : pendingLabels) {
+        labelInstructions.put(label, instruction);
+      }
+      pendingLabels.clear();
+      if (currentInstruction != MethodBranches.NONE) {
+        addEdge(instruction, MethodBranches.NONE, null);
+      }
+      currentInstruction = instruction;
+    }
+
+    /**
+     * Adds the edges out of a switch instruction, to each distinct label.
+     *
+     * @param dflt the default label
+     * @param labels the other labels
+     * @param withProbes if true, an edge to a label that has a probe leads to the probe
+     */
+    private void addSwitchEdges(Label dflt, Label[] labels, boolean withProbes) {
+      Set<Label> done = Collections.newSetFromMap(new IdentityHashMap<>());
+      List<Label> targets = new ArrayList<>(labels.length + 1);
+      targets.add(dflt);
+      targets.addAll(Arrays.asList(labels));
+      for (Label label : targets) {
+        if (!done.add(label)) {
+          continue;
+        }
+        int probe = withProbes ? LabelInfo.getProbeId(label) : LabelInfo.NO_PROBE;
+        if (probe == LabelInfo.NO_PROBE) {
+          addEdge(MethodBranches.NONE, MethodBranches.NONE, label);
+        } else {
+          addEdge(MethodBranches.NONE, probe, null);
+        }
+      }
+    }
+
+    @Override
+    public void visitLabel(Label label) {
+      pendingLabels.add(label);
+      if (!LabelInfo.isSuccessor(label)) {
+        currentInstruction = MethodBranches.NONE;
+      }
+    }
+
+    @Override
+    public void visitInsn(int opcode) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitIntInsn(int opcode, int operand) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitVarInsn(int opcode, int var) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitTypeInsn(int opcode, String type) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitFieldInsn(int opcode, String owner, String name, String desc) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(String name, String desc, Handle bsm, Object... bsmArgs) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitJumpInsn(int opcode, Label label) {
+      addInstruction();
+      addEdge(MethodBranches.NONE, MethodBranches.NONE, label);
+    }
+
+    @Override
+    public void visitLdcInsn(Object cst) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitIincInsn(int var, int increment) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+      addInstruction();
+      addSwitchEdges(dflt, labels, false);
+    }
+
+    @Override
+    public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+      addInstruction();
+      addSwitchEdges(dflt, labels, false);
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(String desc, int dims) {
+      addInstruction();
+    }
+
+    @Override
+    public void visitProbe(int probeId) {
+      if (currentInstruction != MethodBranches.NONE) {
+        addEdge(MethodBranches.NONE, probeId, null);
+      }
+      currentInstruction = MethodBranches.NONE;
+    }
+
+    @Override
+    public void visitJumpInsnWithProbe(int opcode, Label label, int probeId, IFrame frame) {
+      addInstruction();
+      addEdge(MethodBranches.NONE, probeId, null);
+    }
+
+    @Override
+    public void visitInsnWithProbe(int opcode, int probeId) {
+      addInstruction();
+      addEdge(MethodBranches.NONE, probeId, null);
+    }
+
+    @Override
+    public void visitTableSwitchInsnWithProbes(
+        int min, int max, Label dflt, Label[] labels, IFrame frame) {
+      addInstruction();
+      addSwitchEdges(dflt, labels, true);
+    }
+
+    @Override
+    public void visitLookupSwitchInsnWithProbes(
+        Label dflt, int[] keys, Label[] labels, IFrame frame) {
+      addInstruction();
+      addSwitchEdges(dflt, labels, true);
+    }
+
+    @Override
+    public void visitEnd() {
+      int edgeCount = edgeSources.size();
+      int[] sources = new int[edgeCount];
+      int[] targets = new int[edgeCount];
+      int[] probes = new int[edgeCount];
+      for (int edge = 0; edge < edgeCount; edge++) {
+        sources[edge] = edgeSources.get(edge);
+        Label label = edgeLabels.get(edge);
+        // A jump leads to the instruction that its label marks, which may follow the jump.
+        targets[edge] =
+            label == null
+                ? edgeTargets.get(edge)
+                : labelInstructions.getOrDefault(label, MethodBranches.NONE);
+        probes[edge] = edgeProbes.get(edge);
+      }
+      methods.put(method, new MethodBranches(instructionCount, sources, targets, probes));
+    }
+  }
+
   /** An {@link ISessionInfoVisitor} that does nothing. */
   private static class DummySessionInfoVisitor implements ISessionInfoVisitor {
     /** Singleton instance of this class. */
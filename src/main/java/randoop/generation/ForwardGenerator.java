@@ -14,6 +14,7 @@ import randoop.DummyVisitor;
 import randoop.Globals;
 import randoop.NormalExecution;
 import randoop.SubTypeSet;
+import randoop.execution.SequenceWorkerPool;
 import randoop.main.GenInputsAbstract;
 import randoop.main.RandoopBug;
 import randoop.operation.NonreceiverTerm;
@@ -86,6 +87,12 @@ public class ForwardGenerator extends AbstractGenerator {
    */
   private Set<Object> runtimePrimitivesSeen = new LinkedHashSet<>();
 
+  /**
+   * When the pool exceeds {@link GenInputsAbstract#pool_size}, sequences are evicted until it is
+   * this fraction of that size.
+   */
+  private static final double POOL_EVICTION_TARGET = 0.9;
+
   /**
    * Create a forward generator.
    *
@@ -171,6 +178,32 @@ public class ForwardGenerator extends AbstractGenerator {
     operationSelector.newRegressionTestHook(sequence);
   }
 
+  /**
+   * Adds to the pool a component sequence that was created and executed by another generator, as if
+   * this generator had created it.
+   *
+   * @param sequence a sequence with active indices, which another generator added to its pool
+   * @param exectimeNanos how long it took the other generator to execute the sequence
+   */
+  void addSharedComponent(Sequence sequence, long exectimeNanos) {
+    ExecutableSequence eSeq = new ExecutableSequence(sequence);
+    eSeq.exectime = exectimeNanos;
+    allSequences.add(sequence);
+    inputSequenceSelector.createdExecutableSequence(eSeq);
+    componentManager.addGeneratedSequence(sequence);
+  }
+
+  /**
+   * Evicts sequences from the pool so that about {@code targetSize} remain, and notifies the input
+   * sequence selector.
+   *
+   * @param targetSize the desired size of the pool
+   */
+  private void evictFromPool(int targetSize) {
+    Set<Sequence> removed = componentManager.evictGeneratedSequences(targetSize);
+    inputSequenceSelector.removedFromPool(removed);
+  }
+
   /**
    * The runtimePrimitivesSeen set contains primitive values seen during generation/execution and is
    * used to determine new values that should be added to the component set. The component set
@@ -198,11 +231,20 @@ public class ForwardGenerator extends AbstractGenerator {
     long startTimeNanos = System.nanoTime();
 
     if (componentManager.numGeneratedSequences() % GenInputsAbstract.clear == 0) {
-      componentManager.clearGeneratedSequences();
+      inputSequenceSelector.removedFromPool(componentManager.clearGeneratedSequences());
     }
     if (SystemPlume.usedMemory(false) > GenInputsAbstract.clear_memory
         && SystemPlume.usedMemory(true) > GenInputsAbstract.clear_memory) {
-      componentManager.clearGeneratedSequences();
+      if (GenInputsAbstract.pool_size > 0) {
+        evictFromPool(componentManager.numGeneratedSequences() / 2);
+      } else {
+        inputSequenceSelector.removedFromPool(componentManager.clearGeneratedSequences());
+      }
+    }
+    if (GenInputsAbstract.pool_size > 0
+        && componentManager.numGeneratedSequences() > GenInputsAbstract.pool_size) {
+      // Evict a little more than necessary, so that eviction does not happen on every step.
+      evictFromPool((int) (GenInputsAbstract.pool_size * POOL_EVICTION_TARGET));
     }
 
     ExecutableSequence eSeq = createNewUniqueSequence();
@@ -233,7 +275,12 @@ public class ForwardGenerator extends AbstractGenerator {
     // Useful for debugging non-terminating sequences.
     // System.out.printf("step() is considering: %n%s%n%n", eSeq.sequence);
 
-    eSeq.execute(executionVisitor, checkGenerator);
+    SequenceWorkerPool workerPool = SequenceWorkerPool.getInstance();
+    if (workerPool == null) {
+      eSeq.execute(executionVisitor, checkGenerator);
+    } else {
+      eSeq.execute(executionVisitor, checkGenerator, workerPool);
+    }
 
     startTimeNanos = System.nanoTime(); // reset start time.
 
@@ -329,6 +376,8 @@ public class ForwardGenerator extends AbstractGenerator {
       return;
     }
 
+    boolean logging = Log.isLoggingOn();
+
     // Clear the active flags of some statements
     for (int i = 0; i < seq.sequence.size(); i++) {
 
@@ -337,7 +386,9 @@ public class ForwardGenerator extends AbstractGenerator {
       NormalExecution e = (NormalExecution) seq.getResult(i);
       Object runtimeValue = e.getRuntimeValue();
       if (runtimeValue == null) {
-        Log.logPrintf("Making index " + i + " inactive (value is null)%n");
+        if (logging) {
+          Log.logPrintf("Making index %d inactive (value is null)%n", i);
+        }
         seq.sequence.clearActiveFlag(i);
         continue;
       }
@@ -350,7 +401,9 @@ public class ForwardGenerator extends AbstractGenerator {
       Statement stmt = stmts.statements.get(i);
       boolean isSideEffectFree =
           stmt.isMethodCall() && sideEffectFreeMethods.contains(stmt.getOperation());
-      Log.logPrintf("isSideEffectFree => %s for %s%n", isSideEffectFree, stmt);
+      if (logging) {
+        Log.logPrintf("isSideEffectFree => %s for %s%n", isSideEffectFree, stmt);
+      }
       if (isSideEffectFree) {
         List<Integer> inputVars = stmts.getInputsAsAbsoluteIndices(i);
         for (Integer inputIndex : inputVars) {
@@ -360,8 +413,9 @@ public class ForwardGenerator extends AbstractGenerator {
 
       Class<?> objectClass = runtimeValue.getClass();
 
-      // If it is an array that is too long, clear its active flag.
-      if (objectClass.isArray() && !Value.arrayLengthOk(runtimeValue)) {
+      // If it is an array or string that is too long, clear its active flag.  The value may be a
+      // stand-in for one created in an execution worker.
+      if (!Value.valueSizeOk(runtimeValue)) {
         seq.sequence.clearActiveFlag(i);
         continue;
       }
@@ -371,7 +425,9 @@ public class ForwardGenerator extends AbstractGenerator {
       // This yields shorter tests than using the full sequence that produced
       // the value.
       if (NonreceiverTerm.isNonreceiverType(objectClass) && !objectClass.equals(Class.class)) {
-        Log.logPrintf("Making index " + i + " inactive (value is a primitive)%n");
+        if (logging) {
+          Log.logPrintf("Making index %d inactive (value is a primitive)%n", i);
+        }
         seq.sequence.clearActiveFlag(i);
 
         boolean looksLikeObjToString =
@@ -392,7 +448,9 @@ public class ForwardGenerator extends AbstractGenerator {
         continue;
       }
 
-      Log.logPrintf("Making index " + i + " active.%n");
+      if (logging) {
+        Log.logPrintf("Making index %d active.%n", i);
+      }
     }
   }
 
@@ -868,6 +926,7 @@ public class ForwardGenerator extends AbstractGenerator {
 
       Sequence chosenSeq = inputSequenceSelector.selectInputSequence(candidates);
       Log.logPrintf("chosenSeq: %s%n", chosenSeq);
+      componentManager.recordUse(chosenSeq);
 
       // TODO: the last statement might not be active -- it might not create a usable variable of
       // such a type.  An example is a void method that is called with only null arguments.
@@ -1,5 +1,6 @@
 package randoop.generation;
 
+import java.util.Set;
 import randoop.sequence.ExecutableSequence;
 import randoop.sequence.Sequence;
 import randoop.util.SimpleList;
@@ -22,4 +23,15 @@ public abstract class InputSequenceSelector {
    * @param eSeq the recently executed sequence which is new and unique, and has just been executed
    */
   public void createdExecutableSequence(ExecutableSequence eSeq) {}
+
+  /**
+   * A hook that is called after sequences have been removed from the pool, either because the pool
+   * was cleared or because some of its sequences were evicted. Lists of candidates that were
+   * previously passed to {@link #selectInputSequence} may have had elements removed.
+   *
+   * <p>The default implementation does nothing. Subclasses may override it to add behavior.
+   *
+   * @param removed the sequences that are no longer in the pool
+   */
+  public void removedFromPool(Set<Sequence> removed) {}
 }
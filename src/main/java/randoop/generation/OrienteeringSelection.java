@@ -1,11 +1,18 @@
 package randoop.generation;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import randoop.main.RandoopBug;
 import randoop.sequence.ExecutableSequence;
 import randoop.sequence.Sequence;
+import randoop.util.FenwickTree;
+import randoop.util.ListOfLists;
 import randoop.util.Randomness;
+import randoop.util.SimpleArrayList;
 import randoop.util.SimpleList;
 
 /**
@@ -36,11 +43,53 @@ public class OrienteeringSelection extends InputSequenceSelector {
   private final Map<Sequence, SequenceDetails> sequenceDetailsMap = new HashMap<>();
 
   /**
-   * Map from a sequence to its weight. For every sequence s, {@code weightMap.get(s) ==
-   * sequenceDetailsMap.get(s).getWeight()}. This is needed because {@code
-   * Randomneess#randomMemberWeighted} takes a {@code Map<T, Double>} as an argument.
+   * For each list of sequences that has appeared in a candidate list, the weights of its elements.
+   * These lists are the per-type lists of a {@link randoop.sequence.SequenceCollection}, which are
+   * only appended to between calls to {@link #removedFromPool}, so each index is brought up to date
+   * by adding the weights of the elements appended since it was last used. Keyed by identity,
+   * because two distinct lists may be equal.
    */
-  private final Map<Sequence, Double> weightMap = new HashMap<>();
+  private final Map<SimpleList<Sequence>, WeightIndex> weightIndexes = new IdentityHashMap<>();
+
+  /**
+   * The weights of the elements of one list of sequences, from which a weighted selection takes
+   * time logarithmic in the length of the list.
+   */
+  private static class WeightIndex {
+    /** The list of sequences. */
+    final SimpleArrayList<Sequence> list;
+
+    /** The weight of each element of {@link #list} that has been indexed so far. */
+    final FenwickTree weights = new FenwickTree();
+
+    /** The number of weight updates since {@link #weights} was last rebuilt. */
+    int updatesSinceRebuild = 0;
+
+    /**
+     * Create an empty WeightIndex.
+     *
+     * @param list the list of sequences
+     */
+    WeightIndex(SimpleArrayList<Sequence> list) {
+      this.list = list;
+    }
+
+    /**
+     * Sets the weight of the element at the given position. Occasionally recomputes the tree from
+     * scratch, so that floating-point error from many small updates does not accumulate.
+     *
+     * @param position a position in the list
+     * @param weight the new weight of the element
+     */
+    void setWeight(int position, double weight) {
+      weights.set(position, weight);
+      updatesSinceRebuild++;
+      if (updatesSinceRebuild > weights.size()) {
+        weights.rebuild();
+        updatesSinceRebuild = 0;
+      }
+    }
+  }
 
   /** Information used by Orienteering to compute a weight for a sequence. */
   private static class SequenceDetails {
@@ -59,6 +108,12 @@ public class OrienteeringSelection extends InputSequenceSelector {
      */
     private double weight;
 
+    /** The weight indexes that contain the sequence. */
+    private final List<WeightIndex> indexes = new ArrayList<>(1);
+
+    /** The position of the sequence in each of {@link #indexes}. */
+    private final List<Integer> positions = new ArrayList<>(1);
+
     /**
      * Create a SequenceDetails for the given sequence, but using the given execution time.
      *
@@ -108,9 +163,42 @@ public class OrienteeringSelection extends InputSequenceSelector {
      * simplification of the one described in the GRT paper which maintains a separate exec_time for
      * each execution of seq. However, we assume that every execution time for a sequence is the
      * same as the first execution.
+     *
+     * <p>Also updates the weight in every index that contains the sequence.
      */
     private void updateWeight() {
       weight = 1.0 / (selectionCount * executionTimeNanos * methodSizeSqrt);
+      for (int i = 0; i < indexes.size(); i++) {
+        indexes.get(i).setWeight(positions.get(i), weight);
+      }
+    }
+
+    /**
+     * Records that the sequence appears in the given index, at the given position.
+     *
+     * @param index a weight index
+     * @param position the position of the sequence in the index
+     */
+    void addIndex(WeightIndex index, int position) {
+      indexes.add(index);
+      positions.add(position);
+    }
+
+    /** Forgets all the indexes that contain the sequence. */
+    void clearIndexes() {
+      indexes.clear();
+      positions.clear();
+    }
+
+    /**
+     * Makes every index that contains the sequence described by {@code other} also refer to this.
+     *
+     * @param other the previous details for the same sequence
+     */
+    void takeIndexesFrom(SequenceDetails other) {
+      indexes.addAll(other.indexes);
+      positions.addAll(other.positions);
+      updateWeight();
     }
   }
 
@@ -132,47 +220,140 @@ public class OrienteeringSelection extends InputSequenceSelector {
   /**
    * Bias input selection towards lower-cost sequences.
    *
+   * <p>The candidate list is usually a {@link ListOfLists} whose components are lists from the
+   * pool. The weights of each such component are kept in a {@link WeightIndex}, so the total weight
+   * of the candidates is computed in time proportional to the number of components, and the chosen
+   * sequence is found in time logarithmic in the size of its component.
+   *
    * @param candidates sequences to choose from
    * @return the chosen sequence
    */
   @Override
   public Sequence selectInputSequence(SimpleList<Sequence> candidates) {
-    // One could imagine caching the total weight to avoid this iteration over the list.  However,
-    // this candidate list is provided by the client, there are many such lists, and we don't want
-    // to inject code into all the places that the list may be computed.  Also, there might be
-    // issues with floating-point precision from repeatedly updating a running total for each list.
-    double totalWeight = computeTotalWeightForCandidates(candidates);
+    if (candidates.isEmpty()) {
+      throw new IllegalArgumentException("Empty list");
+    }
+
+    List<SimpleList<Sequence>> components = new ArrayList<>();
+    collectComponents(candidates, components);
+
+    double[] componentWeights = new double[components.size()];
+    double totalWeight = 0;
+    int lastNonEmpty = -1;
+    for (int i = 0; i < components.size(); i++) {
+      SimpleList<Sequence> component = components.get(i);
+      if (component.isEmpty()) {
+        continue;
+      }
+      lastNonEmpty = i;
+      if (component instanceof SimpleArrayList) {
+        componentWeights[i] = getWeightIndex((SimpleArrayList<Sequence>) component).weights.total();
+      } else {
+        for (int j = 0; j < component.size(); j++) {
+          componentWeights[i] += getSequenceDetails(component.get(j)).getWeight();
+        }
+      }
+      totalWeight += componentWeights[i];
+    }
 
-    Sequence selectedSequence = Randomness.randomMemberWeighted(candidates, weightMap, totalWeight);
+    // Select a random point in the interval and find its corresponding element.
+    double point = Randomness.nextRandomDouble(totalWeight);
+    Sequence selectedSequence = null;
+    for (int i = 0; i <= lastNonEmpty; i++) {
+      // Round-off error can make the point fall after the last component; use the last one.
+      if (point < componentWeights[i] || i == lastNonEmpty) {
+        selectedSequence = selectFromComponent(components.get(i), point);
+        break;
+      }
+      point -= componentWeights[i];
+    }
+    assert selectedSequence != null;
 
-    // Compute and update the weight of the selected sequence which will be affected by its
-    // increased selection count.
-    SequenceDetails sequenceDetails = sequenceDetailsMap.get(selectedSequence);
-    sequenceDetails.incrementSelectionCount();
-    weightMap.put(selectedSequence, sequenceDetails.getWeight());
+    // Update the weight of the selected sequence, which is affected by its increased selection
+    // count.
+    sequenceDetailsMap.get(selectedSequence).incrementSelectionCount();
 
     return selectedSequence;
   }
 
   /**
-   * Compute the total weight of the list of candidate {@link Sequence}s.
+   * Adds to {@code components} the lists that make up the given list, in order.
    *
-   * @param candidates list of candidate sequences
-   * @return the total weight of the input candidate list
+   * @param list a list of sequences
+   * @param components the list to which to add the components
    */
-  private double computeTotalWeightForCandidates(SimpleList<Sequence> candidates) {
-    double totalWeight = 0;
-    for (int i = 0; i < candidates.size(); i++) {
-      Sequence candidate = candidates.get(i);
-      SequenceDetails details = sequenceDetailsMap.get(candidate);
-      if (details == null) {
-        // This might be a literal that was created by ComponentManager.getSequencesForType().
-        createdExecutableSequence(new ExecutableSequence(candidate));
-        details = sequenceDetailsMap.get(candidate);
+  private static void collectComponents(
+      SimpleList<Sequence> list, List<SimpleList<Sequence>> components) {
+    if (list instanceof ListOfLists) {
+      for (SimpleList<Sequence> sublist : ((ListOfLists<Sequence>) list).lists) {
+        collectComponents(sublist, components);
+      }
+    } else {
+      components.add(list);
+    }
+  }
+
+  /**
+   * Returns the element of the component whose interval of the cumulative weight distribution
+   * contains the given point.
+   *
+   * @param component a non-empty list of sequences
+   * @param point a point in [0, total weight of component)
+   * @return the element that contains the point
+   */
+  private Sequence selectFromComponent(SimpleList<Sequence> component, double point) {
+    if (component instanceof SimpleArrayList) {
+      WeightIndex index = weightIndexes.get(component);
+      return component.get(index.weights.find(point));
+    }
+    double currentPoint = 0;
+    for (int i = 0; i < component.size(); i++) {
+      currentPoint += getSequenceDetails(component.get(i)).getWeight();
+      if (currentPoint > point) {
+        return component.get(i);
       }
-      totalWeight += details.getWeight();
     }
-    return totalWeight;
+    return component.get(component.size() - 1);
+  }
+
+  /**
+   * Returns the weight index for the given list, after adding the weights of any elements that
+   * were appended to the list since the index was last used.
+   *
+   * @param list a list of sequences
+   * @return the up-to-date weight index for the list
+   */
+  private WeightIndex getWeightIndex(SimpleArrayList<Sequence> list) {
+    WeightIndex index = weightIndexes.computeIfAbsent(list, __ -> new WeightIndex(list));
+    int indexed = index.weights.size();
+    if (indexed > list.size()) {
+      throw new RandoopBug(
+          String.format(
+              "Candidate list shrank from %d to %d elements without a call to removedFromPool",
+              indexed, list.size()));
+    }
+    for (int i = indexed; i < list.size(); i++) {
+      SequenceDetails details = getSequenceDetails(list.get(i));
+      index.weights.add(details.getWeight());
+      details.addIndex(index, i);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the details for the given sequence, creating them if necessary.
+   *
+   * @param sequence a sequence
+   * @return the details for the sequence
+   */
+  private SequenceDetails getSequenceDetails(Sequence sequence) {
+    SequenceDetails details = sequenceDetailsMap.get(sequence);
+    if (details == null) {
+      // This might be a literal that was created by ComponentManager.getSequencesForType().
+      createdExecutableSequence(new ExecutableSequence(sequence));
+      details = sequenceDetailsMap.get(sequence);
+    }
+    return details;
   }
 
   /**
@@ -193,6 +374,24 @@ public class OrienteeringSelection extends InputSequenceSelector {
     createSequenceDetailsWithExecutionTime(eSeq.sequence, eSeq.exectime);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation discards the details of the removed sequences, and discards all weight
+   * indexes, since elements may have been removed from the middle of the indexed lists. The
+   * indexes are rebuilt as the lists appear in later candidate lists.
+   *
+   * @param removed the sequences that are no longer in the pool
+   */
+  @Override
+  public void removedFromPool(Set<Sequence> removed) {
+    sequenceDetailsMap.keySet().removeAll(removed);
+    weightIndexes.clear();
+    for (SequenceDetails details : sequenceDetailsMap.values()) {
+      details.clearIndexes();
+    }
+  }
+
   /**
    * Creates and stores a {@link SequenceDetails} for the given {@link Sequence} with the
    * corresponding execution time.
@@ -203,8 +402,10 @@ public class OrienteeringSelection extends InputSequenceSelector {
   private void createSequenceDetailsWithExecutionTime(Sequence sequence, long executionTimeNanos) {
     SequenceDetails sequenceDetails = new SequenceDetails(sequence, executionTimeNanos);
 
-    sequenceDetailsMap.put(sequence, sequenceDetails);
-    weightMap.put(sequence, sequenceDetails.getWeight());
+    SequenceDetails previous = sequenceDetailsMap.put(sequence, sequenceDetails);
+    if (previous != null) {
+      sequenceDetails.takeIndexesFrom(previous);
+    }
   }
 
   /**
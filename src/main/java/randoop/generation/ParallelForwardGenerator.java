@@ -0,0 +1,525 @@
+package randoop.generation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.ExecutionVisitor;
+import randoop.instrument.CoveredClassRegistry;
+import randoop.main.GenInputsAbstract;
+import randoop.main.RandoopBug;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.TestCheckGenerator;
+import randoop.test.TestChecks;
+import randoop.types.ClassOrInterfaceType;
+import randoop.util.Log;
+import randoop.util.Randomness;
+
+/**
+ * A generator that runs several {@link ForwardGenerator} workers at the same time, each on its own
+ * thread. Used when {@link GenInputsAbstract#parallel_workers} is greater than 1.
+ *
+ * <p>Each worker selects operations, builds sequences, and executes them independently, using its
+ * own copy of the component pool, its own check generator and execution visitor (see {@link
+ * #setWorkerTestCheckGenerators} and {@link #setWorkerExecutionVisitors}), and its own record of
+ * the classes covered by its executions. Whenever a worker adds a new sequence to its pool, the
+ * sequence is also given to every other worker.
+ *
+ * <p>The main loop in {@link AbstractGenerator#createAndClassifySequences()} consumes the steps of
+ * the workers one at a time, in round-robin order, so classification, output filtering, and the
+ * generation limits are handled on a single thread, and the regression and error sequences of all
+ * workers end up in this generator's lists. A worker may run at most {@link #STEPS_AHEAD} steps
+ * ahead of the main loop. The sequences that the other workers created, and the regression tests
+ * of the worker, are delivered to it each time the main loop consumes one of its steps, and the
+ * worker adds them to its pool before its next step. A sequence that another worker already
+ * created is discarded by the main loop. Because each worker makes its random choices with its own
+ * generator, seeded from {@link GenInputsAbstract#randomseed} and the worker's index, a run depends
+ * only on the seed and the number of workers, and not on thread scheduling.
+ *
+ * <p>The code under test is executed concurrently by the workers, so tests for code that depends
+ * on global (static) state may be flaky.
+ */
+public class ParallelForwardGenerator extends AbstractGenerator {
+
+  /** How many steps a worker may take before the main loop has consumed the first of them. */
+  static final int STEPS_AHEAD = 2;
+
+  /** The workers. */
+  private final List<Worker> workers;
+
+  /** The set of ALL sequences returned by {@link #step()}, in the order they were returned. */
+  private final Set<Sequence> allSequences = new LinkedHashSet<>();
+
+  /** The index of the worker whose step {@link #step()} returns next. */
+  private int nextWorker = 0;
+
+  /**
+   * The worker that produced each sequence returned by {@link #step()} that may still be classified
+   * as a regression test. With a batch output filter, a sequence is classified only after later
+   * steps, which may have been taken by other workers.
+   */
+  private final Map<Sequence, Worker> producers = new IdentityHashMap<>();
+
+  /**
+   * Creates the check generator of each worker, or null to give all workers {@link
+   * #checkGenerator}, which they then use one at a time.
+   */
+  private @Nullable Supplier<TestCheckGenerator> checkGeneratorFactory = null;
+
+  /**
+   * Creates the execution visitor of each worker, or null to give all workers {@link
+   * #executionVisitor}, which they then use one at a time.
+   */
+  private @Nullable Supplier<ExecutionVisitor> executionVisitorFactory = null;
+
+  /** Set to true to make the workers stop. */
+  private volatile boolean stopWorkers = false;
+
+  /** How long to wait for a worker thread to finish, after asking it to stop. */
+  private static final long WORKER_JOIN_MILLIS = 10000;
+
+  /**
+   * Create a parallel generator.
+   *
+   * @param operations list of methods under test
+   * @param sideEffectFreeMethods side-effect-free methods
+   * @param limits limits for generation, after which the generator will stop
+   * @param componentManager container for the initial sequences; each worker gets a copy
+   * @param stopper determines when the test generation process should conclude. Can be null.
+   * @param classesUnderTest the classes that are under test
+   * @param numWorkers the number of workers; must be at least 1
+   */
+  public ParallelForwardGenerator(
+      List<TypedOperation> operations,
+      Set<TypedOperation> sideEffectFreeMethods,
+      GenInputsAbstract.Limits limits,
+      ComponentManager componentManager,
+      IStopper stopper,
+      Set<ClassOrInterfaceType> classesUnderTest,
+      int numWorkers) {
+    super(operations, limits, componentManager, stopper);
+    if (numWorkers < 1) {
+      throw new IllegalArgumentException("numWorkers must be at least 1, was " + numWorkers);
+    }
+
+    this.workers = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      ForwardGenerator generator =
+          new ForwardGenerator(
+              // Each worker removes parameterless operations from its own list.
+              new ArrayList<>(operations),
+              sideEffectFreeMethods,
+              limits,
+              new ComponentManager(componentManager),
+              /* stopper= */ null,
+              classesUnderTest);
+      workers.add(new Worker(i, generator));
+    }
+  }
+
+  /**
+   * Registers a factory that creates a check generator for each worker. Otherwise, the workers
+   * share the check generator passed to {@link #setTestCheckGenerator}, and use it one at a time.
+   *
+   * @param factory creates a new check generator each time it is called
+   */
+  public void setWorkerTestCheckGenerators(Supplier<TestCheckGenerator> factory) {
+    this.checkGeneratorFactory = factory;
+  }
+
+  /**
+   * Registers a factory that creates an execution visitor for each worker. Otherwise, the workers
+   * share the visitor passed to {@link #setExecutionVisitor}, and use it one at a time.
+   *
+   * @param factory creates a new execution visitor each time it is called
+   */
+  public void setWorkerExecutionVisitors(Supplier<ExecutionVisitor> factory) {
+    this.executionVisitorFactory = factory;
+  }
+
+  /** The outcome of one call to {@link ForwardGenerator#step()} by a worker. */
+  private static class StepResult {
+    /** The sequence created by the step; null if the step returned null or threw an exception. */
+    final @Nullable ExecutableSequence eSeq;
+
+    /** The exception thrown by the step, or null if it completed normally. */
+    final @Nullable Throwable error;
+
+    /**
+     * Create a StepResult.
+     *
+     * @param eSeq the sequence created by the step
+     * @param error the exception thrown by the step
+     */
+    StepResult(@Nullable ExecutableSequence eSeq, @Nullable Throwable error) {
+      this.eSeq = eSeq;
+      this.error = error;
+    }
+  }
+
+  /** A component sequence that one worker created and that is being given to another worker. */
+  private static class SharedComponent {
+    /** The sequence, which has active indices. */
+    final Sequence sequence;
+
+    /** How long it took the creating worker to execute the sequence, in nanoseconds. */
+    final long exectimeNanos;
+
+    /**
+     * Create a SharedComponent.
+     *
+     * @param sequence the sequence
+     * @param exectimeNanos the execution time of the sequence, in nanoseconds
+     */
+    SharedComponent(Sequence sequence, long exectimeNanos) {
+      this.sequence = sequence;
+      this.exectimeNanos = exectimeNanos;
+    }
+  }
+
+  /**
+   * What the main loop gives a worker each time it consumes one of the worker's steps. The worker
+   * processes a delivery before each step, and takes no step without one.
+   */
+  private static class Delivery {
+    /** Sequences that other workers added to their pools. */
+    final List<SharedComponent> sharedComponents;
+
+    /** Sequences produced by the worker that were classified as regression tests. */
+    final List<Sequence> newRegressionTests;
+
+    /**
+     * Create a Delivery.
+     *
+     * @param sharedComponents sequences that other workers added to their pools
+     * @param newRegressionTests sequences produced by the worker that were classified as regression
+     *     tests
+     */
+    Delivery(List<SharedComponent> sharedComponents, List<Sequence> newRegressionTests) {
+      this.sharedComponents = sharedComponents;
+      this.newRegressionTests = newRegressionTests;
+    }
+  }
+
+  /** A thread that repeatedly calls {@link ForwardGenerator#step()} on its own generator. */
+  private class Worker extends Thread {
+
+    /** The index of this worker. */
+    final int index;
+
+    /** The generator that this worker drives. */
+    final ForwardGenerator generator;
+
+    /** The deliveries that this worker has not yet processed. */
+    final BlockingQueue<Delivery> deliveries = new LinkedBlockingQueue<>();
+
+    /**
+     * The steps taken by this worker that the main loop has not yet consumed. There are at most
+     * {@link #STEPS_AHEAD}, because the worker takes a step only after processing a delivery.
+     */
+    final BlockingQueue<StepResult> results = new LinkedBlockingQueue<>();
+
+    /** Components for the next delivery. Accessed only by the main loop. */
+    List<SharedComponent> pendingComponents = new ArrayList<>();
+
+    /** Regression tests for the next delivery. Accessed only by the main loop. */
+    List<Sequence> pendingRegressionTests = new ArrayList<>();
+
+    /**
+     * Create a worker.
+     *
+     * @param index the index of this worker, used in its name
+     * @param generator the generator that this worker drives
+     */
+    Worker(int index, ForwardGenerator generator) {
+      super("randoop.generation.ParallelForwardGenerator.Worker-" + index);
+      this.index = index;
+      this.generator = generator;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      Randomness.setThreadSeed(GenInputsAbstract.randomseed + 1L + index);
+      // Classes used by the code that this worker runs, including on its runner threads, are
+      // recorded separately from those used by the other workers.
+      CoveredClassRegistry.trackCurrentThread();
+      try {
+        runSteps();
+      } finally {
+        CoveredClassRegistry.untrackCurrentThread();
+        Randomness.clearThreadSeed();
+      }
+    }
+
+    /** Takes steps until the workers are stopped or a step throws an exception. */
+    private void runSteps() {
+      while (!stopWorkers) {
+        Delivery delivery = takeDelivery();
+        if (delivery == null) {
+          return;
+        }
+        StepResult result;
+        try {
+          for (SharedComponent shared : delivery.sharedComponents) {
+            generator.addSharedComponent(shared.sequence, shared.exectimeNanos);
+          }
+          for (Sequence regression : delivery.newRegressionTests) {
+            generator.newRegressionTestHook(regression);
+          }
+          result = new StepResult(generator.step(), null);
+        } catch (Throwable t) {
+          result = new StepResult(null, t);
+        }
+        results.add(result);
+        if (result.error != null) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Waits for the next delivery.
+     *
+     * @return the next delivery, or null if the workers were stopped first
+     */
+    private @Nullable Delivery takeDelivery() {
+      try {
+        while (!stopWorkers) {
+          Delivery delivery = deliveries.poll(100, TimeUnit.MILLISECONDS);
+          if (delivery != null) {
+            return delivery;
+          }
+        }
+      } catch (InterruptedException e) {
+        // Treat interruption like a request to stop.
+      }
+      return null;
+    }
+
+    /** Gives this worker the pending components and regression tests. Called by the main loop. */
+    void deliver() {
+      deliveries.add(new Delivery(pendingComponents, pendingRegressionTests));
+      pendingComponents = new ArrayList<>();
+      pendingRegressionTests = new ArrayList<>();
+    }
+  }
+
+  @Override
+  public void createAndClassifySequences() {
+    for (Worker worker : workers) {
+      worker.generator.setTestCheckGenerator(
+          checkGeneratorFactory != null
+              ? checkGeneratorFactory.get()
+              : new SerializedCheckGenerator(checkGenerator));
+      worker.generator.setExecutionVisitor(
+          executionVisitorFactory != null
+              ? executionVisitorFactory.get()
+              : new SerializedVisitor(executionVisitor));
+      worker.generator.setOperationHistoryLogger(operationHistory);
+    }
+    stopWorkers = false;
+    for (Worker worker : workers) {
+      for (int i = 0; i < STEPS_AHEAD; i++) {
+        worker.deliver();
+      }
+      worker.start();
+    }
+    try {
+      super.createAndClassifySequences();
+    } finally {
+      stopAllWorkers();
+    }
+  }
+
+  /** Tells the workers to stop, and waits for them to finish their current step. */
+  private void stopAllWorkers() {
+    stopWorkers = true;
+    for (Worker worker : workers) {
+      try {
+        worker.join(WORKER_JOIN_MILLIS);
+      } catch (InterruptedException e) {
+        // Stop waiting; the worker threads are daemon threads.
+      }
+      if (worker.isAlive()) {
+        Log.logPrintf(
+            "Worker %s did not stop within %d ms%n", worker.getName(), WORKER_JOIN_MILLIS);
+      }
+    }
+  }
+
+  /**
+   * Returns the next step of the next worker, in round-robin order. Also gives the new components
+   * that the worker created to all the other workers, and lets the worker take another step.
+   *
+   * @return a test sequence, may be null
+   */
+  @Override
+  public @Nullable ExecutableSequence step() {
+    Worker worker = workers.get(nextWorker);
+    nextWorker = (nextWorker + 1) % workers.size();
+    StepResult result;
+    try {
+      result = worker.results.take();
+    } catch (InterruptedException e) {
+      throw new RandoopBug("Interrupted while waiting for a parallel worker", e);
+    }
+    if (result.error != null) {
+      if (result.error instanceof RuntimeException) {
+        throw (RuntimeException) result.error;
+      } else if (result.error instanceof Error) {
+        throw (Error) result.error;
+      } else {
+        throw new RandoopBug("Exception in parallel worker " + worker, result.error);
+      }
+    }
+
+    if (!hasPendingOutputTests()) {
+      // Every sequence returned so far has been classified or discarded.
+      producers.clear();
+    }
+    ExecutableSequence eSeq = result.eSeq;
+    if (eSeq != null && !allSequences.add(eSeq.sequence)) {
+      // Another worker created the same sequence in an earlier step.
+      eSeq = null;
+    }
+    if (eSeq != null) {
+      producers.put(eSeq.sequence, worker);
+      if (eSeq.sequence.hasActiveFlags()) {
+        // The worker added the sequence to its own pool; add it to the others' pools.
+        SharedComponent shared = new SharedComponent(eSeq.sequence, eSeq.exectime);
+        for (Worker other : workers) {
+          if (other != worker) {
+            other.pendingComponents.add(shared);
+          }
+        }
+      }
+    }
+    worker.deliver();
+    return eSeq;
+  }
+
+  /**
+   * Passes the sequence to the worker that created it, which processes it before a later step.
+   *
+   * @param sequence the new sequence that was classified as a regression test
+   */
+  @Override
+  public void newRegressionTestHook(Sequence sequence) {
+    Worker producer = producers.remove(sequence);
+    if (producer != null) {
+      producer.pendingRegressionTests.add(sequence);
+    }
+  }
+
+  @Override
+  public Set<Sequence> getAllSequences() {
+    return allSequences;
+  }
+
+  @Override
+  public int numGeneratedSequences() {
+    return allSequences.size();
+  }
+
+  @Override
+  public String toString() {
+    return "ParallelForwardGenerator("
+        + "workers: "
+        + workers.size()
+        + ", steps: "
+        + num_steps
+        + ", null steps: "
+        + null_steps
+        + ", num_sequences_generated: "
+        + num_sequences_generated
+        + ", allSequences: "
+        + allSequences.size()
+        + ", regression seqs: "
+        + outRegressionSeqs.size()
+        + ", error seqs: "
+        + outErrorSeqs.size()
+        + ")";
+  }
+
+  /** A check generator that lets only one worker at a time use a shared check generator. */
+  private static class SerializedCheckGenerator extends TestCheckGenerator {
+
+    /** The shared check generator, which is also the lock. */
+    private final TestCheckGenerator shared;
+
+    /**
+     * Create a SerializedCheckGenerator.
+     *
+     * @param shared the shared check generator
+     */
+    SerializedCheckGenerator(TestCheckGenerator shared) {
+      this.shared = shared;
+    }
+
+    @Override
+    public TestChecks<?> generateTestChecks(ExecutableSequence eseq) {
+      synchronized (shared) {
+        return shared.generateTestChecks(eseq);
+      }
+    }
+
+    @Override
+    public boolean hasGenerator(Class<? extends TestCheckGenerator> genClass) {
+      return shared.hasGenerator(genClass);
+    }
+  }
+
+  /** An execution visitor that lets only one worker at a time use a shared visitor. */
+  private static class SerializedVisitor implements ExecutionVisitor {
+
+    /** The shared visitor, which is also the lock. */
+    private final ExecutionVisitor shared;
+
+    /**
+     * Create a SerializedVisitor.
+     *
+     * @param shared the shared visitor
+     */
+    SerializedVisitor(ExecutionVisitor shared) {
+      this.shared = shared;
+    }
+
+    @Override
+    public void initialize(ExecutableSequence eseq) {
+      synchronized (shared) {
+        shared.initialize(eseq);
+      }
+    }
+
+    @Override
+    public void visitBeforeStatement(ExecutableSequence eseq, int i) {
+      synchronized (shared) {
+        shared.visitBeforeStatement(eseq, i);
+      }
+    }
+
+    @Override
+    public void visitAfterStatement(ExecutableSequence eseq, int i) {
+      synchronized (shared) {
+        shared.visitAfterStatement(eseq, i);
+      }
+    }
+
+    @Override
+    public void visitAfterSequence(ExecutableSequence eseq) {
+      synchronized (shared) {
+        shared.visitAfterSequence(eseq);
+      }
+    }
+  }
+}
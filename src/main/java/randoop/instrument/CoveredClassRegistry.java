@@ -0,0 +1,152 @@
+package randoop.instrument;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records which classes instrumented by the covered-class agent have been used. Each instrumented
+ * class is given an id when it is loaded, and each of its methods and constructors sets the bit for
+ * that id on entry. {@link CoveredClassVisitor} reads and clears all the bits at once after each
+ * sequence is executed.
+ *
+ * <p>A thread that calls {@link #trackCurrentThread} gets its own bits, which are also used by the
+ * threads it creates afterward. This lets parallel generators attribute each covered class to the
+ * sequence whose execution used it. Other threads share one set of bits.
+ *
+ * <p>The bits are preallocated, so that setting a bit never allocates or takes a lock. The
+ * instrumented classes and Randoop must share this class, so it is loaded by the system class
+ * loader.
+ */
+public final class CoveredClassRegistry {
+
+  /** The maximum number of classes that can be registered. */
+  static final int MAX_CLASSES = 1 << 20;
+
+  /** The bit for each registered class, indexed by class id, for threads without their own bits. */
+  private static final AtomicLongArray covered = new AtomicLongArray(MAX_CLASSES >>> 6);
+
+  /** The bits of the current thread, or null if it uses {@link #covered}. */
+  private static final InheritableThreadLocal<AtomicLongArray> threadCovered =
+      new InheritableThreadLocal<>();
+
+  /** True once some thread has called {@link #trackCurrentThread}. */
+  private static volatile boolean anyThreadTracked = false;
+
+  /** Map from the name of a registered class to its id. */
+  private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+  /** The number of registered classes; ids are less than this. */
+  private static volatile int classCount = 0;
+
+  private CoveredClassRegistry() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Gives an id to a class that is about to be instrumented. If the class is already registered,
+   * returns its id.
+   *
+   * @param className the fully-qualified name of the class
+   * @return the id of the class, or -1 if no more classes can be registered
+   */
+  public static synchronized int register(String className) {
+    Integer id = ids.get(className);
+    if (id != null) {
+      return id;
+    }
+    if (classCount == MAX_CLASSES) {
+      return -1;
+    }
+    int newId = classCount;
+    ids.put(className, newId);
+    classCount = newId + 1;
+    return newId;
+  }
+
+  /**
+   * Returns the id of a registered class.
+   *
+   * @param className the fully-qualified name of the class
+   * @return the id of the class, or -1 if it has not been registered
+   */
+  public static int getId(String className) {
+    Integer id = ids.get(className);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Gives the current thread its own bits, so that the classes used by it, and by the threads it
+   * creates afterward, are recorded separately from those used by other threads. All bits of the
+   * current thread are initially clear.
+   */
+  public static void trackCurrentThread() {
+    threadCovered.set(new AtomicLongArray(MAX_CLASSES >>> 6));
+    anyThreadTracked = true;
+  }
+
+  /** Makes the current thread use the shared bits again. */
+  public static void untrackCurrentThread() {
+    threadCovered.remove();
+  }
+
+  /**
+   * Returns the bits of the current thread.
+   *
+   * @return the bits of the current thread
+   */
+  private static AtomicLongArray currentBits() {
+    if (anyThreadTracked) {
+      AtomicLongArray bits = threadCovered.get();
+      if (bits != null) {
+        return bits;
+      }
+    }
+    return covered;
+  }
+
+  /**
+   * Records that a class has been used. Called on entry to each method and constructor of an
+   * instrumented class.
+   *
+   * @param classId the id of the class
+   */
+  public static void markCovered(int classId) {
+    AtomicLongArray bits = currentBits();
+    int index = classId >>> 6;
+    long mask = 1L << classId;
+    long word;
+    while (((word = bits.get(index)) & mask) == 0) {
+      if (bits.compareAndSet(index, word, word | mask)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns whether a class has been used since the last call to {@link #takeCovered}, as recorded
+   * in the bits of the current thread.
+   *
+   * @param classId the id of the class
+   * @return true if the class has been used, false otherwise
+   */
+  public static boolean isCovered(int classId) {
+    return (currentBits().get(classId >>> 6) & (1L << classId)) != 0;
+  }
+
+  /**
+   * Returns the ids of the classes that have been used since the last call to this method, as
+   * recorded in the bits of the current thread, and clears them.
+   *
+   * @return the ids of the classes that have been used
+   */
+  public static BitSet takeCovered() {
+    AtomicLongArray bits = currentBits();
+    long[] words = new long[(classCount + 63) >>> 6];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = bits.getAndSet(i, 0);
+    }
+    return BitSet.valueOf(words);
+  }
+}
@@ -1,19 +1,22 @@
 package randoop.instrument;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.BitSet;
 import java.util.Set;
 import randoop.ExecutionVisitor;
 import randoop.sequence.ExecutableSequence;
 
 /**
  * A {@link ExecutionVisitor} that polls a set of coverage instrumented classes and adds each
- * covered class to an {@link ExecutableSequence} after it is executed.
+ * covered class to an {@link ExecutableSequence} after it is executed. The classes are polled
+ * together, by reading and clearing their bits in the {@link CoveredClassRegistry}.
  */
 public class CoveredClassVisitor implements ExecutionVisitor {
 
   /** The classes to be polled. */
-  private Set<Class<?>> classes;
+  private final Class<?>[] classes;
+
+  /** The id of each class in {@link #classes} in the {@link CoveredClassRegistry}. */
+  private final int[] classIds;
 
   /**
    * Creates a visitor to poll the given classes for coverage by sequence executions.
@@ -21,7 +24,15 @@ public class CoveredClassVisitor implements ExecutionVisitor {
    * @param classes the set of classes to poll for coverage by a sequence
    */
   public CoveredClassVisitor(Set<Class<?>> classes) {
-    this.classes = classes;
+    this.classes = classes.toArray(new Class<?>[0]);
+    this.classIds = new int[this.classes.length];
+    for (int i = 0; i < this.classes.length; i++) {
+      int id = CoveredClassRegistry.getId(this.classes[i].getName());
+      if (id < 0) {
+        throw new Error("Class is not instrumented for coverage: " + this.classes[i].getName());
+      }
+      classIds[i] = id;
+    }
   }
 
   /**
@@ -31,34 +42,14 @@ public class CoveredClassVisitor implements ExecutionVisitor {
    */
   @Override
   public void visitAfterSequence(ExecutableSequence eseq) {
-    for (Class<?> c : classes) {
-      if (checkAndReset(c)) {
-        eseq.addCoveredClass(c);
-      }
+    BitSet covered = CoveredClassRegistry.takeCovered();
+    if (covered.isEmpty()) {
+      return;
     }
-  }
-
-  /**
-   * Calls the coverage instrumentation method.
-   *
-   * @param c the class for which method is to be called
-   * @return true if the instrumentation method is true, false otherwise
-   */
-  private boolean checkAndReset(Class<?> c) {
-    try {
-      Method m = c.getMethod("randoop_checkAndReset");
-      m.setAccessible(true);
-      return (boolean) m.invoke(null);
-    } catch (NoSuchMethodException e) {
-      throw new Error("Cannot find instrumentation method: " + e);
-    } catch (SecurityException e) {
-      throw new Error("Security error when accessing instrumentation method: " + e);
-    } catch (IllegalAccessException e) {
-      throw new Error("Cannot access instrumentation method: " + e);
-    } catch (IllegalArgumentException e) {
-      throw new Error("Bad argument to instrumentation method: " + e);
-    } catch (InvocationTargetException e) {
-      throw new Error("Bad invocation of instrumentation method: " + e);
+    for (int i = 0; i < classes.length; i++) {
+      if (covered.get(classIds[i])) {
+        eseq.addCoveredClass(classes[i]);
+      }
     }
   }
 
@@ -278,6 +278,24 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("What to do if a flaky test is generated")
   public static FlakyTestAction flaky_test_behavior = FlakyTestAction.OUTPUT;
 
+  /**
+   * Whether to run each regression test class in a new JVM when looking for flaky tests. By
+   * default, the test classes are run in a long-lived worker JVM, which loads each test class and
+   * the code under test in a new class loader. A test class that terminates the worker is run again
+   * in a new JVM. Use this option if tests depend on JVM-wide state, such as system properties,
+   * that the worker does not reset.
+   */
+  @Option("Run each test class in a new JVM when looking for flaky tests")
+  public static boolean flaky_test_fork = false;
+
+  /**
+   * The number of regression test classes that are checked for flaky tests at the same time. Each
+   * check compiles a test class and runs it in its own JVM. The test classes and the names of their
+   * test methods are the same regardless of this number.
+   */
+  @Option("Number of test classes to check for flaky tests concurrently")
+  public static int flaky_test_threads = 1;
+
   /**
    * How many suspected side-effecting or nondeterministic methods (from the program under test) to
    * print.
@@ -322,6 +340,17 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Whether to check if test sequences are compilable")
   public static boolean check_compilable = true;
 
+  /**
+   * The number of tests whose compilability is checked together, by a single invocation of the
+   * compiler, when {@code --check-compilable} is true. The tests are compiled as methods of one
+   * class, and each compilation error is attributed to the test whose method contains it. Larger
+   * batches spread the cost of starting the compiler over more tests, but a test is classified as a
+   * regression or error-revealing test only once its batch has been checked. If 1, each test is
+   * compiled on its own as soon as it is generated.
+   */
+  @Option("Number of tests to compile together when checking compilability")
+  public static int check_compilable_batch_size = 1;
+
   /**
    * Classes that must occur in a test. Randoop will only output tests whose source code has at
    * least one use of a member of a class whose name matches the regular expression.
@@ -462,6 +491,17 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Terminate Randoop if specification condition is uncompilable")
   public static boolean ignore_condition_compilation_error = false;
 
+  /**
+   * A directory in which to cache the compiled classes for specification conditions. The classes
+   * for the conditions of each method or constructor are keyed by a hash of the conditions, of the
+   * class path, and of the Java version, so a later run with the same specifications and class path
+   * loads them instead of compiling them. The directory is created if it does not exist. If the
+   * code under test changes without a change to the class path, remove the directory. If not
+   * given, condition classes are compiled on every run.
+   */
+  @Option("Directory in which to cache compiled specification conditions")
+  public static Path condition_class_cache = null;
+
   /**
    * Make Randoop treat a specification whose execution throws an exception as returning {@code
    * false}. If true, Randoop treats {@code x.f == 22} equivalently to the wordier {@code x != null
@@ -756,12 +796,55 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Clear the component set when Randoop uses this much memory")
   public static long clear_memory = 4000000000L; // default: 4G
 
+  /**
+   * Maximum number of sequences in the component set, or 0 for no limit. When the component set
+   * grows larger than this, Randoop evicts some of the sequences for each type, chosen according to
+   * {@code --pool-eviction}, instead of waiting for {@code --clear} and discarding the whole
+   * component set. When this is set, reaching {@code --clear-memory} also evicts half of the
+   * component set rather than clearing it. Seed sequences are never evicted.
+   *
+   * <p>A sequence that produces values of several types is counted once per type.
+   */
+  @Option("Maximum size of the component set; 0 means no limit")
+  public static int pool_size = 0;
+
+  /**
+   * How to choose which sequences to evict from the component set, when it exceeds {@code
+   * --pool-size}.
+   */
+  @Option("How to choose the sequences to evict from a full component set")
+  public static PoolEvictionPolicy pool_eviction = PoolEvictionPolicy.LEAST_RECENTLY_USED;
+
+  /** The possible values of the pool_eviction command-line argument. */
+  public enum PoolEvictionPolicy {
+    /** Evict the sequences that were least recently chosen as an input to a new sequence. */
+    LEAST_RECENTLY_USED,
+    /** Evict the sequences that have been chosen as an input the fewest times. */
+    LEAST_USED,
+    /** Evict the longest sequences, which are the most expensive to execute and to extend. */
+    LONGEST
+  }
+
   ///////////////////////////////////////////////////////////////////
   /** Maximum number of tests to write to each JUnit file. */
   @OptionGroup("Outputting the JUnit tests")
   @Option("Maximum number of tests to write to each JUnit file")
   public static int testsperfile = 500;
 
+  /**
+   * If true, Randoop writes each test class as soon as {@code --testsperfile} new tests have been
+   * generated, rather than writing all the classes after generation. Randoop then discards the
+   * run-time values created by a test once it has been classified, which reduces memory use on
+   * long runs.
+   *
+   * <p>A regression test is not output if it is part of a regression test that was generated
+   * before the test's class was written. (Without this option, a regression test is not output if
+   * it is part of any other regression test.) The test method names are zero-padded to the number
+   * of digits in the smaller of {@code --generated-limit} and {@code --output-limit}.
+   */
+  @Option("Write test classes during generation, rather than after it")
+  public static boolean stream_tests = false;
+
   /** Base name (no ".java" suffix) of the JUnit file containing error-revealing tests */
   @Option("Base name of the JUnit file(s) containing error-revealing tests")
   public static String error_test_basename = "ErrorTest";
@@ -865,6 +948,37 @@ public abstract class GenInputsAbstract extends CommandHandler {
   // CircleCI runs out of memory during test generation if 2500m.
   public static String jvm_max_memory = "3000m";
 
+  /**
+   * The number of generator workers that create and execute tests at the same time, each on its
+   * own thread. The workers exchange the sequences they add to their component pools, and never
+   * execute the same sequence twice.
+   *
+   * <p>The output depends on the number of workers, but not on how their threads are scheduled,
+   * except with {@code --method-selection=BLOODHOUND}, because the workers share the branch
+   * coverage of the code under test. Because the code under test is run concurrently, tests of
+   * code that uses global (static) state may be flaky.
+   */
+  @Option("Number of generator threads that create and execute tests concurrently")
+  public static int parallel_workers = 1;
+
+  /**
+   * The number of worker JVMs in which Randoop executes the generated sequences. If the code under
+   * test terminates a worker (for example, by calling {@code System.exit}, crashing the JVM, or
+   * running out of memory), or a statement does not finish within {@code --call-timeout}
+   * milliseconds, the sequence is discarded as invalid and the worker is replaced. Randoop's own
+   * JVM is unaffected.
+   *
+   * <p>0 means that sequences are executed in Randoop's JVM. Otherwise, a worker executes each
+   * sequence, creates its checks, and sends them to Randoop's JVM, which does not execute it again.
+   * Only primitive and {@code String} values are sent; Randoop's JVM does not get the other
+   * objects that a sequence creates. Visitors given by {@code --visitor} run in the workers.
+   *
+   * <p>Each worker is kept busy by a generator thread of its own, so Randoop uses the larger of
+   * this and {@code --parallel-workers} generator threads.
+   */
+  @Option("Number of worker JVMs that execute the generated sequences, to isolate crashes")
+  public static int execution_workers = 0;
+
   @Unpublicized
   @Option("Store all output to stdout and stderr in the ExecutionOutcome.")
   public static boolean capture_output = false;
@@ -995,6 +1109,52 @@ public abstract class GenInputsAbstract extends CommandHandler {
           "Invalid parameter combination: --deterministic with --usethreads");
     }
 
+    if (parallel_workers < 1) {
+      throw new RandoopUsageError(
+          "--parallel-workers must be at least 1 but was " + parallel_workers);
+    }
+
+    if (check_compilable_batch_size < 1) {
+      throw new RandoopUsageError(
+          "--check-compilable-batch-size must be at least 1 but was "
+              + check_compilable_batch_size);
+    }
+
+    if (flaky_test_threads < 1) {
+      throw new RandoopUsageError(
+          "--flaky-test-threads must be at least 1 but was " + flaky_test_threads);
+    }
+
+    if (execution_workers < 0) {
+      throw new RandoopUsageError(
+          "--execution-workers must be non-negative but was " + execution_workers);
+    }
+
+    if (execution_workers > 0 && method_selection == MethodSelectionMode.BLOODHOUND) {
+      // The branch coverage is recorded in the workers, not in Randoop's JVM.
+      throw new RandoopUsageError(
+          "Invalid parameter combination: --execution-workers with"
+              + " --method-selection=BLOODHOUND");
+    }
+
+    if (execution_workers > 0 && capture_output) {
+      throw new RandoopUsageError(
+          "Invalid parameter combination: --execution-workers with --capture-output");
+    }
+
+    if (deterministic
+        && parallel_workers > 1
+        && method_selection == MethodSelectionMode.BLOODHOUND) {
+      throw new RandoopUsageError(
+          "Invalid parameter combination: --deterministic with --parallel-workers and"
+              + " --method-selection=BLOODHOUND");
+    }
+
+    if (parallel_workers > 1 && capture_output) {
+      throw new RandoopUsageError(
+          "Invalid parameter combination: --parallel-workers with --capture-output");
+    }
+
     if (deterministic && time_limit != 0) {
       throw new RandoopUsageError(
           "Invalid parameter combination: --deterministic without --time-limit=0");
@@ -1022,6 +1182,10 @@ public abstract class GenInputsAbstract extends CommandHandler {
           "Invalid parameter combination: --deterministic with --bloodhound-update-mode=time");
     }
 
+    if (pool_size < 0) {
+      throw new RandoopUsageError("--pool-size must be non-negative, but is " + pool_size);
+    }
+
     if (ReflectionExecutor.call_timeout != ReflectionExecutor.CALL_TIMEOUT_MILLIS_DEFAULT
         && !ReflectionExecutor.usethreads) {
       throw new RandoopUsageError(
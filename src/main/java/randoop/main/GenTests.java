@@ -3,7 +3,6 @@ package randoop.main;
 import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
 
 import com.github.javaparser.ParseException;
-import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.stmt.BlockStmt;
 import java.io.File;
 import java.io.IOException;
@@ -24,7 +23,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -33,9 +31,12 @@ import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.StringTokenizer;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.PolyNull;
 import org.checkerframework.checker.signature.qual.ClassGetName;
 import org.checkerframework.checker.signature.qual.Identifier;
@@ -49,13 +50,17 @@ import org.plumelib.util.UtilPlume;
 import randoop.ExecutionVisitor;
 import randoop.Globals;
 import randoop.MethodReplacements;
+import randoop.MultiVisitor;
 import randoop.SideEffectFree;
 import randoop.condition.RandoopSpecificationError;
 import randoop.condition.SpecificationCollection;
+import randoop.execution.SequenceWorker;
+import randoop.execution.SequenceWorkerPool;
 import randoop.execution.TestEnvironment;
 import randoop.generation.AbstractGenerator;
 import randoop.generation.ComponentManager;
 import randoop.generation.ForwardGenerator;
+import randoop.generation.ParallelForwardGenerator;
 import randoop.generation.RandoopGenerationError;
 import randoop.generation.SeedSequences;
 import randoop.generation.TestUtils;
@@ -72,7 +77,6 @@ import randoop.output.FailingAssertionCommentWriter;
 import randoop.output.JUnitCreator;
 import randoop.output.JavaFileWriter;
 import randoop.output.MinimizerWriter;
-import randoop.output.NameGenerator;
 import randoop.output.RandoopOutputException;
 import randoop.reflection.AccessibilityPredicate;
 import randoop.reflection.DefaultReflectionPredicate;
@@ -239,144 +243,11 @@ public class GenTests extends GenInputsAbstract {
      * Setup model of classes under test
      */
 
-    AccessibilityPredicate accessibility;
-    if (GenInputsAbstract.junit_package_name == null) {
-      accessibility = IS_PUBLIC;
-    } else if (GenInputsAbstract.only_test_public_members) {
-      accessibility = IS_PUBLIC;
-      if (GenInputsAbstract.junit_package_name != null) {
-        System.out.println(
-            "Not using package "
-                + GenInputsAbstract.junit_package_name
-                + " since --only-test-public-members is set");
-      }
-    } else {
-      accessibility =
-          new AccessibilityPredicate.PackageAccessibilityPredicate(
-              GenInputsAbstract.junit_package_name);
-    }
-
-    // Get names of classes under test
-    Set<@ClassGetName String> classnames = GenInputsAbstract.getClassnamesFromArgs(accessibility);
-
-    // Get names of classes that must be covered by output tests
-    Set<@ClassGetName String> coveredClassnames =
-        GenInputsAbstract.getClassNamesFromFile(require_covered_classes);
-
-    // Get names of fields to be omitted
-    Set<String> omitFields = GenInputsAbstract.getStringSetFromFile(omit_field_file, "fields");
-    omitFields.addAll(omit_field);
-    // Temporary, for backward compatibility
-    omitFields.addAll(GenInputsAbstract.getStringSetFromFile(omit_field_list, "fields"));
-
-    for (Path omitMethodsFile : GenInputsAbstract.omit_methods_file) {
-      omit_methods.addAll(readPatterns(omitMethodsFile));
-    }
-
-    for (Path omitClassesFile : GenInputsAbstract.omit_classes_file) {
-      omit_classes.addAll(readPatterns(omitClassesFile));
-    }
-
-    if (!GenInputsAbstract.dont_omit_replaced_methods) {
-      omit_methods.addAll(createPatternsFromSignatures(MethodReplacements.getSignatureList()));
-    }
-    if (!GenInputsAbstract.omit_methods_no_defaults) {
-      omit_methods.addAll(readPatternsFromResource("/omitmethods-defaults.txt"));
-      omit_methods.addAll(readPatternsFromResource("/JDK-nondet-methods.txt"));
-    }
-
-    if (!GenInputsAbstract.omit_classes_no_defaults) {
-      String omitClassesDefaultsFileName = "/omit-classes-defaults.txt";
-      try (InputStream inputStream =
-          GenTests.class.getResourceAsStream(omitClassesDefaultsFileName)) {
-        omit_classes.addAll(readPatterns(inputStream, omitClassesDefaultsFileName));
-      } catch (IOException e) {
-        throw new RandoopBug(e);
-      }
-    }
-
-    ReflectionPredicate reflectionPredicate = new DefaultReflectionPredicate(omitFields);
-
-    ClassNameErrorHandler classNameErrorHandler = new ThrowClassNameError();
-    if (silently_ignore_bad_class_names) {
-      classNameErrorHandler = new WarnOnBadClassName();
-    }
+    AccessibilityPredicate accessibility = createAccessibilityPredicate();
+    OperationModel operationModel = createOperationModel(accessibility);
 
     String classpath = Globals.getClassPath();
 
-    /*
-     * Setup pre/post/throws-conditions for operations.
-     */
-    if (GenInputsAbstract.use_jdk_specifications) {
-      if (GenInputsAbstract.specifications == null) {
-        GenInputsAbstract.specifications = new ArrayList<>(getJDKSpecificationFiles());
-      } else {
-        GenInputsAbstract.specifications.addAll(getJDKSpecificationFiles());
-      }
-    }
-    OperationModel operationModel = null;
-    try (SpecificationCollection operationSpecifications =
-        SpecificationCollection.create(GenInputsAbstract.specifications)) {
-
-      try {
-        operationModel =
-            OperationModel.createModel(
-                accessibility,
-                reflectionPredicate,
-                omit_methods,
-                classnames,
-                coveredClassnames,
-                classNameErrorHandler,
-                GenInputsAbstract.literals_file,
-                operationSpecifications);
-      } catch (SignatureParseException e) {
-        System.out.printf("%nError: parse exception thrown %s%n", e);
-        System.out.println("Exiting Randoop.");
-        System.exit(1);
-      } catch (NoSuchMethodException e) {
-        System.out.printf("%nError building operation model: %s%n", e);
-        System.out.println("Exiting Randoop.");
-        System.exit(1);
-      } catch (RandoopClassNameError e) {
-        System.out.printf("Class Name Error: %s%n", e.getMessage());
-        if (e.getMessage().startsWith("No class with name \"")) {
-          System.out.println("More specifically, none of the following files could be found:");
-          StringTokenizer tokenizer = new StringTokenizer(classpath, File.pathSeparator);
-          while (tokenizer.hasMoreTokens()) {
-            String classPathElt = tokenizer.nextToken();
-            if (classPathElt.endsWith(".jar")) {
-              String classFileName = e.className.replace(".", "/") + ".class";
-              System.out.println("  " + classFileName + " in " + classPathElt);
-            } else {
-              String classFileName = e.className.replace(".", File.separator) + ".class";
-              if (!classPathElt.endsWith(File.separator)) {
-                classPathElt += File.separator;
-              }
-              System.out.println("  " + classPathElt + classFileName);
-            }
-          }
-          System.out.println("Correct your classpath or the class name and re-run Randoop.");
-        } else {
-          System.out.println("Problem in OperationModel.createModel().");
-          System.out.println("  accessibility = " + accessibility);
-          System.out.println("  reflectionPredicate = " + reflectionPredicate);
-          System.out.println("  omit_methods = " + omit_methods);
-          System.out.println("  classnames = " + classnames);
-          System.out.println("  coveredClassnames = " + coveredClassnames);
-          System.out.println("  classNameErrorHandler = " + classNameErrorHandler);
-          System.out.println(
-              "  GenInputsAbstract.literals_file = " + GenInputsAbstract.literals_file);
-          System.out.println("  operationSpecifications = " + operationSpecifications);
-          e.printStackTrace(System.out);
-        }
-        System.exit(1);
-      }
-    } catch (RandoopSpecificationError e) {
-      System.out.printf("Specification Error: %s%n", e.getMessage());
-      System.exit(1);
-    }
-    assert operationModel != null;
-
     List<TypedOperation> operations = operationModel.getOperations();
     Set<ClassOrInterfaceType> classesUnderTest = operationModel.getClassTypes();
 
@@ -416,25 +287,8 @@ public class GenTests extends GenInputsAbstract {
         // TODO: Why pass GenInputsAbstract.literals_file here when we can get those directly?
         componentMgr, GenInputsAbstract.literals_file, GenInputsAbstract.literals_level);
 
-    MultiMap<Type, TypedClassOperation> sideEffectFreeMethodsByType = readSideEffectFreeMethods();
-
-    for (TypedOperation op : operations) {
-      CallableOperation operation = op.getOperation();
-      if (operation.isMethodCall()) {
-        MethodCall methodCall = (MethodCall) operation;
-        Method m = methodCall.getMethod();
-        // Read method annotations for @Pure and @SideEffectFree
-        for (Annotation annotation : m.getAnnotations()) {
-          if (annotation instanceof Pure || annotation instanceof SideEffectFree) {
-            // Get declaring class and create Type object
-            Class<?> declaringClass = m.getDeclaringClass();
-            Type type = Type.forClass(declaringClass);
-            sideEffectFreeMethodsByType.add(type, TypedOperation.forMethod(m));
-            break;
-          }
-        }
-      }
-    }
+    MultiMap<Type, TypedClassOperation> sideEffectFreeMethodsByType =
+        getSideEffectFreeMethods(operations);
 
     Set<TypedOperation> sideEffectFreeMethods = new LinkedHashSet<>();
     for (Type keyType : sideEffectFreeMethodsByType.keySet()) {
@@ -446,14 +300,30 @@ public class GenTests extends GenInputsAbstract {
     /*
      * Create the generator for this session.
      */
-    AbstractGenerator explorer =
-        new ForwardGenerator(
-            operations,
-            sideEffectFreeMethods,
-            new GenInputsAbstract.Limits(),
-            componentMgr,
-            /* stopper= */ null,
-            classesUnderTest);
+    // Each execution worker is kept busy by a generator thread of its own.
+    int generatorThreads =
+        Math.max(GenInputsAbstract.parallel_workers, GenInputsAbstract.execution_workers);
+    AbstractGenerator explorer;
+    if (generatorThreads > 1) {
+      explorer =
+          new ParallelForwardGenerator(
+              operations,
+              sideEffectFreeMethods,
+              new GenInputsAbstract.Limits(),
+              componentMgr,
+              /* stopper= */ null,
+              classesUnderTest,
+              generatorThreads);
+    } else {
+      explorer =
+          new ForwardGenerator(
+              operations,
+              sideEffectFreeMethods,
+              new GenInputsAbstract.Limits(),
+              componentMgr,
+              /* stopper= */ null,
+              classesUnderTest);
+    }
 
     // log setup.
     operationModel.log();
@@ -470,13 +340,19 @@ public class GenTests extends GenInputsAbstract {
      * Create the test check generator for the contracts and side-effect-free methods
      */
     ContractSet contracts = operationModel.getContracts();
+    OmitMethodsPredicate omitMethodsPredicate = operationModel.getOmitMethodsPredicate();
     TestCheckGenerator testGen =
         createTestCheckGenerator(
-            accessibility,
-            contracts,
-            sideEffectFreeMethodsByType,
-            operationModel.getOmitMethodsPredicate());
+            accessibility, contracts, sideEffectFreeMethodsByType, omitMethodsPredicate);
     explorer.setTestCheckGenerator(testGen);
+    if (explorer instanceof ParallelForwardGenerator) {
+      // Each worker gets its own check generator.
+      ((ParallelForwardGenerator) explorer)
+          .setWorkerTestCheckGenerators(
+              () ->
+                  createTestCheckGenerator(
+                      accessibility, contracts, sideEffectFreeMethodsByType, omitMethodsPredicate));
+    }
 
     /*
      * Setup for test predicate
@@ -502,29 +378,28 @@ public class GenTests extends GenInputsAbstract {
             GenInputsAbstract.require_classname_in_test);
 
     explorer.setTestPredicate(isOutputTest);
+    if (GenInputsAbstract.check_compilable
+        && GenInputsAbstract.check_compilable_batch_size > 1
+        && !GenInputsAbstract.dont_output_tests) {
+      try (CompilableTestPredicate ctp = new CompilableTestPredicate(createJUnitCreator(), this)) {
+        explorer.setBatchOutputTest(
+            ctp::filterCompilable, GenInputsAbstract.check_compilable_batch_size);
+      } catch (IOException e) {
+        throw new RandoopBug(e);
+      }
+    }
 
     /*
      * Setup visitors
      */
-    List<ExecutionVisitor> visitors = new ArrayList<>();
-    // instrumentation visitor
-    if (GenInputsAbstract.require_covered_classes != null) {
-      visitors.add(new CoveredClassVisitor(operationModel.getCoveredClassesGoal()));
-    }
-    // Install any user-specified visitors.
-    if (!GenInputsAbstract.visitor.isEmpty()) {
-      for (String visitorClsName : GenInputsAbstract.visitor) {
-        try {
-          @SuppressWarnings("unchecked")
-          Class<ExecutionVisitor> cls = (Class<ExecutionVisitor>) Class.forName(visitorClsName);
-          ExecutionVisitor vis = cls.getDeclaredConstructor().newInstance();
-          visitors.add(vis);
-        } catch (Exception e) {
-          throw new RandoopBug("Error while loading visitor class " + visitorClsName, e);
-        }
-      }
+    Set<Class<?>> coveredClassesGoal = operationModel.getCoveredClassesGoal();
+    explorer.setExecutionVisitor(createExecutionVisitors(coveredClassesGoal));
+    if (explorer instanceof ParallelForwardGenerator) {
+      // Each worker gets its own visitors.
+      ((ParallelForwardGenerator) explorer)
+          .setWorkerExecutionVisitors(
+              () -> MultiVisitor.createMultiVisitor(createExecutionVisitors(coveredClassesGoal)));
     }
-    explorer.setExecutionVisitor(visitors);
 
     // Diagnostic output
     if (GenInputsAbstract.progressdisplay) {
@@ -538,6 +413,50 @@ public class GenTests extends GenInputsAbstract {
       componentMgr.log();
     }
 
+    // With --stream-tests, tests are written during generation.
+    JUnitCreator junitCreator = null;
+    JavaFileWriter javaFileWriter = null;
+    StreamingTestWriter errorTestWriter = null;
+    StreamingTestWriter regressionTestWriter = null;
+    FailingAssertionCommentWriter regressionCodeWriter = null;
+    if (GenInputsAbstract.stream_tests && !GenInputsAbstract.dont_output_tests) {
+      junitCreator = createJUnitCreator();
+      javaFileWriter = new JavaFileWriter(junit_output_dir);
+      if (!GenInputsAbstract.no_error_revealing_tests) {
+        errorTestWriter =
+            new StreamingTestWriter(
+                junitCreator,
+                createErrorTestCodeWriter(javaFileWriter),
+                GenInputsAbstract.error_test_basename,
+                "Error-revealing",
+                /* numTests= */ 0,
+                /* subsumptionHistory= */ null,
+                /* flakyTestNames= */ null,
+                /* writeThreads= */ 1);
+      }
+      if (!GenInputsAbstract.no_regression_tests) {
+        regressionCodeWriter =
+            new FailingAssertionCommentWriter(createTestEnvironment(classpath), javaFileWriter);
+        regressionTestWriter =
+            new StreamingTestWriter(
+                junitCreator,
+                regressionCodeWriter,
+                GenInputsAbstract.regression_test_basename,
+                "Regression",
+                /* numTests= */ 0,
+                explorer.getOperationHistory(),
+                regressionCodeWriter::getFlakyTestNames,
+                GenInputsAbstract.flaky_test_threads);
+      }
+      explorer.setTestSinks(
+          streamTestsTo(errorTestWriter, "Error-revealing"),
+          streamTestsTo(regressionTestWriter, "Regression"));
+    }
+
+    if (GenInputsAbstract.execution_workers > 0) {
+      SequenceWorkerPool.createInstance(Arrays.asList(args));
+    }
+
     // Generate tests
     try {
       explorer.createAndClassifySequences();
@@ -556,6 +475,8 @@ public class GenTests extends GenInputsAbstract {
       System.out.printf(
           "createAndClassifySequences threw an exception%n%s%n", UtilPlume.stackTraceToString(e));
       throw e;
+    } finally {
+      SequenceWorkerPool.shutdownInstance();
     }
 
     // post generation
@@ -563,66 +484,68 @@ public class GenTests extends GenInputsAbstract {
       return true;
     }
 
-    JUnitCreator junitCreator =
-        JUnitCreator.getTestCreator(
-            junit_package_name,
-            beforeAllFixtureBody,
-            afterAllFixtureBody,
-            beforeEachFixtureBody,
-            afterEachFixtureBody);
-
-    JavaFileWriter javaFileWriter = new JavaFileWriter(junit_output_dir);
+    if (junitCreator == null) {
+      junitCreator = createJUnitCreator();
+      javaFileWriter = new JavaFileWriter(junit_output_dir);
+    }
 
     if (!GenInputsAbstract.no_error_revealing_tests) {
-      CodeWriter codeWriter = javaFileWriter;
-      if (GenInputsAbstract.minimize_error_test || GenInputsAbstract.stop_on_error_test) {
-        codeWriter = new MinimizerWriter(javaFileWriter);
+      if (errorTestWriter != null) {
+        finishTestFiles(errorTestWriter, "Error-revealing");
+      } else {
+        writeTestFiles(
+            junitCreator,
+            explorer.getErrorTestSequences(),
+            createErrorTestCodeWriter(javaFileWriter),
+            GenInputsAbstract.error_test_basename,
+            "Error-revealing",
+            /* flakyTestNames= */ null,
+            /* writeThreads= */ 1);
       }
-      writeTestFiles(
-          junitCreator,
-          explorer.getErrorTestSequences(),
-          codeWriter,
-          GenInputsAbstract.error_test_basename,
-          "Error-revealing");
     }
 
     if (!GenInputsAbstract.no_regression_tests) {
-      final TestEnvironment testEnvironment =
-          new TestEnvironment(convertClasspathToAbsolute(classpath));
-      String agentPathString = MethodReplacements.getAgentPath();
-      String agentArgs = MethodReplacements.getAgentArgs();
-      if (agentPathString != null && !agentPathString.isEmpty()) {
-        Path agentPath = Paths.get(agentPathString);
-        testEnvironment.setReplaceCallAgent(agentPath, agentArgs);
-      }
-
-      List<ExecutableSequence> regressionSequences = explorer.getRegressionSequences();
+      StreamingTestWriter writer;
+      FailingAssertionCommentWriter codeWriter;
+      if (regressionTestWriter != null) {
+        finishTestFiles(regressionTestWriter, "Regression");
+        writer = regressionTestWriter;
+        codeWriter = regressionCodeWriter;
+      } else {
+        List<ExecutableSequence> regressionSequences = explorer.getRegressionSequences();
 
-      if (GenInputsAbstract.progressdisplay) {
-        System.out.printf(
-            "%nAbout to look for failing assertions in %d regression sequences.%n",
-            regressionSequences.size());
+        if (GenInputsAbstract.progressdisplay) {
+          System.out.printf(
+              "%nAbout to look for failing assertions in %d regression sequences.%n",
+              regressionSequences.size());
+        }
+        codeWriter =
+            new FailingAssertionCommentWriter(createTestEnvironment(classpath), javaFileWriter);
+        writer =
+            writeTestFiles(
+                junitCreator,
+                regressionSequences,
+                codeWriter,
+                GenInputsAbstract.regression_test_basename,
+                "Regression",
+                codeWriter::getFlakyTestNames,
+                GenInputsAbstract.flaky_test_threads);
       }
-      FailingAssertionCommentWriter codeWriter =
-          new FailingAssertionCommentWriter(testEnvironment, javaFileWriter);
-      writeTestFiles(
-          junitCreator,
-          regressionSequences,
-          codeWriter,
-          GenInputsAbstract.regression_test_basename,
-          "Regression");
+      codeWriter.stopTestWorkers();
 
       // TODO: We don't rerun Error Test Sequences, so we do not know whether they are flaky.
       if (GenInputsAbstract.progressdisplay) {
         System.out.printf("About to look for flaky methods.%n");
         System.out.flush();
       }
-      processAndOutputFlakyMethods(
-          testNamesToSequences(codeWriter.getFlakyTestNames(), regressionSequences),
-          regressionSequences,
-          sideEffectFreeMethodsByType,
-          operationModel.getOmitMethodsPredicate(),
-          accessibility);
+      if (writer != null) {
+        processAndOutputFlakyMethods(
+            writer.getFlakyTests(),
+            writer.getWrittenTestOccurrences(),
+            sideEffectFreeMethodsByType,
+            operationModel.getOmitMethodsPredicate(),
+            accessibility);
+      }
       if (GenInputsAbstract.progressdisplay) {
         System.out.printf("Done looking for flaky methods.%n");
         System.out.flush();
@@ -651,6 +574,248 @@ public class GenTests extends GenInputsAbstract {
     return true;
   }
 
+  /**
+   * Creates the test check generator and the execution visitor that {@link #handle} would use for
+   * the given command-line arguments. An execution worker (see {@link SequenceWorker}) calls this
+   * with Randoop's own arguments, so that it creates the same checks for a sequence as Randoop's
+   * JVM would.
+   *
+   * @param args the command-line arguments
+   * @return the test check generator and the execution visitor
+   * @throws ArgException if the arguments cannot be parsed
+   */
+  public WorkerSetup createWorkerSetup(String[] args) throws ArgException {
+    String[] nonargs = options.parse(args);
+    if (nonargs.length > 0) {
+      throw new ArgException("Unrecognized command-line arguments: " + Arrays.toString(nonargs));
+    }
+    checkOptionsValid();
+    Randomness.setSeed(randomseed);
+
+    AccessibilityPredicate accessibility = createAccessibilityPredicate();
+    OperationModel operationModel = createOperationModel(accessibility);
+    TestCheckGenerator checkGenerator =
+        createTestCheckGenerator(
+            accessibility,
+            operationModel.getContracts(),
+            getSideEffectFreeMethods(operationModel.getOperations()),
+            operationModel.getOmitMethodsPredicate());
+    ExecutionVisitor visitor =
+        MultiVisitor.createMultiVisitor(
+            createExecutionVisitors(operationModel.getCoveredClassesGoal()));
+    return new WorkerSetup(checkGenerator, visitor);
+  }
+
+  /** The test check generator and the execution visitor that an execution worker uses. */
+  public static final class WorkerSetup {
+
+    /** Creates the checks for each executed sequence. */
+    public final TestCheckGenerator checkGenerator;
+
+    /** Visits each executed sequence. */
+    public final ExecutionVisitor visitor;
+
+    /**
+     * Creates a worker setup.
+     *
+     * @param checkGenerator creates the checks for each executed sequence
+     * @param visitor visits each executed sequence
+     */
+    WorkerSetup(TestCheckGenerator checkGenerator, ExecutionVisitor visitor) {
+      this.checkGenerator = checkGenerator;
+      this.visitor = visitor;
+    }
+  }
+
+  /**
+   * Returns the accessibility predicate for the classes and members under test, as specified by
+   * {@link GenInputsAbstract#junit_package_name} and {@link
+   * GenInputsAbstract#only_test_public_members}.
+   *
+   * @return the accessibility predicate for the classes and members under test
+   */
+  private static AccessibilityPredicate createAccessibilityPredicate() {
+    AccessibilityPredicate accessibility;
+    if (GenInputsAbstract.junit_package_name == null) {
+      accessibility = IS_PUBLIC;
+    } else if (GenInputsAbstract.only_test_public_members) {
+      accessibility = IS_PUBLIC;
+      if (GenInputsAbstract.junit_package_name != null) {
+        System.out.println(
+            "Not using package "
+                + GenInputsAbstract.junit_package_name
+                + " since --only-test-public-members is set");
+      }
+    } else {
+      accessibility =
+          new AccessibilityPredicate.PackageAccessibilityPredicate(
+              GenInputsAbstract.junit_package_name);
+    }
+    return accessibility;
+  }
+
+  /**
+   * Creates the model of the classes under test from the command-line arguments. Exits if the
+   * model cannot be created.
+   *
+   * @param accessibility the accessibility predicate for the classes and members under test
+   * @return the model of the classes under test
+   */
+  private OperationModel createOperationModel(AccessibilityPredicate accessibility) {
+    // Get names of classes under test
+    Set<@ClassGetName String> classnames = GenInputsAbstract.getClassnamesFromArgs(accessibility);
+
+    // Get names of classes that must be covered by output tests
+    Set<@ClassGetName String> coveredClassnames =
+        GenInputsAbstract.getClassNamesFromFile(require_covered_classes);
+
+    // Get names of fields to be omitted
+    Set<String> omitFields = GenInputsAbstract.getStringSetFromFile(omit_field_file, "fields");
+    omitFields.addAll(omit_field);
+    // Temporary, for backward compatibility
+    omitFields.addAll(GenInputsAbstract.getStringSetFromFile(omit_field_list, "fields"));
+
+    for (Path omitMethodsFile : GenInputsAbstract.omit_methods_file) {
+      omit_methods.addAll(readPatterns(omitMethodsFile));
+    }
+
+    for (Path omitClassesFile : GenInputsAbstract.omit_classes_file) {
+      omit_classes.addAll(readPatterns(omitClassesFile));
+    }
+
+    if (!GenInputsAbstract.dont_omit_replaced_methods) {
+      omit_methods.addAll(createPatternsFromSignatures(MethodReplacements.getSignatureList()));
+    }
+    if (!GenInputsAbstract.omit_methods_no_defaults) {
+      omit_methods.addAll(readPatternsFromResource("/omitmethods-defaults.txt"));
+      omit_methods.addAll(readPatternsFromResource("/JDK-nondet-methods.txt"));
+    }
+
+    if (!GenInputsAbstract.omit_classes_no_defaults) {
+      String omitClassesDefaultsFileName = "/omit-classes-defaults.txt";
+      try (InputStream inputStream =
+          GenTests.class.getResourceAsStream(omitClassesDefaultsFileName)) {
+        omit_classes.addAll(readPatterns(inputStream, omitClassesDefaultsFileName));
+      } catch (IOException e) {
+        throw new RandoopBug(e);
+      }
+    }
+
+    ReflectionPredicate reflectionPredicate = new DefaultReflectionPredicate(omitFields);
+
+    ClassNameErrorHandler classNameErrorHandler = new ThrowClassNameError();
+    if (silently_ignore_bad_class_names) {
+      classNameErrorHandler = new WarnOnBadClassName();
+    }
+
+    String classpath = Globals.getClassPath();
+
+    /*
+     * Setup pre/post/throws-conditions for operations.
+     */
+    if (GenInputsAbstract.use_jdk_specifications) {
+      if (GenInputsAbstract.specifications == null) {
+        GenInputsAbstract.specifications = new ArrayList<>(getJDKSpecificationFiles());
+      } else {
+        GenInputsAbstract.specifications.addAll(getJDKSpecificationFiles());
+      }
+    }
+    OperationModel operationModel = null;
+    try (SpecificationCollection operationSpecifications =
+        SpecificationCollection.create(GenInputsAbstract.specifications)) {
+
+      try {
+        operationModel =
+            OperationModel.createModel(
+                accessibility,
+                reflectionPredicate,
+                omit_methods,
+                classnames,
+                coveredClassnames,
+                classNameErrorHandler,
+                GenInputsAbstract.literals_file,
+                operationSpecifications);
+      } catch (SignatureParseException e) {
+        System.out.printf("%nError: parse exception thrown %s%n", e);
+        System.out.println("Exiting Randoop.");
+        System.exit(1);
+      } catch (NoSuchMethodException e) {
+        System.out.printf("%nError building operation model: %s%n", e);
+        System.out.println("Exiting Randoop.");
+        System.exit(1);
+      } catch (RandoopClassNameError e) {
+        System.out.printf("Class Name Error: %s%n", e.getMessage());
+        if (e.getMessage().startsWith("No class with name \"")) {
+          System.out.println("More specifically, none of the following files could be found:");
+          StringTokenizer tokenizer = new StringTokenizer(classpath, File.pathSeparator);
+          while (tokenizer.hasMoreTokens()) {
+            String classPathElt = tokenizer.nextToken();
+            if (classPathElt.endsWith(".jar")) {
+              String classFileName = e.className.replace(".", "/") + ".class";
+              System.out.println("  " + classFileName + " in " + classPathElt);
+            } else {
+              String classFileName = e.className.replace(".", File.separator) + ".class";
+              if (!classPathElt.endsWith(File.separator)) {
+                classPathElt += File.separator;
+              }
+              System.out.println("  " + classPathElt + classFileName);
+            }
+          }
+          System.out.println("Correct your classpath or the class name and re-run Randoop.");
+        } else {
+          System.out.println("Problem in OperationModel.createModel().");
+          System.out.println("  accessibility = " + accessibility);
+          System.out.println("  reflectionPredicate = " + reflectionPredicate);
+          System.out.println("  omit_methods = " + omit_methods);
+          System.out.println("  classnames = " + classnames);
+          System.out.println("  coveredClassnames = " + coveredClassnames);
+          System.out.println("  classNameErrorHandler = " + classNameErrorHandler);
+          System.out.println(
+              "  GenInputsAbstract.literals_file = " + GenInputsAbstract.literals_file);
+          System.out.println("  operationSpecifications = " + operationSpecifications);
+          e.printStackTrace(System.out);
+        }
+        System.exit(1);
+      }
+    } catch (RandoopSpecificationError e) {
+      System.out.printf("Specification Error: %s%n", e.getMessage());
+      System.exit(1);
+    }
+    assert operationModel != null;
+    return operationModel;
+  }
+
+  /**
+   * Returns the side-effect-free methods: those read by {@link #readSideEffectFreeMethods}, and the
+   * given operations that are annotated as {@code @Pure} or {@code @SideEffectFree}.
+   *
+   * @param operations the operations under test
+   * @return a map from a Type to a set of side-effect-free methods that take that type as their
+   *     only argument
+   */
+  private static MultiMap<Type, TypedClassOperation> getSideEffectFreeMethods(
+      List<TypedOperation> operations) {
+    MultiMap<Type, TypedClassOperation> sideEffectFreeMethodsByType = readSideEffectFreeMethods();
+    for (TypedOperation op : operations) {
+      CallableOperation operation = op.getOperation();
+      if (operation.isMethodCall()) {
+        MethodCall methodCall = (MethodCall) operation;
+        Method m = methodCall.getMethod();
+        // Read method annotations for @Pure and @SideEffectFree
+        for (Annotation annotation : m.getAnnotations()) {
+          if (annotation instanceof Pure || annotation instanceof SideEffectFree) {
+            // Get declaring class and create Type object
+            Class<?> declaringClass = m.getDeclaringClass();
+            Type type = Type.forClass(declaringClass);
+            sideEffectFreeMethodsByType.add(type, TypedOperation.forMethod(m));
+            break;
+          }
+        }
+      }
+    }
+    return sideEffectFreeMethodsByType;
+  }
+
   /**
    * Read side-effect-free methods from the default JDK side-effect-free method list, and from a
    * user-provided method list if provided.
@@ -724,7 +889,7 @@ public class GenTests extends GenInputsAbstract {
    * <pre>(number of flaky tests M occurs in) / (number of total tests M occurs in)</pre>
    *
    * @param flakySequences the flaky test sequences
-   * @param sequences all the sequences (flaky and non-flaky)
+   * @param testOccurrences the operations in all the sequences (flaky and non-flaky)
    * @param sideEffectFreeMethodsByType side-effect-free methods to use in assertions
    * @param omitMethodsPredicate the user-supplied predicate for which methods should not be used
    *     during test generation
@@ -732,7 +897,7 @@ public class GenTests extends GenInputsAbstract {
    */
   private void processAndOutputFlakyMethods(
       List<ExecutableSequence> flakySequences,
-      List<ExecutableSequence> sequences,
+      OperationOccurrences testOccurrences,
       MultiMap<Type, TypedClassOperation> sideEffectFreeMethodsByType,
       OmitMethodsPredicate omitMethodsPredicate,
       AccessibilityPredicate accessibilityPredicate) {
@@ -760,27 +925,31 @@ public class GenTests extends GenInputsAbstract {
     System.out.println("methods that are nondeterministic or depend on non-local state.");
 
     if (GenInputsAbstract.nondeterministic_methods_to_output > 0) {
-      // How many flaky tests an operation occurs in (regardless of how many times it appears in
-      // that test).
-      Map<TypedClassOperation, Integer> testOccurrences =
-          countSequencesPerOperation(sequences, assertableSideEffectFreeMethods);
-
       // How many tests an operation occurs in (regardless of how many times it appears in that
-      // flaky test).
-      Map<TypedClassOperation, Integer> flakyOccurrences =
-          countSequencesPerOperation(flakySequences, assertableSideEffectFreeMethods);
+      // test).
+      Map<TypedClassOperation, Integer> testCounts =
+          testOccurrences.getCounts(assertableSideEffectFreeMethods);
+
+      // How many flaky tests an operation occurs in (regardless of how many times it appears in
+      // that flaky test).
+      OperationOccurrences flakyOccurrences = new OperationOccurrences();
+      for (ExecutableSequence flakySequence : flakySequences) {
+        flakyOccurrences.add(flakySequence);
+      }
+      Map<TypedClassOperation, Integer> flakyCounts =
+          flakyOccurrences.getCounts(assertableSideEffectFreeMethods);
 
       // TODO: This isn't exactly tf-idf, though it may be a useful metric nonetheless.
       // Priority queue of methods ordered by tf-idf heuristic, highest first.
       PriorityQueue<RankedTypeOperation> methodHeuristicPriorityQueue =
           new PriorityQueue<>(TypedOperation.compareRankedTypeOperation.reversed());
-      for (TypedClassOperation op : flakyOccurrences.keySet()) {
+      for (TypedClassOperation op : flakyCounts.keySet()) {
         if (isNonFlaky(op)) {
           continue;
         }
         // `op` is a key in both maps.
-        // (The keys of testOccurrences are a superset of the keys of flakyOccurrences.)
-        double tfIdfMetric = (double) flakyOccurrences.get(op) / testOccurrences.get(op);
+        // (The keys of testCounts are a superset of the keys of flakyCounts.)
+        double tfIdfMetric = (double) flakyCounts.get(op) / testCounts.get(op);
         RankedTypeOperation rankedMethod = new RankedTypeOperation(tfIdfMetric, op);
         methodHeuristicPriorityQueue.add(rankedMethod);
       }
@@ -801,89 +970,13 @@ public class GenTests extends GenInputsAbstract {
     System.out.println();
   }
 
-  /**
-   * Given a collection of test names of the form "test005", returns the corresponding elements from
-   * the given list.
-   *
-   * @param testNames names of the form "test005"
-   * @param sequences test sequences (error or regression), numbered sequentially
-   * @return the sequences corresponding to the test names
-   */
-  private List<ExecutableSequence> testNamesToSequences(
-      Iterable<String> testNames, List<ExecutableSequence> sequences) {
-    List<ExecutableSequence> result = new ArrayList<>();
-    for (String testName : testNames) {
-      int testNum = Integer.parseInt(testName.substring(TEST_METHOD_NAME_PREFIX.length()));
-      // Tests start at 001, not 000, so subtract 1.
-      ExecutableSequence eseq = sequences.get(testNum - 1);
-      result.add(eseq);
-    }
-    return result;
-  }
-
-  /**
-   * Counts the number of sequences each operation occurs in.
-   *
-   * @param sequences a list of sequences
-   * @param assertableSideEffectFreeMethods a map from a type to all its side-effect-free methods
-   *     that can be used in assertions
-   * @return a map from operation to the number of sequences in which the operation occurs at least
-   *     once
-   */
-  private Map<TypedClassOperation, Integer> countSequencesPerOperation(
-      List<ExecutableSequence> sequences,
-      MultiMap<Type, TypedClassOperation> assertableSideEffectFreeMethods) {
-    // Map from method call operations to number of sequences it occurs in.
-    Map<TypedClassOperation, Integer> numSequencesUsedIn = new HashMap<>();
-
-    for (ExecutableSequence es : sequences) {
-      Set<TypedClassOperation> ops = getOperationsInSequence(es);
-
-      // The test case consists of a sequence of calls, then assertions over the value produced by
-      // the final call.
-      // 1. Count up calls in the main sequence of calls.
-      for (TypedClassOperation to : ops) {
-        numSequencesUsedIn.merge(to, 1, Integer::sum); // increment value associated with key `to`
-      }
-
-      // 2. Count up calls that appear in assertions over the final value.
-      SimpleList<Statement> statements = es.sequence.statements;
-      Statement lastStatement = statements.get(statements.size() - 1);
-      Type lastValueType = lastStatement.getOutputType();
-      for (TypedClassOperation tco : assertableSideEffectFreeMethods.getValues(lastValueType)) {
-        numSequencesUsedIn.merge(tco, 1, Integer::sum);
-      }
-    }
-    return numSequencesUsedIn;
-  }
-
-  /**
-   * Constructs a set of method-call operations appearing in an Executable Sequence. Non-method-call
-   * operations are excluded.
-   *
-   * @param es an ExecutableSequence
-   * @return the set of method call operations in {@code es}
-   */
-  private Set<TypedClassOperation> getOperationsInSequence(ExecutableSequence es) {
-    HashSet<TypedClassOperation> ops = new HashSet<>();
-
-    SimpleList<Statement> statements = es.sequence.statements;
-    for (int i = 0; i < statements.size(); i++) { // SimpleList has no iterator
-      TypedOperation to = statements.get(i).getOperation();
-      if (to.isMethodCall()) {
-        ops.add((TypedClassOperation) to);
-      }
-    }
-    return ops;
-  }
-
   /**
    * Convert each element of the given classpath from a relative to an absolute path.
    *
    * @param classpath the classpath to replace
    * @return a version of classpath with relative paths replaced by absolute paths
    */
-  private String convertClasspathToAbsolute(String classpath) {
+  static String convertClasspathToAbsolute(String classpath) {
     String[] relpaths = classpath.split(File.pathSeparator);
     int length = relpaths.length;
     String[] abspaths = new String[length];
@@ -913,70 +1006,49 @@ public class GenTests extends GenInputsAbstract {
    * @param codeWriter the {@link CodeWriter} to output the test classes
    * @param classNamePrefix the prefix for the class name
    * @param testKind a {@code String} indicating the kind of tests for logging and error messages
+   * @param flakyTestNames if non-null, returns the names of the tests, written so far, that {@code
+   *     codeWriter} found to be flaky
+   * @param writeThreads the number of test classes to write at once; if greater than 1, {@code
+   *     codeWriter} must be thread-safe
+   * @return the writer that wrote the tests, or null if there were no tests
    */
-  private void writeTestFiles(
+  private @Nullable StreamingTestWriter writeTestFiles(
       JUnitCreator junitCreator,
       List<ExecutableSequence> testSequences,
       CodeWriter codeWriter,
       String classNamePrefix,
-      String testKind) {
+      String testKind,
+      @Nullable Supplier<Set<String>> flakyTestNames,
+      int writeThreads) {
     if (testSequences.isEmpty()) {
       if (GenInputsAbstract.progressdisplay) {
         System.out.printf(
             "%nNo " + testKind.toLowerCase(Locale.getDefault()) + " tests to output.%n");
       }
-      return;
+      return null;
     }
     if (GenInputsAbstract.progressdisplay) {
       System.out.printf("%n%s test output:%n", testKind);
       System.out.printf("%s test count: %d%n", testKind, testSequences.size());
       System.out.printf("Writing %s JUnit tests...%n", testKind.toLowerCase(Locale.getDefault()));
     }
+    StreamingTestWriter writer =
+        new StreamingTestWriter(
+            junitCreator,
+            codeWriter,
+            classNamePrefix,
+            testKind,
+            testSequences.size(),
+            /* subsumptionHistory= */ null,
+            flakyTestNames,
+            writeThreads);
     try {
-      List<String> testClasses = new ArrayList<>();
-
-      int numTests = testSequences.size();
-      // Test class names are classNamePrefix, followed by an integer in 0..numFiles-1.
-      int numFiles = (numTests - 1) / testsperfile + 1;
-
-      NameGenerator methodNameGenerator = new NameGenerator(TEST_METHOD_NAME_PREFIX, 1, numTests);
-
-      for (int i = 0; i < numFiles; i++) {
-        List<ExecutableSequence> partition =
-            testSequences.subList(i * testsperfile, Math.min((i + 1) * testsperfile, numTests));
-        String testClassName = classNamePrefix + i;
-        testClasses.add(testClassName);
-        CompilationUnit classAST =
-            junitCreator.createTestClass(testClassName, methodNameGenerator, partition);
-        String classSource = classAST.toString();
-        Path testFile =
-            codeWriter.writeClassCode(
-                GenInputsAbstract.junit_package_name, testClassName, classSource);
-        if (GenInputsAbstract.progressdisplay) {
-          System.out.printf("Created file %s%n", testFile.toAbsolutePath());
-        }
-      }
-
-      // Create and write suite or driver class.
-      String driverName;
-      String classSource;
-      if (GenInputsAbstract.junit_reflection_allowed) {
-        driverName = classNamePrefix;
-        classSource = junitCreator.createTestSuite(driverName, testClasses);
-      } else {
-        driverName = classNamePrefix + "Driver";
-        classSource = junitCreator.createTestDriver(driverName, testClasses, numTests);
-      }
-      Path suiteFile =
-          codeWriter.writeUnmodifiedClassCode(
-              GenInputsAbstract.junit_package_name, driverName, classSource);
-      if (GenInputsAbstract.progressdisplay) {
-        System.out.printf("Created file %s%n", suiteFile.toAbsolutePath());
+      for (ExecutableSequence testSequence : testSequences) {
+        writer.add(testSequence);
       }
+      writer.finish();
     } catch (RandoopOutputException e) {
-      System.out.printf("%nError writing %s tests%n", testKind.toLowerCase(Locale.getDefault()));
-      e.printStackTrace(System.out);
-      System.exit(1);
+      exitOnOutputError(testKind, e);
     } catch (Throwable e) {
       System.out.printf("GenTests.writeTestFiles threw an exception%n");
       e.printStackTrace(System.out);
@@ -986,6 +1058,105 @@ public class GenTests extends GenInputsAbstract {
     if (GenInputsAbstract.progressdisplay) {
       System.out.printf("Wrote %s JUnit tests.%n", testKind.toLowerCase(Locale.getDefault()));
     }
+    return writer;
+  }
+
+  /**
+   * Creates the {@link JUnitCreator} for the test classes, using the fixtures read from the
+   * command-line options.
+   *
+   * @return the JUnitCreator for the test classes
+   */
+  private JUnitCreator createJUnitCreator() {
+    return JUnitCreator.getTestCreator(
+        junit_package_name,
+        beforeAllFixtureBody,
+        afterAllFixtureBody,
+        beforeEachFixtureBody,
+        afterEachFixtureBody);
+  }
+
+  /**
+   * Returns the code writer for error-revealing test classes, which minimizes them if requested.
+   *
+   * @param javaFileWriter the writer for {@code .java} files
+   * @return the code writer for error-revealing test classes
+   */
+  private static CodeWriter createErrorTestCodeWriter(JavaFileWriter javaFileWriter) {
+    if (GenInputsAbstract.minimize_error_test || GenInputsAbstract.stop_on_error_test) {
+      return new MinimizerWriter(javaFileWriter);
+    }
+    return javaFileWriter;
+  }
+
+  /**
+   * Creates the environment in which regression tests are run to detect failing assertions.
+   *
+   * @param classpath the classpath of the code under test
+   * @return the environment for running regression tests
+   */
+  private TestEnvironment createTestEnvironment(String classpath) {
+    TestEnvironment testEnvironment = new TestEnvironment(convertClasspathToAbsolute(classpath));
+    testEnvironment.setWorkerCount(GenInputsAbstract.flaky_test_threads);
+    String agentPathString = MethodReplacements.getAgentPath();
+    String agentArgs = MethodReplacements.getAgentArgs();
+    if (agentPathString != null && !agentPathString.isEmpty()) {
+      Path agentPath = Paths.get(agentPathString);
+      testEnvironment.setReplaceCallAgent(agentPath, agentArgs);
+    }
+    return testEnvironment;
+  }
+
+  /**
+   * Returns a consumer for tests that are output during generation. It releases the run-time values
+   * of each test and then adds the test to the given writer, if any.
+   *
+   * @param writer the writer for the tests, or null to discard them
+   * @param testKind the kind of tests, such as "Regression", for error messages
+   * @return a consumer that passes tests to the writer
+   */
+  private static Consumer<ExecutableSequence> streamTestsTo(
+      @Nullable StreamingTestWriter writer, String testKind) {
+    return testSequence -> {
+      // Only the sequence and its checks are needed to output the test.
+      testSequence.discardExecutionResults();
+      if (writer != null) {
+        try {
+          writer.add(testSequence);
+        } catch (RandoopOutputException e) {
+          exitOnOutputError(testKind, e);
+        }
+      }
+    };
+  }
+
+  /**
+   * Writes the remaining tests of a writer that was used during generation.
+   *
+   * @param writer the writer
+   * @param testKind the kind of tests, such as "Regression", for diagnostic output
+   */
+  private static void finishTestFiles(StreamingTestWriter writer, String testKind) {
+    try {
+      writer.finish();
+    } catch (RandoopOutputException e) {
+      exitOnOutputError(testKind, e);
+    }
+    if (GenInputsAbstract.progressdisplay) {
+      System.out.printf("%n%s test count: %d%n", testKind, writer.getWrittenTestCount());
+    }
+  }
+
+  /**
+   * Reports an error writing tests, and exits.
+   *
+   * @param testKind the kind of tests, such as "Regression"
+   * @param e the error
+   */
+  private static void exitOnOutputError(String testKind, RandoopOutputException e) {
+    System.out.printf("%nError writing %s tests%n", testKind.toLowerCase(Locale.getDefault()));
+    e.printStackTrace(System.out);
+    System.exit(1);
   }
 
   /**
@@ -1253,15 +1424,9 @@ public class GenTests extends GenInputsAbstract {
 
     Predicate<ExecutableSequence> isOutputTest = baseTest.and(checkTest);
 
-    if (GenInputsAbstract.check_compilable) {
-      JUnitCreator junitCreator =
-          JUnitCreator.getTestCreator(
-              junit_package_name,
-              beforeAllFixtureBody,
-              afterAllFixtureBody,
-              beforeEachFixtureBody,
-              afterEachFixtureBody);
-      try (CompilableTestPredicate ctp = new CompilableTestPredicate(junitCreator, this)) {
+    // With a larger batch size, compilability is checked by the generator; see handle().
+    if (GenInputsAbstract.check_compilable && GenInputsAbstract.check_compilable_batch_size == 1) {
+      try (CompilableTestPredicate ctp = new CompilableTestPredicate(createJUnitCreator(), this)) {
         isOutputTest = isOutputTest.and(ctp);
       } catch (IOException e) {
         throw new RandoopBug(e);
@@ -1271,6 +1436,36 @@ public class GenTests extends GenInputsAbstract {
     return isOutputTest;
   }
 
+  /**
+   * Creates the visitors to be used while executing each generated sequence: the covered-class
+   * visitor if {@link GenInputsAbstract#require_covered_classes} is set, and the visitors given by
+   * {@link GenInputsAbstract#visitor}.
+   *
+   * @param coveredClassesGoal the classes whose coverage is recorded by the covered-class visitor
+   * @return new visitors
+   */
+  private static List<ExecutionVisitor> createExecutionVisitors(Set<Class<?>> coveredClassesGoal) {
+    List<ExecutionVisitor> visitors = new ArrayList<>();
+    // instrumentation visitor
+    if (GenInputsAbstract.require_covered_classes != null) {
+      visitors.add(new CoveredClassVisitor(coveredClassesGoal));
+    }
+    // Install any user-specified visitors.
+    if (!GenInputsAbstract.visitor.isEmpty()) {
+      for (String visitorClsName : GenInputsAbstract.visitor) {
+        try {
+          @SuppressWarnings("unchecked")
+          Class<ExecutionVisitor> cls = (Class<ExecutionVisitor>) Class.forName(visitorClsName);
+          ExecutionVisitor vis = cls.getDeclaredConstructor().newInstance();
+          visitors.add(vis);
+        } catch (Exception e) {
+          throw new RandoopBug("Error while loading visitor class " + visitorClsName, e);
+        }
+      }
+    }
+    return visitors;
+  }
+
   /**
    * Creates the test check generator for this run based on the command-line arguments. The goal of
    * the generator is to produce all appropriate checks for each sequence it is applied to.
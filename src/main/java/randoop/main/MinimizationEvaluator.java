@@ -0,0 +1,353 @@
+package randoop.main;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.printer.configuration.DefaultConfigurationOption;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration.ConfigOption;
+import com.github.javaparser.printer.configuration.PrinterConfiguration;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.plumelib.util.FilesPlume;
+import randoop.compile.SequenceCompiler;
+import randoop.compile.SequenceCompilerException;
+import randoop.execution.JUnitWorkerPool;
+import randoop.execution.TestEnvironment;
+
+/**
+ * Determines how a version of the test suite being minimized fails, for {@link Minimize}. Each
+ * version is compiled in memory and its tests are run in a long-lived worker JVM, so that trying a
+ * candidate does not start a compiler and a JVM. The outcome of a run is a map from test to the
+ * stack trace of its failure, without line numbers; two versions fail in the same way if their
+ * outcomes are equal.
+ *
+ * <p>Several versions can be compiled and run at once, each by its own compiler and worker JVM and
+ * from its own directory. Outcomes are remembered, keyed by a hash of the version's source without
+ * comments, so a version that the search revisits is not compiled and run again.
+ */
+final class MinimizationEvaluator implements Closeable {
+
+  /** Prints a version of the test suite without comments, which do not affect its outcome. */
+  private static final PrinterConfiguration NO_COMMENTS =
+      new DefaultPrinterConfiguration()
+          .removeOption(new DefaultConfigurationOption(ConfigOption.PRINT_COMMENTS));
+
+  /** The package of the test class, or null if it is in the default package. */
+  private final @Nullable String packageName;
+
+  /** The simple name of the test class. */
+  private final String className;
+
+  /** The fully-qualified name of the test class. */
+  private final String testClassName;
+
+  /** The class path to compile the test class with. */
+  private final String compileClasspath;
+
+  /** The compilers that are not in use. A compiler compiles one class at a time. */
+  private final Queue<SequenceCompiler> idleCompilers = new ConcurrentLinkedQueue<>();
+
+  /** Runs the tests in worker JVMs. */
+  private final TestEnvironment testEnvironment;
+
+  /** The directory that contains a directory of compiled classes for each run in progress. */
+  private final Path classDirectory;
+
+  /** Compiles and runs versions concurrently. */
+  private final ExecutorService executor;
+
+  /**
+   * The outcomes of the versions that have been run, keyed by {@link #key}. An empty value means
+   * that the version cannot be compiled or run.
+   */
+  private final Map<String, Optional<Map<String, List<String>>>> outcomes =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Creates an evaluator for a test class.
+   *
+   * @param packageName the package of the test class, or null if it is in the default package
+   * @param className the simple name of the test class
+   * @param compileClasspath the class path to compile the test class with
+   * @param runClasspath the class path to run the test class with; it must contain Randoop and
+   *     JUnit
+   * @param timeoutLimit number of seconds allowed for the whole test suite to run
+   * @param threads the number of versions to compile and run at once
+   * @throws IOException if the directory for the compiled classes cannot be created
+   */
+  MinimizationEvaluator(
+      @Nullable String packageName,
+      String className,
+      String compileClasspath,
+      String runClasspath,
+      int timeoutLimit,
+      int threads)
+      throws IOException {
+    this.packageName = packageName;
+    this.className = className;
+    this.testClassName = packageName == null ? className : packageName + "." + className;
+    this.compileClasspath = compileClasspath;
+    this.testEnvironment = new TestEnvironment(runClasspath);
+    this.testEnvironment.setTimeoutMillis(timeoutLimit * 1000L);
+    this.testEnvironment.setWorkerCount(threads);
+    this.classDirectory = Files.createTempDirectory("minimize");
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads,
+            runnable -> {
+              Thread thread = new Thread(runnable, "randoop.main.MinimizationEvaluator");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Compiles a version of the test suite and returns the errors reported by the compiler.
+   *
+   * @param compilationUnit the version of the test suite
+   * @return the compilation errors, which are empty if the version compiles
+   */
+  List<String> compilationErrors(CompilationUnit compilationUnit) {
+    SequenceCompiler compiler = takeCompiler();
+    try {
+      List<String> result = new ArrayList<>();
+      for (Diagnostic<? extends JavaFileObject> diagnostic :
+          compiler.getCompilationErrors(packageName, className, compilationUnit.toString())) {
+        result.add(diagnostic.toString());
+      }
+      return result;
+    } finally {
+      idleCompilers.add(compiler);
+    }
+  }
+
+  /**
+   * Compiles a version of the test suite and runs all of its tests.
+   *
+   * @param compilationUnit the version of the test suite
+   * @return a map from the description of each failing test to its stack trace, or null if the
+   *     version does not compile, does not finish in time, or terminates the JVM
+   */
+  @Nullable Map<String, List<String>> run(CompilationUnit compilationUnit) {
+    return run(compilationUnit, null);
+  }
+
+  /**
+   * Compiles a version of the test suite and runs one of its tests, or all of them.
+   *
+   * @param compilationUnit the version of the test suite
+   * @param methodName the name of the test method to run, or null to run all the tests
+   * @return a map from the description of each failing test to its stack trace, or null if the
+   *     version does not compile, does not finish in time, or terminates the JVM
+   */
+  @Nullable Map<String, List<String>> run(
+      CompilationUnit compilationUnit, @Nullable String methodName) {
+    return run(source(compilationUnit), methodName);
+  }
+
+  /**
+   * Returns the source of a version of the test suite, as passed to {@link #indexOfFirst}. It
+   * contains no comments.
+   *
+   * @param compilationUnit the version of the test suite
+   * @return the source of the version
+   */
+  String source(CompilationUnit compilationUnit) {
+    return compilationUnit.toString(NO_COMMENTS);
+  }
+
+  /**
+   * Returns the index of the first of the given versions of the test suite whose outcome is the
+   * expected one. The versions are compiled and run concurrently, but the result is the same as if
+   * they were tried one after another.
+   *
+   * @param sources the sources of the versions, as returned by {@link #source}
+   * @param methodName the name of the test method to run, or null to run all the tests
+   * @param expected the expected outcome
+   * @return the index of the first version whose outcome is {@code expected}, or -1 if there is
+   *     none
+   */
+  int indexOfFirst(
+      List<String> sources, @Nullable String methodName, Map<String, List<String>> expected) {
+    List<Future<Boolean>> results = new ArrayList<>(sources.size());
+    try {
+      for (String source : sources) {
+        results.add(executor.submit(() -> expected.equals(run(source, methodName))));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        if (results.get(i).get()) {
+          return i;
+        }
+      }
+      return -1;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return -1;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RandoopBug(cause);
+    } finally {
+      // The versions that have not started are not needed.
+      for (Future<Boolean> result : results) {
+        result.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Compiles a version of the test suite and runs one of its tests, or all of them, unless its
+   * outcome is already known.
+   *
+   * @param source the source of the version, as returned by {@link #source}
+   * @param methodName the name of the test method to run, or null to run all the tests
+   * @return a map from the description of each failing test to its stack trace, or null if the
+   *     version does not compile, does not finish in time, or terminates the JVM
+   */
+  private @Nullable Map<String, List<String>> run(String source, @Nullable String methodName) {
+    String key = key(source, methodName);
+    Optional<Map<String, List<String>>> outcome = outcomes.get(key);
+    if (outcome == null) {
+      outcome = Optional.ofNullable(compileAndRun(source, methodName));
+      outcomes.put(key, outcome);
+    }
+    return outcome.orElse(null);
+  }
+
+  /**
+   * Compiles a version of the test suite and runs one of its tests, or all of them.
+   *
+   * @param source the source of the version
+   * @param methodName the name of the test method to run, or null to run all the tests
+   * @return a map from the description of each failing test to its stack trace, or null if the
+   *     version does not compile, does not finish in time, or terminates the JVM
+   */
+  private @Nullable Map<String, List<String>> compileAndRun(
+      String source, @Nullable String methodName) {
+    Map<String, byte[]> classFiles;
+    SequenceCompiler compiler = takeCompiler();
+    try {
+      classFiles = compiler.compileToBytecode(packageName, className, source);
+    } catch (SequenceCompilerException e) {
+      return null;
+    } finally {
+      idleCompilers.add(compiler);
+    }
+
+    List<JUnitWorkerPool.TestFailure> failures;
+    Path runDirectory = null;
+    try {
+      runDirectory = Files.createTempDirectory(classDirectory, "run");
+      writeClassFiles(classFiles, runDirectory);
+      failures = testEnvironment.runTestInWorker(testClassName, methodName, runDirectory);
+    } catch (IOException | TimeoutException e) {
+      return null;
+    } finally {
+      if (runDirectory != null) {
+        FilesPlume.deleteDir(runDirectory.toFile());
+      }
+    }
+    if (failures == null) {
+      return null;
+    }
+
+    Map<String, List<String>> result = new HashMap<>();
+    for (JUnitWorkerPool.TestFailure failure : failures) {
+      result.put(failure.testHeader, failure.stackTrace);
+    }
+    return result;
+  }
+
+  /**
+   * Returns a compiler that is not in use. Add it to {@link #idleCompilers} when done with it.
+   *
+   * @return a compiler that is not in use
+   */
+  private SequenceCompiler takeCompiler() {
+    SequenceCompiler compiler = idleCompilers.poll();
+    if (compiler == null) {
+      compiler = new SequenceCompiler(Arrays.asList("-classpath", compileClasspath));
+    }
+    return compiler;
+  }
+
+  /**
+   * Returns the key of the outcome of a run.
+   *
+   * @param source the source of the version of the test suite
+   * @param methodName the name of the test method to run, or null to run all the tests
+   * @return a hexadecimal hash of the source and the method name
+   */
+  private static String key(String source, @Nullable String methodName) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RandoopBug(e);
+    }
+    digest.update(source.getBytes(UTF_8));
+    if (methodName != null) {
+      digest.update((byte) 0);
+      digest.update(methodName.getBytes(UTF_8));
+    }
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest.digest()) {
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Writes the given classes to a directory.
+   *
+   * @param classFiles a map from binary class name to bytecode
+   * @param directory the directory to write the classes to
+   * @throws IOException if a class file cannot be written
+   */
+  private static void writeClassFiles(Map<String, byte[]> classFiles, Path directory)
+      throws IOException {
+    for (Map.Entry<String, byte[]> entry : classFiles.entrySet()) {
+      Path classFile = directory.resolve(entry.getKey().replace('.', '/') + ".class");
+      Files.createDirectories(classFile.getParent());
+      Files.write(classFile, entry.getValue());
+    }
+  }
+
+  /** Stops the worker JVMs and compilers and deletes the compiled classes. */
+  @Override
+  public void close() throws IOException {
+    executor.shutdownNow();
+    testEnvironment.shutdownWorkers();
+    SequenceCompiler compiler;
+    while ((compiler = idleCompilers.poll()) != null) {
+      compiler.close();
+    }
+    FilesPlume.deleteDir(classDirectory.toFile());
+  }
+}
@@ -42,7 +42,6 @@ import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -94,11 +93,12 @@ import randoop.output.PrimitiveAndWrappedTypeVarNameCollector;
  * </ol>
  *
  * <p>The minimizer will only attempt to minimize methods that are annotated with the @Test
- * annotation. In a method that contains a failing assertion, the minimizer will iterate through the
- * statements of the method, from last to first. For each statement, it tries possible replacement
- * statements, from most minimized to least minimized. Removing the statement is the most a
- * statement can be minimized. Leaving the statement unchanged is the least that the statement can
- * be minimized.
+ * annotation. The minimizer first removes chunks of consecutive statements whose removal does not
+ * change how the method fails, from large chunks to small ones. Then it will iterate through the
+ * remaining statements of the method, from last to first. For each statement, it tries possible
+ * replacement statements, from most minimized to least minimized. Removing the statement is the
+ * most a statement can be minimized. Leaving the statement unchanged is the least that the
+ * statement can be minimized.
  *
  * <p>If a replacement causes the output test suite to fail differently than the original test
  * suite, the algorithm tries a different replacement. If no replacement allows the output test
@@ -131,6 +131,15 @@ public class Minimize extends CommandHandler {
   @Option("Timeout, in seconds, for the whole test suite")
   public static int testsuitetimeout = 30;
 
+  /**
+   * The number of candidate versions of a test to compile and run at once. Each one is run in its
+   * own JVM. The minimized test suite does not depend on this number. If 0, the number of available
+   * processors is used.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Option("Number of candidate versions of a test to compile and run concurrently")
+  public static int minimizethreads = 0;
+
   /** Produce verbose diagnostics to standard output if true. */
   @SuppressWarnings("WeakerAccess")
   @Option("Verbose, flag for verbose output")
@@ -213,6 +222,11 @@ public class Minimize extends CommandHandler {
           "Minimizer timout must be positive, was given as " + Minimize.minimizetimeout + ".");
     }
 
+    if (Minimize.minimizethreads < 0) {
+      throw new RandoopCommandError(
+          "Minimizer threads must be non-negative, was given as " + Minimize.minimizethreads + ".");
+    }
+
     // File object pointing to the file to be minimized.
     final Path originalFile = Paths.get(suitepath);
 
@@ -265,12 +279,12 @@ public class Minimize extends CommandHandler {
    *   <li>Same stacktrace produced by failing assertions.
    * </ol>
    *
-   * <p>The original input Java file will be compiled and run once. The "expected output" derived
-   * from the standard output from running the input file is a map from test method name to failure
-   * stack trace. A method is included in the map only if the method contains a failing assertion.
-   * Thus, the "expected output" of running a test suite with no failing tests will be an empty map.
-   * The "expected output" will be used during subsequent runs of the modified test suite to
-   * determine whether or not the test suite still fails in the same way.
+   * <p>The original input Java file will be compiled and run once. The "expected output" of running
+   * the input file is a map from test to failure stack trace. A test is included in the map only if
+   * it fails. Thus, the "expected output" of running a test suite with no failing tests will be an
+   * empty map. The "expected output" will be used to determine whether or not the modified test
+   * suite still fails in the same way. Each candidate modification of a test method is compiled and
+   * run by itself, so the modified test suite as a whole is checked once per test method.
    *
    * @param file the Java file that is being minimized
    * @param classPath classpath used to compile and run the Java file
@@ -325,39 +339,53 @@ public class Minimize extends CommandHandler {
     Path minimizedFile =
         ClassRenamingVisitor.copyAndRename(file, compilationUnit, oldClassName, newClassName);
 
-    // Compile the original Java file (it has not been minimized yet).
-    Outputs compilationOutput =
-        compileJavaFile(minimizedFile, classPath, packageName, timeoutLimit);
-    if (compilationOutput.isFailure()) {
-      System.err.println("Error when compiling file " + file + ". Aborting.");
-      System.err.println(compilationOutput.diagnostics());
-      return false;
-    }
-
-    // expectedOutput is a map from method name to failure stack trace with
-    // line numbers removed.
-    String runResult = runJavaFile(minimizedFile, classPath, packageName, timeoutLimit);
-    Map<String, String> expectedOutput = normalizeJUnitOutput(runResult);
-
-    // Minimize the Java test suite.
-    minimizeTestSuite(
-        compilationUnit, packageName, minimizedFile, classPath, expectedOutput, timeoutLimit);
-
-    // Cleanup: simplify type names and sort the import statements.
-    compilationUnit =
-        simplifyTypeNames(
-            compilationUnit,
-            packageName,
-            minimizedFile,
-            classPath,
-            expectedOutput,
-            timeoutLimit,
-            verboseOutput);
+    // The test class is compiled and run with the directory of its package root on the classpath,
+    // so that it can use other classes from that directory.
+    Path executionDir = getExecutionDirectory(minimizedFile.toAbsolutePath(), packageName);
+    String compileClasspath =
+        (executionDir == null ? Paths.get("").toAbsolutePath() : executionDir).toString();
+    if (classPath != null) {
+      compileClasspath += PATH_SEPARATOR + GenTests.convertClasspathToAbsolute(classPath);
+    }
+    String runClasspath =
+        compileClasspath
+            + PATH_SEPARATOR
+            + minimizedFile.toAbsolutePath().getParent()
+            + PATH_SEPARATOR
+            + System.getProperty("java.class.path");
+
+    int threads =
+        minimizethreads == 0 ? Runtime.getRuntime().availableProcessors() : minimizethreads;
+    try (MinimizationEvaluator evaluator =
+        new MinimizationEvaluator(
+            packageName, newClassName, compileClasspath, runClasspath, timeoutLimit, threads)) {
+      // Compile the original Java file (it has not been minimized yet).
+      List<String> compilationErrors = evaluator.compilationErrors(compilationUnit);
+      if (!compilationErrors.isEmpty()) {
+        System.err.println("Error when compiling file " + file + ". Aborting.");
+        for (String error : compilationErrors) {
+          System.err.println(error);
+        }
+        return false;
+      }
 
-    writeToFile(compilationUnit, minimizedFile);
+      // expectedOutput is a map from test to failure stack trace with line numbers removed.
+      Map<String, List<String>> expectedOutput = evaluator.run(compilationUnit);
+      if (expectedOutput == null) {
+        System.err.println("Error when running file " + file + ". Aborting.");
+        return false;
+      }
 
-    // Delete the .class file associated with the minimized Java file.
-    cleanUp(minimizedFile, verboseOutput);
+      // Minimize the Java test suite.
+      minimizeTestSuite(compilationUnit, evaluator, expectedOutput);
+
+      // Cleanup: simplify type names and sort the import statements.
+      compilationUnit =
+          simplifyTypeNames(compilationUnit, evaluator, expectedOutput, verboseOutput);
+    }
+
+    writeToFile(compilationUnit, minimizedFile);
+    System.out.println("Minimizing complete.");
 
     System.out.println("Original file length: " + getFileLength(file) + " lines.");
     System.out.println("Minimized file length: " + getFileLength(minimizedFile) + " lines.");
@@ -369,21 +397,13 @@ public class Minimize extends CommandHandler {
    * Visit and minimize every JUnit test method within a compilation unit.
    *
    * @param compilationUnit the compilation unit to minimize; is modified by side effect
-   * @param packageName the package that the Java file is in
-   * @param file the Java file that is being minimized; is modified by side effect
-   * @param classpath classpath used to compile and run the Java file
-   * @param expectedOutput expected JUnit output when the Java file is compiled and run
-   * @param timeoutLimit number of seconds allowed for the whole test suite to run
-   * @throws IOException thrown if minimized method can't be written to file
+   * @param evaluator compiles and runs versions of the compilation unit
+   * @param expectedOutput expected outcome when the Java file is compiled and run
    */
   private static void minimizeTestSuite(
       CompilationUnit compilationUnit,
-      String packageName,
-      Path file,
-      String classpath,
-      Map<String, String> expectedOutput,
-      int timeoutLimit)
-      throws IOException {
+      MinimizationEvaluator evaluator,
+      Map<String, List<String>> expectedOutput) {
     System.out.println("Minimizing test suite.");
 
     int numberOfTestMethods = getNumberOfTestMethods(compilationUnit);
@@ -396,14 +416,7 @@ public class Minimize extends CommandHandler {
 
           // Minimize the method only if it is a JUnit test method.
           if (isTestMethod(method)) {
-            minimizeMethod(
-                method,
-                compilationUnit,
-                packageName,
-                file,
-                classpath,
-                expectedOutput,
-                timeoutLimit);
+            minimizeMethod(method, type, compilationUnit, evaluator, expectedOutput);
             printProgress(++numberOfMinimizedTests, numberOfTestMethods, method.getName());
           }
         }
@@ -432,32 +445,43 @@ public class Minimize extends CommandHandler {
   /**
    * Minimize a method by minimizing each statement in turn.
    *
+   * <p>Each candidate is checked by compiling and running a copy of the test suite that contains no
+   * other test method, so that a check does not depend on the size of the test suite. Its outcome
+   * must be the same as that of the unmodified method in such a copy. Once the method is minimized,
+   * the whole test suite is checked; if it no longer fails in the same way (for example, because
+   * the tests share state), the method is restored.
+   *
    * @param method the method to minimize; is modified by side effect
+   * @param type the type that declares the method
    * @param compilationUnit compilation unit for the Java file that we are minimizing; is modified
    *     by side effect
-   * @param packageName the package that the Java file is in
-   * @param file the Java file that is being minimized; is modified by side effect
-   * @param classpath classpath needed to compile and run the Java file
-   * @param expectedOutput expected output from running the JUnit test suite
-   * @param timeoutLimit number of seconds allowed for the whole test suite to run
-   * @throws IOException thrown if write to file fails
+   * @param evaluator compiles and runs versions of the compilation unit
+   * @param expectedOutput expected outcome of running the JUnit test suite
    */
   private static void minimizeMethod(
       MethodDeclaration method,
+      TypeDeclaration<?> type,
       CompilationUnit compilationUnit,
-      String packageName,
-      Path file,
-      String classpath,
-      Map<String, String> expectedOutput,
-      int timeoutLimit)
-      throws IOException {
+      MinimizationEvaluator evaluator,
+      Map<String, List<String>> expectedOutput) {
     Optional<BlockStmt> oBlockStmt = method.getBody();
     if (!oBlockStmt.isPresent()) {
       return;
     }
     BlockStmt body = oBlockStmt.get();
+    BlockStmt originalBody = body.clone();
     List<Statement> statements = body.getStatements();
 
+    // A copy of the test suite whose only test method is a copy of this one.
+    MethodDeclaration methodCopy = testSuiteWithOnlyMethod(compilationUnit, type, method);
+    String methodName = method.getNameAsString();
+    Map<String, List<String>> expectedMethodOutput =
+        evaluator.run(methodCopy.findCompilationUnit().get(), methodName);
+    if (expectedMethodOutput == null) {
+      // The method cannot be run by itself.
+      return;
+    }
+
     // Map from primitive variable name to the variable's value extracted
     // from a passing assertion.  Modified by the call to storeValueFromAssertion().
     Map<String, String> primitiveValues = new HashMap<>();
@@ -466,6 +490,14 @@ public class Minimize extends CommandHandler {
     Set<String> primitiveAndWrappedTypes = new HashSet<>();
     new PrimitiveAndWrappedTypeVarNameCollector().visit(compilationUnit, primitiveAndWrappedTypes);
 
+    removeStatementChunks(
+        body,
+        methodCopy,
+        evaluator,
+        expectedMethodOutput,
+        primitiveValues,
+        primitiveAndWrappedTypes);
+
     // Iterate through the list of statements, from last to first.
     for (int i = statements.size() - 1; i >= 0; i--) {
       Statement currStmt = statements.get(i);
@@ -478,48 +510,162 @@ public class Minimize extends CommandHandler {
 
       // Obtain a list of possible replacements for the current statement.
       List<Statement> replacements = getStatementReplacements(currStmt, primitiveValues);
-      boolean replacementFound = false;
-      boolean replacementIsNull = false;
 
+      // The versions of the method with each replacement, which are compiled and run concurrently.
+      List<String> candidates = new ArrayList<>(replacements.size());
       for (Statement stmt : replacements) {
         // Add replacement statement to the method's body.
         // If stmt is null, don't add anything since null represents removal of the statement.
         if (stmt != null) {
           statements.add(i, stmt);
         }
-
-        // Write, compile, and run the new Java file.
-        writeToFile(compilationUnit, file);
-        if (checkCorrectlyMinimized(file, classpath, packageName, expectedOutput, timeoutLimit)) {
-          // No compilation or runtime issues, obtained output is the same as the expected output.
-          // Use simplification of this statement and continue with next statement.
-          replacementFound = true;
-          replacementIsNull = (stmt == null);
-
-          // Assertions are never simplified, only removed. If currStmt is an assertion, then stmt
-          // is null.
-          storeValueFromAssertion(currStmt, primitiveValues, primitiveAndWrappedTypes);
-          break; // break replacement loop; continue statements loop.
-        } else {
-          // Issue encountered, remove the faulty replacement.
-          if (stmt != null) {
-            statements.remove(i);
-          }
+        methodCopy.setBody(body.clone());
+        candidates.add(evaluator.source(methodCopy.findCompilationUnit().get()));
+        if (stmt != null) {
+          statements.remove(i);
         }
       }
 
-      if (!replacementFound) {
+      // The first replacement with no compilation or runtime issues, whose output is the same as
+      // the expected output.
+      int index = evaluator.indexOfFirst(candidates, methodName, expectedMethodOutput);
+      if (index == -1) {
         // No correct simplification found. Add back the original statement to the list of
         // statements.
         statements.add(i, currStmt);
-      } else if (replacementIsNull) {
+        continue;
+      }
+
+      // Use simplification of this statement and continue with next statement.
+      Statement stmt = replacements.get(index);
+      if (stmt != null) {
+        statements.add(i, stmt);
+      } else {
         for (Comment oc : orphanComments) {
           parent.removeOrphanComment(oc);
         }
       }
+
+      // Assertions are never simplified, only removed. If currStmt is an assertion, then stmt is
+      // null.
+      storeValueFromAssertion(currStmt, primitiveValues, primitiveAndWrappedTypes);
+    }
+
+    if (!body.equals(originalBody) && !expectedOutput.equals(evaluator.run(compilationUnit))) {
+      method.setBody(originalBody);
     }
   }
 
+  /**
+   * Removes chunks of consecutive statements from a method body, in the manner of delta debugging
+   * (ddmin), so that statements that are irrelevant to the failure are removed in a few trials
+   * rather than one trial per statement. Chunks of half of the statements are tried first, then
+   * chunks of a quarter, and so on down to chunks of two statements; single statements are left to
+   * the statement-by-statement pass of {@link #minimizeMethod}. Within each chunk size, the chunks
+   * are tried from last to first. A chunk is removed if the method still fails in the same way
+   * without it.
+   *
+   * @param body the method body to minimize; is modified by side effect
+   * @param methodCopy the copy of the method that is compiled and run
+   * @param evaluator compiles and runs versions of the compilation unit
+   * @param expectedMethodOutput expected outcome of running the method by itself
+   * @param primitiveValues a map of variable names to variable values; the values asserted by the
+   *     removed statements are added to it
+   * @param primitiveAndWrappedTypeVars set containing the names of all primitive and wrapped type
+   *     variables
+   */
+  private static void removeStatementChunks(
+      BlockStmt body,
+      MethodDeclaration methodCopy,
+      MinimizationEvaluator evaluator,
+      Map<String, List<String>> expectedMethodOutput,
+      Map<String, String> primitiveValues,
+      Set<String> primitiveAndWrappedTypeVars) {
+    List<Statement> statements = body.getStatements();
+    for (int chunkSize = statements.size() / 2; chunkSize >= 2; chunkSize /= 2) {
+      int end = statements.size();
+      while (end > 0) {
+        int start = Math.max(0, end - chunkSize);
+        List<Statement> chunk = new ArrayList<>(statements.subList(start, end));
+        List<Comment> orphanComments = new ArrayList<>();
+        for (Statement stmt : chunk) {
+          getOrphanCommentsBeforeThisChildNode(stmt, orphanComments);
+        }
+
+        for (int i = end - 1; i >= start; i--) {
+          statements.remove(i);
+        }
+        if (failsTheSameWay(body, methodCopy, evaluator, expectedMethodOutput)) {
+          // Store the asserted values in the order that the statement-by-statement pass would.
+          for (int i = chunk.size() - 1; i >= 0; i--) {
+            storeValueFromAssertion(chunk.get(i), primitiveValues, primitiveAndWrappedTypeVars);
+          }
+          for (Comment oc : orphanComments) {
+            body.removeOrphanComment(oc);
+          }
+        } else {
+          for (int i = 0; i < chunk.size(); i++) {
+            statements.add(start + i, chunk.get(i));
+          }
+        }
+        end = start;
+      }
+    }
+  }
+
+  /**
+   * Returns true if a version of a method body fails in the same way as the original method, when
+   * the method is run by itself.
+   *
+   * @param body a version of the method body
+   * @param methodCopy the copy of the method that is compiled and run; its body is replaced by a
+   *     copy of {@code body}
+   * @param evaluator compiles and runs versions of the compilation unit
+   * @param expectedMethodOutput expected outcome of running the method by itself
+   * @return true if the method compiles, runs, and has the expected outcome
+   */
+  private static boolean failsTheSameWay(
+      BlockStmt body,
+      MethodDeclaration methodCopy,
+      MinimizationEvaluator evaluator,
+      Map<String, List<String>> expectedMethodOutput) {
+    methodCopy.setBody(body.clone());
+    return expectedMethodOutput.equals(
+        evaluator.run(methodCopy.findCompilationUnit().get(), methodCopy.getNameAsString()));
+  }
+
+  /**
+   * Returns a copy of a method, in a copy of the compilation unit from which the other test
+   * methods have been removed.
+   *
+   * @param compilationUnit the compilation unit that declares the method
+   * @param type the type that declares the method
+   * @param method a test method
+   * @return the copy of the method, in a copy of the compilation unit without other test methods
+   */
+  private static MethodDeclaration testSuiteWithOnlyMethod(
+      CompilationUnit compilationUnit, TypeDeclaration<?> type, MethodDeclaration method) {
+    CompilationUnit copy = compilationUnit.clone();
+    MethodDeclaration methodCopy = null;
+    for (TypeDeclaration<?> typeCopy : copy.getTypes()) {
+      boolean isType = typeCopy.getNameAsString().equals(type.getNameAsString());
+      for (BodyDeclaration<?> member : new ArrayList<>(typeCopy.getMembers())) {
+        if (member instanceof MethodDeclaration && isTestMethod((MethodDeclaration) member)) {
+          MethodDeclaration memberMethod = (MethodDeclaration) member;
+          if (isType && memberMethod.getNameAsString().equals(method.getNameAsString())) {
+            methodCopy = memberMethod;
+          } else {
+            typeCopy.remove(memberMethod);
+          }
+        }
+      }
+    }
+    if (methodCopy == null) {
+      throw new RandoopBug("Method " + method.getName() + " not found in copy of its class");
+    }
+    return methodCopy;
+  }
+
   /**
    * If {@code currStmt} is an assertion about a primitive value, store the value associated with
    * the variable in the {@code primitiveValues} map.
@@ -881,24 +1027,16 @@ public class Minimize extends CommandHandler {
    *
    * @param compilationUnit compilation unit containing an AST for a Java file, the compilation unit
    *     will be modified if a correct minimization of the method is found
-   * @param packageName the package that the Java file is in
-   * @param file the Java file to simplify; is modified by side effect
-   * @param classpath classpath needed to compile and run the Java file
-   * @param expectedOutput expected standard output from running the JUnit test suite
-   * @param timeoutLimit number of seconds allowed for the whole test suite to run
+   * @param evaluator compiles and runs versions of the compilation unit
+   * @param expectedOutput expected outcome of running the JUnit test suite
    * @param verboseOutput whether or not to output information about minimization status
    * @return {@code CompilationUnit} with fully-qualified type names simplified to simple type names
-   * @throws IOException thrown if write to file fails
    */
   private static CompilationUnit simplifyTypeNames(
       CompilationUnit compilationUnit,
-      String packageName,
-      Path file,
-      String classpath,
-      Map<String, String> expectedOutput,
-      int timeoutLimit,
-      boolean verboseOutput)
-      throws IOException {
+      MinimizationEvaluator evaluator,
+      Map<String, List<String>> expectedOutput,
+      boolean verboseOutput) {
     if (verboseOutput) {
       System.out.println("Adding imports and simplifying type names.");
     }
@@ -929,8 +1067,7 @@ public class Minimize extends CommandHandler {
       new FieldAccessTypeNameSimplifyVisitor().visit(compUnitWithSimpleTypeNames, type);
 
       // Check that the simplification is correct.
-      writeToFile(compUnitWithSimpleTypeNames, file);
-      if (checkCorrectlyMinimized(file, classpath, packageName, expectedOutput, timeoutLimit)) {
+      if (expectedOutput.equals(evaluator.run(compUnitWithSimpleTypeNames))) {
         result = compUnitWithSimpleTypeNames;
       }
     }
@@ -940,102 +1077,6 @@ public class Minimize extends CommandHandler {
     return result;
   }
 
-  /**
-   * Check if a Java file has been correctly minimized. The file should not have compilation errors
-   * or run-time errors. The file should fail in the same way as the original file.
-   *
-   * @param file the file being checked
-   * @param classpath classpath needed to compile/run the Java file
-   * @param packageName the package that the Java file is in
-   * @param expectedOutput expected output of running the JUnit test suite
-   * @param timeoutLimit number of seconds allowed for the whole test suite to run
-   * @return true if there are no compilation and no run-time errors and the output is equal to the
-   *     expected output
-   */
-  private static boolean checkCorrectlyMinimized(
-      Path file,
-      String classpath,
-      String packageName,
-      Map<String, String> expectedOutput,
-      int timeoutLimit) {
-
-    Outputs compilationOutput = compileJavaFile(file, classpath, packageName, timeoutLimit);
-    if (compilationOutput.isFailure()) {
-      return false;
-    }
-
-    // Run the Java file and get the standard output.
-    String runResult = runJavaFile(file, classpath, packageName, timeoutLimit);
-
-    // Compare the standard output with the expected output.
-    return expectedOutput.equals(normalizeJUnitOutput(runResult));
-  }
-
-  /**
-   * Compile a Java file and return the compilation exit value.
-   *
-   * @param file the file to be compiled and executed
-   * @param classpath dependencies and complete classpath to compile and run the Java program
-   * @param packageName the package that the Java file is in
-   * @param timeoutLimit number of seconds allowed for the whole test suite to run
-   * @return the result of compilation (includes status and output)
-   */
-  private static Outputs compileJavaFile(
-      Path file, String classpath, String packageName, int timeoutLimit) {
-    // Obtain directory to carry out compilation and execution step.
-    Path executionDir = getExecutionDirectory(file, packageName);
-
-    // Command to compile the input Java file.
-    String command = "javac -classpath .";
-    if (classpath != null) {
-      // Add specified classpath to command.
-      command += PATH_SEPARATOR + classpath;
-    }
-
-    command += " " + file.toAbsolutePath().toString();
-
-    // Compile specified Java file.
-    return runProcess(command, executionDir, timeoutLimit);
-  }
-
-  /**
-   * Run a Java file and return the standard output.
-   *
-   * @param file the file to be compiled and executed
-   * @param userClassPath dependencies and complete classpath to compile and run the Java program
-   * @param packageName the package that the Java file is in
-   * @param timeoutLimit number of seconds allowed for the Java program to run
-   * @return standard output from running the Java file
-   */
-  private static String runJavaFile(
-      Path file, String userClassPath, String packageName, int timeoutLimit) {
-    // Obtain directory to carry out compilation and execution step.
-    Path executionDir = getExecutionDirectory(file, packageName);
-
-    // Directory path for the classpath.
-    String dirPath = ".";
-    if (file.getParent() != null) {
-      dirPath += PATH_SEPARATOR + file.getParent();
-    }
-
-    // Classpath for running the Java file.
-    String classpath = dirPath;
-    if (userClassPath != null) {
-      classpath += PATH_SEPARATOR + userClassPath;
-    }
-
-    // Fully-qualified classname.
-    String fqClassName = FilenameUtils.getBaseName(file.toString());
-    if (packageName != null) {
-      fqClassName = packageName + "." + fqClassName;
-    }
-
-    String command = "java -classpath " + classpath + " org.junit.runner.JUnitCore " + fqClassName;
-
-    // Run the specified Java file and return the standard output.
-    return runProcess(command, executionDir, timeoutLimit).stdout;
-  }
-
   /**
    * Get directory to execute command in, given file path and package name. Returns a {@code Path}
    * pointing to the directory that the Java file should be executed in.
@@ -1150,63 +1191,6 @@ public class Minimize extends CommandHandler {
     return new Outputs(cmdLine, exitValue, stdOutputString, errOutputString);
   }
 
-  /**
-   * Normalize the standard output obtained from running a JUnit test suite. By normalizing the
-   * {@code String} representation of the output, we remove any extraneous information such as line
-   * numbers. The resulting output is a map from method name to the method's failure stack trace.
-   *
-   * @param input the {@code String} produced from running a JUnit test suite
-   * @return a map from method name to the method's failure stack trace. The stack trace will not
-   *     contain any line numbers.
-   */
-  private static Map<String, String> normalizeJUnitOutput(String input) {
-    String methodName = null;
-    Map<String, String> resultMap = new HashMap<>();
-
-    StringBuilder result = new StringBuilder();
-    // JUnit output starts with index 1 for first failure.
-    int index = 1;
-
-    try (BufferedReader bufReader = new BufferedReader(new StringReader(input))) {
-      for (String line; (line = bufReader.readLine()) != null; ) {
-        String indexStr = index + ") ";
-        // Check if the current line is the start of a failure stack
-        // trace for a method.
-        if (line.startsWith(indexStr)) {
-          // If a previous failure stack trace is being read, add the
-          // existing method name and stack trace to the map.
-          if (methodName != null) {
-            resultMap.put(methodName, result.toString());
-
-            // Reset the string builder.
-            result.setLength(0);
-          }
-          // Set the method name to the current line.
-          methodName = line;
-          index += 1;
-        } else if (line.isEmpty()) {
-          // Reached an empty line which marks the end of the JUnit
-          // output.
-          resultMap.put(methodName, result.toString());
-          break;
-        } else if (methodName != null) {
-          // Look for a left-parentheses which marks the position
-          // where a line number will appear.
-          int lParenIndex = line.indexOf('(');
-          if (lParenIndex >= 0) {
-            // Remove the substring containing the line number.
-            line = line.substring(0, lParenIndex);
-          }
-          result.append(line).append(Globals.lineSep);
-        }
-      }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
-
-    return resultMap;
-  }
-
   /**
    * Write a compilation unit to a Java file.
    *
@@ -1403,30 +1387,6 @@ public class Minimize extends CommandHandler {
     return lines;
   }
 
-  /**
-   * Deletes the .class file associated with the outputFile.
-   *
-   * @param outputFile the source file for the class file to be removed
-   * @param verboseOutput whether to print information about minimization status
-   */
-  private static void cleanUp(Path outputFile, boolean verboseOutput) {
-    System.out.println("Minimizing complete.");
-
-    String outputClassFileStr =
-        FilenameUtils.removeExtension(outputFile.toAbsolutePath().toString()).concat(".class");
-    Path outputClassFile = Paths.get(outputClassFileStr);
-    try {
-      boolean success = Files.deleteIfExists(outputClassFile);
-
-      if (verboseOutput && success) {
-        System.out.println("Minimizer cleanup: Removed .class file.");
-      }
-    } catch (IOException e) {
-      System.err.println("IOException when cleaning up .class file.");
-      e.printStackTrace();
-    }
-  }
-
   /**
    * Return the number of JUnit test methods in a compilation unit.
    *
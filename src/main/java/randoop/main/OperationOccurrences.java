@@ -0,0 +1,83 @@
+package randoop.main;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import randoop.operation.TypedClassOperation;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Statement;
+import randoop.types.Type;
+import randoop.util.MultiMap;
+import randoop.util.SimpleList;
+
+/**
+ * Counts the tests that each method occurs in, for ranking the methods that may make tests flaky.
+ * A method occurs in a test if the test calls it, or if it can be used in an assertion over the
+ * value produced by the test's final call. Each test is summarized when it is added, so the tests
+ * need not be retained.
+ */
+final class OperationOccurrences {
+
+  /** For each method call operation, the number of tests that call it at least once. */
+  private final Map<TypedClassOperation, Integer> callCounts = new HashMap<>();
+
+  /** For each type, the number of tests whose last statement produces a value of that type. */
+  private final Map<Type, Integer> lastValueTypeCounts = new HashMap<>();
+
+  /**
+   * Records the operations of a test.
+   *
+   * @param test a test sequence
+   */
+  void add(ExecutableSequence test) {
+    // The test case consists of a sequence of calls, then assertions over the value produced by
+    // the final call.
+    for (TypedClassOperation op : getOperationsInSequence(test)) {
+      callCounts.merge(op, 1, Integer::sum);
+    }
+    SimpleList<Statement> statements = test.sequence.statements;
+    Type lastValueType = statements.get(statements.size() - 1).getOutputType();
+    lastValueTypeCounts.merge(lastValueType, 1, Integer::sum);
+  }
+
+  /**
+   * Returns the number of tests that each operation occurs in.
+   *
+   * @param assertableSideEffectFreeMethods a map from a type to all its side-effect-free methods
+   *     that can be used in assertions
+   * @return a map from operation to the number of tests in which the operation occurs at least
+   *     once
+   */
+  Map<TypedClassOperation, Integer> getCounts(
+      MultiMap<Type, TypedClassOperation> assertableSideEffectFreeMethods) {
+    Map<TypedClassOperation, Integer> result = new HashMap<>(callCounts);
+    for (Map.Entry<Type, Integer> entry : lastValueTypeCounts.entrySet()) {
+      for (TypedClassOperation tco : assertableSideEffectFreeMethods.getValues(entry.getKey())) {
+        result.merge(tco, entry.getValue(), Integer::sum);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Constructs a set of method-call operations appearing in an Executable Sequence. Non-method-call
+   * operations are excluded.
+   *
+   * @param es an ExecutableSequence
+   * @return the set of method call operations in {@code es}
+   */
+  private static Set<TypedClassOperation> getOperationsInSequence(ExecutableSequence es) {
+    HashSet<TypedClassOperation> ops = new HashSet<>();
+
+    SimpleList<Statement> statements = es.sequence.statements;
+    for (int i = 0; i < statements.size(); i++) { // SimpleList has no iterator
+      TypedOperation to = statements.get(i).getOperation();
+      if (to.isMethodCall()) {
+        ops.add((TypedClassOperation) to);
+      }
+    }
+    return ops;
+  }
+}
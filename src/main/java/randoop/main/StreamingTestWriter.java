@@ -0,0 +1,409 @@
+package randoop.main;
+
+import com.github.javaparser.ast.CompilationUnit;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.generation.OperationHistoryLogInterface;
+import randoop.generation.OperationOutcome;
+import randoop.output.CodeWriter;
+import randoop.output.JUnitCreator;
+import randoop.output.NameGenerator;
+import randoop.output.RandoopOutputException;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+
+/**
+ * Writes test sequences as JUnit classes, a class at a time. Tests are given to {@link #add} one by
+ * one, and each time {@link GenInputsAbstract#testsperfile} of them have accumulated, they are
+ * written as a class. {@link #finish} writes the remaining tests and the suite or driver class.
+ *
+ * <p>Class names are numbered with the class name prefix, and test method names are numbered
+ * consecutively across all the classes. If the number of tests is known in advance, the numbers
+ * are zero-padded to its width. Otherwise, the numbers in the method names of a class are
+ * zero-padded to the width of the last one, so that the methods of a class sort in order.
+ *
+ * <p>If subsumed tests are filtered, a test is dropped when its sequence is a component of a test
+ * that was added before its class is written. Subsumption is determined by sequence fingerprint.
+ *
+ * <p>Several classes may be written at once, by a pool of threads, when the code writer is slow
+ * (for example, because it runs the tests to find flaky ones). The classes and their names are the
+ * same as when they are written one at a time, and they are reported in order.
+ *
+ * <p>A written test is not retained. The writer keeps only a summary of the operations in the
+ * written tests, and the tests that the code writer found to be flaky, which are what the search
+ * for flaky methods needs.
+ */
+final class StreamingTestWriter {
+
+  /** Creates the source of the test classes. */
+  private final JUnitCreator junitCreator;
+
+  /** Writes the test classes. */
+  private final CodeWriter codeWriter;
+
+  /** The prefix of the test class names. */
+  private final String classNamePrefix;
+
+  /** The kind of tests, such as "Regression", for diagnostic output. */
+  private final String testKind;
+
+  /**
+   * The number of tests that will be written, used to zero-pad test method names; 0 if it is not
+   * known in advance.
+   */
+  private final int numTests;
+
+  /**
+   * If non-null, subsumed tests are filtered, and the outcome for each test is recorded here. If
+   * null, every test is written.
+   */
+  private final @Nullable OperationHistoryLogInterface subsumptionHistory;
+
+  /** The fingerprints of the component sequences of every test added so far. */
+  private final Set<Long> componentFingerprints = new HashSet<>();
+
+  /** The tests that have been added but not yet written. */
+  private final List<ExecutableSequence> pendingTests = new ArrayList<>();
+
+  /** The number of tests that have been written. */
+  private int writtenTestCount = 0;
+
+  /** The operations that occur in the tests that have been written. */
+  private final OperationOccurrences writtenTestOccurrences = new OperationOccurrences();
+
+  /**
+   * Returns the names of the tests, written so far, that the code writer found to be flaky; or null
+   * if the code writer does not look for flaky tests.
+   */
+  private final @Nullable Supplier<Set<String>> flakyTestNames;
+
+  /** The written tests that the code writer found to be flaky, in the order they were reported. */
+  private final List<ExecutableSequence> flakyTests = new ArrayList<>();
+
+  /** The names of the test classes that have been written. */
+  private final List<String> testClassNames = new ArrayList<>();
+
+  /** The number in the method name of the first test in each class in {@link #testClassNames}. */
+  private final List<Integer> firstTestNumbers = new ArrayList<>();
+
+  /** Writes the test classes, or null if they are written by the thread that creates them. */
+  private final @Nullable ExecutorService writeExecutor;
+
+  /** The writes of test classes that have been started but not yet reported, in class order. */
+  private final Queue<ClassWrite> pendingWrites = new ArrayDeque<>();
+
+  /**
+   * Creates a writer.
+   *
+   * @param junitCreator creates the source of the test classes
+   * @param codeWriter writes the test classes
+   * @param classNamePrefix the prefix of the test class names
+   * @param testKind the kind of tests, such as "Regression", for diagnostic output
+   * @param numTests the number of tests that will be written, used to zero-pad test method names;
+   *     0 if it is not known in advance
+   * @param subsumptionHistory if non-null, filter subsumed tests and record the outcome for each
+   *     test here
+   * @param flakyTestNames if non-null, returns the names of the tests, written so far, that the
+   *     code writer found to be flaky
+   * @param writeThreads the number of test classes to write at once; if greater than 1, the code
+   *     writer must be thread-safe
+   */
+  StreamingTestWriter(
+      JUnitCreator junitCreator,
+      CodeWriter codeWriter,
+      String classNamePrefix,
+      String testKind,
+      int numTests,
+      @Nullable OperationHistoryLogInterface subsumptionHistory,
+      @Nullable Supplier<Set<String>> flakyTestNames,
+      int writeThreads) {
+    this.junitCreator = junitCreator;
+    this.codeWriter = codeWriter;
+    this.classNamePrefix = classNamePrefix;
+    this.testKind = testKind;
+    this.numTests = numTests;
+    this.subsumptionHistory = subsumptionHistory;
+    this.flakyTestNames = flakyTestNames;
+    if (writeThreads > 1) {
+      this.writeExecutor =
+          Executors.newFixedThreadPool(
+              writeThreads,
+              runnable -> {
+                Thread thread =
+                    new Thread(runnable, "randoop.main.StreamingTestWriter " + testKind);
+                thread.setDaemon(true);
+                return thread;
+              });
+    } else {
+      this.writeExecutor = null;
+    }
+  }
+
+  /**
+   * Adds a test. Writes a test class if enough tests have accumulated.
+   *
+   * @param test the test to add
+   * @throws RandoopOutputException if there is an error writing a test class
+   */
+  void add(ExecutableSequence test) throws RandoopOutputException {
+    if (subsumptionHistory != null) {
+      for (Sequence component : test.componentSequences) {
+        componentFingerprints.add(component.fingerprint());
+      }
+      test.componentSequences = Collections.emptyList();
+    }
+    pendingTests.add(test);
+    if (pendingTests.size() >= GenInputsAbstract.testsperfile) {
+      writePendingTests();
+    }
+  }
+
+  /**
+   * Writes the tests that have not been written yet, and then the suite or driver class. Does
+   * nothing more if no tests were written.
+   *
+   * @throws RandoopOutputException if there is an error writing a class
+   */
+  void finish() throws RandoopOutputException {
+    writePendingTests();
+    if (writeExecutor != null) {
+      reportWrites(true);
+      writeExecutor.shutdown();
+    }
+    if (writtenTestCount == 0) {
+      if (GenInputsAbstract.progressdisplay) {
+        System.out.printf("%nNo %s tests to output.%n", testKind.toLowerCase(Locale.getDefault()));
+      }
+      return;
+    }
+
+    // Create and write suite or driver class.
+    String driverName;
+    String classSource;
+    if (GenInputsAbstract.junit_reflection_allowed) {
+      driverName = classNamePrefix;
+      classSource = junitCreator.createTestSuite(driverName, testClassNames);
+    } else {
+      driverName = classNamePrefix + "Driver";
+      classSource =
+          junitCreator.createTestDriver(driverName, testClassNames, this::methodNameGenerator);
+    }
+    Path suiteFile =
+        codeWriter.writeUnmodifiedClassCode(
+            GenInputsAbstract.junit_package_name, driverName, classSource);
+    if (GenInputsAbstract.progressdisplay) {
+      System.out.printf("Created file %s%n", suiteFile.toAbsolutePath());
+    }
+  }
+
+  /**
+   * Returns the number of tests that have been written.
+   *
+   * @return the number of tests that have been written
+   */
+  int getWrittenTestCount() {
+    return writtenTestCount;
+  }
+
+  /**
+   * Returns the operations that occur in the tests that have been written.
+   *
+   * @return the operations that occur in the tests that have been written
+   */
+  OperationOccurrences getWrittenTestOccurrences() {
+    return writtenTestOccurrences;
+  }
+
+  /**
+   * Returns the written tests that the code writer found to be flaky. Empty if the code writer does
+   * not look for flaky tests.
+   *
+   * @return the written tests that were found to be flaky
+   */
+  List<ExecutableSequence> getFlakyTests() {
+    return flakyTests;
+  }
+
+  /**
+   * Writes the pending tests, except subsumed ones, as a test class.
+   *
+   * @throws RandoopOutputException if there is an error writing the test class
+   */
+  private void writePendingTests() throws RandoopOutputException {
+    List<ExecutableSequence> partition;
+    if (subsumptionHistory == null) {
+      partition = new ArrayList<>(pendingTests);
+    } else {
+      partition = new ArrayList<>(pendingTests.size());
+      for (ExecutableSequence test : pendingTests) {
+        if (componentFingerprints.contains(test.sequence.fingerprint())) {
+          subsumptionHistory.add(test.getOperation(), OperationOutcome.SUBSUMED);
+        } else {
+          subsumptionHistory.add(test.getOperation(), OperationOutcome.REGRESSION_SEQUENCE);
+          partition.add(test);
+        }
+      }
+    }
+    pendingTests.clear();
+    if (partition.isEmpty()) {
+      return;
+    }
+
+    String testClassName = classNamePrefix + testClassNames.size();
+    // Test method numbers start at 1.
+    int firstTestNumber = writtenTestCount + 1;
+    testClassNames.add(testClassName);
+    firstTestNumbers.add(firstTestNumber);
+    writtenTestCount += partition.size();
+    CompilationUnit classAST =
+        junitCreator.createTestClass(
+            testClassName, methodNameGenerator(testClassName), partition);
+    String classSource = classAST.toString();
+    for (ExecutableSequence test : partition) {
+      writtenTestOccurrences.add(test);
+    }
+    if (writeExecutor == null) {
+      Path testFile =
+          codeWriter.writeClassCode(
+              GenInputsAbstract.junit_package_name, testClassName, classSource);
+      reportWrittenClass(testFile, partition, firstTestNumber);
+    } else {
+      Future<Path> future =
+          CompletableFuture.supplyAsync(
+              () -> {
+                try {
+                  return codeWriter.writeClassCode(
+                      GenInputsAbstract.junit_package_name, testClassName, classSource);
+                } catch (RandoopOutputException e) {
+                  // Not an Exception, so it cannot be thrown by a Callable. Future.get() unwraps
+                  // the CompletionException, so reportWrites sees this exception as the cause.
+                  throw new CompletionException(e);
+                }
+              },
+              writeExecutor);
+      pendingWrites.add(new ClassWrite(future, partition, firstTestNumber));
+      reportWrites(false);
+    }
+  }
+
+  /**
+   * Returns a generator of the names of the test methods in a class that has been, or is being,
+   * written.
+   *
+   * @param testClassName the name of the class
+   * @return a generator of the names of the test methods in the class, in order
+   */
+  private NameGenerator methodNameGenerator(String testClassName) {
+    int classIndex = testClassNames.indexOf(testClassName);
+    int firstTestNumber = firstTestNumbers.get(classIndex);
+    int lastTestNumber;
+    if (numTests > 0) {
+      lastTestNumber = numTests;
+    } else if (classIndex + 1 < firstTestNumbers.size()) {
+      lastTestNumber = firstTestNumbers.get(classIndex + 1) - 1;
+    } else {
+      lastTestNumber = writtenTestCount;
+    }
+    return new NameGenerator(GenTests.TEST_METHOD_NAME_PREFIX, firstTestNumber, lastTestNumber);
+  }
+
+  /**
+   * Reports the test classes that have been written by {@link #writeExecutor}, in class order.
+   * Rethrows any exception thrown while writing one of them.
+   *
+   * @param wait if true, waits until all the classes have been written; if false, stops at the
+   *     first class that is still being written
+   * @throws RandoopOutputException if there is an error writing a test class
+   */
+  private void reportWrites(boolean wait) throws RandoopOutputException {
+    while (!pendingWrites.isEmpty() && (wait || pendingWrites.peek().future.isDone())) {
+      ClassWrite write = pendingWrites.remove();
+      Path testFile;
+      try {
+        testFile = write.future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RandoopBug("Interrupted while writing " + testKind + " test classes", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RandoopOutputException) {
+          throw (RandoopOutputException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RandoopBug("Error writing " + testKind + " test class", cause);
+      }
+      reportWrittenClass(testFile, write.tests, write.firstTestNumber);
+    }
+  }
+
+  /**
+   * Reports that a test class has been written, and keeps the tests in it that the code writer
+   * found to be flaky.
+   *
+   * @param testFile the file of the test class
+   * @param tests the tests in the class
+   * @param firstTestNumber the number in the method name of the first test in the class
+   */
+  private void reportWrittenClass(
+      Path testFile, List<ExecutableSequence> tests, int firstTestNumber) {
+    if (GenInputsAbstract.progressdisplay) {
+      System.out.printf("Created file %s%n", testFile.toAbsolutePath());
+    }
+    if (flakyTestNames == null) {
+      return;
+    }
+    // The names of the flaky tests in every class written so far; keep those in this class.
+    for (String testName : flakyTestNames.get()) {
+      int testNumber =
+          Integer.parseInt(testName.substring(GenTests.TEST_METHOD_NAME_PREFIX.length()));
+      int index = testNumber - firstTestNumber;
+      if (index >= 0 && index < tests.size()) {
+        flakyTests.add(tests.get(index));
+      }
+    }
+  }
+
+  /** A test class that is being written by {@link #writeExecutor}. */
+  private static final class ClassWrite {
+
+    /** The write, which yields the file of the test class. */
+    final Future<Path> future;
+
+    /** The tests in the class. */
+    final List<ExecutableSequence> tests;
+
+    /** The number in the method name of the first test in the class. */
+    final int firstTestNumber;
+
+    /**
+     * Creates a ClassWrite.
+     *
+     * @param future the write, which yields the file of the test class
+     * @param tests the tests in the class
+     * @param firstTestNumber the number in the method name of the first test in the class
+     */
+    ClassWrite(Future<Path> future, List<ExecutableSequence> tests, int firstTestNumber) {
+      this.future = future;
+      this.tests = tests;
+      this.firstTestNumber = firstTestNumber;
+    }
+  }
+}
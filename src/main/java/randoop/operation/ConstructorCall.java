@@ -5,6 +5,7 @@ import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
 import java.util.StringJoiner;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.ExceptionalExecution;
 import randoop.ExecutionOutcome;
 import randoop.reflection.ReflectionPredicate;
@@ -13,6 +14,8 @@ import randoop.types.ClassOrInterfaceType;
 import randoop.types.Type;
 import randoop.types.TypeTuple;
 import randoop.util.ConstructorReflectionCode;
+import randoop.util.MethodHandleInvoker;
+import randoop.util.MethodHandleReflectionCode;
 import randoop.util.ReflectionExecutor;
 import randoop.util.Util;
 
@@ -34,6 +37,14 @@ public final class ConstructorCall extends CallableOperation {
   private int hashCodeCached = 0;
   private boolean hashCodeComputed = false;
 
+  /**
+   * The invoker for the constructor, or null if none could be created. Set by {@link #getInvoker}.
+   */
+  private volatile @Nullable MethodHandleInvoker invoker = null;
+
+  /** True if {@link #invoker} has been set. Is set after {@link #invoker}. */
+  private volatile boolean invokerResolved = false;
+
   /**
    * Creates object corresponding to the given reflection constructor.
    *
@@ -169,12 +180,38 @@ public final class ConstructorCall extends CallableOperation {
         return new ExceptionalExecution(new NullPointerException(message), 0);
       }
     }
+
+    if (ReflectionExecutor.method_handles) {
+      MethodHandleInvoker invoker = getInvoker();
+      if (invoker != null && invoker.accepts(statementInput)) {
+        return ReflectionExecutor.executeReflectionCode(
+            new MethodHandleReflectionCode(invoker, statementInput));
+      }
+    }
+
     ConstructorReflectionCode code =
         new ConstructorReflectionCode(this.constructor, statementInput);
 
     return ReflectionExecutor.executeReflectionCode(code);
   }
 
+  /**
+   * Returns the method handle invoker for the constructor, creating it on first use.
+   *
+   * <p>This may be called concurrently by several generator threads. At worst, each of them
+   * creates an invoker. The fields are volatile, so a thread that sees that the invoker is resolved
+   * also sees the invoker.
+   *
+   * @return the invoker for the constructor, or null if none could be created
+   */
+  private @Nullable MethodHandleInvoker getInvoker() {
+    if (!invokerResolved) {
+      invoker = MethodHandleInvoker.forConstructor(constructor);
+      invokerResolved = true;
+    }
+    return invoker;
+  }
+
   /**
    * {@inheritDoc}
    *
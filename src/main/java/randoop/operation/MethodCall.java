@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.StringJoiner;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.util.StringsPlume;
 import randoop.ExceptionalExecution;
 import randoop.ExecutionOutcome;
@@ -15,6 +16,8 @@ import randoop.sequence.Variable;
 import randoop.types.Type;
 import randoop.types.TypeTuple;
 import randoop.util.Log;
+import randoop.util.MethodHandleInvoker;
+import randoop.util.MethodHandleReflectionCode;
 import randoop.util.MethodReflectionCode;
 import randoop.util.ReflectionExecutor;
 
@@ -43,6 +46,12 @@ public final class MethodCall extends CallableOperation {
   /** True if the method is static. */
   private final boolean isStatic;
 
+  /** The invoker for the method, or null if none could be created. Set by {@link #getInvoker}. */
+  private volatile @Nullable MethodHandleInvoker invoker = null;
+
+  /** True if {@link #invoker} has been set. Is set after {@link #invoker}. */
+  private volatile boolean invokerResolved = false;
+
   /**
    * getMethod returns Method object of this MethodCall.
    *
@@ -163,6 +172,14 @@ public final class MethodCall extends CallableOperation {
 
     Log.logPrintf("MethodCall.execute: this = %s%n", this);
 
+    if (ReflectionExecutor.method_handles) {
+      MethodHandleInvoker invoker = getInvoker();
+      if (invoker != null && invoker.accepts(input)) {
+        return ReflectionExecutor.executeReflectionCode(
+            new MethodHandleReflectionCode(invoker, input));
+      }
+    }
+
     Object receiver = null;
     int paramsLength = input.length;
     int paramsStartIndex = 0;
@@ -185,6 +202,23 @@ public final class MethodCall extends CallableOperation {
     return ReflectionExecutor.executeReflectionCode(code);
   }
 
+  /**
+   * Returns the method handle invoker for the method, creating it on first use.
+   *
+   * <p>This may be called concurrently by several generator threads. At worst, each of them
+   * creates an invoker. The fields are volatile, so a thread that sees that the invoker is resolved
+   * also sees the invoker.
+   *
+   * @return the invoker for the method, or null if none could be created
+   */
+  private @Nullable MethodHandleInvoker getInvoker() {
+    if (!invokerResolved) {
+      invoker = MethodHandleInvoker.forMethod(method);
+      invokerResolved = true;
+    }
+    return invoker;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.tools.Diagnostic;
@@ -23,6 +24,7 @@ import org.plumelib.util.FilesPlume;
 import org.plumelib.util.StringsPlume;
 import randoop.Globals;
 import randoop.compile.FileCompiler;
+import randoop.execution.JUnitWorkerPool;
 import randoop.execution.TestEnvironment;
 import randoop.generation.AbstractGenerator;
 import randoop.main.GenInputsAbstract;
@@ -40,11 +42,15 @@ import randoop.main.RandoopUsageError;
  *
  * <ul>
  *   <li>Writes the class.
- *   <li>Compiles and runs the tests in a new JVM to determine whether there are failing assertions.
+ *   <li>Compiles and runs the tests to determine whether there are failing assertions.
  *   <li>Replaces each failing assertion by a comment containing the code for the failing assertion.
  * </ul>
  *
- * Creates a clean temporary directory for each compilation/run of a test class to avoid state
+ * The tests are run in a long-lived worker JVM of the {@link TestEnvironment}, which loads each
+ * test class in a new class loader, or in a new JVM if {@link GenInputsAbstract#flaky_test_fork}
+ * is true or the test class terminates the worker.
+ *
+ * <p>Creates a clean temporary directory for each compilation/run of a test class to avoid state
  * effects due to files in the working directory.
  */
 public class FailingAssertionCommentWriter implements CodeWriter {
@@ -81,7 +87,10 @@ public class FailingAssertionCommentWriter implements CodeWriter {
   /** The underlying {@link randoop.output.JavaFileWriter} for writing a test class. */
   private final JavaFileWriter javaFileWriter;
 
-  /** Method names for flaky tests (e.g., "test005"). */
+  /**
+   * Method names for flaky tests (e.g., "test005"). Guarded by itself, because several test classes
+   * may be written at once.
+   */
   private final HashSet<String> flakyTestNames = new HashSet<>();
 
   /**
@@ -103,7 +112,14 @@ public class FailingAssertionCommentWriter implements CodeWriter {
    * @return the flaky test names
    */
   public Set<String> getFlakyTestNames() {
-    return new TreeSet<>(flakyTestNames);
+    synchronized (flakyTestNames) {
+      return new TreeSet<>(flakyTestNames);
+    }
+  }
+
+  /** Stops the worker JVMs that ran the test classes. Call this once all classes are written. */
+  public void stopTestWorkers() {
+    testEnvironment.shutdownWorkers();
   }
 
   /**
@@ -111,8 +127,10 @@ public class FailingAssertionCommentWriter implements CodeWriter {
    *
    * <p>Replaces failing assertions by comments.
    *
-   * <p>Assumes output from JUnit4 {@code org.junit.runner.JUnitCore} runner used in {@link
-   * TestEnvironment}.
+   * <p>When a test class is run in a new JVM, assumes output from JUnit4 {@code
+   * org.junit.runner.JUnitCore} runner used in {@link TestEnvironment}.
+   *
+   * <p>May be called by several threads at once, for different classes.
    */
   @Override
   public Path writeClassCode(String packageName, String classname, String classSource)
@@ -121,6 +139,7 @@ public class FailingAssertionCommentWriter implements CodeWriter {
 
     String qualifiedClassname = packageName == null ? classname : packageName + "." + classname;
 
+    Set<String> classFlakyTestNames = new HashSet<>();
     int iteration = 0; // Used to create unique working directory name.
     boolean passing = false; // true if all tests pass
 
@@ -145,6 +164,26 @@ public class FailingAssertionCommentWriter implements CodeWriter {
 
         // Run tests
 
+        if (!GenInputsAbstract.flaky_test_fork) {
+          List<JUnitWorkerPool.TestFailure> failures;
+          try {
+            failures = testEnvironment.runTestInWorker(qualifiedClassname, workingDirectory);
+          } catch (TimeoutException e) {
+            throw new Error("runTest timed out for class " + qualifiedClassname + ": " + e);
+          }
+          if (failures != null) {
+            if (failures.isEmpty()) {
+              passing = true;
+            } else {
+              classSource =
+                  commentFailingAssertions(
+                      packageName, classname, classSource, failures, classFlakyTestNames);
+            }
+            continue;
+          }
+          // The worker could not run the test class; run it in a new JVM.
+        }
+
         Status status;
         try {
           status = testEnvironment.runTest(qualifiedClassname, workingDirectory);
@@ -171,13 +210,17 @@ public class FailingAssertionCommentWriter implements CodeWriter {
                   + classSource);
         } else {
           classSource =
-              commentFailingAssertions(packageName, classname, classSource, status, flakyTestNames);
+              commentFailingAssertions(
+                  packageName, classname, classSource, status, classFlakyTestNames);
         }
       } finally {
         FilesPlume.deleteDir(workingDirectory.toFile());
         iteration++;
       }
     }
+    synchronized (flakyTestNames) {
+      flakyTestNames.addAll(classFlakyTestNames);
+    }
     return javaFileWriter.writeClassCode(packageName, classname, classSource);
   }
 
@@ -318,24 +361,7 @@ public class FailingAssertionCommentWriter implements CodeWriter {
       String failureLine = failureHeaderMatch.line;
       String methodName = failureHeaderMatch.group;
 
-      // Check that the method name in the failure message is a test method.
-      if (!methodName.matches(GenTests.TEST_METHOD_NAME_PREFIX + "\\d+")) {
-        System.out.println();
-        System.out.printf("Failure in commentFailingAssertions(%s, %s)%n", packageName, classname);
-        System.out.printf("javaCode =%n%s%n", javaCode);
-        System.out.printf("status =%n%s%n", status);
-        System.out.println();
-        if (failureLine.contains("initializationError")) {
-          throw new RandoopBug(
-              "Check configuration of test environment: "
-                  + "initialization error of test in flaky-test filter: "
-                  + failureLine);
-        } else {
-          throw new RandoopBug(
-              "Bad method name " + methodName + " in flaky-test filter: " + failureLine);
-        }
-      }
-
+      checkTestMethodName(packageName, classname, javaCode, methodName, failureLine, status);
       flakyTests.add(methodName);
 
       // Search for the stacktrace entry corresponding to the test method, and capture the line
@@ -361,56 +387,176 @@ public class FailingAssertionCommentWriter implements CodeWriter {
 
       // lineNumber is 1-based, not 0-based
       int lineNumber = Integer.parseInt(failureLineMatch.group);
-      if (lineNumber < 1 || lineNumber > javaCodeLines.length) {
+      commentFailingLine(
+          classname,
+          javaCode,
+          javaCodeLines,
+          methodName,
+          lineNumber,
+          failureLine,
+          failureLineMatch.line);
+    }
+
+    // TODO: For efficiency, have this method return the array and redo writeClass so that it writes
+    // from array (?).
+    return StringsPlume.joinLines(javaCodeLines);
+  }
+
+  /**
+   * Comments out lines with failing assertions. Uses the failures reported by a JUnit worker for
+   * {@code javaCode} to identify lines with failing assertions.
+   *
+   * @param packageName the package name of the test class
+   * @param classname the simple (unqualified) name of the test class
+   * @param javaCode the source code for the test class; each assertion must be on its own line
+   * @param failures the failures from running the test class in a JUnit worker
+   * @param flakyTests names of flaky tests, e.g. "test005". This is an output parameter that is
+   *     augmented by this method.
+   * @return the class source edited so that failing assertions are replaced by comments
+   * @throws RandoopBug if a failure does not involve a Randoop-generated test method
+   */
+  private String commentFailingAssertions(
+      String packageName,
+      String classname,
+      String javaCode,
+      List<JUnitWorkerPool.TestFailure> failures,
+      Set<String> flakyTests) {
+    assert !Objects.equals(packageName, "");
+    String qualifiedClassname = packageName == null ? classname : packageName + "." + classname;
+
+    String[] javaCodeLines = javaCode.split(Globals.lineSep);
+
+    for (int failureCount = 0; failureCount < failures.size(); failureCount++) {
+      JUnitWorkerPool.TestFailure failure = failures.get(failureCount);
+      // The failure header that JUnitCore would print.
+      String failureLine = (failureCount + 1) + ") " + failure.testHeader;
+      System.out.printf("%s%n%s%n", failureLine, failure.exception);
+
+      checkTestMethodName(
+          packageName, classname, javaCode, failure.methodName, failureLine, failures);
+      flakyTests.add(failure.methodName);
+
+      if (failure.lineNumber == -1) {
         throw new RandoopBug(
             String.format(
-                "Line number %d read from JUnit is out of range [1,%d]: %s",
-                lineNumber, javaCodeLines.length, failureLineMatch.line));
+                "No stack trace entry for %s.%s in failure %s",
+                qualifiedClassname, failure.methodName, failure));
       }
+      commentFailingLine(
+          classname,
+          javaCode,
+          javaCodeLines,
+          failure.methodName,
+          failure.lineNumber,
+          failureLine,
+          failure.toString());
+    }
 
-      if (GenInputsAbstract.flaky_test_behavior == FlakyTestAction.HALT) {
-        StringBuilder message = new StringBuilder();
-        message.append(
-            String.join(
-                System.lineSeparator(),
-                "A test code assertion failed during flaky-test filtering. Most likely,",
-                "you ran Randoop on a program with nondeterministic behavior. See section",
-                "\"Nondeterminism\" in the Randoop manual for ways to diagnose and handle this.",
-                String.format(
-                    "Class: %s, Method: %s, Line number: %d, Source line:%n%s%n",
-                    classname, methodName, lineNumber, javaCodeLines[lineNumber - 1])));
-
-        // fromLine and toLine are 0-based.
-        int fromLine = lineNumber - 1;
-        while (fromLine > 0 && !javaCodeLines[fromLine].contains("@Test")) {
-          fromLine--;
-        }
-        int toLine = lineNumber;
-        while (toLine < javaCodeLines.length && !javaCodeLines[toLine].contains("@Test")) {
-          toLine++;
-        }
-        message.append(String.format("Containing method:%n"));
-        for (int i = fromLine; i < toLine; i++) {
-          message.append(String.format("%s%n", javaCodeLines[i]));
-        }
+    return StringsPlume.joinLines(javaCodeLines);
+  }
 
-        if (GenInputsAbstract.print_non_compiling_file) {
-          message.append(String.format("Full source file:%n%s%n", javaCode));
-        } else {
-          message.append(
+  /**
+   * Checks that the method name in a failure is a Randoop-generated test method.
+   *
+   * @param packageName the package name of the test class
+   * @param classname the simple (unqualified) name of the test class
+   * @param javaCode the source code for the test class, used only for debugging output
+   * @param methodName the name of the method that failed
+   * @param failureLine the failure header, such as "1) test005(pkg.RegressionTest0)"
+   * @param junitOutput all failures of the test class, used only for debugging output
+   * @throws RandoopBug if the method is not a test method
+   */
+  private void checkTestMethodName(
+      String packageName,
+      String classname,
+      String javaCode,
+      String methodName,
+      String failureLine,
+      Object junitOutput) {
+    if (!methodName.matches(GenTests.TEST_METHOD_NAME_PREFIX + "\\d+")) {
+      System.out.println();
+      System.out.printf("Failure in commentFailingAssertions(%s, %s)%n", packageName, classname);
+      System.out.printf("javaCode =%n%s%n", javaCode);
+      System.out.printf("status =%n%s%n", junitOutput);
+      System.out.println();
+      if (failureLine.contains("initializationError")) {
+        throw new RandoopBug(
+            "Check configuration of test environment: "
+                + "initialization error of test in flaky-test filter: "
+                + failureLine);
+      } else {
+        throw new RandoopBug(
+            "Bad method name " + methodName + " in flaky-test filter: " + failureLine);
+      }
+    }
+  }
+
+  /**
+   * Comments out the line of a failing assertion, or halts if {@link
+   * GenInputsAbstract#flaky_test_behavior} is {@link FlakyTestAction#HALT}.
+   *
+   * @param classname the simple (unqualified) name of the test class
+   * @param javaCode the source code for the test class
+   * @param javaCodeLines the lines of the source code; the failing line is replaced
+   * @param methodName the name of the test method that failed
+   * @param lineNumber the 1-based number of the failing line
+   * @param failureLine the failure header, such as "1) test005(pkg.RegressionTest0)"
+   * @param lineNumberSource where the line number was read from, used only for debugging output
+   * @throws RandoopBug if the line number is out of range
+   */
+  private void commentFailingLine(
+      String classname,
+      String javaCode,
+      String[] javaCodeLines,
+      String methodName,
+      int lineNumber,
+      String failureLine,
+      String lineNumberSource) {
+    if (lineNumber < 1 || lineNumber > javaCodeLines.length) {
+      throw new RandoopBug(
+          String.format(
+              "Line number %d read from JUnit is out of range [1,%d]: %s",
+              lineNumber, javaCodeLines.length, lineNumberSource));
+    }
+
+    if (GenInputsAbstract.flaky_test_behavior == FlakyTestAction.HALT) {
+      StringBuilder message = new StringBuilder();
+      message.append(
+          String.join(
+              System.lineSeparator(),
+              "A test code assertion failed during flaky-test filtering. Most likely,",
+              "you ran Randoop on a program with nondeterministic behavior. See section",
+              "\"Nondeterminism\" in the Randoop manual for ways to diagnose and handle this.",
               String.format(
-                  "Use --print-non-compiling-file to print the full file with the flaky test.%n"));
-        }
-        throw new RandoopUsageError(message.toString());
+                  "Class: %s, Method: %s, Line number: %d, Source line:%n%s%n",
+                  classname, methodName, lineNumber, javaCodeLines[lineNumber - 1])));
+
+      // fromLine and toLine are 0-based.
+      int fromLine = lineNumber - 1;
+      while (fromLine > 0 && !javaCodeLines[fromLine].contains("@Test")) {
+        fromLine--;
+      }
+      int toLine = lineNumber;
+      while (toLine < javaCodeLines.length && !javaCodeLines[toLine].contains("@Test")) {
+        toLine++;
+      }
+      message.append(String.format("Containing method:%n"));
+      for (int i = fromLine; i < toLine; i++) {
+        message.append(String.format("%s%n", javaCodeLines[i]));
       }
 
-      javaCodeLines[lineNumber - 1] =
-          flakyLineReplacement(javaCodeLines[lineNumber - 1], failureLine);
+      if (GenInputsAbstract.print_non_compiling_file) {
+        message.append(String.format("Full source file:%n%s%n", javaCode));
+      } else {
+        message.append(
+            String.format(
+                "Use --print-non-compiling-file to print the full file with the flaky test.%n"));
+      }
+      throw new RandoopUsageError(message.toString());
     }
 
-    // TODO: For efficiency, have this method return the array and redo writeClass so that it writes
-    // from array (?).
-    return StringsPlume.joinLines(javaCodeLines);
+    javaCodeLines[lineNumber - 1] =
+        flakyLineReplacement(javaCodeLines[lineNumber - 1], failureLine);
   }
 
   /**
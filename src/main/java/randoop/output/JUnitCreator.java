@@ -41,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.function.Function;
 import org.plumelib.util.StringsPlume;
 import randoop.Globals;
 import randoop.main.GenTests;
@@ -430,6 +431,25 @@ public class JUnitCreator {
    */
   public String createTestDriver(
       String driverName, Iterable<String> testClassNames, int numMethods) {
+    NameGenerator methodNameGen =
+        new NameGenerator(GenTests.TEST_METHOD_NAME_PREFIX, 1, numMethods);
+    return createTestDriver(driverName, testClassNames, testClass -> methodNameGen);
+  }
+
+  /**
+   * Create non-reflective test driver as a main class, for test classes whose method names were
+   * generated by different generators.
+   *
+   * @param driverName the name for the driver class
+   * @param testClassNames the names of the test classes in the suite
+   * @param methodNameGens given the name of a test class, returns a generator that creates the
+   *     names of its methods, in the same state as the one passed to {@link #createTestClass}
+   * @return the test driver class as a {@code String}
+   */
+  public String createTestDriver(
+      String driverName,
+      Iterable<String> testClassNames,
+      Function<String, NameGenerator> methodNameGens) {
     CompilationUnit compilationUnit = new CompilationUnit();
     if (packageName != null) {
       compilationUnit.setPackageDeclaration(new PackageDeclaration(new Name(packageName)));
@@ -453,8 +473,6 @@ public class JUnitCreator {
     bodyStatements.add(hadFailureDecl);
 
     NameGenerator instanceNameGen = new NameGenerator("t");
-    NameGenerator methodNameGen =
-        new NameGenerator(GenTests.TEST_METHOD_NAME_PREFIX, 1, numMethods);
     for (String testClass : testClassNames) {
       if (beforeAllBody != null) {
         bodyStatements.add(
@@ -487,6 +505,7 @@ public class JUnitCreator {
       bodyStatements.add(new ExpressionStmt(variableExpr));
 
       int classMethodCount = classMethodCounts.get(testClass);
+      NameGenerator methodNameGen = methodNameGens.apply(testClass);
 
       for (int i = 0; i < classMethodCount; i++) {
         if (beforeEachBody != null) {
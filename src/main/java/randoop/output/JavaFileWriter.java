@@ -68,7 +68,8 @@ public class JavaFileWriter implements CodeWriter {
     Path dir = getDir(packageName);
     if (!Files.exists(dir)) {
       boolean success = dir.toFile().mkdirs();
-      if (!success) {
+      // Another thread may have created the directory in the meantime.
+      if (!success && !Files.isDirectory(dir)) {
         throw new RandoopOutputException("Unable to create directory: " + dir.toAbsolutePath());
       }
     }
@@ -483,6 +483,7 @@ public class OperationModel {
 
   public void log() {
     if (Log.isLoggingOn()) {
+      Log.flush();
       logOperations(GenInputsAbstract.log);
     }
   }
@@ -517,6 +518,7 @@ public class OperationModel {
   /** Print a verbose representation of the model, if logging is enabled. */
   public void dumpModel() {
     if (Log.isLoggingOn()) {
+      Log.flush();
       dumpModel(GenInputsAbstract.log);
     }
   }
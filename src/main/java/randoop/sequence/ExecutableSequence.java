@@ -17,11 +17,15 @@ import randoop.Globals;
 import randoop.NormalExecution;
 import randoop.NotExecuted;
 import randoop.condition.ExpectedOutcomeTable;
+import randoop.execution.SequenceWorkerPool;
 import randoop.main.GenInputsAbstract;
+import randoop.main.RandoopBug;
 import randoop.operation.TypedOperation;
 import randoop.test.Check;
 import randoop.test.InvalidChecks;
+import randoop.test.InvalidExceptionCheck;
 import randoop.test.InvalidValueCheck;
+import randoop.test.RemoteChecks;
 import randoop.test.TestCheckGenerator;
 import randoop.test.TestChecks;
 import randoop.types.ReferenceType;
@@ -121,6 +125,16 @@ public class ExecutableSequence {
     variableMap = new IdentityMultiMap<>();
   }
 
+  /**
+   * Discards the results of executing this sequence, including the run-time values that it
+   * created. Keeps the sequence and its checks, which are all that is needed to output it as a
+   * test. Afterward, the statements of this sequence are treated as not executed.
+   */
+  public void discardExecutionResults() {
+    executionResults = new Execution(sequence);
+    variableMap = new IdentityMultiMap<>();
+  }
+
   @Override
   public String toString() {
     StringJoiner result = new StringJoiner(System.lineSeparator());
@@ -237,6 +251,75 @@ public class ExecutableSequence {
     execute(visitor, gen, true);
   }
 
+  /**
+   * Executes sequence in a worker JVM from the given pool, stopping on exceptions. The worker runs
+   * the visitors and creates the checks that {@link #execute(ExecutionVisitor, TestCheckGenerator)}
+   * would, as specified by Randoop's command-line arguments; this JVM does not execute the
+   * sequence. In the outcomes reported by the worker, a value other than a primitive or {@code
+   * String} value is represented by a {@link SequenceWorkerPool.RemoteValue}, and an exception by a
+   * {@link SequenceWorkerPool.RemoteException}.
+   *
+   * <p>If executing the sequence terminates the worker or times out, the statement that terminated
+   * the worker is given an exceptional outcome and the sequence is marked invalid; the other
+   * statements are not executed.
+   *
+   * <p>If the worker cannot parse the sequence, the sequence is executed in this JVM with the given
+   * visitor and check generator.
+   *
+   * @see #execute(ExecutionVisitor, TestCheckGenerator)
+   * @param visitor the visitor to use if the sequence is executed in this JVM
+   * @param gen the check generator to use if the sequence is executed in this JVM
+   * @param pool the pool of worker JVMs
+   * @throws SequenceExceptionError if the worker's check generator reports a flaky test
+   */
+  public void execute(ExecutionVisitor visitor, TestCheckGenerator gen, SequenceWorkerPool pool) {
+    SequenceWorkerPool.Outcome outcome = pool.execute(sequence);
+    if (outcome.terminated()) {
+      this.reset();
+      int i = outcome.getTerminationIndex();
+      Throwable termination = outcome.getTermination();
+      executionResults.outcomes.set(i, new ExceptionalExecution(termination, 0));
+      checks =
+          new InvalidChecks(
+              new InvalidExceptionCheck(
+                  termination, i, termination.getClass().getCanonicalName()));
+      return;
+    }
+    if (!outcome.executed()) {
+      Log.logPrintf("Execution worker could not parse sequence; executing it in this JVM%n");
+      execute(visitor, gen);
+      return;
+    }
+    if (outcome.getFailure() != null) {
+      throw new RandoopBug(
+          String.format(
+              "Execution worker failed on sequence:%n%s%n%s", sequence, outcome.getFailure()));
+    }
+
+    this.reset();
+    List<ExecutionOutcome> outcomes = outcome.getStatementOutcomes();
+    for (int i = 0; i < outcomes.size(); i++) {
+      executionResults.outcomes.set(i, outcomes.get(i));
+    }
+    exectime = outcome.getExecutionTimeNanos();
+    for (String className : outcome.getCoveredClasses()) {
+      try {
+        addCoveredClass(Class.forName(className, false, getClass().getClassLoader()));
+      } catch (ClassNotFoundException e) {
+        throw new RandoopBug("Execution worker covered an unknown class " + className, e);
+      }
+    }
+    int flakyIndex = outcome.getFlakyIndex();
+    if (flakyIndex >= 0) {
+      throw new SequenceExceptionError(
+          this, flakyIndex, ((ExceptionalExecution) getResult(flakyIndex)).getException());
+    }
+    RemoteChecks remoteChecks = outcome.getChecks();
+    if (remoteChecks != null) {
+      checks = remoteChecks.toTestChecks(this);
+    }
+  }
+
   /**
    * Execute this sequence, invoking the given visitor as the execution unfolds. For example, the
    * visitor may decorate the sequence with {@link Check}s about the execution.
@@ -691,6 +774,15 @@ public class ExecutableSequence {
     executionResults.addCoveredClass(c);
   }
 
+  /**
+   * Returns the classes covered by the most recent execution of this sequence.
+   *
+   * @return the classes covered by the most recent execution of this sequence
+   */
+  public Set<Class<?>> getCoveredClasses() {
+    return executionResults.getCoveredClasses();
+  }
+
   /**
    * Indicates whether the given class is covered by the most recent execution of this sequence.
    *
@@ -1,6 +1,5 @@
 package randoop.sequence;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -22,11 +21,9 @@ import randoop.operation.TypedOperation;
 import randoop.types.JavaTypes;
 import randoop.types.NonParameterizedType;
 import randoop.types.Type;
-import randoop.util.ListOfLists;
 import randoop.util.Log;
-import randoop.util.OneMoreElementList;
+import randoop.util.PersistentVector;
 import randoop.util.Randomness;
-import randoop.util.SimpleArrayList;
 import randoop.util.SimpleList;
 
 /**
@@ -38,8 +35,12 @@ import randoop.util.SimpleList;
  */
 public final class Sequence {
 
-  /** The list of statements. */
-  public final SimpleList<Statement> statements;
+  /**
+   * The list of statements. A persistent vector, so that extending or concatenating sequences
+   * shares storage with the originals, and indexed access is fast regardless of how the sequence
+   * was built.
+   */
+  public final PersistentVector<Statement> statements;
 
   /**
    * The variables that are inputs or output for the last statement of this sequence: first the
@@ -57,24 +58,31 @@ public final class Sequence {
 
   /** Create a new, empty sequence. */
   public Sequence() {
-    this(new SimpleArrayList<Statement>(0), 0, 0);
+    this(PersistentVector.<Statement>empty(), 0L, 1L, 0);
   }
 
   /**
-   * Create a sequence that has the given statements and hashCode (hashCode is for optimization).
+   * Create a sequence that has the given statements and fingerprint (the fingerprint is for
+   * optimization).
    *
-   * <p>See {@link #computeHashcode(SimpleList)} for details on the hashCode.
+   * <p>See {@link #computeFingerprint(SimpleList)} for details on the fingerprint.
    *
    * @param statements the statements of the new sequence
-   * @param hashCode the hashcode for the new sequence
+   * @param fingerprint the fingerprint for the new sequence
+   * @param fingerprintPower {@link #FINGERPRINT_BASE} raised to the number of statements
    * @param netSize the net size for the new sequence
    */
-  private Sequence(SimpleList<Statement> statements, int hashCode, int netSize) {
+  private Sequence(
+      PersistentVector<Statement> statements,
+      long fingerprint,
+      long fingerprintPower,
+      int netSize) {
     if (statements == null) {
       throw new IllegalArgumentException("`statements' argument cannot be null");
     }
     this.statements = statements;
-    this.savedHashCode = hashCode;
+    this.savedFingerprint = fingerprint;
+    this.savedFingerprintPower = fingerprintPower;
     this.savedNetSize = netSize;
     this.computeLastStatementInfo();
     this.activeFlags = new BitSet(this.size());
@@ -88,7 +96,11 @@ public final class Sequence {
    * @param statements the statements
    */
   public Sequence(SimpleList<Statement> statements) {
-    this(statements, computeHashcode(statements), computeNetSize(statements));
+    this(
+        PersistentVector.copyOf(statements),
+        computeFingerprint(statements),
+        fingerprintPower(statements.size()),
+        computeNetSize(statements));
   }
 
   /**
@@ -163,11 +175,12 @@ public final class Sequence {
     int size = size();
     List<RelativeNegativeIndex> indexList =
         CollectionsPlume.mapList(v -> getRelativeIndexForVariable(size, v), inputVariables);
-    Statement statement = new Statement(operation, indexList);
+    Statement statement = new Statement(operation, indexList, size);
     int newNetSize = operation.isNonreceivingValue() ? this.savedNetSize : this.savedNetSize + 1;
     return new Sequence(
-        new OneMoreElementList<>(this.statements, statement),
-        this.savedHashCode + statement.hashCode(),
+        this.statements.add(statement),
+        this.savedFingerprint * FINGERPRINT_BASE + statementFingerprint(statement),
+        this.savedFingerprintPower * FINGERPRINT_BASE,
         newNetSize);
   }
 
@@ -203,15 +216,19 @@ public final class Sequence {
    * @return the concatenation of the sequences in the list
    */
   public static Sequence concatenate(List<Sequence> sequences) {
-    List<SimpleList<Statement>> statements1 = new ArrayList<>(sequences.size());
-    int newHashCode = 0;
+    PersistentVector<Statement> newStatements = PersistentVector.empty();
+    long newFingerprint = 0;
+    long newFingerprintPower = 1;
     int newNetSize = 0;
     for (Sequence c : sequences) {
-      newHashCode += c.savedHashCode;
+      // Shift the statements so far left by c's length, then append c's statements.
+      newFingerprint = newFingerprint * c.savedFingerprintPower + c.savedFingerprint;
+      newFingerprintPower *= c.savedFingerprintPower;
       newNetSize += c.savedNetSize;
-      statements1.add(c.statements);
+      // Shares the storage of c's statements, except for short sequences, which are copied.
+      newStatements = newStatements.concat(c.statements);
     }
-    return new Sequence(new ListOfLists<>(statements1), newHashCode, newNetSize);
+    return new Sequence(newStatements, newFingerprint, newFingerprintPower, newNetSize);
   }
 
   /**
@@ -422,20 +439,58 @@ public final class Sequence {
   }
 
   /**
-   * The hashcode of a sequence is the sum of each statement's hashcode. This seems good enough, and
-   * it makes computing hashCode of a concatenation of sequences faster (it's just the addition of
-   * each sequence's' hashCode). Otherwise, hashCode computation used to be a hotspot.
-   *
-   * @param statements the list of statements over which to compute the hash code
-   * @return the sum of the hash codes of the statements in the sequence
+   * The fingerprint of a sequence is a polynomial hash of its statements: for statements s_0 ...
+   * s_(n-1), it is the sum of {@code statementFingerprint(s_i) * FINGERPRINT_BASE^(n-1-i)}, using
+   * 64-bit (wrapping) arithmetic. Unlike a sum of the statements' hash codes, it depends on the
+   * order of the statements, so concatenations of the same sequences in different orders almost
+   * never collide. It can still be computed in constant time by {@link #extend} and in time
+   * proportional to the number of sequences by {@link #concatenate}: the fingerprint of a
+   * concatenation a+b is {@code fingerprint(a) * FINGERPRINT_BASE^size(b) + fingerprint(b)}.
+   * Otherwise, hashCode computation used to be a hotspot.
+   *
+   * @param statements the list of statements over which to compute the fingerprint
+   * @return the fingerprint of the statements
    */
-  private static int computeHashcode(SimpleList<Statement> statements) {
-    int hashCode = 0;
+  private static long computeFingerprint(SimpleList<Statement> statements) {
+    long fingerprint = 0;
     for (int i = 0; i < statements.size(); i++) { // SimpleList has no iterator
       Statement s = statements.get(i);
-      hashCode += s.hashCode();
+      fingerprint = fingerprint * FINGERPRINT_BASE + statementFingerprint(s);
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Returns {@link #FINGERPRINT_BASE} raised to the given power, using 64-bit (wrapping)
+   * arithmetic.
+   *
+   * @param exponent a non-negative number
+   * @return {@code FINGERPRINT_BASE^exponent}
+   */
+  private static long fingerprintPower(int exponent) {
+    long result = 1;
+    long base = FINGERPRINT_BASE;
+    for (int e = exponent; e > 0; e >>= 1) {
+      if ((e & 1) != 0) {
+        result *= base;
+      }
+      base *= base;
     }
-    return hashCode;
+    return result;
+  }
+
+  /**
+   * Returns a 64-bit hash of the given statement, obtained by mixing the bits of its hash code.
+   *
+   * @param statement a statement
+   * @return a 64-bit hash of the statement
+   */
+  private static long statementFingerprint(Statement statement) {
+    // The finalizer of the SplitMix64 generator.
+    long z = statement.hashCode() + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
   }
 
   /**
@@ -570,6 +625,11 @@ public final class Sequence {
       return false;
     }
     Sequence other = (Sequence) o;
+    // Equal sequences have equal fingerprints, so this rejects nearly all unequal sequences
+    // without examining their statements.
+    if (this.savedFingerprint != other.savedFingerprint) {
+      return false;
+    }
     if (this.getStatementsWithInputs().size() != other.getStatementsWithInputs().size()) {
       verifyNotEqual("size", other);
       return false;
@@ -628,16 +688,35 @@ public final class Sequence {
     }
   }
 
-  // A saved copy of this sequence's hashcode to avoid recalculation.
-  private final int savedHashCode;
+  /** The base of the polynomial hash used for fingerprints: the 64-bit FNV prime. */
+  private static final long FINGERPRINT_BASE = 0x100000001B3L;
+
+  // A saved copy of this sequence's fingerprint to avoid recalculation.
+  private final long savedFingerprint;
+
+  // FINGERPRINT_BASE raised to the number of statements; used when concatenating sequences.
+  private final long savedFingerprintPower;
 
   // A saved copy of this sequence's net size to avoid recomputation.
   private final int savedNetSize;
 
-  // See comment at computeHashCode method for notes on hashCode.
+  /**
+   * Returns a 64-bit fingerprint of this sequence. Equal sequences have equal fingerprints, and
+   * unequal sequences (including sequences that contain the same statements in a different order)
+   * are very unlikely to have equal fingerprints.
+   *
+   * <p>See comment at computeFingerprint method for notes on the fingerprint.
+   *
+   * @return the fingerprint of this sequence
+   */
+  public final long fingerprint() {
+    return savedFingerprint;
+  }
+
+  // See comment at computeFingerprint method for notes on hashCode.
   @Override
   public final int hashCode() {
-    return savedHashCode;
+    return Long.hashCode(savedFingerprint);
   }
 
   /**
@@ -895,9 +974,7 @@ public final class Sequence {
   }
 
   /**
-   * NOTE: the ONLY place this is used is in a test.
-   *
-   * <p>Parse a sequence encoded as a list of strings, each string corresponding to one statement.
+   * Parse a sequence encoded as a list of strings, each string corresponding to one statement.
    * This method is similar to parse(String), but expects the individual statements already as
    * separate strings. Each statement is expected to be of the form:
    *
@@ -1121,16 +1198,18 @@ public final class Sequence {
 
   /**
    * Return a subsequence of this sequence that contains the statement at the given index. It does
-   * not necessarily contain the first element of this sequence.
-   *
-   * <p>The result depends on the compositional structure of this sequence. The implementation
-   * avoids allocating new objects.
+   * not necessarily contain the first element of this sequence: it is the sequence that the
+   * statement was originally appended to, plus the statement.
    *
    * @param index the statement position in this sequence
    * @return the sequence containing the index position
    */
   Sequence getSubsequence(int index) {
-    return new Sequence(statements.getSublist(index));
+    int originOffset = statements.get(index).originOffset;
+    if (originOffset < 0) {
+      return new Sequence(statements.getSublist(index));
+    }
+    return new Sequence(statements.subVector(index - originOffset, index + 1));
   }
 
   /** Write this sequence to the Randoop log. */
@@ -1138,14 +1217,7 @@ public final class Sequence {
     if (!Log.isLoggingOn()) {
       return;
     }
-    try {
-      GenInputsAbstract.log.write(Globals.lineSep);
-      GenInputsAbstract.log.write(this.toFullCodeString());
-      GenInputsAbstract.log.write(Globals.lineSep);
-      GenInputsAbstract.log.flush();
-    } catch (IOException e) {
-      throw new RandoopBug("Error while logging sequence", e);
-    }
+    Log.logPrintf("%n%s%n", this.toFullCodeString());
   }
 
   /**
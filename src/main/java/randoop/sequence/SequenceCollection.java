@@ -2,15 +2,20 @@ package randoop.sequence;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.Globals;
 import randoop.SubTypeSet;
 import randoop.main.GenInputsAbstract;
+import randoop.main.RandoopBug;
 import randoop.reflection.TypeInstantiator;
 import randoop.types.ClassOrInterfaceType;
 import randoop.types.Type;
@@ -50,6 +55,36 @@ public class SequenceCollection {
   /** Number of sequences in the collection: sum of sizes of all values in sequenceMap. */
   private int sequenceCount = 0;
 
+  /**
+   * How each sequence in this collection has been used, for choosing sequences to evict. Null if
+   * this collection does not support {@link #evict eviction}.
+   */
+  private @Nullable Map<Sequence, Usage> usage;
+
+  /** The number of calls to {@link #recordUse}; the clock for least-recently-used eviction. */
+  private long useClock = 0;
+
+  /** How a sequence in this collection has been used. */
+  private static class Usage {
+    /** The value of {@link #useClock} when the sequence was added or last used. */
+    long lastUse;
+
+    /** The number of times the sequence has been used. */
+    int uses = 0;
+
+    /** The number of lists in {@link #sequenceMap} that contain the sequence. */
+    int lists = 0;
+
+    /**
+     * Create a Usage for a sequence that has not yet been used.
+     *
+     * @param lastUse the current value of {@link #useClock}
+     */
+    Usage(long lastUse) {
+      this.lastUse = lastUse;
+    }
+  }
+
   /** Checks the representation invariant. */
   private void checkRep() {
     if (!GenInputsAbstract.debug_checks) {
@@ -77,6 +112,9 @@ public class SequenceCollection {
     this.sequenceMap = new LinkedHashMap<>();
     this.typeSet = new SubTypeSet(false);
     sequenceCount = 0;
+    if (usage != null) {
+      usage.clear();
+    }
     checkRep();
   }
 
@@ -90,12 +128,24 @@ public class SequenceCollection {
    *
    * @param initialSequences the initial collection of sequences
    */
-  @SuppressWarnings("this-escape") // checkRep does not leak this
   public SequenceCollection(Collection<Sequence> initialSequences) {
+    this(initialSequences, false);
+  }
+
+  /**
+   * Create a new collection and adds the given initial sequences.
+   *
+   * @param initialSequences the initial collection of sequences
+   * @param evictable if true, the collection records how its sequences are used, so that {@link
+   *     #evict} can be called
+   */
+  @SuppressWarnings("this-escape") // checkRep does not leak this
+  public SequenceCollection(Collection<Sequence> initialSequences, boolean evictable) {
     if (initialSequences == null) throw new IllegalArgumentException("initialSequences is null.");
     this.sequenceMap = new LinkedHashMap<>();
     this.typeSet = new SubTypeSet(false);
     sequenceCount = 0;
+    this.usage = evictable ? new HashMap<>() : null;
     addAll(initialSequences);
     checkRep();
   }
@@ -181,6 +231,106 @@ public class SequenceCollection {
     boolean added = set.add(sequence);
     assert added;
     sequenceCount++;
+    if (usage != null) {
+      usage.computeIfAbsent(sequence, __ -> new Usage(useClock)).lists++;
+    }
+  }
+
+  /**
+   * Records that the given sequence was chosen as an input for a new sequence. Does nothing if this
+   * collection is not evictable, or if the sequence is not in this collection.
+   *
+   * @param sequence a sequence
+   */
+  public void recordUse(Sequence sequence) {
+    if (usage == null) {
+      return;
+    }
+    Usage u = usage.get(sequence);
+    if (u != null) {
+      u.lastUse = ++useClock;
+      u.uses++;
+    }
+  }
+
+  /**
+   * Removes sequences from this collection, so that it contains about {@code targetSize} sequences
+   * (where, as in {@link #size}, a sequence is counted once per type that it produces). The same
+   * fraction of sequences is removed from the list for each type, so that types with few sequences
+   * are not emptied. Within a list, the sequences to remove are chosen according to the policy.
+   * The last sequence of a type, and the sequences in {@code keep}, are never removed.
+   *
+   * @param targetSize the desired number of sequences
+   * @param policy how to choose the sequences to remove
+   * @param keep sequences that must not be removed, such as seed sequences
+   * @return the removed sequences that no longer appear in this collection for any type
+   */
+  public Set<Sequence> evict(
+      int targetSize, GenInputsAbstract.PoolEvictionPolicy policy, Collection<Sequence> keep) {
+    if (usage == null) {
+      throw new IllegalStateException("This SequenceCollection is not evictable");
+    }
+    Set<Sequence> result = new LinkedHashSet<>();
+    if (sequenceCount <= targetSize) {
+      return result;
+    }
+    int oldCount = sequenceCount;
+    double fraction = (sequenceCount - targetSize) / (double) sequenceCount;
+    Comparator<Sequence> evictFirst = evictionOrder(policy);
+    for (SimpleArrayList<Sequence> list : sequenceMap.values()) {
+      int numToRemove = Math.min((int) Math.ceil(list.size() * fraction), list.size() - 1);
+      if (numToRemove <= 0) {
+        continue;
+      }
+      List<Sequence> candidates = new ArrayList<>(list.size());
+      for (Sequence sequence : list) {
+        if (!keep.contains(sequence)) {
+          candidates.add(sequence);
+        }
+      }
+      // The sort is stable, so ties are broken by the order in which sequences were added.
+      candidates.sort(evictFirst);
+      Set<Sequence> toRemove =
+          new HashSet<>(candidates.subList(0, Math.min(numToRemove, candidates.size())));
+      list.removeIf(toRemove::contains);
+      sequenceCount -= toRemove.size();
+      for (Sequence sequence : toRemove) {
+        Usage u = usage.get(sequence);
+        u.lists--;
+        if (u.lists == 0) {
+          usage.remove(sequence);
+          result.add(sequence);
+        }
+      }
+    }
+    Log.logPrintf(
+        "Evicted %d of %d sequences from the sequence collection (policy %s).%n",
+        oldCount - sequenceCount, oldCount, policy);
+    checkRep();
+    return result;
+  }
+
+  /**
+   * Returns a comparator that orders the sequences in this collection so that the ones that should
+   * be evicted first come first.
+   *
+   * @param policy the eviction policy
+   * @return a comparator that puts the sequences to evict first
+   */
+  private Comparator<Sequence> evictionOrder(GenInputsAbstract.PoolEvictionPolicy policy) {
+    Map<Sequence, Usage> usage = this.usage;
+    Comparator<Sequence> leastRecentlyUsed = Comparator.comparingLong(s -> usage.get(s).lastUse);
+    switch (policy) {
+      case LEAST_RECENTLY_USED:
+        return leastRecentlyUsed;
+      case LEAST_USED:
+        return Comparator.<Sequence>comparingInt(s -> usage.get(s).uses)
+            .thenComparing(leastRecentlyUsed);
+      case LONGEST:
+        return Comparator.<Sequence>comparingInt(s -> -s.size()).thenComparing(leastRecentlyUsed);
+      default:
+        throw new RandoopBug("Unhandled --pool-eviction: " + policy);
+    }
   }
 
   /**
@@ -205,7 +355,10 @@ public class SequenceCollection {
       throw new IllegalArgumentException("type cannot be null.");
     }
 
-    Log.logPrintf("getSequencesForType(%s, %s, %s)%n", type, exactMatch, onlyReceivers);
+    boolean logging = Log.isLoggingOn();
+    if (logging) {
+      Log.logPrintf("getSequencesForType(%s, %s, %s)%n", type, exactMatch, onlyReceivers);
+    }
 
     List<SimpleList<Sequence>> resultList = new ArrayList<>();
 
@@ -216,22 +369,28 @@ public class SequenceCollection {
       }
     } else {
       for (Type compatibleType : typeSet.getMatches(type)) {
-        Log.logPrintf(
-            "candidate compatibleType (isNonreceiverType=%s): %s%n",
-            compatibleType.isNonreceiverType(), compatibleType);
+        if (logging) {
+          Log.logPrintf(
+              "candidate compatibleType (isNonreceiverType=%s): %s%n",
+              compatibleType.isNonreceiverType(), compatibleType);
+        }
         if (!(onlyReceivers && compatibleType.isNonreceiverType())) {
           SimpleArrayList<Sequence> newMethods = this.sequenceMap.get(compatibleType);
-          Log.logPrintf("  Adding %d methods.%n", newMethods.size());
+          if (logging) {
+            Log.logPrintf("  Adding %d methods.%n", newMethods.size());
+          }
           resultList.add(newMethods);
         }
       }
     }
 
-    if (resultList.isEmpty()) {
+    if (logging && resultList.isEmpty()) {
       Log.logPrintf("getSequencesForType: found no sequences matching type %s%n", type);
     }
     SimpleList<Sequence> selector = new ListOfLists<>(resultList);
-    Log.logPrintf("getSequencesForType(%s) => %s sequences.%n", type, selector.size());
+    if (logging) {
+      Log.logPrintf("getSequencesForType(%s) => %s sequences.%n", type, selector.size());
+    }
     return selector;
   }
 
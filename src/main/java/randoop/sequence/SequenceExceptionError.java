@@ -46,6 +46,15 @@ public class SequenceExceptionError extends Error {
     return e;
   }
 
+  /**
+   * Returns the position of the statement that threw the exception.
+   *
+   * @return the position of the statement that threw the exception
+   */
+  public int getPosition() {
+    return position;
+  }
+
   /**
    * Returns the string representation of the statement that threw the exception.
    *
@@ -30,6 +30,14 @@ public final class Statement {
   // See that class for an explanation.
   final List<RelativeNegativeIndex> inputs;
 
+  /**
+   * The number of statements in the sequence that this statement was appended to, or -1 if
+   * unknown. Concatenation moves whole sequences, so in any sequence that contains this statement
+   * at index i, the statements from index {@code i - originOffset} through i are that sequence plus
+   * this statement. Not part of the statement's identity: it is ignored by {@link #equals}.
+   */
+  final int originOffset;
+
   /**
    * Create a new statement of type statement that takes as input the given values.
    *
@@ -37,8 +45,21 @@ public final class Statement {
    * @param inputVariables the variable that are used in this statement
    */
   public Statement(TypedOperation operation, List<RelativeNegativeIndex> inputVariables) {
+    this(operation, inputVariables, -1);
+  }
+
+  /**
+   * Create a new statement of type statement that takes as input the given values.
+   *
+   * @param operation the operation of this statement
+   * @param inputVariables the variable that are used in this statement
+   * @param originOffset the number of statements in the sequence this statement is appended to
+   */
+  Statement(
+      TypedOperation operation, List<RelativeNegativeIndex> inputVariables, int originOffset) {
     this.operation = operation;
     this.inputs = new ArrayList<>(inputVariables);
+    this.originOffset = originOffset;
   }
 
   /**
@@ -117,7 +138,7 @@ public final class Statement {
     StringBuilder b = new StringBuilder();
     b.append(variableName);
     b.append(" =  ");
-    b.append(operation.getClass().getSimpleName());
+    b.append(operation.getOperation().getClass().getSimpleName());
     b.append(" : ");
     b.append(operation.toParsableString());
     b.append(" : ");
@@ -8,6 +8,7 @@ import org.plumelib.util.StringsPlume;
 import randoop.ExecutionOutcome;
 import randoop.NormalExecution;
 import randoop.contract.EnumValue;
+import randoop.execution.SequenceWorkerPool;
 import randoop.main.GenInputsAbstract;
 import randoop.main.RandoopBug;
 import randoop.types.JavaTypes;
@@ -245,13 +246,16 @@ public class Value {
   /**
    * Returns true if the given value is not longer than the --string-maxlen=N parameter.
    *
-   * @param v a value
+   * @param v a value, or a {@link SequenceWorkerPool.RemoteValue} that stands for one
    * @return true if the value's size is less than the bound
    */
   public static boolean valueSizeOk(Object v) {
     if (v == null) {
       return true;
     }
+    if (v instanceof SequenceWorkerPool.RemoteValue) {
+      return ((SequenceWorkerPool.RemoteValue) v).sizeOk();
+    }
     if (v instanceof String) {
       return escapedStringLengthOk((String) v);
     }
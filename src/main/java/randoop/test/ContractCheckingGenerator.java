@@ -2,6 +2,8 @@ package randoop.test;
 
 import static randoop.main.GenInputsAbstract.BehaviorType.ERROR;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import randoop.ExceptionalExecution;
 import randoop.ExecutionOutcome;
@@ -18,7 +20,6 @@ import randoop.types.ReferenceType;
 import randoop.types.Substitution;
 import randoop.types.Type;
 import randoop.types.TypeTuple;
-import randoop.util.TupleSet;
 
 /**
  * An execution visitor that generates checks for error-revealing tests.
@@ -83,13 +84,14 @@ public final class ContractCheckingGenerator extends TestCheckGenerator {
       // Otherwise, normal execution, check contracts
       assert finalResult instanceof NormalExecution;
       if (!contracts.isEmpty()) {
+        // Tuples are enumerated lazily, in place, and only for arities that have contracts.
         // 1. check unary over values in last statement
         // TODO: Why aren't unary contracts checked over all values like binary contracts are?
         List<ReferenceValue> statementValues = eseq.getLastStatementValues();
         List<ObjectContract> unaryContracts = contracts.getWithArity(1);
         if (!unaryContracts.isEmpty()) {
-          TupleSet<ReferenceValue> statementTuples = new TupleSet<>();
-          statementTuples = statementTuples.extend(statementValues);
+          TupleCursor statementTuples =
+              new TupleCursor(Collections.singletonList(statementValues), UNARY_LAYOUTS);
           Check check = checkContracts(unaryContracts, eseq, statementTuples);
           if (check != null) {
             return singletonTestCheck(check);
@@ -98,11 +100,15 @@ public final class ContractCheckingGenerator extends TestCheckGenerator {
 
         // 2. check binary over all pairs of values.
         // Rationale:  this call might have side-effected some previously-existing value.
-        List<ReferenceValue> inputValues = eseq.getAllValues();
-        TupleSet<ReferenceValue> inputTuples = new TupleSet<>();
-        inputTuples = inputTuples.extend(inputValues).extend(inputValues);
         List<ObjectContract> binaryContracts = contracts.getWithArity(2);
+        List<ObjectContract> ternaryContracts = contracts.getWithArity(3);
+        if (binaryContracts.isEmpty() && ternaryContracts.isEmpty()) {
+          return ErrorRevealingChecks.EMPTY;
+        }
+        List<ReferenceValue> inputValues = eseq.getAllValues();
         if (!binaryContracts.isEmpty()) {
+          TupleCursor inputTuples =
+              new TupleCursor(Arrays.asList(inputValues, inputValues), BINARY_LAYOUTS);
           Check check = checkContracts(binaryContracts, eseq, inputTuples);
           if (check != null) {
             return singletonTestCheck(check);
@@ -110,9 +116,10 @@ public final class ContractCheckingGenerator extends TestCheckGenerator {
         }
 
         // 3. check ternary over statement x pair of input values
-        TupleSet<ReferenceValue> ternaryTuples = inputTuples.exhaustivelyExtend(statementValues);
-        List<ObjectContract> ternaryContracts = contracts.getWithArity(3);
         if (!ternaryContracts.isEmpty()) {
+          TupleCursor ternaryTuples =
+              new TupleCursor(
+                  Arrays.asList(inputValues, inputValues, statementValues), TERNARY_LAYOUTS);
           Check check = checkContracts(ternaryContracts, eseq, ternaryTuples);
           if (check != null) {
             return singletonTestCheck(check);
@@ -142,6 +149,10 @@ public final class ContractCheckingGenerator extends TestCheckGenerator {
   /**
    * If a contract fails for some tuple, returns some such failing check.
    *
+   * <p>Tuples are visited in the cursor's order, and for each tuple the contracts are tried in
+   * order. A contract is only evaluated on a tuple whose values match its input types, and each
+   * value is matched against each input type at most once.
+   *
    * @param contracts the contracts to check
    * @param eseq the executable sequence that is the source of values for checking contracts
    * @param tuples the value tuples to use as input to the contracts
@@ -151,20 +162,31 @@ public final class ContractCheckingGenerator extends TestCheckGenerator {
    *     sequence is invalid, null otherwise.
    */
   Check checkContracts(
-      List<ObjectContract> contracts, ExecutableSequence eseq, TupleSet<ReferenceValue> tuples) {
-    for (List<ReferenceValue> tuple : tuples.tuples()) {
-      Object[] values = getValues(tuple);
-
-      for (ObjectContract contract : contracts) {
-        assert tuple.size() == contract.getArity()
-            : "value tuple size "
-                + tuple.size()
-                + " must match contract arity "
-                + contract.getArity();
-        if (typesMatch(contract.getInputTypes(), tuple)) {
+      List<ObjectContract> contracts, ExecutableSequence eseq, TupleCursor tuples) {
+    int arity = tuples.arity();
+    int sourceCount = tuples.sourceCount();
+    // inputMatches[c][i][s][k] is true if value k of source s matches input type i of contract c.
+    // The innermost arrays are computed when first needed.
+    boolean[][][][] inputMatches = new boolean[contracts.size()][arity][sourceCount][];
+    boolean[] isGeneric = new boolean[contracts.size()];
+    for (int c = 0; c < contracts.size(); c++) {
+      ObjectContract contract = contracts.get(c);
+      assert arity == contract.getArity()
+          : "value tuple size " + arity + " must match contract arity " + contract.getArity();
+      for (int i = 0; i < arity; i++) {
+        isGeneric[c] |= contract.getInputTypes().get(i).isGeneric();
+      }
+    }
+
+    ReferenceValue[] tuple = tuples.tuple();
+    while (tuples.advance()) {
+      for (int c = 0; c < contracts.size(); c++) {
+        ObjectContract contract = contracts.get(c);
+        if (inputsMatch(contract.getInputTypes(), inputMatches[c], tuples)
+            && (!isGeneric[c] || typesMatch(contract.getInputTypes(), Arrays.asList(tuple)))) {
           // Commented out because it makes the logs too big.  Uncomment when debugging this code.
           // Log.logPrintf("Checking contract %s%n", contract.getClass());
-          Check check = contract.checkContract(eseq, values);
+          Check check = contract.checkContract(eseq, getValues(tuple));
           if (check != null) {
             return check;
           }
@@ -175,6 +197,54 @@ public final class ContractCheckingGenerator extends TestCheckGenerator {
     return null;
   }
 
+  /**
+   * Returns true if each value of the current tuple individually matches the corresponding input
+   * type. For a generic input type, this only checks that the value has a matching supertype; the
+   * caller must check that the substitutions are consistent.
+   *
+   * @param inputTypes the input types of a contract
+   * @param matches memoized results for the contract, indexed by input position, source, and value
+   *     index; side-effected to fill in missing entries
+   * @param tuples the cursor whose current tuple is checked
+   * @return true if each value matches its input type
+   */
+  private static boolean inputsMatch(
+      TypeTuple inputTypes, boolean[][][] matches, TupleCursor tuples) {
+    for (int i = 0; i < inputTypes.size(); i++) {
+      int source = tuples.sourceOf(i);
+      boolean[] sourceMatches = matches[i][source];
+      if (sourceMatches == null) {
+        List<ReferenceValue> values = tuples.source(source);
+        sourceMatches = new boolean[values.size()];
+        for (int k = 0; k < values.size(); k++) {
+          sourceMatches[k] = inputMatches(inputTypes.get(i), values.get(k).getType());
+        }
+        matches[i][source] = sourceMatches;
+      }
+      if (!sourceMatches[tuples.indexOf(i)]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if a value of the given type may be passed as the given contract input type. This
+   * is the per-value part of {@link #typesMatch}.
+   *
+   * @param inputType a contract input type
+   * @param valueType the type of a value
+   * @return true if the value type matches the input type
+   */
+  private static boolean inputMatches(Type inputType, ReferenceType valueType) {
+    if (inputType.isGeneric()) {
+      return valueType instanceof ClassOrInterfaceType
+          && ((ClassOrInterfaceType) valueType).getMatchingSupertype((GenericClassType) inputType)
+              != null;
+    }
+    return inputType.isAssignableFrom(valueType);
+  }
+
   /**
    * Indicates whether the given list of values matches the types in the type tuple. Contracts may
    * have generic input types, so this method checks for consistent substitutions across value
@@ -219,16 +289,169 @@ public final class ContractCheckingGenerator extends TestCheckGenerator {
   }
 
   /**
-   * Creates an {@code Object} array for the given value list.
+   * Creates an {@code Object} array for the given values.
    *
-   * @param tuple the list of values
+   * @param tuple the values
    * @return the Object array for the values
    */
-  private static Object[] getValues(List<ReferenceValue> tuple) {
-    Object[] values = new Object[tuple.size()];
-    for (int i = 0; i < tuple.size(); i++) {
-      values[i] = tuple.get(i).getObjectValue();
+  private static Object[] getValues(ReferenceValue[] tuple) {
+    Object[] values = new Object[tuple.length];
+    for (int i = 0; i < tuple.length; i++) {
+      values[i] = tuple[i].getObjectValue();
     }
     return values;
   }
+
+  /** The layout of unary tuples: the value from the only source. */
+  private static final int[][] UNARY_LAYOUTS = {{0}};
+
+  /** The layout of binary tuples: a value from the first source, then one from the second. */
+  private static final int[][] BINARY_LAYOUTS = {{0, 1}};
+
+  /**
+   * The layouts of ternary tuples: a value from the third source inserted before, between, or
+   * after a pair of values from the first two sources.
+   */
+  private static final int[][] TERNARY_LAYOUTS = {{2, 0, 1}, {0, 2, 1}, {0, 1, 2}};
+
+  /**
+   * Enumerates tuples of values without materializing them. A tuple is formed by choosing one value
+   * from each of several source lists, and arranging the chosen values according to a layout. The
+   * choices vary in lexicographic order, with the last source varying fastest, and for each choice
+   * every layout is visited in turn.
+   *
+   * <p>The current tuple is held in a single array that is overwritten by {@link #advance}.
+   */
+  static final class TupleCursor {
+
+    /** The lists that values are chosen from. */
+    private final List<List<ReferenceValue>> sources;
+
+    /** For each layout, the source of the value at each tuple position. */
+    private final int[][] layouts;
+
+    /** The index of the chosen value in each source. */
+    private final int[] chosen;
+
+    /** The index of the current layout, or -1 before the first call to {@link #advance}. */
+    private int layout = -1;
+
+    /** True if every tuple has been visited. */
+    private boolean exhausted = false;
+
+    /** The current tuple. */
+    private final ReferenceValue[] tuple;
+
+    /**
+     * Creates a cursor positioned before the first tuple.
+     *
+     * @param sources the lists that values are chosen from
+     * @param layouts for each layout, the source of the value at each tuple position; every layout
+     *     must use each source exactly once
+     */
+    TupleCursor(List<List<ReferenceValue>> sources, int[][] layouts) {
+      this.sources = sources;
+      this.layouts = layouts;
+      this.chosen = new int[sources.size()];
+      this.tuple = new ReferenceValue[sources.size()];
+    }
+
+    /**
+     * Returns the number of values in each tuple.
+     *
+     * @return the tuple length
+     */
+    int arity() {
+      return tuple.length;
+    }
+
+    /**
+     * Returns the number of source lists.
+     *
+     * @return the number of source lists
+     */
+    int sourceCount() {
+      return sources.size();
+    }
+
+    /**
+     * Returns the given source list.
+     *
+     * @param source the index of a source list
+     * @return the source list
+     */
+    List<ReferenceValue> source(int source) {
+      return sources.get(source);
+    }
+
+    /**
+     * Returns the array that holds the current tuple. Its contents change on each call to {@link
+     * #advance}.
+     *
+     * @return the array that holds the current tuple
+     */
+    ReferenceValue[] tuple() {
+      return tuple;
+    }
+
+    /**
+     * Returns the source of the value at the given position of the current tuple.
+     *
+     * @param position a position in the tuple
+     * @return the index of the source list of the value at the position
+     */
+    int sourceOf(int position) {
+      return layouts[layout][position];
+    }
+
+    /**
+     * Returns the index, within its source list, of the value at the given position of the current
+     * tuple.
+     *
+     * @param position a position in the tuple
+     * @return the index of the value at the position, within its source list
+     */
+    int indexOf(int position) {
+      return chosen[sourceOf(position)];
+    }
+
+    /**
+     * Moves to the next tuple.
+     *
+     * @return true if there is a next tuple, false if the tuples are exhausted
+     */
+    boolean advance() {
+      if (exhausted) {
+        return false;
+      }
+      if (layout == -1) {
+        for (List<ReferenceValue> source : sources) {
+          if (source.isEmpty()) {
+            exhausted = true;
+            return false;
+          }
+        }
+        layout = 0;
+      } else if (layout + 1 < layouts.length) {
+        layout++;
+      } else {
+        int s = chosen.length - 1;
+        while (s >= 0 && chosen[s] + 1 == sources.get(s).size()) {
+          chosen[s] = 0;
+          s--;
+        }
+        if (s < 0) {
+          exhausted = true;
+          return false;
+        }
+        chosen[s]++;
+        layout = 0;
+      }
+      int[] positions = layouts[layout];
+      for (int i = 0; i < tuple.length; i++) {
+        tuple[i] = sources.get(positions[i]).get(chosen[positions[i]]);
+      }
+      return true;
+    }
+  }
 }
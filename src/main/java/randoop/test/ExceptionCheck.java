@@ -135,6 +135,15 @@ public abstract class ExceptionCheck implements Check {
     return exception.getClass().getCanonicalName();
   }
 
+  /**
+   * Returns the name of the exception class to be caught.
+   *
+   * @return the name of the exception class to be caught
+   */
+  String getCatchClassName() {
+    return catchClassName == null ? "Exception" : catchClassName;
+  }
+
   /**
    * Returns the exception.
    *
@@ -7,8 +7,11 @@ import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.plumelib.util.StringsPlume;
 import randoop.ExceptionalExecution;
 import randoop.ExecutionOutcome;
@@ -55,6 +58,13 @@ public final class RegressionCaptureGenerator extends TestCheckGenerator {
   /** The map from a type to the set of side-effect-free operations for the type. */
   private MultiMap<Type, TypedClassOperation> sideEffectFreeMethodsByType;
 
+  /**
+   * The observers for each declared type: the members of {@link #sideEffectFreeMethodsByType} that
+   * satisfy {@link #isAssertableMethod}. Filled in by {@link #getObservers}. Concurrent, because
+   * generators running in parallel may share this.
+   */
+  private final Map<Type, List<Observer>> observersByType = new ConcurrentHashMap<>();
+
   /** The accessibility predicate. */
   private final AccessibilityPredicate isAccessible;
 
@@ -186,36 +196,29 @@ public final class RegressionCaptureGenerator extends TestCheckGenerator {
 
             // Put out any side-effect-free methods that exist for this type.
             Variable var0 = eseq.sequence.getVariable(i);
-            Set<TypedClassOperation> sideEffectFreeMethods =
-                sideEffectFreeMethodsByType.getValues(var0.getType());
-            if (sideEffectFreeMethods != null) {
-              for (TypedClassOperation m : sideEffectFreeMethods) {
-                if (!isAssertableMethod(m, omitMethodsPredicate, isAccessible)) {
-                  continue;
-                }
-
-                // Avoid making a call that will fail looksLikeObjectToString.
-                if (isObjectToString(m) && runtimeValue.getClass() == Object.class) {
-                  continue;
-                }
-
-                ExecutionOutcome outcome = m.execute(new Object[] {runtimeValue});
-                if (outcome instanceof ExceptionalExecution) {
-                  // The program under test threw an exception.  Don't call this method in the test.
-                  continue;
-                }
-
-                Object value = ((NormalExecution) outcome).getRuntimeValue();
-
-                if (Value.isUnassertableString(value)) {
-                  continue;
-                }
-
-                ObjectContract observerEqValue = new ObserverEqValue(m, value);
-                ObjectCheck observerCheck = new ObjectCheck(observerEqValue, var);
-                Log.logPrintf("Adding observer check %s%n", observerCheck);
-                checks.add(observerCheck);
+            for (Observer observer : getObservers(var0.getType())) {
+              // Avoid making a call that will fail looksLikeObjectToString.
+              if (observer.isObjectToString && runtimeValue.getClass() == Object.class) {
+                continue;
+              }
+
+              TypedClassOperation m = observer.method;
+              ExecutionOutcome outcome = m.execute(new Object[] {runtimeValue});
+              if (outcome instanceof ExceptionalExecution) {
+                // The program under test threw an exception.  Don't call this method in the test.
+                continue;
+              }
+
+              Object value = ((NormalExecution) outcome).getRuntimeValue();
+
+              if (Value.isUnassertableString(value)) {
+                continue;
               }
+
+              ObjectContract observerEqValue = new ObserverEqValue(m, value);
+              ObjectCheck observerCheck = new ObjectCheck(observerEqValue, var);
+              Log.logPrintf("Adding observer check %s%n", observerCheck);
+              checks.add(observerCheck);
             }
           }
         }
@@ -238,6 +241,48 @@ public final class RegressionCaptureGenerator extends TestCheckGenerator {
     return checks;
   }
 
+  /**
+   * Returns the side-effect-free methods that may be used in assertions about a value of the given
+   * type. The result is computed once per type, on first use.
+   *
+   * @param type the declared type of a value
+   * @return the observers for values of the type
+   */
+  private List<Observer> getObservers(Type type) {
+    List<Observer> observers = observersByType.get(type);
+    if (observers == null) {
+      observers = new ArrayList<>();
+      for (TypedClassOperation m : sideEffectFreeMethodsByType.getValues(type)) {
+        if (isAssertableMethod(m, omitMethodsPredicate, isAccessible)) {
+          observers.add(new Observer(m, isObjectToString(m)));
+        }
+      }
+      observersByType.put(type, observers);
+    }
+    return observers;
+  }
+
+  /** A side-effect-free method that may be used in assertions, with facts about it precomputed. */
+  private static final class Observer {
+
+    /** The side-effect-free method. */
+    final TypedClassOperation method;
+
+    /** True if the method is Object.toString or equivalent; see {@link #isObjectToString}. */
+    final boolean isObjectToString;
+
+    /**
+     * Creates an Observer.
+     *
+     * @param method the side-effect-free method
+     * @param isObjectToString true if the method is Object.toString or equivalent
+     */
+    Observer(TypedClassOperation method, boolean isObjectToString) {
+      this.method = method;
+      this.isObjectToString = isObjectToString;
+    }
+  }
+
   /**
    * Return true if the method is Object.toString (which is nondeterministic for classes that have
    * not overridden it).
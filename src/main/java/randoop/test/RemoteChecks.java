@@ -0,0 +1,279 @@
+package randoop.test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.main.RandoopBug;
+import randoop.sequence.ExecutableSequence;
+
+/**
+ * The checks that an execution worker (see {@link randoop.execution.SequenceWorker}) created for a
+ * sequence, in a form that can be sent to Randoop's JVM. A check is sent as the code that it emits,
+ * because the objects that it refers to exist only in the worker.
+ */
+public final class RemoteChecks implements Serializable {
+
+  private static final long serialVersionUID = 20261015;
+
+  /** The kinds of {@link TestChecks}. */
+  private enum Kind {
+    /** {@link RegressionChecks}. */
+    REGRESSION,
+    /** {@link ErrorRevealingChecks}. */
+    ERROR_REVEALING,
+    /** {@link InvalidChecks}. */
+    INVALID
+  }
+
+  /** The kind of the checks. */
+  private final Kind kind;
+
+  /** Whether the checks were the shared empty instance of their kind. */
+  private final boolean isEmptyInstance;
+
+  /** The checks, other than the exception check. */
+  private final List<CheckCode> checks = new ArrayList<>();
+
+  /** The exception check, or null if there is none. */
+  private final @Nullable ExceptionCheckCode exceptionCheck;
+
+  /** The index of the statement of an {@link InvalidValueCheck}, or -1 if there is none. */
+  private final int invalidValueIndex;
+
+  /**
+   * Creates a description of the given checks.
+   *
+   * @param testChecks the checks that a {@link TestCheckGenerator} created
+   */
+  public RemoteChecks(TestChecks<?> testChecks) {
+    if (testChecks instanceof RegressionChecks) {
+      kind = Kind.REGRESSION;
+      isEmptyInstance = testChecks == RegressionChecks.EMPTY;
+    } else if (testChecks instanceof ErrorRevealingChecks) {
+      kind = Kind.ERROR_REVEALING;
+      isEmptyInstance = testChecks == ErrorRevealingChecks.EMPTY;
+    } else if (testChecks instanceof InvalidChecks) {
+      kind = Kind.INVALID;
+      isEmptyInstance = testChecks == InvalidChecks.EMPTY;
+    } else {
+      throw new RandoopBug("Unexpected kind of checks: " + testChecks.getClass());
+    }
+
+    ExceptionCheck exceptionCheck = testChecks.getExceptionCheck();
+    this.exceptionCheck = exceptionCheck == null ? null : new ExceptionCheckCode(exceptionCheck);
+    int invalidValueIndex = -1;
+    for (Check check : testChecks.checks()) {
+      if (check instanceof InvalidValueCheck) {
+        invalidValueIndex = ((InvalidValueCheck) check).index;
+      } else if (check != exceptionCheck) {
+        checks.add(new CheckCode(check));
+      }
+    }
+    this.invalidValueIndex = invalidValueIndex;
+  }
+
+  /**
+   * Returns checks that emit the same code as the described ones.
+   *
+   * @param eseq the sequence whose checks these are; its outcomes have been set
+   * @return checks of the same kind as the described ones
+   */
+  public TestChecks<?> toTestChecks(ExecutableSequence eseq) {
+    TestChecks<?> result;
+    switch (kind) {
+      case REGRESSION:
+        if (isEmptyInstance) {
+          return RegressionChecks.EMPTY;
+        }
+        result = new RegressionChecks();
+        break;
+      case ERROR_REVEALING:
+        if (isEmptyInstance) {
+          return ErrorRevealingChecks.EMPTY;
+        }
+        result = new ErrorRevealingChecks();
+        break;
+      case INVALID:
+        if (isEmptyInstance) {
+          return InvalidChecks.EMPTY;
+        }
+        result = new InvalidChecks();
+        if (invalidValueIndex >= 0) {
+          result.add(new InvalidValueCheck(eseq, invalidValueIndex));
+        } else if (exceptionCheck != null) {
+          result.add(
+              new InvalidExceptionCheck(
+                  exceptionCheck.getException(eseq),
+                  exceptionCheck.statementIndex,
+                  exceptionCheck.catchClassName));
+        }
+        return result;
+      default:
+        throw new RandoopBug("Unexpected kind of checks: " + kind);
+    }
+    for (CheckCode check : checks) {
+      result.add(check);
+    }
+    if (exceptionCheck != null) {
+      result.add(new RemoteExceptionCheck(exceptionCheck, exceptionCheck.getException(eseq)));
+    }
+    return result;
+  }
+
+  /** A check, other than an exception check, as the code that it emits. */
+  private static final class CheckCode implements Check, Serializable {
+
+    private static final long serialVersionUID = 20261015;
+
+    /** The code emitted before the statement. */
+    private final String preStatement;
+
+    /** The code emitted after the statement. */
+    private final String postStatement;
+
+    /** The result of {@code toString()} on the check. */
+    private final String description;
+
+    /**
+     * Creates a description of the given check.
+     *
+     * @param check a check
+     */
+    CheckCode(Check check) {
+      this.preStatement = check.toCodeStringPreStatement();
+      this.postStatement = check.toCodeStringPostStatement();
+      this.description = check.toString();
+    }
+
+    @Override
+    public String toCodeStringPreStatement() {
+      return preStatement;
+    }
+
+    @Override
+    public String toCodeStringPostStatement() {
+      return postStatement;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof CheckCode)) {
+        return false;
+      }
+      CheckCode other = (CheckCode) o;
+      return preStatement.equals(other.preStatement) && postStatement.equals(other.postStatement);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(preStatement, postStatement);
+    }
+
+    @Override
+    public String toString() {
+      return description;
+    }
+  }
+
+  /** An exception check, as the code that it emits. */
+  private static final class ExceptionCheckCode implements Serializable {
+
+    private static final long serialVersionUID = 20261015;
+
+    /** The index of the statement that throws the exception. */
+    private final int statementIndex;
+
+    /** The name of the exception class to be caught. */
+    private final String catchClassName;
+
+    /** The canonical name of the class of the exception. */
+    private final String exceptionName;
+
+    /** The code emitted in the try block, after the statement. */
+    private final String tryBehavior;
+
+    /** The code emitted in the catch block. */
+    private final String catchBehavior;
+
+    /** The result of {@code toString()} on the check. */
+    private final String description;
+
+    /**
+     * Creates a description of the given exception check.
+     *
+     * @param check an exception check
+     */
+    ExceptionCheckCode(ExceptionCheck check) {
+      this.statementIndex = check.statementIndex;
+      this.catchClassName = check.getCatchClassName();
+      this.exceptionName = check.getExceptionName();
+      StringBuilder b = new StringBuilder();
+      check.appendTryBehavior(b);
+      this.tryBehavior = b.toString();
+      b = new StringBuilder();
+      check.appendCatchBehavior(b);
+      this.catchBehavior = b.toString();
+      this.description = check.toString();
+    }
+
+    /**
+     * Returns the exception that the statement of this check threw.
+     *
+     * @param eseq the sequence whose check this is; its outcomes have been set
+     * @return the exception that the statement threw
+     */
+    Throwable getException(ExecutableSequence eseq) {
+      ExecutionOutcome outcome = eseq.getResult(statementIndex);
+      if (!(outcome instanceof ExceptionalExecution)) {
+        throw new RandoopBug(
+            "Exception check for statement " + statementIndex + " that completed with " + outcome);
+      }
+      return ((ExceptionalExecution) outcome).getException();
+    }
+  }
+
+  /** An exception check that emits the code of a described exception check. */
+  private static final class RemoteExceptionCheck extends ExceptionCheck {
+
+    /** The description of the check. */
+    private final ExceptionCheckCode code;
+
+    /**
+     * Creates an exception check that emits the code of the described check.
+     *
+     * @param code the description of the check
+     * @param exception the exception that the statement threw
+     */
+    RemoteExceptionCheck(ExceptionCheckCode code, Throwable exception) {
+      super(exception, code.statementIndex, code.catchClassName);
+      this.code = code;
+    }
+
+    @Override
+    protected void appendCatchBehavior(StringBuilder b) {
+      b.append(code.catchBehavior);
+    }
+
+    @Override
+    protected void appendTryBehavior(StringBuilder b) {
+      b.append(code.tryBehavior);
+    }
+
+    @Override
+    public String getExceptionName() {
+      return code.exceptionName;
+    }
+
+    @Override
+    public String toString() {
+      return code.description;
+    }
+  }
+}
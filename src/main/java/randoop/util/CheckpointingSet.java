@@ -1,6 +1,7 @@
 package randoop.util;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
 import org.checkerframework.checker.mustcall.qual.MustCallUnknown;
@@ -91,27 +92,41 @@ public class CheckpointingSet<E extends @Signed Object> implements Set<E> {
 
   @Override
   public boolean containsAll(Collection<?> c) {
-    throw new UnsupportedOperationException("not yet implemented");
+    return elements().containsAll(c);
   }
 
   @Override
   public <T> T[] toArray(T[] a) {
-    throw new UnsupportedOperationException("not yet implemented");
+    return elements().toArray(a);
   }
 
   @Override
   public @PolySigned Object[] toArray() {
-    throw new UnsupportedOperationException("not yet implemented");
+    return elements().toArray();
   }
 
+  /**
+   * Returns an iterator over the elements, in the order they were added. The iterator does not
+   * support removal, which would bypass {@link #undoToLastMark()}.
+   *
+   * @return an iterator over the elements of this set
+   */
   @Override
   public Iterator<E> iterator() {
-    throw new UnsupportedOperationException("not yet implemented");
+    return elements().iterator();
   }
 
   @Override
   public boolean isEmpty() {
-    // return map.isEmpty();
-    throw new UnsupportedOperationException("not yet implemented");
+    return map.size() == 0;
+  }
+
+  /**
+   * Returns an unmodifiable view of the elements of this set.
+   *
+   * @return an unmodifiable view of the elements of this set
+   */
+  private Set<E> elements() {
+    return Collections.unmodifiableSet(map.keySet());
   }
 }
@@ -0,0 +1,194 @@
+package randoop.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable Fenwick tree (binary indexed tree) of non-negative weights, indexed from 0. It
+ * supports setting a single weight, appending a weight, computing the total weight, and finding the
+ * element that contains a given point of the cumulative distribution, each in O(log n) time.
+ *
+ * <p>This makes weighted random selection from a large, slowly-changing collection cheap: {@link
+ * Randomness#randomIndexWeighted(FenwickTree)} picks an index with probability proportional to its
+ * weight without iterating over all the weights.
+ */
+public final class FenwickTree {
+
+  /**
+   * The tree. {@code tree[i]} (for 1 &le; i &le; size) is the sum of the weights of elements {@code
+   * i - lowbit(i)} through {@code i - 1}, where elements are 0-based. {@code tree[0]} is unused.
+   */
+  private double[] tree;
+
+  /** The weight of each element. */
+  private double[] weights;
+
+  /** The number of elements. */
+  private int size;
+
+  /** Creates an empty tree. */
+  public FenwickTree() {
+    this(16);
+  }
+
+  /**
+   * Creates an empty tree with the given initial capacity.
+   *
+   * @param initialCapacity the number of elements that can be added before the arrays are grown
+   */
+  public FenwickTree(int initialCapacity) {
+    int capacity = Math.max(initialCapacity, 1);
+    this.tree = new double[capacity + 1];
+    this.weights = new double[capacity];
+    this.size = 0;
+  }
+
+  /**
+   * Returns the number of elements.
+   *
+   * @return the number of elements
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the weight of the element at the given index.
+   *
+   * @param index an index, 0 &le; index &lt; size()
+   * @return the weight of the element
+   */
+  public double get(int index) {
+    checkIndex(index);
+    return weights[index];
+  }
+
+  /**
+   * Appends an element with the given weight.
+   *
+   * @param weight the weight of the new element; must be non-negative
+   */
+  public void add(double weight) {
+    checkWeight(weight);
+    if (size == weights.length) {
+      int newCapacity = 2 * weights.length;
+      weights = Arrays.copyOf(weights, newCapacity);
+      tree = Arrays.copyOf(tree, newCapacity + 1);
+    }
+    weights[size] = weight;
+    size++;
+    // The new node covers elements (size - lowbit(size)) .. (size - 1); all but the last of those
+    // are covered by the prefix sums below.
+    int i = size;
+    tree[i] = weight + prefixSum(i - 1) - prefixSum(i - Integer.lowestOneBit(i));
+  }
+
+  /**
+   * Sets the weight of the element at the given index.
+   *
+   * @param index an index, 0 &le; index &lt; size()
+   * @param weight the new weight; must be non-negative
+   */
+  public void set(int index, double weight) {
+    checkIndex(index);
+    checkWeight(weight);
+    double delta = weight - weights[index];
+    weights[index] = weight;
+    for (int i = index + 1; i <= size; i += Integer.lowestOneBit(i)) {
+      tree[i] += delta;
+    }
+  }
+
+  /**
+   * Returns the sum of the weights of the first {@code count} elements.
+   *
+   * @param count the number of elements to sum, 0 &le; count &le; size()
+   * @return the sum of the weights of elements 0 through {@code count - 1}
+   */
+  public double prefixSum(int count) {
+    double sum = 0;
+    for (int i = count; i > 0; i -= Integer.lowestOneBit(i)) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the sum of all the weights.
+   *
+   * @return the sum of all the weights
+   */
+  public double total() {
+    return prefixSum(size);
+  }
+
+  /**
+   * Returns the index of the element whose interval of the cumulative distribution contains {@code
+   * point}; that is, the smallest index i such that {@code prefixSum(i + 1) > point}. An element
+   * with weight zero is never returned, unless every weight is zero.
+   *
+   * @param point a point in [0, total())
+   * @return the index of the element that contains the point
+   */
+  public int find(double point) {
+    if (size == 0) {
+      throw new IllegalStateException("find() called on an empty FenwickTree");
+    }
+    int pos = 0;
+    double remaining = point;
+    for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+      int next = pos + step;
+      if (next <= size && tree[next] <= remaining) {
+        pos = next;
+        remaining -= tree[next];
+      }
+    }
+    // Round-off error can place the point just past the last element.  Back up to the last element
+    // with positive weight.
+    if (pos >= size) {
+      pos = size - 1;
+      while (pos > 0 && weights[pos] == 0) {
+        pos--;
+      }
+    }
+    return pos;
+  }
+
+  /** Recomputes the tree from the weights, discarding accumulated round-off error. */
+  public void rebuild() {
+    Arrays.fill(tree, 0);
+    for (int i = 1; i <= size; i++) {
+      tree[i] += weights[i - 1];
+      int parent = i + Integer.lowestOneBit(i);
+      if (parent <= size) {
+        tree[parent] += tree[i];
+      }
+    }
+  }
+
+  /**
+   * Throws an exception if the index is out of bounds.
+   *
+   * @param index an index
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+    }
+  }
+
+  /**
+   * Throws an exception if the weight is negative or not a number.
+   *
+   * @param weight a weight
+   */
+  private static void checkWeight(double weight) {
+    if (!(weight >= 0)) {
+      throw new IllegalArgumentException("Weight should be non-negative: " + weight);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "FenwickTree" + Arrays.toString(Arrays.copyOf(weights, size));
+  }
+}
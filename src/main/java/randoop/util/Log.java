@@ -2,18 +2,74 @@ package randoop.util;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.checkerframework.checker.formatter.qual.FormatMethod;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.main.GenInputsAbstract;
 import randoop.main.RandoopBug;
 
-/** Static methods that log to GenInputsAbstract.log, if that is non-null. */
+/**
+ * Static methods that log to GenInputsAbstract.log, if that is non-null.
+ *
+ * <p>A message is formatted by the thread that logs it, and then written by a background thread, so
+ * that logging does not wait for the file system. The background thread flushes the log after each
+ * batch of messages rather than after each message. If too many messages are waiting to be
+ * written, a thread that logs a message waits. Code that writes to GenInputsAbstract.log directly
+ * must call {@link #flush} first, so that its output comes after the messages logged before it.
+ *
+ * <p>If the background thread dies of an unexpected exception, messages are written by the thread
+ * that logs them, as if there were no background thread.
+ *
+ * <p>Each method returns immediately if logging is off, but its arguments are still evaluated. A
+ * call site on a hot path that computes its arguments should test {@link #isLoggingOn} first.
+ */
 public final class Log {
 
   private Log() {
     throw new IllegalStateException("no instance");
   }
 
+  /** The maximum number of messages that are waiting to be written. */
+  private static final int QUEUE_CAPACITY = 4096;
+
+  /** The messages that are waiting to be written. */
+  private static final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+  /** The number of messages that have been put in {@link #queue}. */
+  private static final AtomicLong enqueued = new AtomicLong();
+
+  /** Guards {@link #written}, and is notified when it changes. */
+  private static final Object writtenLock = new Object();
+
+  /** The number of messages that have been written and flushed. Guarded by {@link #writtenLock}. */
+  private static long written = 0;
+
+  /** The thread that writes the messages, or null if it has not been started. */
+  private static @Nullable Thread writerThread = null;
+
+  /** An error from writing a message, which is reported to the next caller. */
+  private static volatile @Nullable IOException writeError = null;
+
+  /**
+   * The exception that stopped the writer thread, or null if the writer thread is running or has
+   * not been started. Once it is set, messages are written synchronously.
+   */
+  private static volatile @Nullable Throwable writerFailure = null;
+
+  /**
+   * Messages that the writer thread took from {@link #queue} but did not write before it stopped.
+   * Guarded by the Log class.
+   */
+  private static final Deque<Message> stranded = new ArrayDeque<>();
+
   public static boolean isLoggingOn() {
     return GenInputsAbstract.log != null;
   }
@@ -45,12 +101,7 @@ public final class Log {
       return;
     }
 
-    try {
-      GenInputsAbstract.log.write(msg);
-      GenInputsAbstract.log.flush();
-    } catch (IOException e) {
-      throw new RandoopBug("Exception while writing to log", e);
-    }
+    enqueue(msg);
   }
 
   /**
@@ -63,13 +114,7 @@ public final class Log {
       return;
     }
 
-    try {
-      GenInputsAbstract.log.write(msg);
-      GenInputsAbstract.log.write(System.lineSeparator());
-      GenInputsAbstract.log.flush();
-    } catch (IOException e) {
-      throw new RandoopBug("Exception while writing to log", e);
-    }
+    enqueue(msg + System.lineSeparator());
   }
 
   /** Log a blank line to GenInputsAbstract.log, if that is non-null. */
@@ -78,12 +123,7 @@ public final class Log {
       return;
     }
 
-    try {
-      GenInputsAbstract.log.write(System.lineSeparator());
-      GenInputsAbstract.log.flush();
-    } catch (IOException e) {
-      throw new RandoopBug("Exception while writing to log", e);
-    }
+    enqueue(System.lineSeparator());
   }
 
   /**
@@ -96,14 +136,208 @@ public final class Log {
       return;
     }
 
+    StringWriter sw = new StringWriter();
+    PrintWriter pw = new PrintWriter(sw);
+    t.printStackTrace(pw);
+    pw.flush();
+    enqueue(sw.toString());
+  }
+
+  /**
+   * Waits until every message logged so far has been written to the log and flushed. Called by code
+   * that writes to GenInputsAbstract.log directly, and when Randoop exits.
+   */
+  public static void flush() {
+    long target = enqueued.get();
+    synchronized (writtenLock) {
+      while (written < target && writerFailure == null) {
+        try {
+          writtenLock.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+    if (writerFailure != null) {
+      writeSynchronously(null);
+    }
+    checkWriteError();
+  }
+
+  /**
+   * Hands a message to the writer thread, starting it if necessary. Waits if too many messages are
+   * waiting to be written. Writes the message itself if the writer thread has died.
+   *
+   * @param text the message
+   */
+  private static void enqueue(String text) {
+    checkWriteError();
+    Writer out = GenInputsAbstract.log;
+    if (out == null) {
+      return;
+    }
+    startWriterThread();
+    Message message = new Message(out, text);
+    if (writerFailure != null) {
+      writeSynchronously(message);
+      checkWriteError();
+      return;
+    }
+    enqueued.incrementAndGet();
+    boolean interrupted = false;
+    while (true) {
+      try {
+        // Wait in short steps, so that a full queue does not block forever if the writer dies.
+        if (queue.offer(message, 100, TimeUnit.MILLISECONDS)) {
+          break;
+        }
+        if (writerFailure != null) {
+          writeSynchronously(message);
+          break;
+        }
+      } catch (InterruptedException e) {
+        // Do not lose the message; restore the interrupt afterward.
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Throws an exception if the writer thread has failed to write a message. */
+  private static void checkWriteError() {
+    IOException e = writeError;
+    if (e != null) {
+      writeError = null;
+      throw new RandoopBug("Exception while writing to log", e);
+    }
+  }
+
+  /** Starts the writer thread, and a shutdown hook that flushes the log, if not yet started. */
+  private static synchronized void startWriterThread() {
+    if (writerThread != null) {
+      return;
+    }
+    writerThread = new Thread(Log::writeMessages, "randoop.util.Log writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "randoop.util.Log flush"));
+  }
+
+  /**
+   * The body of the writer thread: writes batches of messages, flushing after each batch. If an
+   * unexpected exception stops it, records the exception in {@link #writerFailure} and wakes up
+   * the callers of {@link #flush}, which then write the remaining messages themselves.
+   */
+  private static void writeMessages() {
+    Deque<Message> batch = new ArrayDeque<>();
     try {
-      // Gross, GenInputsAbstract.log should be a writer instead of a FileWriter
-      PrintWriter pw = new PrintWriter(GenInputsAbstract.log);
-      t.printStackTrace(pw);
-      pw.flush();
-      GenInputsAbstract.log.flush();
+      while (true) {
+        try {
+          batch.add(queue.take());
+        } catch (InterruptedException e) {
+          continue;
+        }
+        queue.drainTo(batch);
+        int size = batch.size();
+        writeBatch(batch);
+        synchronized (writtenLock) {
+          written += size;
+          writtenLock.notifyAll();
+        }
+      }
+    } catch (Throwable t) {
+      synchronized (Log.class) {
+        stranded.addAll(batch);
+      }
+      writerFailure = t;
+      synchronized (writtenLock) {
+        writtenLock.notifyAll();
+      }
+      System.err.println("The Randoop log writer thread failed; writing the log synchronously.");
+      t.printStackTrace();
+    }
+  }
+
+  /**
+   * Writes the messages that the writer thread left unwritten, then the given message. Used once
+   * the writer thread has died.
+   *
+   * @param message the message to write, or null to write only the waiting messages
+   */
+  private static synchronized void writeSynchronously(@Nullable Message message) {
+    Deque<Message> batch = new ArrayDeque<>(stranded);
+    stranded.clear();
+    queue.drainTo(batch);
+    if (message != null) {
+      batch.add(message);
+    }
+    try {
+      writeBatch(batch);
+    } finally {
+      stranded.addAll(batch);
+    }
+  }
+
+  /**
+   * Writes messages, flushing each log file after its last message, and removes each message from
+   * the batch before writing it. Records an IOException in {@link #writeError}; any other
+   * exception leaves the unwritten messages in the batch.
+   *
+   * @param batch the messages to write
+   */
+  private static void writeBatch(Deque<Message> batch) {
+    Writer previous = null;
+    Message message;
+    while ((message = batch.poll()) != null) {
+      if (previous != null && previous != message.out) {
+        flushWriter(previous);
+      }
+      try {
+        message.out.write(message.text);
+      } catch (IOException e) {
+        writeError = e;
+      }
+      previous = message.out;
+    }
+    if (previous != null) {
+      flushWriter(previous);
+    }
+  }
+
+  /**
+   * Flushes a log file, recording any error in {@link #writeError}.
+   *
+   * @param out the log file
+   */
+  private static void flushWriter(Writer out) {
+    try {
+      out.flush();
     } catch (IOException e) {
-      throw new RandoopBug("Exception while writing to log", e);
+      writeError = e;
+    }
+  }
+
+  /** A message and the log file to write it to. */
+  private static final class Message {
+
+    /** The log file, which was GenInputsAbstract.log when the message was logged. */
+    final Writer out;
+
+    /** The message. */
+    final String text;
+
+    /**
+     * Creates a message.
+     *
+     * @param out the log file
+     * @param text the message
+     */
+    Message(Writer out, String text) {
+      this.out = out;
+      this.text = text;
     }
   }
 }
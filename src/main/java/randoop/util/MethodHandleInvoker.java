@@ -0,0 +1,195 @@
+package randoop.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.types.PrimitiveTypes;
+
+/**
+ * A method, constructor, or field access that has been resolved to a {@link MethodHandle}. The
+ * handle takes all the inputs of the operation, including the receiver of an instance member, as a
+ * single {@code Object[]}, and returns an {@code Object} (null for a {@code void} method or a field
+ * assignment).
+ *
+ * <p>Resolving a member is relatively expensive, so an invoker should be created once per member
+ * and reused. Invoking it is cheaper than {@link Method#invoke} or {@link Constructor#newInstance}:
+ * there are no access checks, no copying of the arguments, and no wrapping of exceptions in an
+ * {@link java.lang.reflect.InvocationTargetException}. Every exception thrown by {@link #invoke} is
+ * thrown by the member itself, provided that {@link #accepts} returned true for the inputs.
+ */
+public final class MethodHandleInvoker {
+
+  /** The lookup used to resolve members. It performs no access checks on accessible members. */
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /** The type of {@link #handle}. */
+  private static final MethodType SPREAD_TYPE =
+      MethodType.methodType(Object.class, Object[].class);
+
+  /** The member that is invoked. */
+  private final Member member;
+
+  /** The handle that invokes the member; its type is {@link #SPREAD_TYPE}. */
+  private final MethodHandle handle;
+
+  /**
+   * The class of each input: the parameter type, or its wrapper class if the parameter type is
+   * primitive. The class of an instance member's receiver is its declaring class.
+   */
+  private final Class<?>[] inputClasses;
+
+  /** For each input, true if its parameter type is primitive. */
+  private final boolean[] isPrimitive;
+
+  /**
+   * Creates an invoker that spreads an {@code Object[]} over the parameters of the given handle.
+   *
+   * @param member the member that is invoked
+   * @param target a handle that invokes the member, whose parameters are {@code inputTypes}
+   * @param inputTypes the parameter types of {@code target}
+   */
+  private MethodHandleInvoker(Member member, MethodHandle target, Class<?>[] inputTypes) {
+    this.member = member;
+    this.handle =
+        target.asFixedArity().asSpreader(Object[].class, inputTypes.length).asType(SPREAD_TYPE);
+    this.inputClasses = new Class<?>[inputTypes.length];
+    this.isPrimitive = new boolean[inputTypes.length];
+    for (int i = 0; i < inputTypes.length; i++) {
+      isPrimitive[i] = inputTypes[i].isPrimitive();
+      inputClasses[i] = isPrimitive[i] ? PrimitiveTypes.toBoxedType(inputTypes[i]) : inputTypes[i];
+    }
+  }
+
+  /**
+   * Returns an invoker for the given method. Its inputs are the receiver (unless the method is
+   * static) followed by the arguments.
+   *
+   * @param method the method, which must be accessible
+   * @return an invoker for the method, or null if the method cannot be resolved to a handle
+   */
+  public static @Nullable MethodHandleInvoker forMethod(Method method) {
+    Class<?>[] inputTypes = method.getParameterTypes();
+    if (!Modifier.isStatic(method.getModifiers())) {
+      Class<?>[] parameterTypes = inputTypes;
+      inputTypes = new Class<?>[parameterTypes.length + 1];
+      inputTypes[0] = method.getDeclaringClass();
+      System.arraycopy(parameterTypes, 0, inputTypes, 1, parameterTypes.length);
+    }
+    try {
+      return new MethodHandleInvoker(method, LOOKUP.unreflect(method), inputTypes);
+    } catch (IllegalAccessException | RuntimeException e) {
+      Log.logPrintf("Cannot create a method handle for %s: %s%n", method, e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns an invoker for the given constructor. Its inputs are the arguments; for an inner class,
+   * the first argument is the enclosing instance.
+   *
+   * @param constructor the constructor, which must be accessible
+   * @return an invoker for the constructor, or null if it cannot be resolved to a handle
+   */
+  public static @Nullable MethodHandleInvoker forConstructor(Constructor<?> constructor) {
+    try {
+      return new MethodHandleInvoker(
+          constructor, LOOKUP.unreflectConstructor(constructor), constructor.getParameterTypes());
+    } catch (IllegalAccessException | RuntimeException e) {
+      Log.logPrintf("Cannot create a method handle for %s: %s%n", constructor, e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns an invoker that reads the given field. Its input is the object whose field is read, or
+   * nothing if the field is static.
+   *
+   * @param field the field, which must be accessible
+   * @return an invoker for reading the field, or null if it cannot be resolved to a handle
+   */
+  public static @Nullable MethodHandleInvoker forGetter(Field field) {
+    Class<?>[] inputTypes =
+        Modifier.isStatic(field.getModifiers())
+            ? new Class<?>[0]
+            : new Class<?>[] {field.getDeclaringClass()};
+    try {
+      return new MethodHandleInvoker(field, LOOKUP.unreflectGetter(field), inputTypes);
+    } catch (IllegalAccessException | RuntimeException e) {
+      Log.logPrintf("Cannot create a getter handle for %s: %s%n", field, e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns an invoker that assigns the given field. Its inputs are the object whose field is
+   * assigned (unless the field is static) followed by the new value.
+   *
+   * @param field the field, which must be accessible
+   * @return an invoker for assigning the field, or null if it cannot be resolved to a handle
+   */
+  public static @Nullable MethodHandleInvoker forSetter(Field field) {
+    Class<?>[] inputTypes =
+        Modifier.isStatic(field.getModifiers())
+            ? new Class<?>[] {field.getType()}
+            : new Class<?>[] {field.getDeclaringClass(), field.getType()};
+    try {
+      return new MethodHandleInvoker(field, LOOKUP.unreflectSetter(field), inputTypes);
+    } catch (IllegalAccessException | RuntimeException e) {
+      Log.logPrintf("Cannot create a setter handle for %s: %s%n", field, e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns true if the given inputs can be passed to {@link #invoke} without any conversion other
+   * than a cast or the unboxing of a value of exactly the right wrapper type. A null receiver is
+   * accepted; invoking the handle throws a NullPointerException, as the member would.
+   *
+   * <p>A handle reports a conversion failure by throwing an exception that is indistinguishable
+   * from one thrown by the member, so inputs that this rejects should be passed to the reflective
+   * API instead, which reports the problem (or performs a widening conversion) as usual.
+   *
+   * @param inputs the inputs to the member
+   * @return true if {@link #invoke} can be called on the inputs
+   */
+  public boolean accepts(Object[] inputs) {
+    if (inputs.length != inputClasses.length) {
+      return false;
+    }
+    for (int i = 0; i < inputs.length; i++) {
+      Object input = inputs[i];
+      if (input == null) {
+        if (isPrimitive[i]) {
+          return false;
+        }
+      } else if (isPrimitive[i]
+          ? input.getClass() != inputClasses[i]
+          : !inputClasses[i].isInstance(input)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Invokes the member on the given inputs, for which {@link #accepts} must have returned true.
+   *
+   * @param inputs the inputs to the member
+   * @return the value returned by the member, or null if it does not return a value
+   * @throws Throwable any exception thrown by the member
+   */
+  public Object invoke(Object[] inputs) throws Throwable {
+    return (Object) handle.invokeExact(inputs);
+  }
+
+  @Override
+  public String toString() {
+    return member.toString();
+  }
+}
@@ -0,0 +1,44 @@
+package randoop.util;
+
+import java.util.Arrays;
+
+/**
+ * Wraps a {@link MethodHandleInvoker} together with its inputs, ready for execution. Can be run
+ * only once.
+ */
+public final class MethodHandleReflectionCode extends ReflectionCode {
+
+  /** The invoker for the method or constructor to be called. */
+  private final MethodHandleInvoker invoker;
+
+  /** The inputs, including the receiver if any; {@code invoker} must accept them. */
+  private final Object[] inputs;
+
+  /**
+   * Create a new MethodHandleReflectionCode to represent a method or constructor invocation.
+   *
+   * @param invoker the invoker for the method or constructor to be called
+   * @param inputs the inputs, including the receiver if any; {@code invoker} must accept them
+   */
+  public MethodHandleReflectionCode(MethodHandleInvoker invoker, Object[] inputs) {
+    this.invoker = invoker;
+    this.inputs = inputs;
+  }
+
+  @Override
+  public void runReflectionCodeRaw() {
+    try {
+      this.retval = invoker.invoke(inputs);
+    } catch (Throwable e) {
+      // The invoker accepted the inputs, so the underlying method or constructor threw e, or the
+      // initialization of its class did. An ExceptionInInitializerError (or, on later calls, a
+      // NoClassDefFoundError) is therefore an outcome of the call, like any other Throwable.
+      this.exceptionThrown = e;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Call to " + invoker + ", inputs: " + Arrays.toString(inputs) + status();
+  }
+}
@@ -50,13 +50,18 @@ public final class MethodReflectionCode extends ReflectionCode {
   @SuppressWarnings("Finally")
   @Override
   public void runReflectionCodeRaw() {
-    Log.logPrintf("runReflectionCodeRaw: %s%n", method);
+    boolean logging = Log.isLoggingOn();
+    if (logging) {
+      Log.logPrintf("runReflectionCodeRaw: %s%n", method);
+    }
     try {
       this.retval = this.method.invoke(this.receiver, this.inputs);
-      try {
-        Log.logPrintf("runReflectionCodeRaw(%s) => %s%n", method, status());
-      } catch (OutOfMemoryError e) {
-        Log.logPrintf("runReflectionCodeRaw(%s) => OutOfMemoryError, %s%n", method, status());
+      if (logging) {
+        try {
+          Log.logPrintf("runReflectionCodeRaw(%s) => %s%n", method, status());
+        } catch (OutOfMemoryError e) {
+          Log.logPrintf("runReflectionCodeRaw(%s) => OutOfMemoryError, %s%n", method, status());
+        }
       }
       if (receiver == null && isInstanceMethod()) {
         throw new ReflectionCodeException(
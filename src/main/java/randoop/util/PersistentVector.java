@@ -0,0 +1,592 @@
+package randoop.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable list that supports efficient appending and concatenation with structural sharing:
+ * appending to a vector returns a new vector and leaves the original unchanged, and the two share
+ * all but O(log<sub>32</sub> n) of their storage.
+ *
+ * <p>The elements are stored in a trie whose nodes hold up to 32 children, plus a "tail" array
+ * that holds the last 1 to 32 elements. Appending usually copies only the tail; when the tail is
+ * full, it is added to the trie as a new leaf. Indexed access takes O(log<sub>32</sub> n) time,
+ * which is at most 2 array indirections for vectors of up to 32768 elements.
+ *
+ * <p>{@link #concat} joins two tries without copying their leaves, as in a relaxed radix balanced
+ * (RRB) tree: only the nodes along the seam between the two tries are rebuilt, and their children
+ * are redistributed so that the trie stays shallow. A node below which some leaf is not full
+ * records the number of elements under each child, and indexed access through it scans that table
+ * from the child that the index would select in a full trie; the scan is usually short.
+ *
+ * <p>This is the representation of the statements of a {@link randoop.sequence.Sequence}. Unlike
+ * a chain of {@link OneMoreElementList}s and {@link ListOfLists}, its access time does not grow
+ * with the number of times a sequence was extended and concatenated.
+ *
+ * @param <E> the type of elements of the vector
+ */
+public final class PersistentVector<E> implements SimpleList<E>, Serializable {
+
+  private static final long serialVersionUID = 20261015;
+
+  /** The number of bits of an index consumed at each level of the trie. */
+  private static final int BITS = 5;
+
+  /** The maximum number of children of a trie node, and the maximum length of the tail. */
+  private static final int WIDTH = 1 << BITS;
+
+  /** The mask that extracts one level's part of an index. */
+  private static final int MASK = WIDTH - 1;
+
+  /**
+   * The number of children, beyond the minimum, that {@link #concat} may leave in a node that it
+   * rebuilds. Allowing a few extra children avoids copying, at the cost of longer size scans.
+   */
+  private static final int EXTRA_CHILDREN = 2;
+
+  /** The empty vector. */
+  private static final PersistentVector<?> EMPTY =
+      new PersistentVector<>(0, BITS, new Object[0], new Object[0]);
+
+  /** The number of elements. */
+  private final int size;
+
+  /** The number of index bits below the root; the depth of the trie, times {@link #BITS}. */
+  private final int shift;
+
+  /**
+   * The root of the trie, which holds all elements but those in the tail. An internal node's
+   * children are {@code Object[]} nodes; a leaf (a node at level 0) holds up to 32 elements, and
+   * exactly 32 unless the vector was built by {@link #concat}. An internal node whose children
+   * before the last are not all full is "relaxed": its last slot is an {@code int[]} that holds,
+   * for each child, the number of elements in that child and the children before it.
+   */
+  @SuppressWarnings("serial") // elements are not necessarily serializable
+  private final Object[] root;
+
+  /** The last elements: from 1 to 32 elements, or none if the vector is empty. */
+  @SuppressWarnings("serial") // elements are not necessarily serializable
+  private final Object[] tail;
+
+  /**
+   * Create a vector. The arrays are not copied and must not be modified afterward.
+   *
+   * @param size the number of elements
+   * @param shift the number of index bits below the root
+   * @param root the root of the trie
+   * @param tail the last elements
+   */
+  private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+  }
+
+  /**
+   * Returns the empty vector.
+   *
+   * @param <E> the type of elements of the vector
+   * @return the empty vector
+   */
+  @SuppressWarnings("unchecked") // the empty vector contains no elements of any type
+  public static <E> PersistentVector<E> empty() {
+    return (PersistentVector<E>) EMPTY;
+  }
+
+  /**
+   * Returns a vector with the same elements as the given list. If the list is a PersistentVector,
+   * returns it.
+   *
+   * @param <E> the type of elements of the list
+   * @param list the list to copy
+   * @return a vector containing the elements of the list
+   */
+  @SuppressWarnings("unchecked") // a vector is immutable, so it is covariant
+  public static <E> PersistentVector<E> copyOf(SimpleList<? extends E> list) {
+    if (list instanceof PersistentVector) {
+      return (PersistentVector<E>) list;
+    }
+    return PersistentVector.<E>empty().addAll(list);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked") // only elements of type E are stored
+  public E get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+    }
+    int tailOffset = size - tail.length;
+    if (index >= tailOffset) {
+      return (E) tail[index - tailOffset];
+    }
+    Object[] node = root;
+    int i = index;
+    for (int level = shift; level > 0; level -= BITS) {
+      int child;
+      if (isRelaxed(node)) {
+        int[] sizes = (int[]) node[node.length - 1];
+        // Each child holds at most 1 << level elements, so this is a lower bound on the child.
+        child = i >>> level;
+        while (sizes[child] <= i) {
+          child++;
+        }
+        if (child > 0) {
+          i -= sizes[child - 1];
+        }
+      } else {
+        child = (i >>> level) & MASK;
+        i &= (1 << level) - 1;
+      }
+      node = (Object[]) node[child];
+    }
+    return (E) node[i];
+  }
+
+  /**
+   * Returns a vector containing the elements of this, followed by the given element.
+   *
+   * @param element the element to append
+   * @return a vector that is this plus the given element at the end
+   */
+  public PersistentVector<E> add(E element) {
+    if (tail.length < WIDTH) {
+      Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+      newTail[tail.length] = element;
+      return new PersistentVector<>(size + 1, shift, root, newTail);
+    }
+    return pushTail(new Object[] {element});
+  }
+
+  /**
+   * Returns a vector containing the elements of this, followed by the elements of the given list.
+   * The cost is proportional to the length of {@code other}; this vector's storage is shared.
+   *
+   * @param other the elements to append
+   * @return a vector that is this plus the elements of {@code other} at the end
+   */
+  public PersistentVector<E> addAll(SimpleList<? extends E> other) {
+    return addRange(other, 0, other.size());
+  }
+
+  /**
+   * Returns a vector containing the elements of this, followed by the elements of the given vector.
+   * Shares the leaves of both vectors, and takes O(log n) time unless {@code other} is short
+   * enough that copying its elements is cheaper.
+   *
+   * @param other the elements to append
+   * @return a vector that is this plus the elements of {@code other} at the end
+   */
+  @SuppressWarnings("unchecked") // a vector is immutable, so it is covariant
+  public PersistentVector<E> concat(PersistentVector<? extends E> other) {
+    if (other.size <= WIDTH) {
+      // All of other's elements are in its tail.
+      return addAll(other);
+    }
+    if (size == 0) {
+      return (PersistentVector<E>) other;
+    }
+    // Move this vector's tail into its trie, so that the elements of the left trie come first.
+    int leftShift = shift;
+    Object[] leftRoot = appendLeaf(root, shift, tail);
+    if (leftRoot == null) {
+      leftShift += BITS;
+      leftRoot = makeNode(new Object[] {root, newPath(shift, tail)}, leftShift);
+    }
+    Object[] joined = concatNodes(leftRoot, leftShift, other.root, other.shift);
+    int newShift = Math.max(leftShift, other.shift);
+    Object[] newRoot;
+    if (childCount(joined) == 1) {
+      newRoot = (Object[]) joined[0];
+    } else {
+      newRoot = joined;
+      newShift += BITS;
+    }
+    return new PersistentVector<>(size + other.size, newShift, newRoot, other.tail);
+  }
+
+  /**
+   * Returns a vector containing the elements of this, followed by elements {@code from} (inclusive)
+   * through {@code to} (exclusive) of the given list.
+   *
+   * @param other the list whose elements to append
+   * @param from the index of the first element of {@code other} to append
+   * @param to one more than the index of the last element of {@code other} to append
+   * @return a vector that is this plus the given elements of {@code other} at the end
+   */
+  private PersistentVector<E> addRange(SimpleList<? extends E> other, int from, int to) {
+    PersistentVector<E> result = this;
+    int i = from;
+    while (i < to) {
+      int tailLength = result.tail.length;
+      if (tailLength < WIDTH) {
+        // Fill up the tail.
+        int count = Math.min(WIDTH - tailLength, to - i);
+        Object[] newTail = Arrays.copyOf(result.tail, tailLength + count);
+        for (int j = 0; j < count; j++) {
+          newTail[tailLength + j] = other.get(i + j);
+        }
+        result = new PersistentVector<>(result.size + count, result.shift, result.root, newTail);
+        i += count;
+      } else {
+        // Move the full tail into the trie, and start a new tail.
+        int count = Math.min(WIDTH, to - i);
+        Object[] newTail = new Object[count];
+        for (int j = 0; j < count; j++) {
+          newTail[j] = other.get(i + j);
+        }
+        result = result.pushTail(newTail);
+        i += count;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a vector whose trie contains all the elements of this (whose tail must be full),
+   * followed by the given new tail.
+   *
+   * @param newTail the tail of the result; it must contain between 1 and 32 elements
+   * @return a vector that is this plus the elements of {@code newTail} at the end
+   */
+  private PersistentVector<E> pushTail(Object[] newTail) {
+    assert tail.length == WIDTH;
+    int newShift = shift;
+    Object[] newRoot = appendLeaf(root, shift, tail);
+    if (newRoot == null) {
+      // The trie is full.  Add a level.
+      newShift += BITS;
+      newRoot = makeNode(new Object[] {root, newPath(shift, tail)}, newShift);
+    }
+    return new PersistentVector<>(size + newTail.length, newShift, newRoot, newTail);
+  }
+
+  /**
+   * Returns a copy of the given node, with the given leaf added after its last leaf. Only the nodes
+   * on the path to the new leaf are copied.
+   *
+   * @param node a trie node
+   * @param level the number of index bits below {@code node}
+   * @param leaf the leaf to add
+   * @return a copy of the node that contains the leaf, or null if the node has no room for it
+   */
+  private static Object @Nullable [] appendLeaf(Object[] node, int level, Object[] leaf) {
+    int count = childCount(node);
+    if (level > BITS && count > 0) {
+      Object[] newLast = appendLeaf((Object[]) node[count - 1], level - BITS, leaf);
+      if (newLast != null) {
+        Object[] result = node.clone();
+        result[count - 1] = newLast;
+        if (isRelaxed(node)) {
+          int[] sizes = ((int[]) node[count]).clone();
+          sizes[count - 1] += leaf.length;
+          result[count] = sizes;
+        }
+        return result;
+      }
+    }
+    if (count == WIDTH) {
+      return null;
+    }
+    Object[] children = Arrays.copyOf(node, count + 1);
+    children[count] = newPath(level - BITS, leaf);
+    return makeNode(children, level);
+  }
+
+  /**
+   * Returns a chain of single-child nodes, of the given height, that ends in the given leaf.
+   *
+   * @param level the number of index bits below the result
+   * @param leaf the leaf
+   * @return a node at the given level whose only descendant leaf is {@code leaf}
+   */
+  private static Object[] newPath(int level, Object[] leaf) {
+    if (level == 0) {
+      return leaf;
+    }
+    return new Object[] {newPath(level - BITS, leaf)};
+  }
+
+  /**
+   * Returns a node whose elements are those of {@code left} followed by those of {@code right}.
+   * Only the nodes along the right edge of {@code left} and the left edge of {@code right} are
+   * rebuilt.
+   *
+   * @param left a trie node
+   * @param leftLevel the number of index bits below {@code left}
+   * @param right a trie node
+   * @param rightLevel the number of index bits below {@code right}
+   * @return a node one level above the higher of the two nodes, with 1 to 3 children
+   */
+  private static Object[] concatNodes(
+      Object[] left, int leftLevel, Object[] right, int rightLevel) {
+    if (leftLevel > rightLevel) {
+      Object[] middle =
+          concatNodes(
+              (Object[]) left[childCount(left) - 1], leftLevel - BITS, right, rightLevel);
+      return rebalance(left, middle, null, leftLevel);
+    }
+    if (leftLevel < rightLevel) {
+      Object[] middle = concatNodes(left, leftLevel, (Object[]) right[0], rightLevel - BITS);
+      return rebalance(null, middle, right, rightLevel);
+    }
+    if (leftLevel == BITS) {
+      // The children are leaves.
+      return rebalance(left, null, right, leftLevel);
+    }
+    Object[] middle =
+        concatNodes(
+            (Object[]) left[childCount(left) - 1],
+            leftLevel - BITS,
+            (Object[]) right[0],
+            rightLevel - BITS);
+    return rebalance(left, middle, right, leftLevel);
+  }
+
+  /**
+   * Joins the children of the given nodes, and redistributes their contents among as few nodes as
+   * needed to keep the trie shallow. If {@code middle} is non-null, it replaces the last child of
+   * {@code left} and the first child of {@code right}.
+   *
+   * @param left a node at the given level, or null
+   * @param middle a node at the given level, or null
+   * @param right a node at the given level, or null
+   * @param level the number of index bits below the given nodes
+   * @return a node one level above the given nodes, with 1 to 3 children
+   */
+  private static Object[] rebalance(
+      Object @Nullable [] left,
+      Object @Nullable [] middle,
+      Object @Nullable [] right,
+      int level) {
+    int childLevel = level - BITS;
+    List<Object[]> children = new ArrayList<>(2 * WIDTH + 3);
+    if (left != null) {
+      int count = childCount(left) - (middle == null ? 0 : 1);
+      for (int i = 0; i < count; i++) {
+        children.add((Object[]) left[i]);
+      }
+    }
+    if (middle != null) {
+      for (int i = 0; i < childCount(middle); i++) {
+        children.add((Object[]) middle[i]);
+      }
+    }
+    if (right != null) {
+      for (int i = (middle == null ? 0 : 1); i < childCount(right); i++) {
+        children.add((Object[]) right[i]);
+      }
+    }
+
+    // Plan the number of items (grandchildren, or elements) in each new child. A child that is
+    // nearly full is left alone; the items of a shorter child are shifted into the following
+    // children, until there are at most EXTRA_CHILDREN more children than the minimum.
+    int n = children.size();
+    int[] counts = new int[n];
+    int total = 0;
+    for (int i = 0; i < n; i++) {
+      counts[i] = itemCount(children.get(i), childLevel);
+      total += counts[i];
+    }
+    int optimal = (total + WIDTH - 1) / WIDTH;
+    while (n > optimal + EXTRA_CHILDREN) {
+      int i = 0;
+      while (i < n && counts[i] > WIDTH - EXTRA_CHILDREN / 2) {
+        i++;
+      }
+      if (i >= n - 1) {
+        break;
+      }
+      int remaining = counts[i];
+      while (remaining > 0) {
+        int merged = Math.min(remaining + counts[i + 1], WIDTH);
+        remaining += counts[i + 1] - merged;
+        counts[i] = merged;
+        i++;
+      }
+      // Child i has been emptied into the children before it.
+      System.arraycopy(counts, i + 1, counts, i, n - i - 1);
+      n--;
+    }
+
+    // Build the new children. A child that the plan leaves unchanged is reused.
+    Object[] newChildren = new Object[n];
+    int source = 0;
+    int offset = 0;
+    for (int k = 0; k < n; k++) {
+      Object[] child = children.get(source);
+      if (offset == 0 && itemCount(child, childLevel) == counts[k]) {
+        newChildren[k] = child;
+        source++;
+        continue;
+      }
+      Object[] items = new Object[counts[k]];
+      int filled = 0;
+      while (filled < counts[k]) {
+        Object[] from = children.get(source);
+        int fromCount = itemCount(from, childLevel);
+        int copied = Math.min(fromCount - offset, counts[k] - filled);
+        System.arraycopy(from, offset, items, filled, copied);
+        filled += copied;
+        offset += copied;
+        if (offset == fromCount) {
+          source++;
+          offset = 0;
+        }
+      }
+      newChildren[k] = (childLevel == 0) ? items : makeNode(items, childLevel);
+    }
+
+    // Group the new children under new nodes at the given level.
+    Object[] parents = new Object[(n + WIDTH - 1) / WIDTH];
+    for (int p = 0; p < parents.length; p++) {
+      int from = p * WIDTH;
+      int to = Math.min(n, from + WIDTH);
+      parents[p] = makeNode(Arrays.copyOfRange(newChildren, from, to), level);
+    }
+    return makeNode(parents, level + BITS);
+  }
+
+  /**
+   * Returns an internal node with the given children. Records the sizes of the children if some
+   * child before the last is not full.
+   *
+   * @param children the children, which are nodes at {@code level - BITS}
+   * @param level the number of index bits below the result
+   * @return a node with the given children
+   */
+  private static Object[] makeNode(Object[] children, int level) {
+    int[] sizes = new int[children.length];
+    boolean relaxed = false;
+    int total = 0;
+    for (int i = 0; i < children.length; i++) {
+      int childSize = subtreeSize((Object[]) children[i], level - BITS);
+      total += childSize;
+      sizes[i] = total;
+      if (i < children.length - 1 && childSize != 1 << level) {
+        relaxed = true;
+      }
+    }
+    if (!relaxed) {
+      return children;
+    }
+    Object[] node = Arrays.copyOf(children, children.length + 1);
+    node[children.length] = sizes;
+    return node;
+  }
+
+  /**
+   * Returns true if the given internal node records the sizes of its children.
+   *
+   * @param node an internal node
+   * @return true if the node is relaxed
+   */
+  private static boolean isRelaxed(Object[] node) {
+    return node.length > 0 && node[node.length - 1] instanceof int[];
+  }
+
+  /**
+   * Returns the number of children of the given internal node.
+   *
+   * @param node an internal node
+   * @return the number of children of the node
+   */
+  private static int childCount(Object[] node) {
+    return isRelaxed(node) ? node.length - 1 : node.length;
+  }
+
+  /**
+   * Returns the number of children of the given node, or of elements if it is a leaf.
+   *
+   * @param node a trie node
+   * @param level the number of index bits below {@code node}
+   * @return the number of items in the node
+   */
+  private static int itemCount(Object[] node, int level) {
+    return (level == 0) ? node.length : childCount(node);
+  }
+
+  /**
+   * Returns the number of elements in the given subtree.
+   *
+   * @param node a trie node
+   * @param level the number of index bits below {@code node}
+   * @return the number of elements under the node
+   */
+  private static int subtreeSize(Object[] node, int level) {
+    if (level == 0) {
+      return node.length;
+    }
+    if (isRelaxed(node)) {
+      int[] sizes = (int[]) node[node.length - 1];
+      return sizes[sizes.length - 1];
+    }
+    int count = node.length;
+    if (count == 0) {
+      return 0;
+    }
+    return ((count - 1) << level) + subtreeSize((Object[]) node[count - 1], level - BITS);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A vector has no sublists of its own, so this returns the prefix of this vector that ends
+   * with the element at the given index.
+   */
+  @Override
+  public SimpleList<E> getSublist(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+    }
+    if (index == size - 1) {
+      return this;
+    }
+    return PersistentVector.<E>empty().addRange(this, 0, index + 1);
+  }
+
+  /**
+   * Returns a vector containing elements {@code from} (inclusive) through {@code to} (exclusive)
+   * of this. Takes time proportional to the length of the result.
+   *
+   * @param from the index of the first element of the result
+   * @param to one more than the index of the last element of the result
+   * @return the given range of this vector
+   */
+  public PersistentVector<E> subVector(int from, int to) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", size " + size);
+    }
+    if (from == 0 && to == size) {
+      return this;
+    }
+    return PersistentVector.<E>empty().addRange(this, from, to);
+  }
+
+  @Override
+  public List<E> toJDKList() {
+    List<E> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(get(i));
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return toJDKList().toString();
+  }
+}
@@ -33,6 +33,37 @@ public final class Randomness {
    */
   private static Random random = new Random(DEFAULT_SEED);
 
+  /**
+   * A random generator for the current thread, which is used instead of {@link #random} if set.
+   * Lets each thread of a parallel generator make its choices from its own seeded sequence.
+   */
+  private static final ThreadLocal<Random> threadRandom = new ThreadLocal<>();
+
+  /**
+   * Returns the random generator for the current thread.
+   *
+   * @return the current thread's random generator if it has one, otherwise {@link #random}
+   */
+  private static Random random() {
+    Random result = threadRandom.get();
+    return result == null ? random : result;
+  }
+
+  /**
+   * Gives the current thread a random generator of its own with the given seed, which is used
+   * instead of the shared one until {@link #clearThreadSeed} is called.
+   *
+   * @param seed the initial seed
+   */
+  public static void setThreadSeed(long seed) {
+    threadRandom.set(new Random(seed));
+  }
+
+  /** Makes the current thread use the shared random generator again. */
+  public static void clearThreadSeed() {
+    threadRandom.remove();
+  }
+
   /**
    * Sets the seed of this random number generator.
    *
@@ -48,7 +79,7 @@ public final class Randomness {
   private static int totalCallsToRandom = 0;
 
   /**
-   * Call this before every use of Randomness.random.
+   * Call this before every use of random().
    *
    * @param caller the name of the method that called Randomness.random
    */
@@ -67,7 +98,7 @@ public final class Randomness {
    */
   public static int nextRandomInt(int i) {
     incrementCallsToRandom("nextRandomInt");
-    int value = Randomness.random.nextInt(i);
+    int value = random().nextInt(i);
     logSelection(value, "nextRandomInt", i);
     return value;
   }
@@ -171,7 +202,7 @@ public final class Randomness {
 
     // Select a random point in interval and find its corresponding element.
     incrementCallsToRandom("randomMemberWeighted(SimpleList)");
-    double chosenPoint = Randomness.random.nextDouble() * totalWeight;
+    double chosenPoint = random().nextDouble() * totalWeight;
     if (GenInputsAbstract.selection_log != null) {
       try {
         GenInputsAbstract.selection_log.write(String.format("chosenPoint = %s%n", chosenPoint));
@@ -197,6 +228,39 @@ public final class Randomness {
     throw new RandoopBug("Unable to select random member");
   }
 
+  /**
+   * Randomly selects an index from a weighted distribution, in time logarithmic in the number of
+   * weights. The weights are with respect to each other; they need not add up to 1.
+   *
+   * @param weights the weights. An index with a weight of zero will never be selected, unless all
+   *     weights are zero.
+   * @return a randomly selected index into {@code weights}
+   */
+  public static int randomIndexWeighted(FenwickTree weights) {
+    if (weights.size() == 0) {
+      throw new IllegalArgumentException("Empty weights");
+    }
+    int index = weights.find(nextRandomDouble(weights.total()));
+    logSelection(index, "randomIndexWeighted", weights.size());
+    return index;
+  }
+
+  /**
+   * Uniformly random double from [0, bound).
+   *
+   * @param bound upper bound on range for generated values; must be non-negative
+   * @return a value selected from range [0, bound)
+   */
+  public static double nextRandomDouble(double bound) {
+    if (!(bound >= 0)) {
+      throw new IllegalArgumentException("bound should be non-negative: " + bound);
+    }
+    incrementCallsToRandom("nextRandomDouble");
+    double value = random().nextDouble() * bound;
+    logSelection(value, "nextRandomDouble", bound);
+    return value;
+  }
+
   /**
    * Return a random member of the set, selected uniformly at random.
    *
@@ -224,7 +288,7 @@ public final class Randomness {
     }
     double falseProb = 1 - trueProb;
     incrementCallsToRandom("weightedCoinFlip");
-    boolean result = Randomness.random.nextDouble() >= falseProb;
+    boolean result = random().nextDouble() >= falseProb;
     logSelection(result, "weightedCoinFlip", trueProb);
     return result;
   }
@@ -249,7 +313,7 @@ public final class Randomness {
     }
     double falseProbNormalized = falseProb / totalProb;
     incrementCallsToRandom("randomBoolFromDistribution");
-    boolean result = Randomness.random.nextDouble() >= falseProbNormalized;
+    boolean result = random().nextDouble() >= falseProbNormalized;
     logSelection(result, "randomBoolFromDistribution", falseProb + ", " + trueProb);
     return result;
   }
@@ -29,8 +29,9 @@ public final class ReflectionExecutor {
    *
    * <p>Use this option if Randoop does not terminate, which is usually due to execution of code
    * under test that results in an infinite loop or that waits for user input. The downside of this
-   * option is a BIG (order-of-magnitude) decrease in generation speed. The tests are not run in
-   * parallel, merely in isolation.
+   * option is a decrease in generation speed, because each call is handed off to another thread.
+   * That thread is reused until a call times out. The tests are not run in parallel, merely in
+   * isolation.
    */
   @OptionGroup("Threading")
   @Option("Execute each test in a separate thread, with timeout")
@@ -49,7 +50,17 @@ public final class ReflectionExecutor {
   @Option("Maximum number of milliseconds a test may run. Only meaningful with --usethreads")
   public static int call_timeout = CALL_TIMEOUT_MILLIS_DEFAULT;
 
-  // Execution statistics.
+  /**
+   * If true, Randoop calls methods and constructors, and reads and writes fields, through method
+   * handles that are created once per member and reused for every call. If false, Randoop uses
+   * {@code Method.invoke} and the other reflective methods for every call, which is slower. The
+   * behavior of the code under test is the same either way.
+   */
+  @Option("Call methods under test via cached method handles rather than core reflection")
+  public static boolean method_handles = true;
+
+  // Execution statistics.  They are updated by every thread that executes code, so they are
+  // accessed only while holding the lock on ReflectionExecutor.class.
   /** The sum of durations for normal executions, in nanoseconds. */
   private static long normal_exec_duration_nanos = 0;
 
@@ -63,28 +74,62 @@ public final class ReflectionExecutor {
   private static int excep_exec_count = 0;
 
   /** Set statistics about normal and exceptional executions to zero. */
-  public static void resetStatistics() {
+  public static synchronized void resetStatistics() {
     normal_exec_duration_nanos = 0;
     normal_exec_count = 0;
     excep_exec_duration_nanos = 0;
     excep_exec_count = 0;
   }
 
-  public static int normalExecs() {
+  public static synchronized int normalExecs() {
     return normal_exec_count;
   }
 
-  public static int excepExecs() {
+  public static synchronized int excepExecs() {
     return excep_exec_count;
   }
 
+  /**
+   * Returns the sum of durations for normal executions.
+   *
+   * @return the sum of durations for normal executions, in nanoseconds
+   */
+  public static synchronized long normalExecNanos() {
+    return normal_exec_duration_nanos;
+  }
+
+  /**
+   * Returns the sum of durations for exceptional executions.
+   *
+   * @return the sum of durations for exceptional executions, in nanoseconds
+   */
+  public static synchronized long excepExecNanos() {
+    return excep_exec_duration_nanos;
+  }
+
+  /**
+   * Adds executions that another JVM performed, such as an execution worker, to the statistics.
+   *
+   * @param normalCount the number of normal executions
+   * @param normalNanos the sum of durations for the normal executions, in nanoseconds
+   * @param excepCount the number of exceptional executions
+   * @param excepNanos the sum of durations for the exceptional executions, in nanoseconds
+   */
+  public static synchronized void addStatistics(
+      int normalCount, long normalNanos, int excepCount, long excepNanos) {
+    normal_exec_count += normalCount;
+    normal_exec_duration_nanos += normalNanos;
+    excep_exec_count += excepCount;
+    excep_exec_duration_nanos += excepNanos;
+  }
+
   /** The average normal execution time, in milliseconds. */
-  public static double normalExecAvgMillis() {
+  public static synchronized double normalExecAvgMillis() {
     return ((normal_exec_duration_nanos / (double) normal_exec_count) / Math.pow(10, 6));
   }
 
   /** The average exceptional execution time, in milliseconds. */
-  public static double excepExecAvgMillis() {
+  public static synchronized double excepExecAvgMillis() {
     return ((excep_exec_duration_nanos / (double) excep_exec_count) / Math.pow(10, 6));
   }
 
@@ -111,54 +156,65 @@ public final class ReflectionExecutor {
     long durationNanos = System.nanoTime() - startTimeNanos;
 
     if (code.getExceptionThrown() != null) {
-      // Add durationNanos to running sum for exceptional execution.
-      excep_exec_duration_nanos += durationNanos;
-      assert excep_exec_duration_nanos > 0; // check no overflow.
-      excep_exec_count++;
+      recordExceptionalExecution(durationNanos);
       // System.out.println("exceptional execution: " + code);
       return new ExceptionalExecution(code.getExceptionThrown(), durationNanos);
     } else {
-      // Add durationNanos to running sum for normal execution.
-      normal_exec_duration_nanos += durationNanos;
-      assert normal_exec_duration_nanos > 0; // check no overflow.
-      normal_exec_count++;
+      recordNormalExecution(durationNanos);
       // System.out.println("normal execution: " + code);
       return new NormalExecution(code.getReturnValue(), durationNanos);
     }
   }
 
   /**
-   * Executes code.runReflectionCode() in its own thread.
+   * Adds a normal execution to the statistics.
+   *
+   * @param durationNanos the duration of the execution, in nanoseconds
+   */
+  private static synchronized void recordNormalExecution(long durationNanos) {
+    normal_exec_duration_nanos += durationNanos;
+    assert normal_exec_duration_nanos > 0; // check no overflow.
+    normal_exec_count++;
+  }
+
+  /**
+   * Adds an exceptional execution to the statistics.
+   *
+   * @param durationNanos the duration of the execution, in nanoseconds
+   */
+  private static synchronized void recordExceptionalExecution(long durationNanos) {
+    excep_exec_duration_nanos += durationNanos;
+    assert excep_exec_duration_nanos > 0; // check no overflow.
+    excep_exec_count++;
+  }
+
+  /**
+   * The runner thread that executes code on behalf of each thread that calls {@link
+   * #executeReflectionCode}. A runner is reused until a call times out; then it is stopped, and a
+   * new one is created for the next call.
+   */
+  private static final ThreadLocal<RunnerThread> runnerThread = new ThreadLocal<>();
+
+  /**
+   * Executes code.runReflectionCode() in a runner thread, and stops the runner if the code does not
+   * finish within {@link #call_timeout} milliseconds.
    *
    * @param code the {@link ReflectionCode} to be executed
    * @throws TimeoutException if execution times out
    */
-  @SuppressWarnings({"deprecation", "removal", "DeprecatedThreadMethods"})
   private static void executeReflectionCodeThreaded(ReflectionCode code) throws TimeoutException {
 
-    RunnerThread runnerThread = new RunnerThread(null);
-    runnerThread.setup(code);
+    RunnerThread runner = runnerThread.get();
+    if (runner == null) {
+      runner = new RunnerThread(null);
+      runner.start();
+      runnerThread.set(runner);
+    }
 
+    boolean finished;
     try {
-
-      // Start the test.
-      runnerThread.start();
-
-      // If test doesn't finish in time, suspend it.
-      runnerThread.join(call_timeout);
-
-      if (!runnerThread.runFinished) {
-        Log.logPrintf("Exceeded timeout: aborting execution of call: %s%n", runnerThread.getCode());
-        // TODO: is it possible to log the test being executed?
-        // (Maybe not here, but it has been previously logged.)
-
-        // We use this deprecated method because it's the only way to
-        // stop a thread no matter what it's doing.
-        runnerThread.stop();
-
-        throw new TimeoutException();
-      }
-
+      // Start the test, and wait for it to finish.
+      finished = runner.runWithTimeout(code, call_timeout);
     } catch (java.lang.InterruptedException e) {
       throw new IllegalStateException(
           "A RunnerThread thread shouldn't be interrupted by anyone! (This may be a bug in"
@@ -166,6 +222,39 @@ public final class ReflectionExecutor {
               + " providing the information requested at"
               + " https://randoop.github.io/randoop/manual/index.html#bug-reporting .)");
     }
+
+    if (!finished) {
+      Log.logPrintf("Exceeded timeout: aborting execution of call: %s%n", runner.getCode());
+      // TODO: is it possible to log the test being executed?
+      // (Maybe not here, but it has been previously logged.)
+      runnerThread.remove();
+      stopRunner(runner);
+      throw new TimeoutException();
+    }
+
+    Throwable failure = runner.getFailure();
+    if (failure != null) {
+      throw new RandoopBug("code=" + code, failure);
+    }
+  }
+
+  /**
+   * Stops a runner thread whose code has timed out.
+   *
+   * @param runner the runner thread to stop
+   */
+  @SuppressWarnings({"deprecation", "removal", "DeprecatedThreadMethods"})
+  private static void stopRunner(RunnerThread runner) {
+    runner.abandon();
+    try {
+      // We use this deprecated method because it's the only way to
+      // stop a thread no matter what it's doing.
+      runner.stop();
+    } catch (UnsupportedOperationException e) {
+      // Thread.stop is not supported by JDK 20 and later. Interrupt the runner instead; if it does
+      // not respond, it is a daemon thread, so it does not prevent termination.
+      runner.interrupt();
+    }
   }
 
   /**
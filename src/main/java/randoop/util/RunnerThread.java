@@ -1,60 +1,157 @@
 package randoop.util;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A thread that runs {@link ReflectionCode} objects, one at a time, on behalf of another thread
+ * (its owner). A runner is reused for many calls, so that {@code --usethreads} does not create a
+ * thread per call. If a call does not finish in time, the owner abandons the runner (see {@link
+ * #abandon}), and the runner terminates as soon as the call ends.
+ *
+ * <p>A runner is a daemon thread, and it terminates soon after its owner does.
+ */
 public class RunnerThread extends Thread {
 
-  // Fields assigned when calling setup(..)
+  /** How often an idle runner checks whether its owner has terminated, in milliseconds. */
+  private static final long IDLE_CHECK_MILLIS = 1000;
+
+  /** The thread on whose behalf this runs code. */
+  private final Thread owner;
+
+  /** Guards all the fields below. */
+  private final Object lock = new Object();
+
+  /** The code that is being run, or null if this is idle. */
   private ReflectionCode code;
 
-  // Fields assigned when calling run()
+  /** True if {@link #code} has finished running. */
   boolean runFinished;
 
-  // The state of the thread.
-  private NextCallMustBe state;
+  /** The exception that escaped {@link ReflectionCode#runReflectionCode}, if any. */
+  private Throwable failure;
 
-  private enum NextCallMustBe {
-    SETUP,
-    RUN
-  }
+  /** True if the owner will not use this runner again, so it should terminate. */
+  private boolean abandoned;
 
   /**
-   * Create a new runner thread.
+   * Create a new runner thread, which runs code on behalf of the current thread. It must be started
+   * before it is used.
    *
    * @param threadGroup the group for this thread
    */
   RunnerThread(ThreadGroup threadGroup) {
     super(threadGroup, "randoop.util.RunnerThread");
+    this.owner = Thread.currentThread();
     this.code = null;
     this.runFinished = false;
-    this.state = NextCallMustBe.SETUP;
+    this.setDaemon(true);
     this.setUncaughtExceptionHandler(RandoopUncaughtRunnerThreadExceptionHandler.getHandler());
   }
 
-  public void setup(ReflectionCode code) {
-    if (state != NextCallMustBe.SETUP) throw new IllegalStateException();
+  /**
+   * Runs the given code on this thread, and waits for it to finish for at most the given time.
+   *
+   * @param code the code to run
+   * @param timeoutMillis the maximum number of milliseconds to wait
+   * @return true if the code finished in time, false if it is still running
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  boolean runWithTimeout(ReflectionCode code, long timeoutMillis) throws InterruptedException {
     if (code == null) throw new IllegalArgumentException("code cannot be null.");
-    this.code = code;
-    this.state = NextCallMustBe.RUN;
+    synchronized (lock) {
+      if (this.code != null) throw new IllegalStateException("runner is busy");
+      this.code = code;
+      this.runFinished = false;
+      this.failure = null;
+      lock.notifyAll();
+
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      while (!runFinished) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+      }
+      this.code = null;
+      return true;
+    }
   }
 
   @Override
+  @SuppressWarnings("removal") // ThreadDeath
   public final void run() {
-    if (state != NextCallMustBe.RUN) throw new IllegalStateException();
-    runFinished = false;
-    executeReflectionCode();
-    runFinished = true;
-    this.state = NextCallMustBe.SETUP;
+    while (true) {
+      ReflectionCode next;
+      synchronized (lock) {
+        while (code == null || runFinished) {
+          if (abandoned || !owner.isAlive()) {
+            return;
+          }
+          try {
+            lock.wait(IDLE_CHECK_MILLIS);
+          } catch (InterruptedException e) {
+            // The owner has abandoned this runner.
+            return;
+          }
+        }
+        next = code;
+      }
+
+      Throwable thrown = null;
+      try {
+        next.runReflectionCode();
+      } catch (ThreadDeath e) {
+        throw e;
+      } catch (Throwable e) {
+        thrown = e;
+      }
+
+      synchronized (lock) {
+        failure = thrown;
+        runFinished = true;
+        lock.notifyAll();
+        if (abandoned) {
+          return;
+        }
+      }
+    }
   }
 
-  private void executeReflectionCode() throws ReflectionCode.ReflectionCodeException {
-    code.runReflectionCode();
+  /**
+   * Tells this runner that its owner will not use it again, because a call timed out. The runner
+   * terminates when the current call ends. The code under test may catch the {@code ThreadDeath} or
+   * interrupt by which the owner tries to end the call, so the runner cannot rely on either to
+   * terminate.
+   */
+  void abandon() {
+    synchronized (lock) {
+      abandoned = true;
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Return the exception that escaped the most recently finished code, if any. Since {@link
+   * ReflectionCode} catches the exceptions thrown by the code under test, such an exception
+   * indicates a bug in Randoop.
+   *
+   * @return the exception that escaped the most recently finished code, or null
+   */
+  Throwable getFailure() {
+    synchronized (lock) {
+      return failure;
+    }
   }
 
   /**
-   * Return the ReflectionCode that is being, or was, run.
+   * Return the ReflectionCode that is being run, or null if this is idle.
    *
-   * @return the ReflectionCode that is being, or was, run
+   * @return the ReflectionCode that is being run, or null
    */
   public ReflectionCode getCode() {
-    return code;
+    synchronized (lock) {
+      return code;
+    }
   }
 }
@@ -10,6 +10,8 @@ import java.util.List;
  *   <li>{@link SimpleArrayList}: a typical list is stored as an array list.
  *   <li>{@link ListOfLists}: a list that only stores pointers to its constituent sub-lists.
  *   <li>{@link OneMoreElementList}: stores a SimpleList plus one additional final element.
+ *   <li>{@link PersistentVector}: an immutable list; appending creates a new list that shares
+ *       storage with the original.
  * </ul>
  *
  * <p>IMPLEMENTATION NOTE
@@ -22,13 +24,15 @@ import java.util.List;
  *
  * <p>To improve memory and time efficiency, we now do concatenation differently.
  *
- * <p>When concatenating N Sequences to create a new sequence, we store the concatenated sequence
- * statements in a ListofLists, which takes space (and creation time) proportional to N, not to the
- * length of the new sequence.
+ * <p>The statements of a sequence are stored in a {@link PersistentVector}. When extending a
+ * Sequence with a new statement, the new vector shares all of the old sequence's storage except a
+ * tail of at most 32 elements. When concatenating sequences, the new vector shares the first
+ * sequence's storage. Previously, sequences used {@code OneMoreElementList} and {@code ListOfLists}
+ * for this, which are cheaper to create, but accessing a statement then took time proportional to
+ * the number of times the sequence had been extended and concatenated.
  *
- * <p>When extending a Sequence with a new statement, we store the old sequence's statements plus
- * the new statement in a {@code OneMoreElementList}, which takes up only 2 references in memory
- * (and constant creation time).
+ * <p>Lists of candidate sequences use {@code ListOfLists}, which takes space (and creation time)
+ * proportional to the number of constituent lists, not to the total number of elements.
  */
 public interface SimpleList<E> {
 
@@ -58,8 +62,8 @@ public interface SimpleList<E> {
    * Return a sublist of this list that contains the index. Does not necessarily contain the first
    * element.
    *
-   * <p>The result is always an existing SimpleList, the smallest one that contains the index.
-   * Currently, it is always a {@link SimpleArrayList}.
+   * <p>For lists composed of other lists, the result is an existing SimpleList, the smallest one
+   * that contains the index.
    *
    * @param index the index into this list
    * @return the sublist containing this index
@@ -0,0 +1,102 @@
+package randoop;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import randoop.types.ArrayType;
+import randoop.types.GenericClassType;
+import randoop.types.JavaTypes;
+import randoop.types.NonParameterizedType;
+import randoop.types.Type;
+
+public class SubTypeSetTest {
+
+  /** Types that exercise subclassing, interfaces, generics, boxing, widening, and arrays. */
+  private static final List<Type> TYPES =
+      Arrays.asList(
+          JavaTypes.OBJECT_TYPE,
+          JavaTypes.STRING_TYPE,
+          NonParameterizedType.forClass(Integer.class),
+          NonParameterizedType.forClass(Number.class),
+          NonParameterizedType.forClass(Long.class),
+          JavaTypes.INT_TYPE,
+          JavaTypes.SHORT_TYPE,
+          JavaTypes.DOUBLE_TYPE,
+          JavaTypes.BOOLEAN_TYPE,
+          JavaTypes.SERIALIZABLE_TYPE,
+          JavaTypes.CLONEABLE_TYPE,
+          NonParameterizedType.forClass(Collection.class),
+          NonParameterizedType.forClass(ArrayList.class),
+          GenericClassType.forClass(ArrayList.class).instantiate(JavaTypes.STRING_TYPE),
+          GenericClassType.forClass(List.class).instantiate(JavaTypes.STRING_TYPE),
+          ArrayType.ofComponentType(JavaTypes.INT_TYPE),
+          ArrayType.ofComponentType(JavaTypes.STRING_TYPE),
+          ArrayType.ofComponentType(JavaTypes.OBJECT_TYPE),
+          JavaTypes.NULL_TYPE);
+
+  /** The matches for a query, computed by testing every member in order. */
+  private static Set<Type> expectedMatches(List<Type> members, Type query) {
+    Set<Type> result = new LinkedHashSet<>();
+    for (Type member : members) {
+      if (query.isAssignableFrom(member)) {
+        result.add(member);
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testMatchesBeforeAndAfterAdd() {
+    SubTypeSet set = new SubTypeSet(false);
+    List<Type> members = new ArrayList<>();
+    for (Type type : TYPES) {
+      // Query every type before and after each addition.
+      for (Type query : TYPES) {
+        assertEquals(
+            "query " + query,
+            new ArrayList<>(expectedMatches(members, query)),
+            new ArrayList<>(set.getMatches(query)));
+      }
+      set.add(type);
+      members.add(type);
+    }
+    for (Type query : TYPES) {
+      assertEquals(
+          "query " + query,
+          new ArrayList<>(expectedMatches(members, query)),
+          new ArrayList<>(set.getMatches(query)));
+    }
+    assertEquals(TYPES.size(), set.size());
+  }
+
+  @Test
+  public void testUndo() {
+    SubTypeSet set = new SubTypeSet(true);
+    List<Type> half = TYPES.subList(0, TYPES.size() / 2);
+    for (Type type : half) {
+      set.add(type);
+    }
+    set.mark();
+    for (Type query : TYPES) {
+      set.getMatches(query);
+    }
+    for (Type type : TYPES) {
+      set.add(type);
+    }
+    set.undoLastStep();
+
+    assertEquals(half.size(), set.size());
+    for (Type query : TYPES) {
+      assertEquals(
+          "query " + query,
+          new ArrayList<>(expectedMatches(half, query)),
+          new ArrayList<>(set.getMatches(query)));
+    }
+  }
+}
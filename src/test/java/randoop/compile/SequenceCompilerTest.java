@@ -6,6 +6,8 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Modifier;
@@ -27,6 +29,8 @@ import java.io.PrintStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import javax.tools.Diagnostic;
@@ -73,6 +77,18 @@ public class SequenceCompilerTest {
     }
   }
 
+  @Test
+  public void compilesInMemoryTest() throws SequenceCompilerException {
+    SequenceCompiler compiler = getSequenceCompiler();
+    String simpleClass = createCompilableClass();
+    assertTrue(compiler.isCompilable(null, "Simple", simpleClass));
+    Class<?> first = compiler.compileAndLoad(null, "Simple", simpleClass);
+    Class<?> second = compiler.compileAndLoad(null, "Simple", simpleClass);
+    // Each class is defined by its own loader, and no class file is written.
+    assertFalse(first == second);
+    assertFalse(Files.exists(Paths.get("Simple.class")));
+  }
+
   private String createCompilableClass() {
     CompilationUnit compilationUnit = new CompilationUnit();
     ClassOrInterfaceDeclaration classDeclaration =
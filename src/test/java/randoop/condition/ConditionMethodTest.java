@@ -1,12 +1,21 @@
 package randoop.condition;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
 import org.junit.Rule;
 import org.junit.Test;
 import randoop.compile.SequenceCompiler;
+import randoop.condition.ExecutableBooleanExpression.ExpressionSource;
 import randoop.main.GenInputsAbstract;
 import randoop.reflection.RawSignature;
 
@@ -108,6 +117,50 @@ public class ConditionMethodTest {
     }
   }
 
+  @Test
+  public void testCreateMethodsWithCache() throws Exception {
+    RawSignature signature =
+        new RawSignature(null, "BatchCondition", "test", new Class<?>[] {String.class});
+    List<ExpressionSource> sources =
+        Arrays.asList(
+            new ExpressionSource(signature, "(String s)", "s.isEmpty()"),
+            new ExpressionSource(signature, "(String s)", "s.length() > 2"));
+
+    Path oldCache = GenInputsAbstract.condition_class_cache;
+    Path cache = Files.createTempDirectory("condition-class-cache");
+    GenInputsAbstract.condition_class_cache = cache;
+    try {
+      List<Method> compiled = ExecutableBooleanExpression.createMethods(sources, getCompiler());
+      assertEquals(1, countFiles(cache));
+      List<Method> cached = ExecutableBooleanExpression.createMethods(sources, getCompiler());
+      assertEquals(1, countFiles(cache));
+
+      for (List<Method> methods : Arrays.asList(compiled, cached)) {
+        assertEquals(2, methods.size());
+        assertTrue((boolean) methods.get(0).invoke(null, ""));
+        assertFalse((boolean) methods.get(1).invoke(null, ""));
+        assertTrue((boolean) methods.get(1).invoke(null, "dummy"));
+      }
+      assertEquals(
+          compiled.get(0).getDeclaringClass().getName(),
+          cached.get(0).getDeclaringClass().getName());
+
+      List<ExpressionSource> withError =
+          Arrays.asList(
+              new ExpressionSource(signature, "(String s)", "s.isEmpty()"),
+              new ExpressionSource(signature, "(String s)", "s.length()"));
+      assertNull(ExecutableBooleanExpression.createMethods(withError, getCompiler()));
+    } finally {
+      GenInputsAbstract.condition_class_cache = oldCache;
+    }
+  }
+
+  private static long countFiles(Path dir) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.count();
+    }
+  }
+
   private ExecutableBooleanExpression createCondition(
       RawSignature signature, String declarations, String conditionText, String comment) {
     Method method =
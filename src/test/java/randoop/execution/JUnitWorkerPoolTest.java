@@ -0,0 +1,250 @@
+package randoop.execution;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.plumelib.util.FilesPlume;
+import randoop.compile.FileCompiler;
+import randoop.output.FailingAssertionCommentWriter;
+import randoop.output.JavaFileWriter;
+import randoop.output.RandoopOutputException;
+
+public class JUnitWorkerPoolTest {
+
+  /**
+   * Incremented by the test class {@code CountingTest}. Each run of that class in a worker loads
+   * this class anew, so each run sees the value 0.
+   */
+  public static int counter = 0;
+
+  /** The directory that contains the compiled test classes. */
+  private static Path classDirectory;
+
+  @BeforeClass
+  public static void compileTestClasses() throws IOException, FileCompiler.FileCompilerException {
+    classDirectory = Files.createTempDirectory("JUnitWorkerPoolTest");
+    List<File> sourceFiles = new ArrayList<>();
+    sourceFiles.add(
+        writeTestClass(
+            "PassFailTest",
+            "  @Test",
+            "  public void testPass() {",
+            "    Assert.assertEquals(1, 1);",
+            "  }",
+            "  @Test",
+            "  public void testFail() {",
+            "    Assert.assertEquals(\"expected\", 1, 2);", // line 11
+            "  }"));
+    sourceFiles.add(
+        writeTestClass(
+            "ExitTest",
+            "  @Test",
+            "  public void testExit() {",
+            "    System.exit(0);",
+            "  }"));
+    sourceFiles.add(
+        writeTestClass(
+            "HangTest",
+            "  @Test",
+            "  public void testHang() throws InterruptedException {",
+            "    Thread.sleep(Long.MAX_VALUE);",
+            "  }"));
+    sourceFiles.add(
+        writeTestClass(
+            "CountingTest",
+            "  @Test",
+            "  public void testCount() {",
+            "    Assert.assertEquals(1, ++randoop.execution.JUnitWorkerPoolTest.counter);",
+            "  }"));
+    new FileCompiler().compile(sourceFiles, classDirectory);
+  }
+
+  @AfterClass
+  public static void deleteTestClasses() {
+    FilesPlume.deleteDir(classDirectory.toFile());
+  }
+
+  @Test
+  public void testPassingAndFailingMethods() throws TimeoutException {
+    JUnitWorkerPool pool = newPool();
+    try {
+      List<JUnitWorkerPool.TestFailure> failures =
+          pool.run("workertest.PassFailTest", classDirectory, 60000);
+      assertNotNull(failures);
+      assertEquals(1, failures.size());
+      JUnitWorkerPool.TestFailure failure = failures.get(0);
+      assertEquals("testFail", failure.methodName);
+      assertEquals(11, failure.lineNumber);
+      assertEquals("testFail(workertest.PassFailTest)", failure.testHeader);
+      assertTrue(failure.exception, failure.exception.startsWith("java.lang.AssertionError"));
+      assertTrue(
+          failure.stackTrace.toString(),
+          failure.stackTrace.contains("workertest.PassFailTest.testFail"));
+
+      failures = pool.run("workertest.PassFailTest", "testPass", classDirectory, 60000);
+      assertNotNull(failures);
+      assertTrue(failures.toString(), failures.isEmpty());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testFreshClassLoaderForEachRun() throws TimeoutException {
+    JUnitWorkerPool pool = newPool();
+    try {
+      for (int i = 0; i < 2; i++) {
+        List<JUnitWorkerPool.TestFailure> failures =
+            pool.run("workertest.CountingTest", classDirectory, 60000);
+        assertEquals(Arrays.asList(), failures);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testRestartAfterExit() throws TimeoutException {
+    JUnitWorkerPool pool = newPool();
+    try {
+      assertNull(pool.run("workertest.ExitTest", classDirectory, 60000));
+      List<JUnitWorkerPool.TestFailure> failures =
+          pool.run("workertest.PassFailTest", "testPass", classDirectory, 60000);
+      assertEquals(Arrays.asList(), failures);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testRestartAfterTimeout() throws TimeoutException {
+    JUnitWorkerPool pool = newPool();
+    try {
+      // Start the worker, so that the timeout below applies only to the test.
+      pool.run("workertest.PassFailTest", "testPass", classDirectory, 60000);
+      try {
+        pool.run("workertest.HangTest", classDirectory, 1000);
+        fail("HangTest did not time out");
+      } catch (TimeoutException e) {
+        // expected
+      }
+      List<JUnitWorkerPool.TestFailure> failures =
+          pool.run("workertest.PassFailTest", "testPass", classDirectory, 60000);
+      assertEquals(Arrays.asList(), failures);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testUnloadableClass() throws TimeoutException {
+    JUnitWorkerPool pool = newPool();
+    try {
+      assertNull(pool.run("workertest.NoSuchTest", classDirectory, 60000));
+      List<JUnitWorkerPool.TestFailure> failures =
+          pool.run("workertest.PassFailTest", "testPass", classDirectory, 60000);
+      assertEquals(Arrays.asList(), failures);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * A test class that terminates the worker is run again in a new JVM by {@link
+   * FailingAssertionCommentWriter}.
+   */
+  @Test
+  public void testFallbackToNewJVM() throws IOException, RandoopOutputException {
+    Path outputDirectory = Files.createTempDirectory("JUnitWorkerPoolTestOutput");
+    TestEnvironment environment = new TestEnvironment(absoluteClassPath());
+    try {
+      FailingAssertionCommentWriter writer =
+          new FailingAssertionCommentWriter(
+              environment, new JavaFileWriter(outputDirectory.toString()));
+      String source = new String(Files.readAllBytes(sourceFile("ExitTest")), UTF_8);
+      Path written = writer.writeClassCode("workertest", "ExitTest", source);
+      assertEquals(source.trim(), new String(Files.readAllBytes(written), UTF_8).trim());
+      assertTrue(writer.getFlakyTestNames().isEmpty());
+    } finally {
+      environment.shutdownWorkers();
+      FilesPlume.deleteDir(outputDirectory.toFile());
+    }
+  }
+
+  /**
+   * Returns a pool of one worker, with the class path of this JVM.
+   *
+   * @return a pool of one worker
+   */
+  private static JUnitWorkerPool newPool() {
+    return new JUnitWorkerPool(
+        1,
+        Arrays.asList(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-classpath",
+            absoluteClassPath(),
+            JUnitWorker.class.getName()));
+  }
+
+  /**
+   * Returns the class path of this JVM, with absolute paths, because workers run in a temporary
+   * directory.
+   *
+   * @return the class path of this JVM, with absolute paths
+   */
+  private static String absoluteClassPath() {
+    List<String> entries = new ArrayList<>();
+    for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      entries.add(Paths.get(entry).toAbsolutePath().toString());
+    }
+    return String.join(File.pathSeparator, entries);
+  }
+
+  /**
+   * Returns the source file of a test class in package {@code workertest}.
+   *
+   * @param className the simple name of the test class
+   * @return the source file of the test class
+   */
+  private static Path sourceFile(String className) {
+    return classDirectory.resolve("workertest").resolve(className + ".java");
+  }
+
+  /**
+   * Writes the source of a test class in package {@code workertest}.
+   *
+   * @param className the simple name of the test class
+   * @param body the lines of the body of the test class
+   * @return the source file
+   * @throws IOException if the file cannot be written
+   */
+  private static File writeTestClass(String className, String... body) throws IOException {
+    List<String> lines = new ArrayList<>();
+    lines.add("package workertest;");
+    lines.add("import org.junit.Assert;");
+    lines.add("import org.junit.Test;");
+    lines.add("public class " + className + " {");
+    lines.addAll(Arrays.asList(body));
+    lines.add("}");
+    Path file = sourceFile(className);
+    Files.createDirectories(file.getParent());
+    Files.write(file, lines, UTF_8);
+    return file.toFile();
+  }
+}
@@ -0,0 +1,280 @@
+package randoop.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.ExceptionalExecution;
+import randoop.NormalExecution;
+import randoop.NotExecuted;
+import randoop.main.GenInputsAbstract;
+import randoop.main.GenTests;
+import randoop.operation.TypedOperation;
+import randoop.reflection.AccessibilityPredicate;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceExceptionError;
+import randoop.sequence.Value;
+import randoop.test.ContractSet;
+import randoop.test.DummyCheckGenerator;
+import randoop.test.TestCheckGenerator;
+import randoop.util.MultiMap;
+
+public class SequenceWorkerPoolTest {
+
+  /**
+   * The command-line arguments for the workers. The JDK specifications are read from Randoop's jar,
+   * which the unit tests do not use.
+   */
+  private static final List<String> ARGS =
+      Arrays.asList("--testclass=" + Target.class.getName(), "--use-jdk-specifications=false");
+
+  /** The methods that the sequences call. */
+  public static class Target {
+    public static int square(int x) {
+      return x * x;
+    }
+
+    public static int fail(int x) {
+      throw new IllegalStateException("fail " + x);
+    }
+
+    public static int exit(int status) {
+      System.exit(status);
+      return status;
+    }
+
+    public static int sleep(int millis) throws InterruptedException {
+      Thread.sleep(millis);
+      return millis;
+    }
+
+    public static int[] array(int length) {
+      return new int[length];
+    }
+  }
+
+  /**
+   * Returns a sequence that creates the given int and passes it to the given method of {@link
+   * Target}.
+   *
+   * @param methodName the name of a method of {@link Target}
+   * @param argument the argument to the method
+   * @return a sequence of two statements
+   */
+  private static Sequence call(String methodName, int argument) {
+    TypedOperation operation;
+    try {
+      operation = TypedOperation.forMethod(Target.class.getMethod(methodName, int.class));
+    } catch (NoSuchMethodException e) {
+      throw new AssertionError(e);
+    }
+    Sequence sequence = Sequence.createSequenceForPrimitive(argument);
+    return sequence.extend(operation, Collections.singletonList(sequence.getLastVariable()));
+  }
+
+  /**
+   * Returns the run-time value of a statement that completed normally.
+   *
+   * @param outcome the outcome of executing a sequence in a worker
+   * @param i the index of the statement
+   * @return the run-time value reported by the worker
+   */
+  private static Object value(SequenceWorkerPool.Outcome outcome, int i) {
+    assertTrue(outcome.toString(), outcome.executed());
+    return ((NormalExecution) outcome.getStatementOutcomes().get(i)).getRuntimeValue();
+  }
+
+  @Test
+  public void testStatementOutcomes() {
+    SequenceWorkerPool pool = new SequenceWorkerPool(1, 60000, ARGS);
+    try {
+      SequenceWorkerPool.Outcome outcome = pool.execute(call("square", 3));
+      assertFalse(outcome.toString(), outcome.terminated());
+      assertEquals(3, value(outcome, 0));
+      assertEquals(9, value(outcome, 1));
+
+      outcome = pool.execute(call("fail", 3));
+      assertFalse(outcome.toString(), outcome.terminated());
+      assertEquals(3, value(outcome, 0));
+      ExceptionalExecution result = (ExceptionalExecution) outcome.getStatementOutcomes().get(1);
+      SequenceWorkerPool.RemoteException exception =
+          (SequenceWorkerPool.RemoteException) result.getException();
+      assertEquals("java.lang.IllegalStateException", exception.getClassName());
+      assertEquals("java.lang.IllegalStateException: fail 3", exception.getMessage());
+
+      assertTrue(pool.statistics(), pool.statistics().contains("2 sequences"));
+      assertTrue(pool.statistics(), pool.statistics().contains("1 workers started"));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** A value other than a primitive or String value is not sent, but its size is. */
+  @Test
+  public void testRemoteValues() {
+    SequenceWorkerPool pool = new SequenceWorkerPool(1, 60000, ARGS);
+    try {
+      Object array = value(pool.execute(call("array", 3)), 1);
+      assertTrue(String.valueOf(array), array instanceof SequenceWorkerPool.RemoteValue);
+      assertTrue(Value.valueSizeOk(array));
+
+      array = value(pool.execute(call("array", GenInputsAbstract.string_maxlen + 1)), 1);
+      assertFalse(Value.valueSizeOk(array));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** The worker creates the same checks as executing the sequence in this JVM. */
+  @Test
+  public void testChecksMatchLocalExecution() {
+    TestCheckGenerator gen =
+        GenTests.createTestCheckGenerator(
+            AccessibilityPredicate.IS_PUBLIC,
+            new ContractSet(),
+            new MultiMap<>(),
+            OmitMethodsPredicate.NO_OMISSION);
+    SequenceWorkerPool pool = new SequenceWorkerPool(1, 60000, ARGS);
+    try {
+      for (Sequence sequence : Arrays.asList(call("square", 3), call("fail", 3))) {
+        ExecutableSequence local = new ExecutableSequence(sequence);
+        local.execute(new DummyVisitor(), gen);
+        ExecutableSequence remote = new ExecutableSequence(sequence);
+        remote.execute(new DummyVisitor(), new DummyCheckGenerator(), pool);
+
+        assertTrue(remote.getChecks().hasChecks());
+        assertEquals(local.toCodeString(), remote.toCodeString());
+        assertEquals(local.getChecks().getClass(), remote.getChecks().getClass());
+        assertEquals(local.isNormalExecution(), remote.isNormalExecution());
+        assertTrue(remote.exectime > 0);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** A flaky test reported by the worker's check generator is reported in this JVM. */
+  @Test
+  public void testFlakyTest() throws NoSuchMethodException {
+    Sequence sequence = call("fail", 3);
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(Target.class.getMethod("square", int.class)),
+            Collections.singletonList(sequence.getLastVariable()));
+    List<String> args = new ArrayList<>(ARGS);
+    args.add("--flaky-test-behavior=HALT");
+    SequenceWorkerPool pool = new SequenceWorkerPool(1, 60000, args);
+    try {
+      ExecutableSequence eseq = new ExecutableSequence(sequence);
+      try {
+        eseq.execute(new DummyVisitor(), new DummyCheckGenerator(), pool);
+        fail("expected SequenceExceptionError");
+      } catch (SequenceExceptionError e) {
+        assertEquals(1, e.getPosition());
+        assertTrue(eseq.getResult(2) instanceof NotExecuted);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testRestartAfterExit() {
+    SequenceWorkerPool pool = new SequenceWorkerPool(1, 60000, ARGS);
+    try {
+      SequenceWorkerPool.Outcome outcome = pool.execute(call("exit", 3));
+      assertTrue(outcome.toString(), outcome.terminated());
+      assertEquals(1, outcome.getTerminationIndex());
+      assertTrue(
+          outcome.toString(),
+          outcome.getTermination() instanceof SequenceWorkerPool.WorkerTerminatedException);
+      assertTrue(outcome.toString(), outcome.getTermination().getMessage().contains("status 3"));
+
+      outcome = pool.execute(call("square", 3));
+      assertEquals(9, value(outcome, 1));
+      assertTrue(pool.statistics(), pool.statistics().contains("1 terminated a worker"));
+      assertTrue(pool.statistics(), pool.statistics().contains("2 workers started"));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** The timeout applies to a statement, not to starting the worker. */
+  @Test
+  public void testRestartAfterTimeout() {
+    SequenceWorkerPool pool = new SequenceWorkerPool(1, 1000, ARGS);
+    try {
+      SequenceWorkerPool.Outcome outcome = pool.execute(call("sleep", 60000));
+      assertTrue(outcome.toString(), outcome.terminated());
+      assertEquals(1, outcome.getTerminationIndex());
+      assertTrue(outcome.toString(), outcome.getTermination() instanceof TimeoutException);
+
+      outcome = pool.execute(call("sleep", 1));
+      assertEquals(1, value(outcome, 1));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testTerminatedSequenceIsNotExecutedLocally() {
+    SequenceWorkerPool pool = new SequenceWorkerPool(1, 60000, ARGS);
+    try {
+      // If this sequence were executed in this JVM, it would exit.
+      ExecutableSequence eseq = new ExecutableSequence(call("exit", 3));
+      eseq.execute(new DummyVisitor(), new DummyCheckGenerator(), pool);
+      assertTrue(eseq.getResult(0) instanceof NotExecuted);
+      ExceptionalExecution result = (ExceptionalExecution) eseq.getResult(1);
+      assertTrue(
+          result.toString(),
+          result.getException() instanceof SequenceWorkerPool.WorkerTerminatedException);
+      assertTrue(eseq.hasInvalidBehavior());
+
+      eseq = new ExecutableSequence(call("square", 3));
+      eseq.execute(new DummyVisitor(), new DummyCheckGenerator(), pool);
+      assertEquals(9, ((NormalExecution) eseq.getResult(1)).getRuntimeValue());
+      assertFalse(eseq.hasInvalidBehavior());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** Two threads execute sequences in two workers at once. */
+  @Test
+  public void testConcurrentWorkers() throws InterruptedException {
+    SequenceWorkerPool pool = new SequenceWorkerPool(2, 60000, ARGS);
+    try {
+      Thread slow = new Thread(() -> pool.execute(call("sleep", 10000)));
+      slow.start();
+      Thread.sleep(100);
+      SequenceWorkerPool.Outcome outcome = pool.execute(call("square", 3));
+      assertEquals(9, value(outcome, 1));
+      assertTrue("the slow sequence finished first", slow.isAlive());
+      slow.join();
+      assertTrue(pool.statistics(), pool.statistics().contains("2 workers started"));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testWorkerCommand() {
+    List<String> args = Arrays.asList("--testclass=java.util.ArrayList", "--no-regression-tests");
+    List<String> command = SequenceWorkerPool.workerCommand(args);
+    int main = command.indexOf(SequenceWorker.class.getName());
+    assertTrue(command.toString(), main > 0);
+    assertEquals(args, command.subList(main + 1, command.size()));
+    int classpath = command.indexOf("-classpath");
+    assertEquals(System.getProperty("java.class.path"), command.get(classpath + 1));
+  }
+}
@@ -0,0 +1,124 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import randoop.main.GenInputsAbstract;
+import randoop.main.GenInputsAbstract.BloodhoundCoverageUpdateMode;
+import randoop.operation.TypedOperation;
+import randoop.util.Randomness;
+
+/** Tests for {@link Bloodhound}, with coverage information that the test supplies. */
+public class BloodhoundTest {
+
+  /** The methods under test. */
+  public static class Target {
+    public static void covered() {}
+
+    public static void uncovered() {}
+  }
+
+  /** A coverage tracker that reports fixed uncovered branch ratios. */
+  private static class FixedCoverageTracker extends CoverageTracker {
+
+    /** Map from method name to uncovered branch ratio. */
+    private final Map<String, Double> uncoveredRatios = new HashMap<>();
+
+    FixedCoverageTracker() {
+      super(Collections.emptySet());
+    }
+
+    @Override
+    public void updateBranchCoverageMap() {}
+
+    @Override
+    public Double getBranchCoverageForMethod(String methodName) {
+      return uncoveredRatios.get(methodName);
+    }
+  }
+
+  private BloodhoundCoverageUpdateMode savedUpdateMode;
+
+  private TypedOperation covered;
+
+  private TypedOperation uncovered;
+
+  private FixedCoverageTracker coverageTracker;
+
+  @Before
+  public void setUp() throws NoSuchMethodException {
+    savedUpdateMode = GenInputsAbstract.bloodhound_update_mode;
+    Randomness.setSeed(0);
+    covered = TypedOperation.forMethod(Target.class.getMethod("covered"));
+    uncovered = TypedOperation.forMethod(Target.class.getMethod("uncovered"));
+    coverageTracker = new FixedCoverageTracker();
+  }
+
+  @After
+  public void tearDown() {
+    GenInputsAbstract.bloodhound_update_mode = savedUpdateMode;
+  }
+
+  /**
+   * Records the uncovered branch ratio of an operation, under the name that Bloodhound looks up.
+   *
+   * @param operation the operation
+   * @param ratio the uncovered branch ratio
+   */
+  private void setUncoveredRatio(TypedOperation operation, double ratio) {
+    coverageTracker.uncoveredRatios.put(operation.getName().replaceAll("<.*>\\.", "."), ratio);
+  }
+
+  /**
+   * A method with uncovered branches is selected more often than one whose branches are covered.
+   */
+  @Test
+  public void testSelectionFollowsCoverage() {
+    GenInputsAbstract.bloodhound_update_mode = BloodhoundCoverageUpdateMode.TIME;
+    setUncoveredRatio(covered, 0.0);
+    setUncoveredRatio(uncovered, 1.0);
+    Bloodhound bloodhound = new Bloodhound(Arrays.asList(covered, uncovered), coverageTracker);
+
+    int uncoveredCount = 0;
+    for (int i = 0; i < 1000; i++) {
+      TypedOperation selected = bloodhound.selectOperation();
+      assertTrue(selected.toString(), selected.equals(covered) || selected.equals(uncovered));
+      if (selected.equals(uncovered)) {
+        uncoveredCount++;
+      }
+    }
+    // The initial weights are 0.1 and 1.0; selection lowers both by a similar factor.
+    assertTrue("uncovered selected " + uncoveredCount + " times", uncoveredCount > 800);
+  }
+
+  /**
+   * After a coverage update, a method whose branches are all covered and that has been invoked
+   * successfully the most often has weight zero, so it is never selected. Duplicate operations get
+   * a single weight.
+   */
+  @Test
+  public void testZeroWeightIsNeverSelected() {
+    GenInputsAbstract.bloodhound_update_mode = BloodhoundCoverageUpdateMode.INVOCATIONS;
+    setUncoveredRatio(covered, 0.0);
+    setUncoveredRatio(uncovered, 0.5);
+    List<TypedOperation> operations = Arrays.asList(covered, uncovered, covered);
+    Bloodhound bloodhound = new Bloodhound(operations, coverageTracker);
+
+    // The constructor's update leaves the count of successful invocations at 1; the 100th
+    // triggers the next update, when selectOperation is called.
+    for (int i = 0; i < 99; i++) {
+      bloodhound.incrementSuccessfulInvocationCount(covered);
+    }
+    for (int i = 0; i < 200; i++) {
+      assertEquals(uncovered, bloodhound.selectOperation());
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import randoop.main.GenInputsAbstract;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.Check;
+import randoop.test.ErrorRevealingChecks;
+import randoop.test.RegressionChecks;
+import randoop.test.TestCheckGenerator;
+import randoop.test.TestChecks;
+import randoop.util.predicate.AlwaysTrue;
+
+/** Tests for {@link AbstractGenerator#setTestSinks}. */
+public class TestSinksTest {
+
+  private boolean savedStopOnErrorTest;
+
+  private boolean savedProgressdisplay;
+
+  @Before
+  public void setUp() {
+    savedStopOnErrorTest = GenInputsAbstract.stop_on_error_test;
+    savedProgressdisplay = GenInputsAbstract.progressdisplay;
+    GenInputsAbstract.stop_on_error_test = false;
+    GenInputsAbstract.progressdisplay = false;
+  }
+
+  @After
+  public void tearDown() {
+    GenInputsAbstract.stop_on_error_test = savedStopOnErrorTest;
+    GenInputsAbstract.progressdisplay = savedProgressdisplay;
+  }
+
+  /** Sunk tests are not retained, and they count toward the output limit. */
+  @Test
+  public void testSinksReceiveTests() {
+    FixedGenerator generator = new FixedGenerator(new int[] {1, -2, 3, 4, -5, 6}, 4);
+    List<ExecutableSequence> errorTests = new ArrayList<>();
+    List<ExecutableSequence> regressionTests = new ArrayList<>();
+    generator.setTestSinks(errorTests::add, regressionTests::add);
+    generator.createAndClassifySequences();
+
+    assertEquals(4, generator.num_steps);
+    assertEquals("[-2]", values(errorTests));
+    assertEquals("[1, 3, 4]", values(regressionTests));
+    assertTrue(generator.getErrorTestSequences().isEmpty());
+    assertTrue(generator.getRegressionSequences().isEmpty());
+    assertEquals(4, generator.outputSequenceCount());
+  }
+
+  /** With {@code --stop-on-error-test}, generation stops after a sunk error-revealing test. */
+  @Test
+  public void testStopOnSunkErrorTest() {
+    GenInputsAbstract.stop_on_error_test = true;
+    FixedGenerator generator = new FixedGenerator(new int[] {1, -2, 3, 4}, 100);
+    List<ExecutableSequence> errorTests = new ArrayList<>();
+    List<ExecutableSequence> regressionTests = new ArrayList<>();
+    generator.setTestSinks(errorTests::add, regressionTests::add);
+    generator.createAndClassifySequences();
+
+    assertEquals(2, generator.num_steps);
+    assertEquals("[-2]", values(errorTests));
+    assertEquals("[1]", values(regressionTests));
+  }
+
+  /** A sink may be given for one kind of test only. */
+  @Test
+  public void testErrorSinkOnly() {
+    FixedGenerator generator = new FixedGenerator(new int[] {1, -2, 3}, 100);
+    List<ExecutableSequence> errorTests = new ArrayList<>();
+    generator.setTestSinks(errorTests::add, null);
+    generator.createAndClassifySequences();
+
+    assertEquals("[-2]", values(errorTests));
+    assertTrue(generator.getErrorTestSequences().isEmpty());
+    assertEquals("[1, 3]", values(generator.outRegressionSeqs));
+    assertEquals(3, generator.outputSequenceCount());
+  }
+
+  /**
+   * Returns the int values created by the given tests.
+   *
+   * @param tests tests created by {@link FixedGenerator}
+   * @return the values, in order
+   */
+  private static String values(List<ExecutableSequence> tests) {
+    List<Object> result = new ArrayList<>();
+    for (ExecutableSequence test : tests) {
+      result.add(test.sequence.getStatement(0).getValue());
+    }
+    return result.toString();
+  }
+
+  /**
+   * A generator that creates a test per int in a fixed list. A test that creates a negative int is
+   * error-revealing; the others are regression tests.
+   */
+  private static class FixedGenerator extends AbstractGenerator {
+
+    /** The values to create, in order. */
+    private final int[] values;
+
+    /** The sequences that have been generated. */
+    private final Set<Sequence> allSequences = new LinkedHashSet<>();
+
+    /**
+     * Creates a generator.
+     *
+     * @param values the values to create, in order
+     * @param outputLimit the maximum number of tests to output
+     */
+    FixedGenerator(int[] values, int outputLimit) {
+      super(
+          Collections.emptyList(),
+          new GenInputsAbstract.Limits(0, values.length, values.length, outputLimit),
+          null,
+          null);
+      this.values = values;
+      setTestPredicate(new AlwaysTrue<>());
+      setTestCheckGenerator(new NegativeIsErrorCheckGenerator());
+    }
+
+    @Override
+    public ExecutableSequence step() {
+      Sequence sequence = Sequence.createSequenceForPrimitive(values[allSequences.size()]);
+      allSequences.add(sequence);
+      ExecutableSequence eSeq = new ExecutableSequence(sequence);
+      eSeq.execute(executionVisitor, checkGenerator);
+      return eSeq;
+    }
+
+    @Override
+    public int numGeneratedSequences() {
+      return allSequences.size();
+    }
+
+    @Override
+    public Set<Sequence> getAllSequences() {
+      return allSequences;
+    }
+
+    @Override
+    public void newRegressionTestHook(Sequence sequence) {}
+  }
+
+  /** Reports a failure for a sequence that creates a negative int. */
+  private static class NegativeIsErrorCheckGenerator extends TestCheckGenerator {
+
+    @Override
+    public TestChecks<?> generateTestChecks(ExecutableSequence eseq) {
+      if ((int) eseq.sequence.getStatement(0).getValue() >= 0) {
+        return RegressionChecks.EMPTY;
+      }
+      return new ErrorRevealingChecks(
+          new Check() {
+            @Override
+            public String toCodeStringPreStatement() {
+              return "";
+            }
+
+            @Override
+            public String toCodeStringPostStatement() {
+              return "";
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package randoop.instrument;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+/** Tests that {@link CoveredClassRegistry} attributes covered classes to the right thread. */
+public class CoveredClassRegistryTest {
+
+  /**
+   * Runs code in a new thread, and waits for it to finish.
+   *
+   * @param code the code to run
+   * @throws Throwable if the code throws
+   */
+  private static void runInThread(Runnable code) throws Throwable {
+    AtomicReference<Throwable> thrown = new AtomicReference<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                code.run();
+              } catch (Throwable t) {
+                thrown.set(t);
+              }
+            });
+    thread.start();
+    thread.join();
+    if (thrown.get() != null) {
+      throw thrown.get();
+    }
+  }
+
+  /** Classes used by one tracked thread are not reported to another. */
+  @Test
+  public void testTrackedThreadsAreSeparate() throws Throwable {
+    int first = CoveredClassRegistry.register("CoveredClassRegistryTest.First");
+    int second = CoveredClassRegistry.register("CoveredClassRegistryTest.Second");
+    CoveredClassRegistry.markCovered(first);
+    CoveredClassRegistry.markCovered(second);
+
+    runInThread(
+        () -> {
+          CoveredClassRegistry.trackCurrentThread();
+          assertFalse(CoveredClassRegistry.isCovered(first));
+          CoveredClassRegistry.markCovered(first);
+          BitSet covered = CoveredClassRegistry.takeCovered();
+          assertTrue(covered.get(first));
+          assertFalse(covered.get(second));
+          assertFalse(CoveredClassRegistry.isCovered(first));
+        });
+
+    // The shared bits are unaffected by the tracked thread.
+    BitSet covered = CoveredClassRegistry.takeCovered();
+    assertTrue(covered.get(first));
+    assertTrue(covered.get(second));
+  }
+
+  /** A thread created by a tracked thread, such as a runner thread, uses its creator's bits. */
+  @Test
+  public void testCreatedThreadsShareBits() throws Throwable {
+    int id = CoveredClassRegistry.register("CoveredClassRegistryTest.Runner");
+    CoveredClassRegistry.takeCovered();
+
+    runInThread(
+        () -> {
+          CoveredClassRegistry.trackCurrentThread();
+          try {
+            runInThread(() -> CoveredClassRegistry.markCovered(id));
+          } catch (Throwable t) {
+            throw new AssertionError(t);
+          }
+          assertTrue(CoveredClassRegistry.takeCovered().get(id));
+        });
+
+    assertFalse(CoveredClassRegistry.takeCovered().get(id));
+  }
+}
@@ -0,0 +1,310 @@
+package randoop.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.generation.OperationHistoryLogInterface;
+import randoop.generation.OperationOutcome;
+import randoop.operation.TypedOperation;
+import randoop.output.CodeWriter;
+import randoop.output.JUnitCreator;
+import randoop.output.RandoopOutputException;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.DummyCheckGenerator;
+
+public class StreamingTestWriterTest {
+
+  private int savedTestsperfile;
+
+  private boolean savedJunitReflectionAllowed;
+
+  private String savedJunitPackageName;
+
+  private boolean savedProgressdisplay;
+
+  @Before
+  public void setUp() {
+    savedTestsperfile = GenInputsAbstract.testsperfile;
+    savedJunitReflectionAllowed = GenInputsAbstract.junit_reflection_allowed;
+    savedJunitPackageName = GenInputsAbstract.junit_package_name;
+    savedProgressdisplay = GenInputsAbstract.progressdisplay;
+    GenInputsAbstract.testsperfile = 2;
+    GenInputsAbstract.junit_package_name = "pkg";
+    GenInputsAbstract.progressdisplay = false;
+  }
+
+  @After
+  public void tearDown() {
+    GenInputsAbstract.testsperfile = savedTestsperfile;
+    GenInputsAbstract.junit_reflection_allowed = savedJunitReflectionAllowed;
+    GenInputsAbstract.junit_package_name = savedJunitPackageName;
+    GenInputsAbstract.progressdisplay = savedProgressdisplay;
+  }
+
+  @Test
+  public void testPartitionsAndSuite() throws RandoopOutputException {
+    GenInputsAbstract.junit_reflection_allowed = true;
+    RecordingCodeWriter codeWriter = new RecordingCodeWriter();
+    StreamingTestWriter writer = newWriter(codeWriter, 12, null, null, 1);
+    for (ExecutableSequence test : createTests(5)) {
+      writer.add(test);
+    }
+    // The first two classes are written as soon as they are full.
+    assertEquals(Arrays.asList("Test0", "Test1"), new ArrayList<>(codeWriter.classes.keySet()));
+    writer.finish();
+
+    assertEquals(
+        Arrays.asList("Test0", "Test1", "Test2", "Test"),
+        new ArrayList<>(codeWriter.classes.keySet()));
+    assertTestMethods(codeWriter.classes.get("Test0"), "test01", "test02");
+    assertTestMethods(codeWriter.classes.get("Test1"), "test03", "test04");
+    assertTestMethods(codeWriter.classes.get("Test2"), "test05");
+    String suite = codeWriter.classes.get("Test");
+    assertTrue(suite, suite.contains("@RunWith(Suite.class)"));
+    assertTrue(suite, suite.contains("Test0.class, Test1.class, Test2.class"));
+    assertEquals(5, writer.getWrittenTestCount());
+    assertTrue(writer.getFlakyTests().isEmpty());
+  }
+
+  @Test
+  public void testDriver() throws RandoopOutputException {
+    GenInputsAbstract.junit_reflection_allowed = false;
+    RecordingCodeWriter codeWriter = new RecordingCodeWriter();
+    StreamingTestWriter writer = newWriter(codeWriter, 12, null, null, 1);
+    for (ExecutableSequence test : createTests(3)) {
+      writer.add(test);
+    }
+    writer.finish();
+
+    assertEquals(
+        Arrays.asList("Test0", "Test1", "TestDriver"),
+        new ArrayList<>(codeWriter.classes.keySet()));
+    String driver = codeWriter.classes.get("TestDriver");
+    assertTrue(driver, driver.contains("public static void main(String... args)"));
+    for (String call : Arrays.asList("t0.test01()", "t0.test02()", "t1.test03()")) {
+      assertTrue(call + " in " + driver, driver.contains(call));
+    }
+  }
+
+  @Test
+  public void testNoTests() throws RandoopOutputException {
+    RecordingCodeWriter codeWriter = new RecordingCodeWriter();
+    StreamingTestWriter writer = newWriter(codeWriter, 12, null, null, 1);
+    writer.finish();
+    assertTrue(codeWriter.classes.isEmpty());
+    assertEquals(0, writer.getWrittenTestCount());
+  }
+
+  @Test
+  public void testFlakyTestsWithConcurrentWrites() throws RandoopOutputException {
+    GenInputsAbstract.junit_reflection_allowed = true;
+    RecordingCodeWriter codeWriter = new RecordingCodeWriter("test02", "test05");
+    StreamingTestWriter writer = newWriter(codeWriter, 12, null, codeWriter::getFlakyTestNames, 2);
+    List<ExecutableSequence> tests = createTests(5);
+    for (ExecutableSequence test : tests) {
+      writer.add(test);
+    }
+    writer.finish();
+
+    assertEquals(
+        Arrays.asList("Test", "Test0", "Test1", "Test2"),
+        new ArrayList<>(new TreeSet<>(codeWriter.classes.keySet())));
+    assertEquals(5, writer.getWrittenTestCount());
+    List<ExecutableSequence> flakyTests = writer.getFlakyTests();
+    assertEquals(2, flakyTests.size());
+    assertSame(tests.get(1), flakyTests.get(0));
+    assertSame(tests.get(4), flakyTests.get(1));
+  }
+
+  /** If the number of tests is not known, method names are padded a class at a time. */
+  @Test
+  public void testPaddingWithUnknownNumberOfTests() throws RandoopOutputException {
+    GenInputsAbstract.junit_reflection_allowed = false;
+    GenInputsAbstract.testsperfile = 4;
+    RecordingCodeWriter codeWriter = new RecordingCodeWriter();
+    StreamingTestWriter writer = newWriter(codeWriter, 0, null, null, 1);
+    for (ExecutableSequence test : createTests(10)) {
+      writer.add(test);
+    }
+    writer.finish();
+
+    assertTestMethods(codeWriter.classes.get("Test0"), "test1", "test2", "test3", "test4");
+    assertTestMethods(codeWriter.classes.get("Test1"), "test5", "test6", "test7", "test8");
+    assertTestMethods(codeWriter.classes.get("Test2"), "test09", "test10");
+    String driver = codeWriter.classes.get("TestDriver");
+    for (String call : Arrays.asList("t0.test1()", "t1.test8()", "t2.test09()", "t2.test10()")) {
+      assertTrue(call + " in " + driver, driver.contains(call));
+    }
+  }
+
+  /**
+   * A test is dropped if its sequence is a component of a test that is added before its class is
+   * written, but not if the class has already been written.
+   */
+  @Test
+  public void testSubsumedTestsAreDropped() throws RandoopOutputException {
+    GenInputsAbstract.junit_reflection_allowed = true;
+    GenInputsAbstract.testsperfile = 3;
+    RecordingCodeWriter codeWriter = new RecordingCodeWriter();
+    RecordingHistory history = new RecordingHistory();
+    StreamingTestWriter writer = newWriter(codeWriter, 0, history, null, 1);
+    List<ExecutableSequence> tests = createTests(5);
+    // Test 1 subsumes test 0, which has not been written. Test 4 subsumes test 2, which has.
+    tests.get(1).componentSequences = Collections.singletonList(tests.get(0).sequence);
+    tests.get(4).componentSequences = Collections.singletonList(tests.get(2).sequence);
+    for (ExecutableSequence test : tests) {
+      writer.add(test);
+    }
+    writer.finish();
+
+    assertTestMethods(codeWriter.classes.get("Test0"), "test1", "test2");
+    assertTestMethods(codeWriter.classes.get("Test1"), "test3", "test4");
+    assertEquals(4, writer.getWrittenTestCount());
+    assertEquals(
+        Arrays.asList(
+            OperationOutcome.SUBSUMED,
+            OperationOutcome.REGRESSION_SEQUENCE,
+            OperationOutcome.REGRESSION_SEQUENCE,
+            OperationOutcome.REGRESSION_SEQUENCE,
+            OperationOutcome.REGRESSION_SEQUENCE),
+        history.outcomes);
+    // The component sequences are not retained.
+    assertTrue(tests.get(1).componentSequences.isEmpty());
+  }
+
+  /**
+   * Creates a writer of classes named "Test0", "Test1", ....
+   *
+   * @param codeWriter the code writer
+   * @param numTests the number of tests, or 0 if not known
+   * @param subsumptionHistory if non-null, filter subsumed tests and record their outcomes here
+   * @param flakyTestNames returns the names of the flaky tests, or null
+   * @param writeThreads the number of classes to write at once
+   * @return a writer
+   */
+  private static StreamingTestWriter newWriter(
+      CodeWriter codeWriter,
+      int numTests,
+      @Nullable OperationHistoryLogInterface subsumptionHistory,
+      @Nullable Supplier<Set<String>> flakyTestNames,
+      int writeThreads) {
+    return new StreamingTestWriter(
+        JUnitCreator.getTestCreator("pkg", null, null, null, null),
+        codeWriter,
+        "Test",
+        "Regression",
+        numTests,
+        subsumptionHistory,
+        flakyTestNames,
+        writeThreads);
+  }
+
+  /**
+   * Returns executed tests that each create a different int.
+   *
+   * @param count the number of tests
+   * @return the tests
+   */
+  private static List<ExecutableSequence> createTests(int count) {
+    List<ExecutableSequence> tests = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ExecutableSequence test = new ExecutableSequence(Sequence.createSequenceForPrimitive(i));
+      test.execute(new DummyVisitor(), new DummyCheckGenerator());
+      tests.add(test);
+    }
+    return tests;
+  }
+
+  /**
+   * Checks that a test class has exactly the given test methods, in order.
+   *
+   * @param classCode the source of the class
+   * @param names the names of the test methods
+   */
+  private static void assertTestMethods(String classCode, String... names) {
+    List<String> found = new ArrayList<>();
+    for (String line : classCode.split("\n")) {
+      String trimmed = line.trim();
+      if (trimmed.startsWith("public void test")) {
+        found.add(trimmed.substring("public void ".length(), trimmed.indexOf('(')));
+      }
+    }
+    assertEquals(Arrays.asList(names), found);
+  }
+
+  /** Records the outcomes of the tests. */
+  private static class RecordingHistory implements OperationHistoryLogInterface {
+
+    /** The outcomes, in the order they were recorded. */
+    final List<OperationOutcome> outcomes = new ArrayList<>();
+
+    @Override
+    public void add(TypedOperation operation, OperationOutcome outcome) {
+      outcomes.add(outcome);
+    }
+
+    @Override
+    public void outputTable() {}
+  }
+
+  /**
+   * Records the classes instead of writing them. A test is flaky if its name is one of the given
+   * names and it has been written.
+   */
+  private static class RecordingCodeWriter implements CodeWriter {
+
+    /** The source of each class that was written, in the order they were written. */
+    final Map<String, String> classes = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /** The names of the tests that are flaky once they are written. */
+    private final List<String> flakyNames;
+
+    /** The names of the flaky tests that have been written. */
+    private final Set<String> writtenFlakyNames = Collections.synchronizedSet(new TreeSet<>());
+
+    RecordingCodeWriter(String... flakyNames) {
+      this.flakyNames = Arrays.asList(flakyNames);
+    }
+
+    Set<String> getFlakyTestNames() {
+      synchronized (writtenFlakyNames) {
+        return new TreeSet<>(writtenFlakyNames);
+      }
+    }
+
+    @Override
+    public Path writeClassCode(String packageName, String classname, String classCode) {
+      for (String name : flakyNames) {
+        if (classCode.contains("void " + name + "()")) {
+          writtenFlakyNames.add(name);
+        }
+      }
+      return writeUnmodifiedClassCode(packageName, classname, classCode);
+    }
+
+    @Override
+    public Path writeUnmodifiedClassCode(String packageName, String classname, String classCode) {
+      assertEquals("pkg", packageName);
+      classes.put(classname, classCode);
+      return Paths.get(classname + ".java");
+    }
+  }
+}
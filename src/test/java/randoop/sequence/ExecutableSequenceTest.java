@@ -0,0 +1,55 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.NormalExecution;
+import randoop.NotExecuted;
+import randoop.operation.TypedOperation;
+import randoop.test.DummyCheckGenerator;
+import randoop.test.TestChecks;
+
+public class ExecutableSequenceTest {
+
+  /**
+   * Discarding the execution results drops the run-time values, but keeps what is needed to output
+   * the sequence as a test.
+   */
+  @Test
+  public void testDiscardExecutionResults() throws NoSuchMethodException {
+    Sequence sequence =
+        new Sequence()
+            .extend(
+                TypedOperation.forConstructor(ArrayList.class.getConstructor()),
+                Collections.emptyList());
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(ArrayList.class.getMethod("size")),
+            Collections.singletonList(sequence.getLastVariable()));
+    ExecutableSequence eSeq = new ExecutableSequence(sequence);
+    eSeq.execute(new DummyVisitor(), new DummyCheckGenerator());
+
+    assertTrue(eSeq.isNormalExecution());
+    Object list = ((NormalExecution) eSeq.getResult(0)).getRuntimeValue();
+    assertEquals(1, eSeq.getAllValues().size());
+    assertNotNull(eSeq.getVariables(list));
+    TestChecks<?> checks = eSeq.getChecks();
+    String code = eSeq.toCodeString();
+
+    eSeq.discardExecutionResults();
+
+    for (int i = 0; i < sequence.size(); i++) {
+      assertTrue(eSeq.getResult(i).toString(), eSeq.getResult(i) instanceof NotExecuted);
+    }
+    assertNull(eSeq.getVariables(list));
+    assertSame(checks, eSeq.getChecks());
+    assertEquals(code, eSeq.toCodeString());
+  }
+}
@@ -0,0 +1,62 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import randoop.main.GenInputsAbstract.PoolEvictionPolicy;
+import randoop.types.JavaTypes;
+import randoop.util.SimpleList;
+
+/** Tests for {@link SequenceCollection#evict}. */
+public class SequenceCollectionEvictionTest {
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    List<Sequence> sequences = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      sequences.add(Sequence.createSequenceForPrimitive(i));
+    }
+    SequenceCollection collection = new SequenceCollection(sequences, true);
+    for (int i = 0; i < 3; i++) {
+      collection.recordUse(sequences.get(i));
+    }
+
+    Set<Sequence> removed =
+        collection.evict(5, PoolEvictionPolicy.LEAST_RECENTLY_USED, sequences.subList(9, 10));
+
+    assertEquals(5, collection.size());
+    assertEquals(5, removed.size());
+    SimpleList<Sequence> remaining =
+        collection.getSequencesForType(JavaTypes.INT_TYPE, true, false);
+    for (int i : new int[] {0, 1, 2, 9}) {
+      assertTrue(remaining.toJDKList().contains(sequences.get(i)));
+    }
+  }
+
+  @Test
+  public void testEvictKeepsLastSequenceOfType() {
+    Sequence intSequence = Sequence.createSequenceForPrimitive(1);
+    Sequence stringSequence = Sequence.createSequenceForPrimitive("hello");
+    List<Sequence> sequences = new ArrayList<>();
+    sequences.add(intSequence);
+    sequences.add(stringSequence);
+    SequenceCollection collection = new SequenceCollection(sequences, true);
+
+    Set<Sequence> removed =
+        collection.evict(0, PoolEvictionPolicy.LONGEST, Collections.<Sequence>emptySet());
+
+    assertTrue(removed.isEmpty());
+    assertEquals(2, collection.size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNotEvictable() {
+    new SequenceCollection(Collections.<Sequence>emptyList())
+        .evict(0, PoolEvictionPolicy.LEAST_USED, Collections.<Sequence>emptySet());
+  }
+}
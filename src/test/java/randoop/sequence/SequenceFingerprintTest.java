@@ -0,0 +1,42 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+/** Tests for {@link Sequence#fingerprint}. */
+public class SequenceFingerprintTest {
+
+  @Test
+  public void testConcatenationOrderMatters() {
+    Sequence a = Sequence.createSequenceForPrimitive(1);
+    Sequence b = Sequence.createSequenceForPrimitive("hello");
+
+    Sequence ab = Sequence.concatenate(Arrays.asList(a, b));
+    Sequence ba = Sequence.concatenate(Arrays.asList(b, a));
+
+    assertNotEquals(ab, ba);
+    assertNotEquals(ab.fingerprint(), ba.fingerprint());
+  }
+
+  @Test
+  public void testIncrementalMatchesFromScratch() {
+    Sequence a = Sequence.createSequenceForPrimitive(1);
+    Sequence b = Sequence.createSequenceForPrimitive(2);
+    Sequence c = Sequence.createSequenceForPrimitive("hello");
+
+    Sequence ab = Sequence.concatenate(Arrays.asList(a, b));
+    Sequence abc = Sequence.concatenate(Arrays.asList(ab, c));
+    Sequence fromScratch = new Sequence(abc.statements);
+
+    assertEquals(fromScratch.fingerprint(), abc.fingerprint());
+    assertEquals(fromScratch, abc);
+    assertEquals(fromScratch.hashCode(), abc.hashCode());
+    assertEquals(
+        Sequence.concatenate(Arrays.asList(a, Sequence.concatenate(Arrays.asList(b, c))))
+            .fingerprint(),
+        abc.fingerprint());
+  }
+}
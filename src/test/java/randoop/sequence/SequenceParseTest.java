@@ -0,0 +1,28 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import randoop.Globals;
+import randoop.operation.TypedOperation;
+
+/** Tests that {@link Sequence#parse} reads what {@link Sequence#toParsableString} writes. */
+public class SequenceParseTest {
+
+  @Test
+  public void testParseParsableString() throws NoSuchMethodException, SequenceParseException {
+    TypedOperation abs = TypedOperation.forMethod(Math.class.getMethod("abs", int.class));
+    TypedOperation valueOf =
+        TypedOperation.forMethod(String.class.getMethod("valueOf", int.class));
+    Sequence sequence = Sequence.createSequenceForPrimitive(-1);
+    sequence = sequence.extend(abs, Collections.singletonList(sequence.getLastVariable()));
+    sequence = sequence.extend(valueOf, Collections.singletonList(sequence.getLastVariable()));
+
+    String parsable = sequence.toParsableString();
+    Sequence parsed = Sequence.parse(Arrays.asList(parsable.split(Globals.lineSep)));
+    assertEquals(sequence, parsed);
+    assertEquals(parsable, parsed.toParsableString());
+  }
+}
@@ -0,0 +1,80 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import randoop.operation.TypedOperation;
+import randoop.types.JavaTypes;
+
+/** Tests for {@link Sequence#getSubsequence}, which relies on {@link Statement#originOffset}. */
+public class SequenceSubsequenceTest {
+
+  /**
+   * Returns the sequences formed by repeatedly extending a sequence: each one is the previous one
+   * plus a statement that uses the previous one's last variable.
+   *
+   * @param length the number of sequences, and the number of statements in the last one
+   * @return the sequences, shortest first
+   */
+  private static List<Sequence> chain(int length) throws NoSuchMethodException {
+    TypedOperation abs = TypedOperation.forMethod(Math.class.getMethod("abs", int.class));
+    List<Sequence> result = new ArrayList<>();
+    Sequence sequence = Sequence.createSequenceForPrimitive(-1);
+    result.add(sequence);
+    for (int i = 1; i < length; i++) {
+      sequence = sequence.extend(abs, Collections.singletonList(sequence.getLastVariable()));
+      result.add(sequence);
+    }
+    return result;
+  }
+
+  @Test
+  public void testSubsequenceOfExtendedSequence() throws NoSuchMethodException {
+    List<Sequence> prefixes = chain(50);
+    Sequence sequence = prefixes.get(prefixes.size() - 1);
+    for (int i = 0; i < sequence.size(); i++) {
+      assertEquals(prefixes.get(i), sequence.getSubsequence(i));
+    }
+  }
+
+  /**
+   * Concatenation moves whole sequences, so the subsequence of a statement is the sequence that it
+   * was appended to, wherever the statement ends up. The chains are longer than a leaf of the
+   * statement vector, so that concatenation shares their storage rather than copying them.
+   */
+  @Test
+  public void testSubsequenceOfConcatenatedSequence() throws NoSuchMethodException {
+    List<Sequence> first = chain(3);
+    List<Sequence> second = chain(70);
+    List<Sequence> third = chain(40);
+    List<List<Sequence>> parts = Arrays.asList(first, second, third, second);
+    List<Sequence> lasts = new ArrayList<>();
+    for (List<Sequence> part : parts) {
+      lasts.add(part.get(part.size() - 1));
+    }
+    Sequence concatenated = Sequence.concatenate(lasts);
+    Sequence extended =
+        concatenated.extend(
+            TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "hello"),
+            Collections.emptyList());
+
+    int offset = 0;
+    for (List<Sequence> part : parts) {
+      for (int j = 0; j < part.size(); j++) {
+        assertEquals(part.get(j), extended.getSubsequence(offset + j));
+      }
+      offset += part.size();
+    }
+    assertEquals(extended, extended.getSubsequence(offset));
+
+    // The subsequences of a concatenation of concatenations are the same.
+    Sequence inner = Sequence.concatenate(Arrays.asList(lasts.get(1), extended));
+    Sequence nested = Sequence.concatenate(Arrays.asList(concatenated, inner));
+    assertEquals(second.get(5), nested.getSubsequence(concatenated.size() + 5));
+    assertEquals(extended, nested.getSubsequence(nested.size() - 1));
+  }
+}
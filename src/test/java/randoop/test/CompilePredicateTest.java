@@ -1,6 +1,7 @@
 package randoop.test;
 
 import static org.apache.commons.codec.CharEncoding.UTF_8;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -10,8 +11,14 @@ import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
 import java.io.ByteArrayInputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
+import randoop.main.GenTests;
+import randoop.operation.TypedOperation;
 import randoop.output.JUnitCreator;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
 
 /** Test for compilation predicate. */
 public class CompilePredicateTest {
@@ -182,4 +189,34 @@ public class CompilePredicateTest {
     assertTrue(
         pred.testSource("CompilablePredicateTestClass", parseCU.getResult().get(), "foo.bar"));
   }
+
+  @Test
+  public void filterCompilableTest() throws Exception {
+    ExecutableSequence object = newInstance(Object.class);
+    ExecutableSequence inaccessible1 = newInstance(PrivateConstructor.class);
+    ExecutableSequence string = newInstance(String.class);
+    ExecutableSequence inaccessible2 = newInstance(PrivateConstructor.class);
+    JUnitCreator jUnitCreator = JUnitCreator.getTestCreator(null, null, null, null, null);
+    try (CompilableTestPredicate pred = new CompilableTestPredicate(jUnitCreator, new GenTests())) {
+      List<ExecutableSequence> compilable =
+          pred.filterCompilable(Arrays.asList(object, inaccessible1, string, inaccessible2));
+      assertEquals(Arrays.asList(object, string), compilable);
+      assertEquals(
+          Arrays.asList(object), pred.filterCompilable(Arrays.asList(inaccessible1, object)));
+    }
+  }
+
+  /**
+   * A class whose constructor a test cannot call. Unlike a JDK class such as {@code Void}, its
+   * constructor can be made accessible to Randoop under the Java module system.
+   */
+  public static class PrivateConstructor {
+    private PrivateConstructor() {}
+  }
+
+  /** Returns a sequence that calls the no-argument constructor of the given class. */
+  private static ExecutableSequence newInstance(Class<?> c) throws NoSuchMethodException {
+    TypedOperation constructor = TypedOperation.forConstructor(c.getDeclaredConstructor());
+    return new ExecutableSequence(new Sequence().extend(constructor));
+  }
 }
@@ -1,20 +1,28 @@
 package randoop.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static randoop.main.GenInputsAbstract.require_classname_in_test;
 import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import randoop.ExecutionVisitor;
 import randoop.generation.ComponentManager;
 import randoop.generation.ForwardGenerator;
+import randoop.generation.ParallelForwardGenerator;
 import randoop.generation.SeedSequences;
 import randoop.generation.TestUtils;
 import randoop.main.GenInputsAbstract;
@@ -119,6 +127,149 @@ public class ForwardExplorerTests {
     assertTrue(random);
   }
 
+  @Test
+  public void testParallelWorkers() {
+    randoop.util.Randomness.setSeed(0);
+    ReflectionExecutor.resetStatistics();
+
+    List<Class<?>> classes = new ArrayList<>();
+    classes.add(randoop.test.BiSortVal.class);
+    classes.add(BiSort.class);
+    long oldProgressintervalsteps = GenInputsAbstract.progressintervalsteps;
+    GenInputsAbstract.progressintervalsteps = 100;
+    ComponentManager mgr = new ComponentManager(SeedSequences.defaultSeeds());
+    final List<TypedOperation> model = getConcreteOperations(classes);
+    assertFalse(model.isEmpty());
+    ParallelForwardGenerator explorer =
+        new ParallelForwardGenerator(
+            model,
+            new LinkedHashSet<TypedOperation>(),
+            new GenInputsAbstract.Limits(0, 200, 200, 200),
+            mgr,
+            null,
+            null,
+            4);
+    explorer.setTestCheckGenerator(createChecker(new ContractSet()));
+    explorer.setTestPredicate(createOutputTest());
+    explorer.createAndClassifySequences();
+    GenInputsAbstract.progressintervalsteps = oldProgressintervalsteps;
+
+    assertTrue(explorer.num_steps <= 200);
+    assertFalse(explorer.getAllSequences().isEmpty());
+    // The workers share one set of sequences, so no sequence is output twice.
+    Set<Sequence> outputSequences = new LinkedHashSet<>();
+    for (ExecutableSequence es : explorer.getRegressionSequences()) {
+      assertTrue(outputSequences.add(es.sequence));
+    }
+  }
+
+  /**
+   * Runs a parallel generator on {@link randoop.test.BiSortVal}.
+   *
+   * @param setup is called on the generator before it runs
+   * @return the generator, after it has run
+   */
+  private static ParallelForwardGenerator runParallelWorkers(
+      Consumer<ParallelForwardGenerator> setup) {
+    List<Class<?>> classes = new ArrayList<>();
+    classes.add(randoop.test.BiSortVal.class);
+    ComponentManager mgr = new ComponentManager(SeedSequences.defaultSeeds());
+    ParallelForwardGenerator explorer =
+        new ParallelForwardGenerator(
+            getConcreteOperations(classes),
+            new LinkedHashSet<TypedOperation>(),
+            new GenInputsAbstract.Limits(0, 200, 200, 200),
+            mgr,
+            null,
+            null,
+            3);
+    explorer.setTestCheckGenerator(createChecker(new ContractSet()));
+    explorer.setTestPredicate(createOutputTest());
+    setup.accept(explorer);
+    explorer.createAndClassifySequences();
+    return explorer;
+  }
+
+  /**
+   * Returns the code of the given sequences.
+   *
+   * @param sequences the sequences
+   * @return the code of each sequence, in order
+   */
+  private static List<String> toCodeStrings(Collection<Sequence> sequences) {
+    List<String> result = new ArrayList<>();
+    for (Sequence sequence : sequences) {
+      result.add(sequence.toCodeString());
+    }
+    return result;
+  }
+
+  /** With the same seed, the workers generate the same sequences, however they are scheduled. */
+  @Test
+  public void testParallelWorkersAreDeterministic() {
+    ParallelForwardGenerator first = runParallelWorkers(explorer -> {});
+    ParallelForwardGenerator second = runParallelWorkers(explorer -> {});
+    assertEquals(toCodeStrings(first.getAllSequences()), toCodeStrings(second.getAllSequences()));
+    List<Sequence> firstRegressions = new ArrayList<>();
+    for (ExecutableSequence es : first.getRegressionSequences()) {
+      firstRegressions.add(es.sequence);
+    }
+    List<Sequence> secondRegressions = new ArrayList<>();
+    for (ExecutableSequence es : second.getRegressionSequences()) {
+      secondRegressions.add(es.sequence);
+    }
+    assertEquals(toCodeStrings(firstRegressions), toCodeStrings(secondRegressions));
+  }
+
+  /** A visitor that records the threads that execute the sequences it visits. */
+  private static class ThreadRecordingVisitor implements ExecutionVisitor {
+    /** The threads that called {@link #initialize}. */
+    final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void initialize(ExecutableSequence eseq) {
+      threads.add(Thread.currentThread());
+    }
+
+    @Override
+    public void visitBeforeStatement(ExecutableSequence eseq, int i) {}
+
+    @Override
+    public void visitAfterStatement(ExecutableSequence eseq, int i) {}
+
+    @Override
+    public void visitAfterSequence(ExecutableSequence eseq) {}
+  }
+
+  /** Each worker gets its own check generator and visitor, which only that worker uses. */
+  @Test
+  public void testParallelWorkersHaveTheirOwnVisitors() {
+    List<ThreadRecordingVisitor> visitors = new CopyOnWriteArrayList<>();
+    AtomicInteger checkGenerators = new AtomicInteger();
+    runParallelWorkers(
+        explorer -> {
+          explorer.setWorkerTestCheckGenerators(
+              () -> {
+                checkGenerators.incrementAndGet();
+                return createChecker(new ContractSet());
+              });
+          explorer.setWorkerExecutionVisitors(
+              () -> {
+                ThreadRecordingVisitor visitor = new ThreadRecordingVisitor();
+                visitors.add(visitor);
+                return visitor;
+              });
+        });
+    assertEquals(3, checkGenerators.get());
+    assertEquals(3, visitors.size());
+    Set<Thread> allThreads = new LinkedHashSet<>();
+    for (ThreadRecordingVisitor visitor : visitors) {
+      assertEquals(visitor.threads.toString(), 1, visitor.threads.size());
+      allThreads.addAll(visitor.threads);
+    }
+    assertEquals(allThreads.toString(), 3, allThreads.size());
+  }
+
   @Test
   public void test4() throws Exception {
     randoop.util.Randomness.setSeed(0);
@@ -1,5 +1,6 @@
 package randoop.test;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -54,4 +55,41 @@ public class RandomnessTest extends TestCase {
       assertTrue(Math.abs(actualRatio - expectedRatio) < epsilon);
     }
   }
+
+  /**
+   * Checks that a thread seed makes the thread's choices independent of the choices made on other
+   * threads, and that the shared generator is used again after the seed is cleared.
+   */
+  public void testThreadSeed() throws InterruptedException {
+    int[] expected = new int[20];
+    Randomness.setThreadSeed(42);
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = Randomness.nextRandomInt(1000);
+    }
+    Randomness.clearThreadSeed();
+
+    int[] actual = new int[expected.length];
+    Thread other =
+        new Thread(
+            () -> {
+              for (int i = 0; i < 1000; i++) {
+                Randomness.nextRandomInt(1000);
+              }
+            });
+    Randomness.setThreadSeed(42);
+    other.start();
+    for (int i = 0; i < actual.length; i++) {
+      actual[i] = Randomness.nextRandomInt(1000);
+    }
+    other.join();
+    Randomness.clearThreadSeed();
+    assertTrue(Arrays.equals(expected, actual));
+
+    Randomness.setSeed(0);
+    int shared = Randomness.nextRandomInt(1000);
+    Randomness.setSeed(0);
+    Randomness.setThreadSeed(1);
+    Randomness.clearThreadSeed();
+    assertEquals(shared, Randomness.nextRandomInt(1000));
+  }
 }
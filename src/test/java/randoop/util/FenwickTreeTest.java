@@ -0,0 +1,62 @@
+package randoop.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+/** Tests for {@link FenwickTree}. */
+public class FenwickTreeTest {
+
+  @Test
+  public void testPrefixSumsMatchNaive() {
+    Random r = new Random(0);
+    FenwickTree tree = new FenwickTree(1);
+    double[] weights = new double[100];
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = r.nextInt(10);
+      tree.add(weights[i]);
+    }
+    for (int k = 0; k < 200; k++) {
+      int i = r.nextInt(weights.length);
+      weights[i] = r.nextInt(10);
+      tree.set(i, weights[i]);
+    }
+    double sum = 0;
+    for (int i = 0; i < weights.length; i++) {
+      assertEquals(sum, tree.prefixSum(i), 0.0);
+      sum += weights[i];
+    }
+    assertEquals(sum, tree.total(), 0.0);
+  }
+
+  @Test
+  public void testFind() {
+    FenwickTree tree = new FenwickTree();
+    tree.add(1.0);
+    tree.add(0.0);
+    tree.add(2.0);
+    tree.add(0.5);
+    assertEquals(0, tree.find(0.0));
+    assertEquals(0, tree.find(0.99));
+    assertEquals(2, tree.find(1.0));
+    assertEquals(2, tree.find(2.99));
+    assertEquals(3, tree.find(3.0));
+    assertEquals(3, tree.find(3.49));
+    // A point past the end selects the last element with positive weight.
+    tree.add(0.0);
+    assertEquals(3, tree.find(3.5));
+  }
+
+  @Test
+  public void testRebuild() {
+    FenwickTree tree = new FenwickTree();
+    for (int i = 0; i < 10; i++) {
+      tree.add(i);
+    }
+    tree.set(4, 0.25);
+    tree.rebuild();
+    assertEquals(45 - 4 + 0.25, tree.total(), 0.0);
+    assertEquals(0 + 1 + 2 + 3 + 0.25, tree.prefixSum(5), 0.0);
+  }
+}
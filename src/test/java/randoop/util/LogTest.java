@@ -0,0 +1,100 @@
+package randoop.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.plumelib.util.FileWriterWithName;
+import randoop.main.GenInputsAbstract;
+
+public class LogTest {
+
+  private FileWriterWithName savedLog;
+
+  private Path logFile;
+
+  @Before
+  public void setUp() throws IOException {
+    savedLog = GenInputsAbstract.log;
+    logFile = Files.createTempFile("LogTest", ".txt");
+    GenInputsAbstract.log = new FileWriterWithName(logFile.toString());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Log.flush();
+    GenInputsAbstract.log.close();
+    GenInputsAbstract.log = savedLog;
+    Files.delete(logFile);
+  }
+
+  @Test
+  public void testMessagesAreWrittenInOrder() throws IOException {
+    int count = 20000;
+    for (int i = 0; i < count; i++) {
+      Log.logPrintf("message %d%n", i);
+    }
+    Log.logPrintln("last");
+    Log.flush();
+
+    List<String> lines = Files.readAllLines(logFile, UTF_8);
+    assertEquals(count + 1, lines.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals("message " + i, lines.get(i));
+    }
+    assertEquals("last", lines.get(count));
+  }
+
+  @Test
+  public void testDirectWriteAfterFlush() throws IOException {
+    Log.logPrintln("logged");
+    Log.flush();
+    GenInputsAbstract.log.write("direct" + System.lineSeparator());
+    GenInputsAbstract.log.flush();
+    Log.logStackTrace(new Exception("for LogTest"));
+    Log.flush();
+
+    List<String> lines = Files.readAllLines(logFile, UTF_8);
+    assertEquals("logged", lines.get(0));
+    assertEquals("direct", lines.get(1));
+    assertEquals("java.lang.Exception: for LogTest", lines.get(2));
+    assertTrue(lines.get(3).contains("LogTest.testDirectWriteAfterFlush"));
+  }
+
+  /**
+   * Kills the writer thread with an unchecked exception. Logging must continue synchronously, and
+   * {@link Log#flush} must not wait forever. Afterward, the log is written synchronously for the
+   * rest of this JVM, which the other tests also accept.
+   */
+  @Test(timeout = 30000)
+  public void testWriterFailureFallsBackToSynchronousWrites() throws IOException {
+    GenInputsAbstract.log.close();
+    GenInputsAbstract.log =
+        new FileWriterWithName(logFile.toString()) {
+          @Override
+          public void write(String str) throws IOException {
+            if (str.startsWith("boom")) {
+              throw new IllegalStateException("for LogTest");
+            }
+            super.write(str);
+          }
+        };
+    Log.logPrintln("first");
+    Log.logPrintln("boom");
+    Log.logPrintln("after");
+    Log.flush();
+    Log.logPrintln("later");
+    Log.flush();
+
+    List<String> lines = Files.readAllLines(logFile, UTF_8);
+    assertEquals(Arrays.asList("first", "after", "later"), lines);
+  }
+}
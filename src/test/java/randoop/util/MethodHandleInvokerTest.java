@@ -0,0 +1,91 @@
+package randoop.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/** Tests for {@link MethodHandleInvoker}. */
+public class MethodHandleInvokerTest {
+
+  public static long sum(int i, long j) {
+    return i + j;
+  }
+
+  /** A class whose static initializer throws an exception. */
+  public static class FailingInitializer {
+    static final int VALUE = Integer.parseInt("not a number");
+
+    public static int value() {
+      return VALUE;
+    }
+  }
+
+  @Test
+  public void testStaticMethod() throws Throwable {
+    MethodHandleInvoker invoker =
+        MethodHandleInvoker.forMethod(
+            MethodHandleInvokerTest.class.getMethod("sum", int.class, long.class));
+    Object[] inputs = {1, 2L};
+    assertTrue(invoker.accepts(inputs));
+    assertEquals(3L, invoker.invoke(inputs));
+    // A widening conversion or a null primitive is left to reflection.
+    assertFalse(invoker.accepts(new Object[] {1, 2}));
+    assertFalse(invoker.accepts(new Object[] {null, 2L}));
+    assertFalse(invoker.accepts(new Object[] {1}));
+  }
+
+  @Test
+  public void testInstanceMethod() throws Throwable {
+    MethodHandleInvoker invoker =
+        MethodHandleInvoker.forMethod(ArrayList.class.getMethod("add", Object.class));
+    List<String> list = new ArrayList<>();
+    assertEquals(true, invoker.invoke(new Object[] {list, "x"}));
+    assertEquals(1, list.size());
+    assertFalse(invoker.accepts(new Object[] {"not a list", "x"}));
+
+    Object[] nullReceiver = {null, "x"};
+    assertTrue(invoker.accepts(nullReceiver));
+    try {
+      invoker.invoke(nullReceiver);
+      fail("expected NullPointerException");
+    } catch (NullPointerException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testConstructorAndVoidMethod() throws Throwable {
+    MethodHandleInvoker constructor =
+        MethodHandleInvoker.forConstructor(ArrayList.class.getConstructor());
+    Object list = constructor.invoke(new Object[0]);
+    assertTrue(list instanceof ArrayList);
+
+    MethodHandleInvoker clear = MethodHandleInvoker.forMethod(ArrayList.class.getMethod("clear"));
+    assertNull(clear.invoke(new Object[] {list}));
+  }
+
+  /**
+   * A failure in the static initializer of the declaring class, which is run by the first call
+   * through the handle, is the exception thrown by the call, not a bug in Randoop.
+   */
+  @Test
+  public void testExceptionInInitializer() throws Throwable {
+    MethodHandleInvoker invoker =
+        MethodHandleInvoker.forMethod(FailingInitializer.class.getMethod("value"));
+
+    MethodHandleReflectionCode first = new MethodHandleReflectionCode(invoker, new Object[0]);
+    first.runReflectionCode();
+    assertTrue(first.getExceptionThrown() instanceof ExceptionInInitializerError);
+    assertTrue(first.getExceptionThrown().getCause() instanceof NumberFormatException);
+
+    MethodHandleReflectionCode second = new MethodHandleReflectionCode(invoker, new Object[0]);
+    second.runReflectionCode();
+    assertTrue(second.getExceptionThrown() instanceof NoClassDefFoundError);
+  }
+}
@@ -0,0 +1,109 @@
+package randoop.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.NormalExecution;
+
+/** Tests for {@link ReflectionExecutor} with {@code --usethreads}. */
+public class ReflectionExecutorTest {
+
+  private boolean savedUsethreads;
+
+  private int savedCallTimeout;
+
+  @Before
+  public void setUp() {
+    savedUsethreads = ReflectionExecutor.usethreads;
+    savedCallTimeout = ReflectionExecutor.call_timeout;
+    ReflectionExecutor.usethreads = true;
+    ReflectionExecutor.call_timeout = 200;
+  }
+
+  @After
+  public void tearDown() {
+    ReflectionExecutor.usethreads = savedUsethreads;
+    ReflectionExecutor.call_timeout = savedCallTimeout;
+  }
+
+  /**
+   * Code that sleeps for the given time. Like the code under test, it records whatever is thrown,
+   * including the {@code ThreadDeath} that stops a runner, instead of letting it escape.
+   */
+  private static class SleepCode extends ReflectionCode {
+
+    /** How long to sleep, in milliseconds. */
+    private final long millis;
+
+    SleepCode(long millis) {
+      this.millis = millis;
+    }
+
+    @Override
+    @SuppressWarnings("removal") // ThreadDeath
+    protected void runReflectionCodeRaw() {
+      try {
+        Thread.sleep(millis);
+        retval = millis;
+      } catch (Throwable e) {
+        exceptionThrown = e;
+      }
+    }
+  }
+
+  @Test
+  public void testRunnerIsReused() {
+    List<RunnerThread> before = liveRunners();
+    for (int i = 0; i < 3; i++) {
+      ExecutionOutcome outcome = ReflectionExecutor.executeReflectionCode(new SleepCode(1));
+      assertTrue(outcome.toString(), outcome instanceof NormalExecution);
+    }
+    List<RunnerThread> runners = liveRunners();
+    runners.removeAll(before);
+    assertEquals(runners.toString(), 1, runners.size());
+  }
+
+  /** A runner whose call times out terminates once the call ends, while its owner lives on. */
+  @Test
+  public void testTimedOutRunnersTerminate() throws InterruptedException {
+    List<RunnerThread> before = liveRunners();
+    for (int i = 0; i < 3; i++) {
+      ExecutionOutcome outcome = ReflectionExecutor.executeReflectionCode(new SleepCode(60000));
+      assertTrue(outcome.toString(), outcome instanceof ExceptionalExecution);
+      assertTrue(
+          outcome.toString(),
+          ((ExceptionalExecution) outcome).getException() instanceof TimeoutException);
+    }
+
+    List<RunnerThread> leaked = liveRunners();
+    leaked.removeAll(before);
+    for (RunnerThread runner : leaked) {
+      runner.join(10000);
+    }
+    leaked.removeIf(runner -> !runner.isAlive());
+    assertEquals(leaked.toString(), 0, leaked.size());
+  }
+
+  /**
+   * Returns the runner threads that are alive.
+   *
+   * @return the runner threads that are alive
+   */
+  private static List<RunnerThread> liveRunners() {
+    List<RunnerThread> result = new ArrayList<>();
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread instanceof RunnerThread && thread.isAlive()) {
+        result.add((RunnerThread) thread);
+      }
+    }
+    return result;
+  }
+}
@@ -1,10 +1,12 @@
 package randoop.util;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
 import org.junit.Test;
@@ -112,4 +114,77 @@ public class SimpleListTest {
 
     assertTrue(sl.isEmpty());
   }
+
+  @Test
+  public void persistentVector() {
+    ArrayList<String> al = new ArrayList<>();
+    PersistentVector<String> pv = PersistentVector.empty();
+    List<PersistentVector<String>> snapshots = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      if (i % 3 == 0) {
+        SimpleArrayList<String> chunk = new SimpleArrayList<>();
+        for (int j = 0; j < i % 70; j++) {
+          chunk.add("str" + i + "." + j);
+        }
+        al.addAll(chunk);
+        pv = pv.addAll(chunk);
+      } else {
+        al.add("str" + i);
+        pv = pv.add("str" + i);
+      }
+      snapshots.add(pv);
+    }
+
+    assertEquals(al, pv.toJDKList());
+    for (int i = 0; i < pv.size(); i++) {
+      assertEquals(al.get(i), pv.get(i));
+    }
+    // Earlier versions are unchanged.
+    for (PersistentVector<String> snapshot : snapshots) {
+      assertEquals(al.subList(0, snapshot.size()), snapshot.toJDKList());
+    }
+    assertEquals(al.subList(0, 1001), pv.getSublist(1000).toJDKList());
+  }
+
+  @Test
+  public void persistentVectorConcat() {
+    Random random = new Random(20261015);
+    List<List<Integer>> expected = new ArrayList<>();
+    List<PersistentVector<Integer>> vectors = new ArrayList<>();
+    expected.add(new ArrayList<>());
+    vectors.add(PersistentVector.empty());
+    int next = 0;
+    for (int step = 0; step < 600; step++) {
+      int i = random.nextInt(vectors.size());
+      List<Integer> list = new ArrayList<>(expected.get(i));
+      PersistentVector<Integer> pv = vectors.get(i);
+      int choice = random.nextInt(4);
+      if (choice == 0) {
+        for (int count = random.nextInt(100); count > 0; count--) {
+          list.add(next);
+          pv = pv.add(next++);
+        }
+      } else if (choice == 1 && pv.size() > 0) {
+        int from = random.nextInt(pv.size());
+        int to = from + random.nextInt(pv.size() - from + 1);
+        list = new ArrayList<>(list.subList(from, to));
+        pv = pv.subVector(from, to);
+      } else {
+        int j = random.nextInt(vectors.size());
+        if (list.size() + expected.get(j).size() > 20000) {
+          continue;
+        }
+        list.addAll(expected.get(j));
+        pv = pv.concat(vectors.get(j));
+      }
+      expected.add(list);
+      vectors.add(pv);
+      assertEquals(list, pv.toJDKList());
+    }
+
+    // Earlier versions are unchanged.
+    for (int i = 0; i < vectors.size(); i++) {
+      assertEquals(expected.get(i), vectors.get(i).toJDKList());
+    }
+  }
 }